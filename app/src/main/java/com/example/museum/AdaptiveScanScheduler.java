@@ -0,0 +1,254 @@
+package com.example.museum;
+
+import android.Manifest;
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.hardware.Sensor;
+import android.hardware.SensorEvent;
+import android.hardware.SensorEventListener;
+import android.hardware.SensorManager;
+import android.os.BatteryManager;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import androidx.core.content.ContextCompat;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * AdaptiveScanScheduler runs beacon scans in windows chosen by ScanPolicy instead of a fixed
+ * interval. It watches the step detector (or the accelerometer when steps are unavailable),
+ * counts beacons entering and leaving between windows, and reads the battery level before
+ * each window. The caller starts and stops the actual scan through Callback. The scheduler
+ * keeps track of the time spent scanning so the effective duty cycle can be shown and
+ * compared against the old always-on loop. From Android 10 the step detector needs the
+ * ACTIVITY_RECOGNITION runtime permission, which callers request before start() (see
+ * needsActivityRecognition); the sensor is chosen on every start() so a grant takes effect
+ * on the next run. All methods must be called on the main thread.
+ */
+public class AdaptiveScanScheduler implements SensorEventListener {
+
+    // Acceleration beyond gravity (m/s^2) that counts as the visitor moving
+    private static final float MOTION_THRESHOLD = 1.5f;
+
+    // Weight of a new sample in the accelerometer gravity estimate
+    private static final float GRAVITY_ALPHA = 0.1f;
+
+    // Let the sensor hub batch accelerometer samples instead of waking the CPU for each one
+    private static final int MAX_REPORT_LATENCY_US = 1000000;
+
+    // Turns the real scan on and off and receives the duty cycle after each decision
+    public interface Callback {
+        void onScanWindowStart(boolean lowLatency);
+
+        void onScanWindowEnd();
+
+        void onWindowChanged(ScanPolicy.Window window, double averageDutyCycle);
+    }
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Callback callback;
+    private final Context context;
+    private final SensorManager sensorManager;
+    private final BatteryManager batteryManager;
+    private Sensor motionSensor;
+    private boolean stepDetector;
+
+    private Set<String> previousBeacons = new HashSet<>();
+    private Set<String> currentBeacons = new HashSet<>();
+
+    private boolean running;
+    private boolean scanActive;
+    private boolean scanLowLatency;
+    private ScanPolicy.Window window;
+    private long lastMotionMillis = -1;
+    private float gravity = SensorManager.GRAVITY_EARTH;
+    private long runStartedMillis;
+    private long scanStartedMillis;
+    private long scanningMillis;
+
+    public AdaptiveScanScheduler(Context context, Callback callback) {
+        this.context = context.getApplicationContext();
+        this.callback = callback;
+        this.sensorManager = (SensorManager) context.getSystemService(Context.SENSOR_SERVICE);
+        this.batteryManager = (BatteryManager) context.getSystemService(Context.BATTERY_SERVICE);
+    }
+
+    // Whether the device has a step detector that is only held back by the ACTIVITY_RECOGNITION
+    // runtime permission; the caller should request it before start()
+    public static boolean needsActivityRecognition(Context context) {
+        SensorManager sensorManager = (SensorManager) context.getSystemService(Context.SENSOR_SERVICE);
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q
+                && sensorManager != null
+                && sensorManager.getDefaultSensor(Sensor.TYPE_STEP_DETECTOR) != null
+                && !hasActivityRecognition(context);
+    }
+
+    private static boolean hasActivityRecognition(Context context) {
+        return Build.VERSION.SDK_INT < Build.VERSION_CODES.Q
+                || ContextCompat.checkSelfPermission(context, Manifest.permission.ACTIVITY_RECOGNITION) == PackageManager.PERMISSION_GRANTED;
+    }
+
+    // The step detector needs ACTIVITY_RECOGNITION from Android 10; fall back to the accelerometer without it
+    private void selectMotionSensor() {
+        Sensor steps = null;
+        if (sensorManager != null && hasActivityRecognition(context)) {
+            steps = sensorManager.getDefaultSensor(Sensor.TYPE_STEP_DETECTOR);
+        }
+        stepDetector = steps != null;
+        motionSensor = steps != null ? steps
+                : sensorManager != null ? sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER) : null;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Begin scheduling scan windows; the first window starts immediately
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        runStartedMillis = SystemClock.elapsedRealtime();
+        scanningMillis = 0;
+        previousBeacons.clear();
+        currentBeacons.clear();
+        selectMotionSensor();
+        if (motionSensor != null) {
+            sensorManager.registerListener(this, motionSensor, SensorManager.SENSOR_DELAY_NORMAL, MAX_REPORT_LATENCY_US);
+        }
+        handler.post(startWindow);
+    }
+
+    // Stop scheduling, end any scan in progress and release the motion sensor
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        handler.removeCallbacks(startWindow);
+        handler.removeCallbacks(endWindow);
+        if (motionSensor != null) {
+            sensorManager.unregisterListener(this);
+        }
+        endScan();
+    }
+
+    // Report a beacon heard during the current window, for churn tracking
+    public void onBeaconSeen(String address) {
+        currentBeacons.add(address);
+    }
+
+    // The window currently in effect, or null before the first one
+    public ScanPolicy.Window getWindow() {
+        return window;
+    }
+
+    // Share of time actually spent scanning since start(), between 0 and 1
+    public double getAverageDutyCycle() {
+        long now = SystemClock.elapsedRealtime();
+        long elapsed = now - runStartedMillis;
+        if (elapsed <= 0) {
+            return 0;
+        }
+        long scanned = scanningMillis + (scanActive ? now - scanStartedMillis : 0);
+        return Math.min(1.0, (double) scanned / elapsed);
+    }
+
+    private final Runnable startWindow = new Runnable() {
+        @Override
+        public void run() {
+            long now = SystemClock.elapsedRealtime();
+            window = ScanPolicy.next(now, lastMotionMillis, churn(), batteryPercent(), isCharging());
+            if (!scanActive || scanLowLatency != window.isLowLatency()) {
+                endScan();
+                scanActive = true;
+                scanLowLatency = window.isLowLatency();
+                scanStartedMillis = now;
+                callback.onScanWindowStart(scanLowLatency);
+            }
+            callback.onWindowChanged(window, getAverageDutyCycle());
+            handler.postDelayed(endWindow, window.getScanMillis());
+        }
+    };
+
+    private final Runnable endWindow = new Runnable() {
+        @Override
+        public void run() {
+            // With no idle gap the scan keeps running into the next window rather than being restarted
+            if (window.getIdleMillis() > 0) {
+                endScan();
+            }
+            handler.postDelayed(startWindow, window.getIdleMillis());
+        }
+    };
+
+    private void endScan() {
+        if (!scanActive) {
+            return;
+        }
+        scanActive = false;
+        scanningMillis += SystemClock.elapsedRealtime() - scanStartedMillis;
+        callback.onScanWindowEnd();
+    }
+
+    // Beacons that appeared or disappeared since the previous window; starts a new window's set
+    private int churn() {
+        int churn = 0;
+        for (String address : currentBeacons) {
+            if (!previousBeacons.contains(address)) {
+                churn++;
+            }
+        }
+        for (String address : previousBeacons) {
+            if (!currentBeacons.contains(address)) {
+                churn++;
+            }
+        }
+        Set<String> swap = previousBeacons;
+        previousBeacons = currentBeacons;
+        currentBeacons = swap;
+        currentBeacons.clear();
+        return churn;
+    }
+
+    private int batteryPercent() {
+        if (batteryManager == null) {
+            return -1;
+        }
+        int capacity = batteryManager.getIntProperty(BatteryManager.BATTERY_PROPERTY_CAPACITY);
+        return capacity > 0 ? capacity : -1;
+    }
+
+    private boolean isCharging() {
+        return batteryManager != null && batteryManager.isCharging();
+    }
+
+    @Override
+    public void onSensorChanged(SensorEvent event) {
+        if (stepDetector) {
+            lastMotionMillis = SystemClock.elapsedRealtime();
+            return;
+        }
+        float x = event.values[0];
+        float y = event.values[1];
+        float z = event.values[2];
+        float magnitude = (float) Math.sqrt(x * x + y * y + z * z);
+        gravity += GRAVITY_ALPHA * (magnitude - gravity);
+        if (Math.abs(magnitude - gravity) > MOTION_THRESHOLD) {
+            lastMotionMillis = SystemClock.elapsedRealtime();
+        }
+    }
+
+    @Override
+    public void onAccuracyChanged(Sensor sensor, int accuracy) {
+        // Not used
+    }
+}
@@ -2,45 +2,66 @@ package com.example.museum;
 
 import android.bluetooth.BluetoothAdapter;
 import android.bluetooth.BluetoothDevice;
+import android.bluetooth.le.ScanResult;
 import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
 import android.content.pm.PackageManager;
 import android.os.Bundle;
-import android.os.Handler;
+import android.os.SystemClock;
+import android.view.Choreographer;
 import android.view.View;
-import android.widget.ArrayAdapter;
 import android.widget.Button;
-import android.widget.ListView;
+import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.app.ActivityCompat;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
 
 /**
  * Author: Dharmik Parthiv Chhatbar
  * Year: Spring 2024
  *
- * BLEList displays a list of nearby Bluetooth Low Energy (BLE) devices
- * that start with the name "BlueCharm". It allows the user to scan for
- * nearby BLE devices and shows their name, address, RSSI (signal strength),
- * and approximate distance from the device.
+ * BLEList displays a list of nearby BlueCharm Bluetooth Low Energy (BLE) beacons,
+ * matched by their beacon UUID (or, with classic discovery, by the name "BlueCharm").
+ * It allows the user to scan for nearby BLE devices and shows their name, address,
+ * RSSI (signal strength), and approximate distance from the device.
  */
 public class BLEList extends AppCompatActivity {
 
     private static final int REQUEST_ENABLE_BT = 1;
-    private static final int SCAN_INTERVAL_MS = 10000; // 10 seconds
+    private static final int REQUEST_ACTIVITY_RECOGNITION = 2;
+    private static final int MAX_BEACONS = 256; // Beacons tracked by the RSSI filter
+    private static final long STALE_BEACON_MS = 30000; // Beacons not heard for this long are dropped from the list
+    private static final String FLOOR_PLAN_ASSET = "floorplan.csv"; // Beacon coordinates, zones and nearby exhibits
     private BluetoothAdapter bluetoothAdapter;
-    private ArrayList<String> deviceList = new ArrayList<>();
-    private ArrayAdapter<String> adapter;
-    private Set<String> uniqueAddresses = new HashSet<>();
-    private Handler handler = new Handler();
-    private Runnable scanRunnable;
+    private BeaconAdapter adapter;
+    private BeaconTable beaconTable = new BeaconTable(MAX_BEACONS); // Latest sample per beacon, keyed by packed MAC address
+    private boolean listUpdateScheduled; // A frame callback is pending to publish the list
+    private RssiFilter rssiFilter = new RssiFilter(MAX_BEACONS); // Indexed by BeaconTable slot
+    private DistanceModel distanceModel = new DistanceModel(MAX_BEACONS); // Per-slot RSSI-to-distance profiles
+    private BeaconCalibration calibration; // Calibrations saved on this device
+    private AdaptiveScanScheduler scanScheduler; // Chooses scan windows from motion, beacon churn and battery
+    private boolean scanRequested; // The user started scanning; resumed in onResume
+    private boolean activityRecognitionAsked; // Asked once per screen; denial falls back to the accelerometer
+    private TextView scanStatusText;
+    private BeaconScanner beaconScanner; // BLE scanner, used instead of classic discovery when available
+    private PositionEngine positionEngine; // Null when no floor plan is bundled
+    private TextView positionText;
+    private ImagePrefetcher imagePrefetcher; // Null when the floor plan lists no exhibits
+    private final StringBuilder positionLine = new StringBuilder(); // Reused by showPosition on every list update
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -71,26 +92,99 @@ public class BLEList extends AppCompatActivity {
             @Override
             public void onClick(View v) {
                 startPeriodicScan();
+                updateScanStatus();
             }
         });
 
         // Set up the list adapter
-        adapter = new ArrayAdapter<>(this, android.R.layout.simple_list_item_1, deviceList);
-        ListView deviceListView = findViewById(android.R.id.list);
-        deviceListView.setAdapter(adapter);
+        adapter = new BeaconAdapter();
+        RecyclerView beaconListView = findViewById(R.id.beaconList);
+        beaconListView.setLayoutManager(new LinearLayoutManager(this));
+        beaconListView.setItemAnimator(null); // Rows update in place; change animations read as flicker
+        beaconListView.setAdapter(adapter);
+
+        // Long-press a beacon while holding the phone 1 m from it to calibrate its distance profile
+        calibration = new BeaconCalibration(this);
+        adapter.setOnBeaconLongClickListener(new BeaconAdapter.OnBeaconLongClickListener() {
+            @Override
+            public void onBeaconLongClick(BeaconState beacon) {
+                calibrateAtOneMeter(beacon);
+            }
+        });
+
+        // Indoor positioning is available when a beacon floor plan is bundled with the app
+        positionText = findViewById(R.id.positionText);
+        FloorPlan floorPlan = loadFloorPlan();
+        positionEngine = floorPlan != null ? new PositionEngine(floorPlan) : null;
+
+        // Warm the image caches for exhibits next to the beacons the visitor is near
+        if (floorPlan != null && !floorPlan.getExhibitsByBeacon().isEmpty()) {
+            imagePrefetcher = new ImagePrefetcher(this, floorPlan);
+        }
+
+        // Prefer a hardware-filtered BLE scan; fall back to classic discovery broadcasts without it
+        beaconScanner = new BeaconScanner(bluetoothAdapter, new BeaconScanner.Listener() {
+            @Override
+            public void onBeaconSeen(ScanResult result) {
+                String address = result.getDevice().getAddress();
+                long mac = BeaconTable.parseMac(address);
+                int slot = beaconTable.slotOf(mac);
+
+                // The name is only needed for new beacons, the advertised power until the beacon has a profile
+                String name = slot == BeaconTable.NO_SLOT && result.getScanRecord() != null
+                        ? result.getScanRecord().getDeviceName() : null;
+                int advertisedPower = slot == BeaconTable.NO_SLOT || !distanceModel.isAssigned(slot)
+                        ? BeaconScanner.advertisedMeasuredPower(result.getScanRecord()) : DistanceModel.UNKNOWN_POWER;
+                onBeaconFound(slot, mac, address, name, result.getRssi(), advertisedPower);
+            }
+
+            @Override
+            public void onScanFailed(int errorCode) {
+                Toast.makeText(BLEList.this, "BLE scan failed (error " + errorCode + ")", Toast.LENGTH_SHORT).show();
+            }
+        });
 
         // Register for broadcasts when a device is discovered
         IntentFilter filter = new IntentFilter(BluetoothDevice.ACTION_FOUND);
         registerReceiver(receiver, filter);
 
-        // Initialize the scan runnable
-        scanRunnable = new Runnable() {
+        // Scan in windows sized to how the visitor is moving rather than on a fixed timer
+        scanStatusText = findViewById(R.id.scanStatusText);
+        scanScheduler = new AdaptiveScanScheduler(this, new AdaptiveScanScheduler.Callback() {
+            @Override
+            public void onScanWindowStart(boolean lowLatency) {
+                startScan(lowLatency);
+            }
+
+            @Override
+            public void onScanWindowEnd() {
+                stopScan();
+            }
+
             @Override
-            public void run() {
-                startScan();
-                handler.postDelayed(this, SCAN_INTERVAL_MS);
+            public void onWindowChanged(ScanPolicy.Window window, double averageDutyCycle) {
+                // Also ages out beacons that have gone quiet
+                scheduleListUpdate();
+                updateScanStatus();
             }
-        };
+        });
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        if (scanRequested) {
+            scanScheduler.start();
+        }
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        // No scanning while the list is not visible
+        if (scanScheduler != null) {
+            scanScheduler.stop();
+        }
     }
 
     @Override
@@ -99,30 +193,75 @@ public class BLEList extends AppCompatActivity {
         // Unregister the broadcast receiver
         unregisterReceiver(receiver);
         // Stop the periodic scan
-        handler.removeCallbacks(scanRunnable);
+        if (scanScheduler != null) {
+            scanScheduler.stop();
+        }
+        Choreographer.getInstance().removeFrameCallback(listUpdateCallback);
+        if (imagePrefetcher != null) {
+            imagePrefetcher.close();
+        }
     }
 
     // Start BLE device scan
-    private void startScan() {
-        // Clear the previous list and unique addresses set
-        deviceList.clear();
-        uniqueAddresses.clear();
-        adapter.notifyDataSetChanged();
-
+    private void startScan(boolean lowLatency) {
         // Start discovery to find nearby devices
         if (ActivityCompat.checkSelfPermission(this, android.Manifest.permission.BLUETOOTH_SCAN) != PackageManager.PERMISSION_GRANTED) {
             ActivityCompat.requestPermissions(this, new String[]{android.Manifest.permission.BLUETOOTH_SCAN}, REQUEST_ENABLE_BT);
             return;
         }
+        if (beaconScanner.isSupported()) {
+            // Beacons are reported as soon as the controller sees them, no 12 second inquiry
+            beaconScanner.start(lowLatency ? BeaconScanner.Profile.LOW_LATENCY : BeaconScanner.Profile.BALANCED);
+            return;
+        }
         if (bluetoothAdapter.isDiscovering()) {
             bluetoothAdapter.cancelDiscovery();
         }
         bluetoothAdapter.startDiscovery();
     }
 
-    // Start periodic BLE device scan
+    // Stop whichever scan startScan() began
+    private void stopScan() {
+        if (beaconScanner.isScanning()) {
+            beaconScanner.stop();
+        } else if (ActivityCompat.checkSelfPermission(this, android.Manifest.permission.BLUETOOTH_SCAN) == PackageManager.PERMISSION_GRANTED
+                && bluetoothAdapter.isDiscovering()) {
+            bluetoothAdapter.cancelDiscovery();
+        }
+    }
+
+    // Start periodic BLE device scan, first asking for the permission the step detector needs
     private void startPeriodicScan() {
-        handler.post(scanRunnable);
+        scanRequested = true;
+        if (!activityRecognitionAsked && AdaptiveScanScheduler.needsActivityRecognition(this)) {
+            activityRecognitionAsked = true;
+            ActivityCompat.requestPermissions(this, new String[]{android.Manifest.permission.ACTIVITY_RECOGNITION},
+                    REQUEST_ACTIVITY_RECOGNITION);
+            return; // The scan starts once the user answers
+        }
+        scanScheduler.start();
+    }
+
+    @Override
+    public void onRequestPermissionsResult(int requestCode, @NonNull String[] permissions, @NonNull int[] grantResults) {
+        super.onRequestPermissionsResult(requestCode, permissions, grantResults);
+        // Granted or not, scan now; without the permission the scheduler uses the accelerometer
+        if (requestCode == REQUEST_ACTIVITY_RECOGNITION && scanRequested) {
+            scanScheduler.start();
+            updateScanStatus();
+        }
+    }
+
+    // Show the current scan window and the measured duty cycle, for battery comparisons
+    private void updateScanStatus() {
+        ScanPolicy.Window window = scanScheduler.getWindow();
+        if (!scanScheduler.isRunning() || window == null) {
+            return;
+        }
+        scanStatusText.setText(String.format("Scanning: %s\nDuty cycle %d%% now, %d%% average",
+                window.getReason(), Math.round(window.getDutyCycle() * 100),
+                Math.round(scanScheduler.getAverageDutyCycle() * 100)));
+        scanStatusText.setVisibility(View.VISIBLE);
     }
 
     // BroadcastReceiver to listen for discovered devices
@@ -134,46 +273,144 @@ public class BLEList extends AppCompatActivity {
                 // Get the BluetoothDevice object from the Intent
                 BluetoothDevice device = intent.getParcelableExtra(BluetoothDevice.EXTRA_DEVICE);
 
-                // Check if the device is already in the set
-                if (uniqueAddresses.add(device.getAddress())) {
-                    // Check if the device name starts with "BlueCharm"
-                    if (device.getName() != null && device.getName().startsWith("BlueCharm")) {
-                        // Get the RSSI (signal strength)
-                        int rssi = intent.getShortExtra(BluetoothDevice.EXTRA_RSSI, Short.MIN_VALUE);
-
-                        // Estimate distance based on RSSI (simple linear approximation)
-                        double distance = calculateDistance(rssi);
-
-                        // Build device info string
-                        String deviceInfo = "Name: " + device.getName() + "\n"
-                                + "Address: " + device.getAddress() + "\n"
-                                + "RSSI: " + rssi + " dBm\n"
-                                + "Approximate Distance: " + String.format("%.2f meters", distance);
+                // Get the RSSI (signal strength)
+                int rssi = intent.getShortExtra(BluetoothDevice.EXTRA_RSSI, Short.MIN_VALUE);
 
-                        // Add device info to the list
-                        deviceList.add(deviceInfo);
-
-                        // Update the UI
-                        adapter.notifyDataSetChanged();
+                // Discovery is unfiltered, so an unknown device must advertise a BlueCharm name.
+                // getName() is a call into the Bluetooth service; only unknown devices need it.
+                String address = device.getAddress();
+                long mac = BeaconTable.parseMac(address);
+                int slot = beaconTable.slotOf(mac);
+                String name = null;
+                if (slot == BeaconTable.NO_SLOT) {
+                    name = device.getName();
+                    if (name == null || !name.startsWith(BeaconScanner.NAME_PREFIX)) {
+                        return;
                     }
                 }
+                onBeaconFound(slot, mac, address, name, rssi, DistanceModel.UNKNOWN_POWER);
+            }
+        }
+    };
+
+    // Record a sample from a BlueCharm beacon. Callers have already matched the device (by scan
+    // filter or by name) and looked up its slot by packed address, NO_SLOT for a new beacon.
+    // name may be null for beacons that do not advertise one. advertisedPower is the measured
+    // power from the advertisement, or DistanceModel.UNKNOWN_POWER.
+    private void onBeaconFound(int slot, long mac, String address, String name, int rssi, int advertisedPower) {
+        if (slot == BeaconTable.NO_SLOT) {
+            slot = beaconTable.acquire(mac, address, name != null ? name : BeaconScanner.NAME_PREFIX);
+            if (slot == BeaconTable.NO_SLOT) {
+                return; // Table is full
             }
+            rssiFilter.reset(slot);
+            distanceModel.assign(slot, calibration.load(address, distanceModel));
         }
 
-        // Method to calculate distance based on RSSI (simple linear approximation)
-        private double calculateDistance(int rssi) {
-            // Use a simple linear approximation for distance estimation
-            // This is a simplified model and may not be accurate in all scenarios
-            // You might need to calibrate this based on your specific use case
+        // A calibration wins; otherwise use the power the beacon advertises, once it is known
+        if (!distanceModel.isAssigned(slot) && advertisedPower != DistanceModel.UNKNOWN_POWER) {
+            distanceModel.assign(slot, distanceModel.profile(advertisedPower, DistanceModel.DEFAULT_PATH_LOSS_EXPONENT));
+        }
+
+        // Smooth the signal so the distance comes from the filtered RSSI, not one raw sample
+        double filteredRssi = rssiFilter.update(slot, rssi);
+
+        // Estimate distance from the beacon's profile table
+        double distance = distanceModel.distance(slot, filteredRssi);
 
-            // Convert RSSI to meters using a linear approximation
-            // Distance = 10 ^ ((Measured Power - RSSI) / (10 * n))
-            // n is the path loss exponent (typically ranging from 2 to 4)
+        // Record the latest state; the list itself is published at most once per frame
+        long now = SystemClock.elapsedRealtime();
+        scanScheduler.onBeaconSeen(address);
+        beaconTable.update(slot, (int) Math.round(filteredRssi), distance, now);
+        if (positionEngine != null) {
+            positionEngine.update(address, distance, now);
+        }
+        if (imagePrefetcher != null) {
+            imagePrefetcher.onBeacon(address, distance, now);
+        }
+        scheduleListUpdate();
+    }
 
-            double measuredPower = -72; // Measured Power at 1 meter, adjust based on your measurements
-            double pathLossExponent = 2.4; // Path loss exponent, adjust based on your environment
+    // Coalesce beacon updates into a single list publication on the next display frame
+    private void scheduleListUpdate() {
+        if (!listUpdateScheduled) {
+            listUpdateScheduled = true;
+            Choreographer.getInstance().postFrameCallback(listUpdateCallback);
+        }
+    }
 
-            return Math.pow(10, ((measuredPower - rssi) / (10 * pathLossExponent)));
+    // Drop stale beacons and hand a snapshot to the adapter, which diffs it against what is shown
+    private final Choreographer.FrameCallback listUpdateCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            listUpdateScheduled = false;
+            long now = SystemClock.elapsedRealtime();
+            List<BeaconState> snapshot = new ArrayList<>(beaconTable.size());
+            for (int slot = 0; slot < beaconTable.capacity(); slot++) {
+                if (!beaconTable.isUsed(slot)) {
+                    continue;
+                }
+                if (now - beaconTable.getLastSeen(slot) > STALE_BEACON_MS) {
+                    beaconTable.remove(beaconTable.getMac(slot));
+                    rssiFilter.reset(slot);
+                    distanceModel.assign(slot, null);
+                    continue;
+                }
+                snapshot.add(new BeaconState(beaconTable.getAddress(slot), beaconTable.getName(slot),
+                        beaconTable.getRssi(slot), beaconTable.getDistance(slot), beaconTable.getLastSeen(slot)));
+            }
+            adapter.submitList(snapshot);
+            showPosition(now);
+            if (imagePrefetcher != null) {
+                imagePrefetcher.update(now);
+            }
         }
     };
+
+    // Load the floor plan asset, or return null if there is none
+    private FloorPlan loadFloorPlan() {
+        try (Reader reader = new InputStreamReader(getAssets().open(FLOOR_PLAN_ASSET), StandardCharsets.UTF_8)) {
+            return FloorPlan.parse(reader);
+        } catch (FileNotFoundException e) {
+            return null; // No floor plan bundled; only per-beacon distances are shown
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    // Show the estimated visitor position and zone above the beacon list
+    private void showPosition(long now) {
+        if (positionEngine == null) {
+            return;
+        }
+        PositionEngine.Position position = positionEngine.estimate(now);
+        if (position == null) {
+            positionText.setVisibility(View.GONE);
+            return;
+        }
+        // Runs on every list update, so the line is built without String.format and boxing
+        positionLine.setLength(0);
+        positionLine.append(position.getZone() != null ? position.getZone().getName() : "Unknown zone")
+                .append("\nPosition: (");
+        DecimalText.appendFixed(positionLine, position.getX(), 1).append(", ");
+        DecimalText.appendFixed(positionLine, position.getY(), 1).append(") m  \u00b1");
+        DecimalText.appendFixed(positionLine, position.getError(), 1).append(" m, ")
+                .append(position.getBeaconsUsed()).append(" beacons");
+        positionText.setText(positionLine);
+        positionText.setVisibility(View.VISIBLE);
+    }
+
+    // Save the beacon's current filtered RSSI as its measured power at 1 m
+    private void calibrateAtOneMeter(BeaconState beacon) {
+        int slot = beaconTable.slotOf(BeaconTable.parseMac(beacon.getAddress()));
+        if (slot == BeaconTable.NO_SLOT || !rssiFilter.hasEstimate(slot)) {
+            return;
+        }
+        int measuredPower = (int) Math.round(rssiFilter.estimate(slot));
+        double exponent = distanceModel.profileOf(slot).getPathLossExponent();
+        calibration.save(beacon.getAddress(), measuredPower, exponent);
+        distanceModel.assign(slot, distanceModel.profile(measuredPower, exponent));
+        Toast.makeText(this, "Calibrated " + beacon.getName() + ": " + measuredPower + " dBm at 1 m", Toast.LENGTH_SHORT).show();
+    }
 }
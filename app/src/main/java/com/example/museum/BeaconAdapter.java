@@ -0,0 +1,91 @@
+package com.example.museum;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * BeaconAdapter shows BeaconState rows in BLEList's RecyclerView. Each submitted list is
+ * diffed against the previous one on a background thread, keyed by beacon address, so only
+ * rows whose displayed values changed are rebound and the list no longer flickers.
+ */
+public class BeaconAdapter extends ListAdapter<BeaconState, BeaconAdapter.ViewHolder> {
+
+    private static final DiffUtil.ItemCallback<BeaconState> DIFF_CALLBACK = new DiffUtil.ItemCallback<BeaconState>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull BeaconState oldItem, @NonNull BeaconState newItem) {
+            return oldItem.getAddress().equals(newItem.getAddress());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull BeaconState oldItem, @NonNull BeaconState newItem) {
+            return oldItem.looksSameAs(newItem);
+        }
+    };
+
+    // Notified when a row is long-pressed
+    public interface OnBeaconLongClickListener {
+        void onBeaconLongClick(BeaconState beacon);
+    }
+
+    private OnBeaconLongClickListener longClickListener;
+
+    public BeaconAdapter() {
+        super(DIFF_CALLBACK);
+    }
+
+    public void setOnBeaconLongClickListener(OnBeaconLongClickListener listener) {
+        this.longClickListener = listener;
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.beacon_list_row, parent, false);
+        final ViewHolder holder = new ViewHolder(view);
+        view.setOnLongClickListener(new View.OnLongClickListener() {
+            @Override
+            public boolean onLongClick(View v) {
+                int position = holder.getBindingAdapterPosition();
+                if (longClickListener == null || position == RecyclerView.NO_POSITION) {
+                    return false;
+                }
+                longClickListener.onBeaconLongClick(getItem(position));
+                return true;
+            }
+        });
+        return holder;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        BeaconState beacon = getItem(position);
+
+        // Build device info string; rows rebind on every distance change, so no String.format
+        StringBuilder deviceInfo = new StringBuilder(96)
+                .append("Name: ").append(beacon.getName()).append('\n')
+                .append("Address: ").append(beacon.getAddress()).append('\n')
+                .append("RSSI: ").append(beacon.getRssi()).append(" dBm\n")
+                .append("Approximate Distance: ");
+        DecimalText.appendFixed(deviceInfo, beacon.getDistance(), 2).append(" meters");
+        holder.beaconInfo.setText(deviceInfo);
+    }
+
+    static class ViewHolder extends RecyclerView.ViewHolder {
+        final TextView beaconInfo;
+
+        ViewHolder(View itemView) {
+            super(itemView);
+            beaconInfo = itemView.findViewById(R.id.beaconInfo);
+        }
+    }
+}
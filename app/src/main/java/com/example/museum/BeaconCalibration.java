@@ -0,0 +1,51 @@
+package com.example.museum;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * BeaconCalibration stores per-beacon calibration profiles on the device in
+ * SharedPreferences, keyed by beacon address. A calibration is the RSSI measured 1 m from
+ * the beacon and the path loss exponent for its surroundings. A calibrated beacon takes
+ * precedence over the power it advertises. Entries are only read when a beacon is first
+ * seen, so the scan path never touches storage.
+ */
+public class BeaconCalibration {
+
+    private static final String PREFS_NAME = "beacon_calibration";
+
+    private final SharedPreferences preferences;
+
+    public BeaconCalibration(Context context) {
+        this.preferences = context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    // The calibrated profile for a beacon, or null if it has not been calibrated
+    public DistanceModel.Profile load(String address, DistanceModel model) {
+        String value = preferences.getString(address, null);
+        if (value == null) {
+            return null;
+        }
+        int separator = value.indexOf(';');
+        try {
+            return model.profile(Integer.parseInt(value.substring(0, separator)),
+                    Double.parseDouble(value.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    // Save a calibration for a beacon
+    public void save(String address, int measuredPower, double pathLossExponent) {
+        preferences.edit().putString(address, measuredPower + ";" + pathLossExponent).apply();
+    }
+
+    // Forget a beacon's calibration so the advertised or default power is used again
+    public void clear(String address) {
+        preferences.edit().remove(address).apply();
+    }
+}
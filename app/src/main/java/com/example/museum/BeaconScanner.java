@@ -0,0 +1,195 @@
+package com.example.museum;
+
+import android.annotation.SuppressLint;
+import android.bluetooth.BluetoothAdapter;
+import android.bluetooth.le.BluetoothLeScanner;
+import android.bluetooth.le.ScanCallback;
+import android.bluetooth.le.ScanFilter;
+import android.bluetooth.le.ScanRecord;
+import android.bluetooth.le.ScanResult;
+import android.bluetooth.le.ScanSettings;
+import android.os.ParcelUuid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * BeaconScanner runs a Bluetooth Low Energy scan for BlueCharm beacons using
+ * BluetoothLeScanner. Beacon frames (iBeacon and Eddystone) are matched by ScanFilters
+ * that the Bluetooth controller evaluates in hardware, so the app is only woken for
+ * beacon advertisements. The filters match the BlueCharm proximity UUID in iBeacon frames and
+ * its namespace in Eddystone-UID frames rather than the device name, which many beacons leave
+ * out of their advertisements to keep room for the frame. Two ScanSettings profiles are offered: LOW_LATENCY reports every
+ * advertisement immediately, BALANCED scans at a lower duty cycle and, where the controller
+ * supports it, batches results with setReportDelay to cut wakeups further.
+ */
+public class BeaconScanner {
+
+    // Name prefix BlueCharm beacons use when they advertise a name (checked by classic discovery only)
+    public static final String NAME_PREFIX = "BlueCharm";
+
+    // Proximity UUID BlueCharm beacons broadcast in iBeacon frames ("BlueCharmBeacons" in ASCII)
+    private static final byte[] BLUECHARM_UUID = {
+            0x42, 0x6C, 0x75, 0x65, 0x43, 0x68, 0x61, 0x72,
+            0x6D, 0x42, 0x65, 0x61, 0x63, 0x6F, 0x6E, 0x73
+    };
+
+    // Apple company ID and the iBeacon type/length prefix of its manufacturer data
+    private static final int APPLE_COMPANY_ID = 0x004C;
+    private static final byte[] IBEACON_PREFIX = {0x02, 0x15};
+
+    // Eddystone 16-bit service UUID and the UID frame type
+    private static final ParcelUuid EDDYSTONE_SERVICE_UUID = ParcelUuid.fromString("0000FEAA-0000-1000-8000-00805F9B34FB");
+    private static final byte EDDYSTONE_UID_FRAME = 0x00;
+
+    // Report delay used to batch results in the BALANCED profile
+    private static final long BATCH_REPORT_DELAY_MS = 1000;
+
+    public enum Profile {
+        LOW_LATENCY,
+        BALANCED
+    }
+
+    // Receives every BlueCharm advertisement seen by the scan
+    public interface Listener {
+        void onBeaconSeen(ScanResult result);
+
+        void onScanFailed(int errorCode);
+    }
+
+    private final BluetoothAdapter bluetoothAdapter;
+    private final Listener listener;
+    private final List<ScanFilter> filters;
+    private boolean scanning;
+
+    public BeaconScanner(BluetoothAdapter bluetoothAdapter, Listener listener) {
+        this.bluetoothAdapter = bluetoothAdapter;
+        this.listener = listener;
+        this.filters = buildFilters();
+    }
+
+    // Whether this device can run a BLE scan at all
+    public boolean isSupported() {
+        return bluetoothAdapter.getBluetoothLeScanner() != null;
+    }
+
+    public boolean isScanning() {
+        return scanning;
+    }
+
+    // Start (or restart) the scan with the given profile; the caller must hold BLUETOOTH_SCAN
+    @SuppressLint("MissingPermission")
+    public boolean start(Profile profile) {
+        BluetoothLeScanner scanner = bluetoothAdapter.getBluetoothLeScanner();
+        if (scanner == null) {
+            return false;
+        }
+        if (scanning) {
+            scanner.stopScan(scanCallback);
+        }
+        scanner.startScan(filters, buildSettings(profile), scanCallback);
+        scanning = true;
+        return true;
+    }
+
+    // Stop the scan if it is running
+    @SuppressLint("MissingPermission")
+    public void stop() {
+        if (!scanning) {
+            return;
+        }
+        scanning = false;
+        BluetoothLeScanner scanner = bluetoothAdapter.getBluetoothLeScanner();
+        // The scanner is null when Bluetooth has been turned off; the scan is gone already
+        if (scanner != null) {
+            scanner.stopScan(scanCallback);
+        }
+    }
+
+    private ScanSettings buildSettings(Profile profile) {
+        ScanSettings.Builder builder = new ScanSettings.Builder()
+                .setCallbackType(ScanSettings.CALLBACK_TYPE_ALL_MATCHES);
+        if (profile == Profile.LOW_LATENCY) {
+            builder.setScanMode(ScanSettings.SCAN_MODE_LOW_LATENCY)
+                    .setMatchMode(ScanSettings.MATCH_MODE_AGGRESSIVE)
+                    .setNumOfMatches(ScanSettings.MATCH_NUM_MAX_ADVERTISEMENT)
+                    .setReportDelay(0);
+        } else {
+            builder.setScanMode(ScanSettings.SCAN_MODE_BALANCED)
+                    .setMatchMode(ScanSettings.MATCH_MODE_STICKY);
+            if (bluetoothAdapter.isOffloadedScanBatchingSupported()) {
+                builder.setReportDelay(BATCH_REPORT_DELAY_MS);
+            }
+        }
+        return builder.build();
+    }
+
+    // Measured power at 1 m advertised in an iBeacon or Eddystone frame, else derived from the
+    // TX power level field; DistanceModel.UNKNOWN_POWER if the beacon advertises neither
+    public static int advertisedMeasuredPower(ScanRecord record) {
+        if (record == null) {
+            return DistanceModel.UNKNOWN_POWER;
+        }
+        int power = DistanceModel.measuredPowerFromIBeacon(record.getManufacturerSpecificData(APPLE_COMPANY_ID));
+        if (power == DistanceModel.UNKNOWN_POWER) {
+            power = DistanceModel.measuredPowerFromEddystone(record.getServiceData(EDDYSTONE_SERVICE_UUID));
+        }
+        if (power == DistanceModel.UNKNOWN_POWER) {
+            power = DistanceModel.measuredPowerFromTxPowerLevel(record.getTxPowerLevel());
+        }
+        return power;
+    }
+
+    // Hardware filters for the frames BlueCharm beacons broadcast. The iBeacon filter matches
+    // 02 15 and the proximity UUID; the Eddystone filter matches a UID frame whose namespace is
+    // the UUID's elided form (its first four and last six bytes), skipping the TX power byte.
+    private static List<ScanFilter> buildFilters() {
+        byte[] iBeacon = new byte[IBEACON_PREFIX.length + BLUECHARM_UUID.length];
+        System.arraycopy(IBEACON_PREFIX, 0, iBeacon, 0, IBEACON_PREFIX.length);
+        System.arraycopy(BLUECHARM_UUID, 0, iBeacon, IBEACON_PREFIX.length, BLUECHARM_UUID.length);
+        byte[] iBeaconMask = new byte[iBeacon.length];
+        Arrays.fill(iBeaconMask, (byte) 0xFF);
+
+        byte[] eddystone = new byte[2 + 10];
+        eddystone[0] = EDDYSTONE_UID_FRAME;
+        System.arraycopy(BLUECHARM_UUID, 0, eddystone, 2, 4);
+        System.arraycopy(BLUECHARM_UUID, 10, eddystone, 6, 6);
+        byte[] eddystoneMask = new byte[eddystone.length];
+        Arrays.fill(eddystoneMask, (byte) 0xFF);
+        eddystoneMask[1] = 0;
+
+        List<ScanFilter> filters = new ArrayList<>();
+        filters.add(new ScanFilter.Builder()
+                .setManufacturerData(APPLE_COMPANY_ID, iBeacon, iBeaconMask)
+                .build());
+        filters.add(new ScanFilter.Builder()
+                .setServiceData(EDDYSTONE_SERVICE_UUID, eddystone, eddystoneMask)
+                .build());
+        return filters;
+    }
+
+    // Every result already matched a BlueCharm filter, named or not
+    private final ScanCallback scanCallback = new ScanCallback() {
+        @Override
+        public void onScanResult(int callbackType, ScanResult result) {
+            listener.onBeaconSeen(result);
+        }
+
+        @Override
+        public void onBatchScanResults(List<ScanResult> results) {
+            for (int i = 0; i < results.size(); i++) {
+                listener.onBeaconSeen(results.get(i));
+            }
+        }
+
+        @Override
+        public void onScanFailed(int errorCode) {
+            scanning = false;
+            listener.onScanFailed(errorCode);
+        }
+    };
+}
@@ -0,0 +1,149 @@
+package com.example.museum;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * ContentPackStore holds the installed offline content pack ("content.pack" in the app's
+ * files directory) and keeps it up to date. Exhibit records from the pack are imported into
+ * the ExhibitCatalog, so ID-only tags and short QR codes resolve without a network, and the
+ * display activities show the pack's thumbnail while the full image loads by URL. Updates
+ * download on a background thread through ContentPackUpdater and swap the mapping in once
+ * the new pack is verified and imported. The installed pack is mapped on the same thread by
+ * open() at startup; until then getPack() and getThumbnail() return null, as with no pack.
+ */
+public class ContentPackStore {
+
+    private static final String TAG = "ContentPackStore";
+    private static final String PACK_FILE = "content.pack";
+
+    private static ContentPackStore instance;
+
+    private final Context context;
+    private final File packFile;
+    private final ExecutorService executor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private volatile ContentPack pack;
+    private volatile boolean updating;
+
+    // Callback for a finished update, delivered on the main thread
+    public interface UpdateListener {
+        void onUpdated(ContentPackUpdater.Result result);
+
+        void onError(IOException e);
+    }
+
+    private ContentPackStore(Context context) {
+        this.context = context;
+        this.packFile = new File(context.getFilesDir(), PACK_FILE);
+        this.executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "content-pack");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    // Get the shared store; the installed pack is mapped by open()
+    public static synchronized ContentPackStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new ContentPackStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    // Map the installed pack, if there is one, on the pack thread; call once at startup
+    public void open() {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (pack == null) {
+                    pack = openInstalled();
+                }
+            }
+        });
+    }
+
+    // The installed pack, or null if none has been downloaded yet
+    public ContentPack getPack() {
+        return pack;
+    }
+
+    // Thumbnail bytes for an exhibit from the installed pack, or null
+    public byte[] getThumbnail(String id) {
+        ContentPack current = pack;
+        if (current == null || id == null || id.isEmpty()) {
+            return null;
+        }
+        return current.getThumbnailBytes(id);
+    }
+
+    // Bring the pack up to date from the content server in the background; the listener may be null
+    public void update(final String baseUrl, final UpdateListener listener) {
+        if (updating) {
+            return;
+        }
+        updating = true;
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    final ContentPackUpdater.Result result = new ContentPackUpdater(baseUrl).update(packFile);
+                    if (result.isUpdated()) {
+                        ContentPack updated = ContentPack.open(packFile);
+                        ExhibitCatalog.getInstance(context).putAll(updated);
+                        pack = updated;
+                        // Cached ID-only payloads may resolve to older catalog content
+                        ExhibitCache.getInstance(context).evictAll();
+                    }
+                    Log.i(TAG, result.toString());
+                    if (listener != null) {
+                        mainHandler.post(new Runnable() {
+                            @Override
+                            public void run() {
+                                listener.onUpdated(result);
+                            }
+                        });
+                    }
+                } catch (final IOException e) {
+                    Log.w(TAG, "Content pack update failed", e);
+                    if (listener != null) {
+                        mainHandler.post(new Runnable() {
+                            @Override
+                            public void run() {
+                                listener.onError(e);
+                            }
+                        });
+                    }
+                } finally {
+                    updating = false;
+                }
+            }
+        });
+    }
+
+    private ContentPack openInstalled() {
+        if (!packFile.isFile()) {
+            return null;
+        }
+        try {
+            return ContentPack.open(packFile);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+}
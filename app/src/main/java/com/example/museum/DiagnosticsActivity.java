@@ -0,0 +1,109 @@
+package com.example.museum;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.view.View;
+import android.widget.Button;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * DiagnosticsActivity is a hidden screen (long-press the welcome text on the main screen)
+ * that shows the latency histograms of every timed stage of the NFC and QR flows, with the
+ * image, cache and tag gate counters beside them. The histograms can be reset before a test
+ * session and exported as CSV to the app's external files directory, then shared.
+ */
+public class DiagnosticsActivity extends AppCompatActivity {
+
+    private TextView metricsText;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_diagnostics);
+
+        metricsText = findViewById(R.id.metricsText);
+
+        Button refreshButton = findViewById(R.id.refreshMetricsButton);
+        refreshButton.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                showMetrics();
+            }
+        });
+
+        Button resetButton = findViewById(R.id.resetMetricsButton);
+        resetButton.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                LatencyMetrics.getInstance().reset();
+                showMetrics();
+            }
+        });
+
+        Button exportButton = findViewById(R.id.exportMetricsButton);
+        exportButton.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                exportMetrics();
+            }
+        });
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        showMetrics();
+    }
+
+    // Show every stage's histogram summary and the other counters
+    private void showMetrics() {
+        String summary = LatencyMetrics.getInstance().summary();
+        metricsText.setText((summary.isEmpty() ? "No stages timed yet\n" : summary)
+                + "\n" + ExhibitImageLoader.summary()
+                + "\n" + ExhibitCache.getInstance(this)
+                + "\n" + TagEventGate.getInstance());
+    }
+
+    // Write the histograms as CSV to the external files directory and offer to share them
+    private void exportMetrics() {
+        File dir = getExternalFilesDir(null);
+        if (dir == null) {
+            dir = getFilesDir(); // External storage is not mounted
+        }
+        String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.US).format(new Date());
+        File file = new File(dir, "latency-" + stamp + ".csv");
+
+        StringBuilder csv = new StringBuilder();
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            LatencyMetrics.getInstance().writeCsv(csv);
+            writer.write(csv.toString());
+        } catch (IOException e) {
+            e.printStackTrace();
+            Toast.makeText(this, "Could not export metrics: " + e.getMessage(), Toast.LENGTH_LONG).show();
+            return;
+        }
+        Toast.makeText(this, "Exported to " + file.getAbsolutePath(), Toast.LENGTH_LONG).show();
+
+        Intent share = new Intent(Intent.ACTION_SEND);
+        share.setType("text/plain");
+        share.putExtra(Intent.EXTRA_SUBJECT, file.getName());
+        share.putExtra(Intent.EXTRA_TEXT, csv.toString());
+        startActivity(Intent.createChooser(share, "Share latency metrics"));
+    }
+}
@@ -1,10 +1,10 @@
 package com.example.museum;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.Lifecycle;
 
 import android.app.PendingIntent;
 import android.content.Intent;
-import android.content.IntentFilter;
 import android.net.Uri;
 import android.nfc.NdefMessage;
 import android.nfc.NdefRecord;
@@ -12,33 +12,74 @@ import android.nfc.NfcAdapter;
 import android.nfc.Tag;
 import android.nfc.tech.Ndef;
 import android.os.Bundle;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.Choreographer;
 import android.widget.Button;
 import android.widget.ImageView;
 import android.widget.TextView;
 import android.widget.Toast;
 
-import com.bumptech.glide.Glide;
 
-import org.json.JSONException;
-import org.json.JSONObject;
-
-import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * Author: Dharmik Parthiv Chhatbar
  * Year: Spring 2024
  *
  * DisplayNfcDataActivity is responsible for handling NFC interactions within the application.
- * It reads NDEF messages from NFC tags, parses the data, and displays relevant information
- * such as images, text, URLs, and video links. The activity uses Glide for image loading
+ * It reads NDEF messages from NFC tags (binary exhibit records, or legacy JSON text records),
+ * parses the data, and displays relevant information
+ * such as images, text, URLs, and video links. The activity loads images through ExhibitImageLoader
  * and provides functionality to open URLs in a web browser.
+ *
+ * While the activity is in the foreground, taps are read in NFC reader mode: the tag comes
+ * straight to a ReaderCallback instead of through an intent round trip, the platform's NDEF
+ * check is skipped and Type 2 tags are read with raw NfcA commands, and a tag whose UID is
+ * cached is shown before it is even read. Other tags (Type 4, MIFARE Classic, NFC-B/F/V) can
+ * only be read through Ndef, which needs that check: when one is found, reader mode is
+ * re-enabled with the check until the activity is next resumed, the platform finds the tag
+ * again, and it is read through Ndef. Records are decoded and resolved against the catalog
+ * off the main thread, which only binds the result. Long-pressing the title switches to foreground
+ * dispatch and back, and every stage of both paths (NDEF read, decoding, catalog lookup, view
+ * binding, tap to render, tap to image) is timed into system traces and LatencyMetrics, so
+ * the two can be compared on the diagnostics screen.
  */
 
 public class DisplayNfcDataActivity extends AppCompatActivity {
 
+    private static final String TAG = "DisplayNfcDataActivity";
+
+    // Every polling technology; the platform NDEF check is skipped (see readerFlags()) while only
+    // Type 2 tags, which we read ourselves, have been seen
+    private static final int READER_FLAGS = NfcAdapter.FLAG_READER_NFC_A | NfcAdapter.FLAG_READER_NFC_B
+            | NfcAdapter.FLAG_READER_NFC_F | NfcAdapter.FLAG_READER_NFC_V;
+
+    // The tag is read once and released, so presence checks only need to notice it leaving; the
+    // platform default polls it several times a second while the visitor holds the phone still
+    private static final int PRESENCE_CHECK_DELAY_MS = 500;
+
+    // Timed stages; LatencyMetrics keeps them across activity instances (dispatch launches a new one)
+    private static final String DISPATCH_TAP_TO_RENDER = "NFC dispatch: tap to render";
+    private static final String DISPATCH_TAP_TO_IMAGE = "NFC dispatch: tap to image";
+    private static final String DISPATCH_NDEF_READ = "NFC dispatch: cached NDEF message";
+    private static final String READER_TAP_TO_RENDER = "NFC reader mode: tap to render";
+    private static final String READER_TAP_TO_IMAGE = "NFC reader mode: tap to image";
+    private static final String READER_NDEF_READ = "NFC reader mode: Type 2 read";
+    private static final String READER_NDEF_FALLBACK_READ = "NFC reader mode: Ndef read";
+    private static final String HANDLE_INTENT = "NFC: handle intent";
+    private static final String TEXT_DECODE = "NFC: text decode";
+    private static final String JSON_PARSE = "NFC: JSON parse";
+    private static final String RECORD_DECODE = "NFC: binary record decode";
+    private static final String CATALOG_RESOLVE = "NFC: catalog resolve";
+    private static final String BIND_VIEWS = "NFC: bind views";
+
     private NfcAdapter nfcAdapter;
-    private boolean isSearching;
+    private boolean useReaderMode = true;
+    private volatile boolean skipNdefCheck = true; // Cleared once a tag that is not Type 2 is found
+    private Exhibit displayedExhibit; // Exhibit currently bound to the views
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -60,6 +101,18 @@ public class DisplayNfcDataActivity extends AppCompatActivity {
             return;
         }
 
+        // Long-press the title to switch between reader mode and foreground dispatch
+        titleTextView.setOnLongClickListener(v -> {
+            disableNfcReading();
+            useReaderMode = !useReaderMode;
+            enableNfcReading();
+            Toast.makeText(this, useReaderMode ? "Reader mode on" : "Foreground dispatch on", Toast.LENGTH_SHORT).show();
+            LatencyMetrics metrics = LatencyMetrics.getInstance();
+            Log.d(TAG, metrics.histogram(DISPATCH_TAP_TO_RENDER) + "; " + metrics.histogram(READER_TAP_TO_RENDER)
+                    + "; " + ExhibitImageLoader.report());
+            return true;
+        });
+
         // Handle the intent that started this activity
         Intent intent = getIntent();
         if (intent != null) {
@@ -70,19 +123,14 @@ public class DisplayNfcDataActivity extends AppCompatActivity {
     @Override
     protected void onResume() {
         super.onResume();
-        // Enable NFC foreground dispatch if searching for NFC tags
-        if (isSearching) {
-            enableNfcForegroundDispatch();
-        }
+        skipNdefCheck = true;
+        enableNfcReading();
     }
 
     @Override
     protected void onPause() {
         super.onPause();
-        // Disable NFC foreground dispatch if searching for NFC tags
-        if (isSearching) {
-            disableNfcForegroundDispatch();
-        }
+        disableNfcReading();
     }
 
     @Override
@@ -92,93 +140,305 @@ public class DisplayNfcDataActivity extends AppCompatActivity {
         handleIntent(intent);
     }
 
-    private void handleIntent(Intent intent) {
-        // Check if the intent action is NDEF_DISCOVERED
-        if (NfcAdapter.ACTION_NDEF_DISCOVERED.equals(intent.getAction())) {
-            Tag tag = intent.getParcelableExtra(NfcAdapter.EXTRA_TAG);
-            if (tag != null) {
-                Ndef ndef = Ndef.get(tag);
-                if (ndef == null) {
-                    Toast.makeText(this, "NDEF is not supported by this Tag.", Toast.LENGTH_SHORT).show();
+    // Called on a binder thread for each tag found in reader mode. The tag is read, decoded and
+    // resolved on the tag I/O thread; only showing the result runs on the main thread.
+    private void onTagDiscovered(final Tag tag) {
+        final boolean type2 = TagIoExecutor.isType2(tag);
+        if (!type2 && skipNdefCheck) {
+            // Without the NDEF check the tag has no Ndef technology; poll again with it
+            runOnUiThread(this::enableNdefCheck);
+            return;
+        }
+        final TraceSpan tap = TraceSpan.beginAsync(READER_TAP_TO_RENDER);
+        final TagEventGate gate = TagEventGate.getInstance();
+        if (!gate.tryAcquire(tag.getId(), SystemClock.elapsedRealtime())) {
+            Log.d(TAG, gate.toString());
+            tap.discard();
+            return;
+        }
+        // A known tag is shown at once; the read below replaces it if the tag has been rewritten
+        final Exhibit cached = ExhibitCache.getInstance(this).getByTag(tag.getId());
+        if (cached != null) {
+            runOnUiThread(() -> {
+                displayExhibit(cached, tap, READER_TAP_TO_IMAGE);
+                reportRenderLatency(tap);
+            });
+        }
+        final TagIoExecutor io = TagIoExecutor.getInstance();
+        io.submit(() -> {
+            // Only complete reads are timed; failures show up in the trace
+            TraceSpan read = TraceSpan.begin(type2 ? READER_NDEF_READ : READER_NDEF_FALLBACK_READ);
+            NdefMessage message;
+            try {
+                message = type2 ? io.readType2NdefMessage(tag) : io.readNdefMessage(tag);
+                read.end();
+            } finally {
+                read.discard();
+            }
+            return message != null ? resolveMessage(tag, message) : null;
+        }, TagIoExecutor.READ_TIMEOUT_MS, new TagIoExecutor.Callback<ResolvedMessage>() {
+            @Override
+            public void onSuccess(ResolvedMessage resolved) {
+                gate.release(tag.getId());
+                if (resolved == null) {
+                    if (!isFinishing()) {
+                        Toast.makeText(DisplayNfcDataActivity.this, "This tag is empty", Toast.LENGTH_SHORT).show();
+                    }
+                    if (cached == null) {
+                        tap.discard();
+                    }
                     return;
                 }
+                // A cached exhibit has already ended the tap at its first frame
+                showResolved(resolved, tap, READER_TAP_TO_IMAGE, cached == null);
+            }
 
-                // Get the NDEF message from the tag
-                NdefMessage ndefMessage = ndef.getCachedNdefMessage();
-                if (ndefMessage != null) {
-                    for (NdefRecord ndefRecord : ndefMessage.getRecords()) {
-                        if (ndefRecord.getTnf() == NdefRecord.TNF_WELL_KNOWN && Arrays.equals(ndefRecord.getType(), NdefRecord.RTD_TEXT)) {
-                            try {
-                                // Read text from the NDEF record
-                                String nfcData = readText(ndefRecord);
-                                // Parse and display the NFC data
-                                parseNfcData(nfcData);
-                            } catch (UnsupportedEncodingException e) {
-                                e.printStackTrace();
-                            }
-                        }
+            @Override
+            public void onError(Exception e) {
+                gate.release(tag.getId());
+                e.printStackTrace();
+                if (cached == null) {
+                    tap.discard();
+                    if (!isFinishing()) {
+                        Toast.makeText(DisplayNfcDataActivity.this, "Could not read tag: " + e.getMessage(), Toast.LENGTH_SHORT).show();
                     }
                 }
             }
+        });
+    }
+
+    private void handleIntent(Intent intent) {
+        // Check if the intent action is NDEF_DISCOVERED (or TAG_DISCOVERED from the catch-all foreground dispatch)
+        if (!NfcAdapter.ACTION_NDEF_DISCOVERED.equals(intent.getAction())
+                && !NfcAdapter.ACTION_TAG_DISCOVERED.equals(intent.getAction())) {
+            return;
+        }
+        // Dispatch has no discovery timestamp, so timing starts on delivery
+        final TraceSpan tap = TraceSpan.beginAsync(DISPATCH_TAP_TO_RENDER);
+        try (TraceSpan ignored = TraceSpan.begin(HANDLE_INTENT)) {
+            final Tag tag = intent.getParcelableExtra(NfcAdapter.EXTRA_TAG);
+            if (tag == null) {
+                tap.discard();
+                return;
+            }
+            // Drop repeat intents from a tag that is still held against the phone
+            final TagEventGate gate = TagEventGate.getInstance();
+            if (!gate.tryAcquire(tag.getId(), SystemClock.elapsedRealtime())) {
+                Log.d(TAG, gate.toString());
+                tap.discard();
+                return;
+            }
+            final NdefMessage message = readCachedMessage(tag);
+            if (message == null) {
+                gate.release(tag.getId());
+                tap.discard();
+                return;
+            }
+            // Decode and resolve off the main thread; the tag stays gated until its exhibit is shown
+            ExhibitCatalog.getInstance(this).query(catalog -> resolveMessage(tag, message), resolved -> {
+                gate.release(tag.getId());
+                showResolved(resolved, tap, DISPATCH_TAP_TO_IMAGE, true);
+            });
         }
     }
 
-    private String readText(NdefRecord record) throws UnsupportedEncodingException {
-        byte[] payload = record.getPayload();
+    // The NDEF message the platform read when the tag was discovered, or null if there is none
+    private NdefMessage readCachedMessage(Tag tag) {
+        TraceSpan read = TraceSpan.begin(DISPATCH_NDEF_READ);
+        Ndef ndef = Ndef.get(tag);
+        NdefMessage ndefMessage = ndef != null ? ndef.getCachedNdefMessage() : null;
+        read.end();
 
-        // Get the Text Encoding
-        String textEncoding = ((payload[0] & 128) == 0) ? "UTF-8" : "UTF-16";
+        if (ndef == null) {
+            Toast.makeText(this, "NDEF is not supported by this Tag.", Toast.LENGTH_SHORT).show();
+        }
+        return ndefMessage;
+    }
 
-        // Get the Language Code
-        int languageCodeLength = payload[0] & 0063;
+    // Exhibits decoded from one NDEF message, and the IDs it named that the catalog does not know
+    private static final class ResolvedMessage {
+        final List<Exhibit> exhibits = new ArrayList<>();
+        final List<String> unknownIds = new ArrayList<>();
+    }
 
-        // Get the Text
-        return new String(payload, languageCodeLength + 1, payload.length - languageCodeLength - 1, textEncoding);
+    // Decode the exhibit records of a message and resolve ID-only ones through the cache and
+    // catalog. Touches no views, so it runs off the main thread: on the tag I/O thread in reader
+    // mode, on the catalog thread for dispatched intents.
+    private ResolvedMessage resolveMessage(Tag tag, NdefMessage ndefMessage) {
+        ResolvedMessage resolved = new ResolvedMessage();
+        ExhibitCache cache = ExhibitCache.getInstance(this);
+        for (NdefRecord ndefRecord : ndefMessage.getRecords()) {
+            // Repeat taps of the same content are answered from the cache
+            byte[] rawPayload = ndefRecord.getPayload();
+            Exhibit exhibit = cache.getByPayload(rawPayload);
+            if (exhibit == null) {
+                // Parse the NFC data and resolve ID-only payloads through the catalog
+                Exhibit payload = parseNfcData(ndefRecord);
+                if (payload == null) {
+                    continue;
+                }
+                try (TraceSpan ignored = TraceSpan.begin(CATALOG_RESOLVE)) {
+                    exhibit = ExhibitCatalog.getInstance(this).resolve(payload);
+                }
+                if (exhibit == null) {
+                    resolved.unknownIds.add(payload.getId());
+                    continue;
+                }
+                cache.putByPayload(rawPayload, exhibit);
+            }
+            cache.putByTag(tag.getId(), exhibit);
+            resolved.exhibits.add(exhibit);
+        }
+        Log.d(TAG, cache.toString());
+        return resolved;
     }
 
-    private void parseNfcData(String nfcData) {
+    // Display what resolveMessage found, unless the activity has gone. If the tap is ours to end,
+    // it ends at the frame that draws the exhibit, or without a sample if nothing was shown.
+    private void showResolved(ResolvedMessage resolved, TraceSpan tap, String imageStage, boolean ownsTap) {
+        boolean displayed = false;
+        if (!isDestroyed()) {
+            for (String id : resolved.unknownIds) {
+                Toast.makeText(this, "Unknown exhibit " + id, Toast.LENGTH_SHORT).show();
+            }
+            for (Exhibit exhibit : resolved.exhibits) {
+                displayExhibit(exhibit, tap, imageStage);
+                displayed = true;
+            }
+        }
+        if (ownsTap) {
+            finishTap(tap, displayed);
+        }
+    }
+
+    // Record the time from a tap to the start of the frame that draws its exhibit (image loading not included)
+    private void reportRenderLatency(final TraceSpan tap) {
+        Choreographer.getInstance().postFrameCallback(frameTimeNanos -> {
+            if (tap.end() >= 0) {
+                Log.d(TAG, LatencyMetrics.getInstance().histogram(tap.getName()).toString());
+            }
+        });
+    }
+
+    // End a tap: at the frame that draws its exhibit, or at once without a sample if nothing was shown
+    private void finishTap(TraceSpan tap, boolean displayed) {
+        if (displayed) {
+            reportRenderLatency(tap);
+        } else {
+            tap.discard();
+        }
+    }
+
+    // Decode an exhibit (inline or ID-only) from either a binary exhibit record or a legacy JSON text record
+    private Exhibit parseNfcData(NdefRecord record) {
+        try {
+            if (ExhibitRecords.isExhibitRecord(record)) {
+                try (TraceSpan ignored = TraceSpan.begin(RECORD_DECODE)) {
+                    return ExhibitRecords.readExhibit(record);
+                }
+            }
+            if (record.getTnf() == NdefRecord.TNF_WELL_KNOWN && Arrays.equals(record.getType(), NdefRecord.RTD_TEXT)) {
+                // Read text from the NDEF record and pull the exhibit fields straight out of the JSON
+                String text;
+                try (TraceSpan ignored = TraceSpan.begin(TEXT_DECODE)) {
+                    text = NdefText.decode(record.getPayload());
+                }
+                ExhibitJsonReader.Result result;
+                try (TraceSpan ignored = TraceSpan.begin(JSON_PARSE)) {
+                    result = ExhibitJsonReader.read(text);
+                }
+                if (result.isComplete() || result.isIdOnly()) {
+                    return result.getExhibit();
+                }
+                Log.w(TAG, "Invalid exhibit JSON: " + (result.getError() != null ? result.getError() : "missing " + result.getMissingKeys()));
+            }
+        } catch (IllegalArgumentException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    // Bind an exhibit to the views; its image load is timed from the tap under imageStage
+    private void displayExhibit(Exhibit exhibit, TraceSpan tap, String imageStage) {
+        // Skip view binding and image loading when the same exhibit is already on screen
+        if (exhibit.equals(displayedExhibit)) {
+            return;
+        }
+        displayedExhibit = exhibit;
+        try (TraceSpan ignored = TraceSpan.begin(BIND_VIEWS)) {
+            bindExhibit(exhibit, tap.getStartNanos(), imageStage);
+        }
+    }
+
+    private void bindExhibit(Exhibit exhibit, long tapNanos, String imageStage) {
         ImageView imageView = findViewById(R.id.imageView);
         TextView titleTextView = findViewById(R.id.titleTextView);
         TextView bodyTextView = findViewById(R.id.bodyTextView);
         TextView urlTextView = findViewById(R.id.urlTextView);
         TextView videoLinkTextView = findViewById(R.id.videoLinkTextView);
 
-        try {
-            // Parse the NFC data as a JSON object
-            JSONObject jsonObject = new JSONObject(nfcData);
-            String imageLink = jsonObject.getString("ImageLink");
-            String title = jsonObject.getString("Title");
-            String body = jsonObject.getString("Body");
-            String url = jsonObject.getString("URL");
-            String videoLink = jsonObject.getString("VideoLink");
-
-            // Load image using Glide
-            Glide.with(this).load(imageLink).into(imageView);
-
-            // Set text for TextViews
-            titleTextView.setText(title);
-            bodyTextView.setText(body);
-            urlTextView.setText(url);
-            urlTextView.setOnClickListener(v -> {
-                Intent browserIntent = new Intent(Intent.ACTION_VIEW, Uri.parse(url));
-                startActivity(browserIntent);
-            });
-            videoLinkTextView.setText(videoLink);
-            videoLinkTextView.setOnClickListener(v -> {
-                Intent browserIntent = new Intent(Intent.ACTION_VIEW, Uri.parse(videoLink));
-                startActivity(browserIntent);
-            });
+        final String url = exhibit.getUrl();
+        final String videoLink = exhibit.getVideoLink();
 
-        } catch (JSONException e) {
-            e.printStackTrace();
+        // Load the image sized to the view, thumbnail first
+        ExhibitImageLoader.load(this, imageView, exhibit, imageStage, tapNanos);
+
+        // Set text for TextViews
+        titleTextView.setText(exhibit.getTitle());
+        bodyTextView.setText(exhibit.getBody());
+        urlTextView.setText(url);
+        urlTextView.setOnClickListener(v -> {
+            Intent browserIntent = new Intent(Intent.ACTION_VIEW, Uri.parse(url));
+            startActivity(browserIntent);
+        });
+        videoLinkTextView.setText(videoLink);
+        videoLinkTextView.setOnClickListener(v -> {
+            Intent browserIntent = new Intent(Intent.ACTION_VIEW, Uri.parse(videoLink));
+            startActivity(browserIntent);
+        });
+    }
+
+    private void enableNfcReading() {
+        if (useReaderMode) {
+            enableNfcReaderMode();
+        } else {
+            enableNfcForegroundDispatch();
+        }
+    }
+
+    private void disableNfcReading() {
+        if (useReaderMode) {
+            nfcAdapter.disableReaderMode(this);
+        } else {
+            disableNfcForegroundDispatch();
+        }
+    }
+
+    private void enableNfcReaderMode() {
+        Bundle options = new Bundle();
+        options.putInt(NfcAdapter.EXTRA_READER_PRESENCE_CHECK_DELAY, PRESENCE_CHECK_DELAY_MS);
+        nfcAdapter.enableReaderMode(this, this::onTagDiscovered, readerFlags(), options);
+    }
+
+    private int readerFlags() {
+        return skipNdefCheck ? READER_FLAGS | NfcAdapter.FLAG_READER_SKIP_NDEF_CHECK : READER_FLAGS;
+    }
+
+    // Re-enable reader mode with the platform NDEF check, so the tag still in the field is found
+    // again with its Ndef technology
+    private void enableNdefCheck() {
+        if (!skipNdefCheck || !useReaderMode || !getLifecycle().getCurrentState().isAtLeast(Lifecycle.State.RESUMED)) {
+            return;
         }
+        skipNdefCheck = false;
+        enableNfcReaderMode();
     }
 
     private void enableNfcForegroundDispatch() {
         Intent intent = new Intent(this, DisplayNfcDataActivity.class).addFlags(Intent.FLAG_ACTIVITY_SINGLE_TOP);
         PendingIntent pendingIntent = PendingIntent.getActivity(this, 0, intent, PendingIntent.FLAG_MUTABLE);
-        IntentFilter[] intentFilters = new IntentFilter[]{new IntentFilter(NfcAdapter.ACTION_NDEF_DISCOVERED)};
-        nfcAdapter.enableForegroundDispatch(this, pendingIntent, intentFilters, null);
+        // No filters: every tag is delivered, whatever the MIME type or external type of its first record
+        nfcAdapter.enableForegroundDispatch(this, pendingIntent, null, null);
     }
 
     private void disableNfcForegroundDispatch() {
@@ -0,0 +1,124 @@
+package com.example.museum;
+
+import android.app.ActivityManager;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * ExhibitCache is a size-bounded LRU cache of decoded exhibits that sits in front of the
+ * NFC and QR display paths, so repeat taps of the same tag or scans of the same code skip
+ * NDEF decoding, JSON parsing and catalog lookups. Entries are keyed by tag UID and by the
+ * raw payload (NDEF record bytes or QR text); the cache itself is an ExhibitLruCache. The
+ * budget is a fraction of the app's heap class and shrinks when the system reports memory
+ * pressure through onTrimMemory(). Entries by tag UID may be stale if the tag was rewritten
+ * by another device; they are shown only until the tag's fresh read replaces them.
+ */
+public class ExhibitCache {
+
+    // Share of the per-app heap given to the cache, and its upper bound in bytes
+    private static final int HEAP_FRACTION = 64;
+    private static final int MAX_BUDGET_BYTES = 1024 * 1024;
+
+    private static ExhibitCache instance;
+
+    private final ExhibitLruCache cache;
+
+    private ExhibitCache(int budgetBytes) {
+        cache = new ExhibitLruCache(budgetBytes);
+    }
+
+    // Get the shared cache, sizing its budget from the device's memory class on first use
+    public static synchronized ExhibitCache getInstance(Context context) {
+        if (instance == null) {
+            ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+            int heapBytes = activityManager.getMemoryClass() * 1024 * 1024;
+            instance = new ExhibitCache(Math.min(heapBytes / HEAP_FRACTION, MAX_BUDGET_BYTES));
+        }
+        return instance;
+    }
+
+    // Look up the exhibit last read from the tag with this UID; a hint until the tag is read again
+    public Exhibit getByTag(byte[] uid) {
+        return cache.getByTag(uid);
+    }
+
+    public void putByTag(byte[] uid, Exhibit exhibit) {
+        cache.putByTag(uid, exhibit);
+    }
+
+    // Forget what is cached for a tag, e.g. after it has been rewritten by this device
+    public void invalidateTag(byte[] uid) {
+        cache.invalidateTag(uid);
+    }
+
+    // Forget every entry holding this exhibit, e.g. after its content was changed in the catalog
+    public void invalidateExhibit(String id) {
+        cache.invalidateExhibit(id);
+    }
+
+    // Look up the exhibit decoded from this raw NDEF record payload
+    public Exhibit getByPayload(byte[] payload) {
+        return cache.getByPayload(payload);
+    }
+
+    public void putByPayload(byte[] payload, Exhibit exhibit) {
+        cache.putByPayload(payload, exhibit);
+    }
+
+    // Look up the exhibit decoded from this scanned QR text
+    public Exhibit getByPayload(String contents) {
+        return cache.getByPayload(contents);
+    }
+
+    public void putByPayload(String contents, Exhibit exhibit) {
+        cache.putByPayload(contents, exhibit);
+    }
+
+    // Drop every entry, e.g. after the catalog behind ID-only payloads has changed
+    public void evictAll() {
+        cache.evictAll();
+    }
+
+    // Release memory according to how much pressure the system reports
+    public void onTrimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            cache.evictAll();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            cache.trimToSize(cache.maxSize() / 4);
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE) {
+            cache.trimToSize(cache.maxSize() / 2);
+        }
+    }
+
+    public int hitCount() {
+        return cache.hitCount();
+    }
+
+    public int missCount() {
+        return cache.missCount();
+    }
+
+    public int evictionCount() {
+        return cache.evictionCount();
+    }
+
+    // Bytes currently held against the budget
+    public int size() {
+        return cache.size();
+    }
+
+    public int maxSize() {
+        return cache.maxSize();
+    }
+
+    @Override
+    public String toString() {
+        return cache.toString();
+    }
+}
@@ -0,0 +1,289 @@
+package com.example.museum;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.os.Handler;
+import android.os.Looper;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * ExhibitCatalog is the on-device store of exhibit content keyed by exhibit ID. Tags and
+ * QR codes that only carry an ID are resolved through it, so exhibit text and links can
+ * be edited without re-tagging. The table is a WITHOUT ROWID table clustered on the ID,
+ * so a lookup is a single primary-key probe. On first creation the catalog is seeded from
+ * the optional "exhibits.json" asset (a JSON array of exhibit objects). Each exhibit has a
+ * content version, which short QR payloads (see ShortQrPayload) carry so a scan can tell
+ * whether the plaque was printed for newer content than the device has. Content packs bring
+ * their own versions; content without one (manifests, tags) bumps the version when it differs.
+ *
+ * SQLite work blocks, so the UI reaches the catalog through query() and putAsync(), which
+ * run on the catalog's own thread and post results back to the main thread. The database
+ * is opened (and seeded, on first run) on that thread at startup by open(), so the first
+ * tap does not pay for it. The synchronous methods are for code already off the main thread.
+ */
+public class ExhibitCatalog extends SQLiteOpenHelper {
+
+    private static final String DATABASE_NAME = "exhibit_catalog.db";
+    private static final int DATABASE_VERSION = 2;
+    private static final String SEED_ASSET = "exhibits.json";
+
+    private static final String TABLE = "exhibits";
+    private static final String COLUMN_ID = "id";
+    private static final String COLUMN_TITLE = "title";
+    private static final String COLUMN_BODY = "body";
+    private static final String COLUMN_URL = "url";
+    private static final String COLUMN_IMAGE_LINK = "image_link";
+    private static final String COLUMN_VIDEO_LINK = "video_link";
+    private static final String COLUMN_VERSION = "version";
+
+    // Version of exhibits added without one
+    public static final int INITIAL_VERSION = CatalogEntry.INITIAL_VERSION;
+
+    private static final String[] COLUMNS = {COLUMN_ID, COLUMN_TITLE, COLUMN_BODY, COLUMN_URL, COLUMN_IMAGE_LINK,
+            COLUMN_VIDEO_LINK, COLUMN_VERSION};
+
+    private static ExhibitCatalog instance;
+
+    private final Context context;
+    private final ExecutorService executor; // Single thread for catalog work requested by the UI
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Catalog work run on the catalog thread
+    public interface Query<T> {
+        T run(ExhibitCatalog catalog);
+    }
+
+    // Receives the result of a query on the main thread
+    public interface Callback<T> {
+        void onResult(T result);
+    }
+
+    private ExhibitCatalog(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        this.context = context;
+        this.executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "exhibit-catalog");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    // Get the shared catalog for the application
+    public static synchronized ExhibitCatalog getInstance(Context context) {
+        if (instance == null) {
+            instance = new ExhibitCatalog(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE + " ("
+                + COLUMN_ID + " TEXT PRIMARY KEY NOT NULL, "
+                + COLUMN_TITLE + " TEXT NOT NULL, "
+                + COLUMN_BODY + " TEXT NOT NULL, "
+                + COLUMN_URL + " TEXT NOT NULL, "
+                + COLUMN_IMAGE_LINK + " TEXT NOT NULL, "
+                + COLUMN_VIDEO_LINK + " TEXT NOT NULL, "
+                + COLUMN_VERSION + " INTEGER NOT NULL DEFAULT " + INITIAL_VERSION + ") WITHOUT ROWID");
+        seedFromAssets(db);
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion < 2) {
+            db.execSQL("ALTER TABLE " + TABLE + " ADD COLUMN " + COLUMN_VERSION
+                    + " INTEGER NOT NULL DEFAULT " + INITIAL_VERSION);
+        }
+    }
+
+    // Open the database on the catalog thread, seeding it on first run; call once at startup
+    public void open() {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                getWritableDatabase();
+            }
+        });
+    }
+
+    // Run catalog work on the catalog thread and deliver its result on the main thread
+    public <T> void query(final Query<T> query, final Callback<T> callback) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final T result = query.run(ExhibitCatalog.this);
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onResult(result);
+                    }
+                });
+            }
+        });
+    }
+
+    // Insert or replace a single exhibit on the catalog thread; the callback learns on the main
+    // thread whether its content was added or changed
+    public void putAsync(final Exhibit exhibit, Callback<Boolean> callback) {
+        query(new Query<Boolean>() {
+            @Override
+            public Boolean run(ExhibitCatalog catalog) {
+                return catalog.put(exhibit);
+            }
+        }, callback);
+    }
+
+    // Look up an exhibit and its content version by ID in one probe, or return null if it is not in the catalog
+    public CatalogEntry getEntry(String id) {
+        return getEntry(getReadableDatabase(), id);
+    }
+
+    private static CatalogEntry getEntry(SQLiteDatabase db, String id) {
+        if (id == null || id.isEmpty()) {
+            return null;
+        }
+        try (Cursor cursor = db.query(TABLE, COLUMNS, COLUMN_ID + " = ?",
+                new String[]{id}, null, null, null, "1")) {
+            if (!cursor.moveToFirst()) {
+                return null;
+            }
+            return new CatalogEntry(new Exhibit(cursor.getString(0), cursor.getString(1), cursor.getString(2),
+                    cursor.getString(3), cursor.getString(4), cursor.getString(5)), cursor.getInt(6));
+        }
+    }
+
+    // Look up an exhibit by ID, or return null if it is not in the catalog
+    public Exhibit get(String id) {
+        CatalogEntry entry = getEntry(id);
+        return entry != null ? entry.getExhibit() : null;
+    }
+
+    // Content version of an exhibit, or -1 if it is not in the catalog
+    public int getVersion(String id) {
+        CatalogEntry entry = getEntry(id);
+        return entry != null ? entry.getVersion() : -1;
+    }
+
+    // Resolve a decoded tag or QR payload: inline exhibits are returned as they are,
+    // ID-only payloads are looked up in the catalog (null if the ID is unknown)
+    public Exhibit resolve(Exhibit payload) {
+        return CatalogEntry.resolve(payload, this::getEntry);
+    }
+
+    // Insert or replace a single exhibit; its content version goes up by one if the content changed.
+    // Returns whether anything was written.
+    public boolean put(Exhibit exhibit) {
+        return put(getWritableDatabase(), exhibit, -1);
+    }
+
+    // Insert or replace a single exhibit with the given content version
+    public void put(Exhibit exhibit, int version) {
+        put(getWritableDatabase(), exhibit, version);
+    }
+
+    // Insert or replace many exhibits in one transaction, bumping the version of each whose
+    // content changed; returns how many were added or changed
+    public int putAll(Collection<Exhibit> exhibits) {
+        SQLiteDatabase db = getWritableDatabase();
+        int changed = 0;
+        db.beginTransaction();
+        try {
+            for (Exhibit exhibit : exhibits) {
+                if (put(db, exhibit, -1)) {
+                    changed++;
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        return changed;
+    }
+
+    // Import every exhibit of a content pack with its content version, in one transaction
+    public void putAll(ContentPack pack) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < pack.size(); i++) {
+                put(db, pack.exhibitAt(i), pack.versionAt(i));
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    // Update the exhibit's row, or insert it if it is new. A negative version means the content
+    // carries none (manifests, tags written on this device): the stored version is kept if the
+    // content is unchanged and bumped if it differs. Returns false if nothing was written.
+    private static boolean put(SQLiteDatabase db, Exhibit exhibit, int version) {
+        if (exhibit.getId().isEmpty()) {
+            return false;
+        }
+        if (version < 0) {
+            CatalogEntry stored = getEntry(db, exhibit.getId());
+            if (stored != null && stored.getExhibit().equals(exhibit)) {
+                return false;
+            }
+            version = CatalogEntry.versionFor(stored, exhibit);
+        }
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_TITLE, exhibit.getTitle());
+        values.put(COLUMN_BODY, exhibit.getBody());
+        values.put(COLUMN_URL, exhibit.getUrl());
+        values.put(COLUMN_IMAGE_LINK, exhibit.getImageLink());
+        values.put(COLUMN_VIDEO_LINK, exhibit.getVideoLink());
+        values.put(COLUMN_VERSION, version);
+        if (db.update(TABLE, values, COLUMN_ID + " = ?", new String[]{exhibit.getId()}) == 0) {
+            values.put(COLUMN_ID, exhibit.getId());
+            db.insert(TABLE, null, values);
+        }
+        return true;
+    }
+
+    // Seed a freshly created catalog from the bundled exhibits.json asset, if there is one
+    private void seedFromAssets(SQLiteDatabase db) {
+        try (InputStream in = context.getAssets().open(SEED_ASSET)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            JSONArray array = new JSONArray(new String(out.toByteArray(), StandardCharsets.UTF_8));
+            for (int i = 0; i < array.length(); i++) {
+                JSONObject item = array.getJSONObject(i);
+                put(db, new Exhibit(item.optString("ID"), item.optString("Title"), item.optString("Body"),
+                        item.optString("URL"), item.optString("ImageLink"), item.optString("VideoLink")),
+                        item.optInt("Version", INITIAL_VERSION));
+            }
+        } catch (IOException e) {
+            // No seed asset bundled; the catalog starts empty
+        } catch (JSONException e) {
+            e.printStackTrace();
+        }
+    }
+}
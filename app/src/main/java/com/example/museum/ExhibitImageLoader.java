@@ -0,0 +1,160 @@
+package com.example.museum;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.os.SystemClock;
+import android.util.Log;
+import android.widget.ImageView;
+
+import androidx.fragment.app.FragmentActivity;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.load.resource.bitmap.DownsampleStrategy;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * ExhibitImageLoader loads exhibit images into the display activities' image views. The
+ * originals are full-resolution museum photography, so every load is decoded down to the
+ * size of the view (never up), and a low-resolution thumbnail is shown first: the exhibit's
+ * thumbnail from the offline content pack when there is one, otherwise a quarter-size RGB_565
+ * decode of the image itself if it is already in the disk cache (never a second download).
+ * Both the original and the decoded image are kept on disk. Load times are recorded in LatencyMetrics per Glide data source,
+ * so memory-cache hits, decodes from disk and network loads can be told apart, together with
+ * the time from the tap or scan that asked for the image; the bytes of decoded images Glide
+ * is holding are logged with them. Images can also be preloaded at low priority (see
+ * ImagePrefetcher); taps load at immediate priority so they overtake any prefetch. Loads are
+ * tied to the activity's lifecycle through Glide.with(), which cancels them when it is destroyed.
+ */
+public final class ExhibitImageLoader {
+
+    private static final String TAG = "ExhibitImageLoader";
+
+    // Size of the fallback thumbnail relative to the view
+    private static final float THUMBNAIL_SIZE_MULTIPLIER = 0.25f;
+
+    private static final String MEMORY_STAGE = "Exhibit image: from memory cache";
+    private static final String DECODE_STAGE = "Exhibit image: decode from disk";
+    private static final String REMOTE_STAGE = "Exhibit image: download and decode";
+
+    private static final AtomicInteger failedCount = new AtomicInteger();
+    private static final AtomicLong lastBitmapBytes = new AtomicLong();
+
+    private ExhibitImageLoader() {
+    }
+
+    // Load an exhibit's image into a view, thumbnail first. The time from requestNanos (the tap or
+    // scan, on the elapsedRealtimeNanos clock) to the full image is recorded under requestStage.
+    public static void load(FragmentActivity activity, ImageView imageView, Exhibit exhibit,
+                            final String requestStage, final long requestNanos) {
+        RequestManager glide = Glide.with(activity);
+        final String imageLink = exhibit.getImageLink();
+        final long startNanos = SystemClock.elapsedRealtimeNanos();
+
+        byte[] packThumbnail = ContentPackStore.getInstance(activity).getThumbnail(exhibit.getId());
+        RequestBuilder<Drawable> thumbnail;
+        if (packThumbnail != null) {
+            thumbnail = glide.load(packThumbnail).format(DecodeFormat.PREFER_RGB_565);
+        } else {
+            thumbnail = glide.load(imageLink).sizeMultiplier(THUMBNAIL_SIZE_MULTIPLIER).format(DecodeFormat.PREFER_RGB_565)
+                    .onlyRetrieveFromCache(true);
+        }
+
+        fullImage(glide, imageLink)
+                .priority(Priority.IMMEDIATE)
+                .thumbnail(thumbnail)
+                .listener(new RequestListener<Drawable>() {
+                    @Override
+                    public boolean onLoadFailed(GlideException e, Object model, Target<Drawable> target, boolean isFirstResource) {
+                        failedCount.incrementAndGet();
+                        Log.w(TAG, "Failed to load " + model, e);
+                        return false;
+                    }
+
+                    @Override
+                    public boolean onResourceReady(Drawable resource, Object model, Target<Drawable> target,
+                                                   DataSource dataSource, boolean isFirstResource) {
+                        long now = SystemClock.elapsedRealtimeNanos();
+                        TraceSpan.record(requestStage, now - requestNanos);
+                        record(dataSource, now - startNanos, resource);
+                        return false;
+                    }
+                })
+                .into(imageView);
+    }
+
+    // Warm the disk and memory caches with an image at a display size, at low priority. The
+    // request matches what load() asks for in a centerCrop image view of that size, so the
+    // later tap or scan is a memory-cache hit. Clear the returned target to cancel.
+    public static Target<Drawable> preload(Context context, String imageLink, int width, int height,
+                                           RequestListener<Drawable> listener) {
+        return fullImage(Glide.with(context), imageLink)
+                .optionalCenterCrop()
+                .priority(Priority.LOW)
+                .listener(listener)
+                .preload(width, height);
+    }
+
+    // Cancel a preload started by preload()
+    public static void cancelPreload(Context context, Target<Drawable> target) {
+        Glide.with(context).clear(target);
+    }
+
+    // The full-size request shared by display and preload, so both use the same cache keys. The
+    // original is cached for other sizes and the thumbnail, the decoded image for revisits.
+    private static RequestBuilder<Drawable> fullImage(RequestManager glide, String imageLink) {
+        return glide.load(imageLink)
+                .downsample(DownsampleStrategy.CENTER_INSIDE)
+                .diskCacheStrategy(DiskCacheStrategy.ALL);
+    }
+
+    private static void record(DataSource dataSource, long nanos, Drawable resource) {
+        String stage;
+        switch (dataSource) {
+            case MEMORY_CACHE:
+                stage = MEMORY_STAGE;
+                break;
+            case REMOTE:
+                stage = REMOTE_STAGE;
+                break;
+            default:
+                stage = DECODE_STAGE;
+                break;
+        }
+        LatencyHistogram histogram = LatencyMetrics.getInstance().histogram(stage);
+        histogram.record(nanos);
+        if (resource instanceof BitmapDrawable) {
+            Bitmap bitmap = ((BitmapDrawable) resource).getBitmap();
+            lastBitmapBytes.set(bitmap.getAllocationByteCount());
+        }
+        Log.d(TAG, histogram + "; " + summary());
+    }
+
+    // Bytes held by Glide and by the last image shown, and failed loads
+    public static String summary() {
+        return "held=" + (MuseumGlideModule.getBytesHeld() / 1024) + "/" + (MuseumGlideModule.getMaxBytes() / 1024)
+                + " KB, last image=" + (lastBitmapBytes.get() / 1024) + " KB, failed=" + failedCount.get();
+    }
+
+    // Load times by source and the memory summary, for the log
+    public static String report() {
+        LatencyMetrics metrics = LatencyMetrics.getInstance();
+        return metrics.histogram(MEMORY_STAGE) + "; " + metrics.histogram(DECODE_STAGE) + "; "
+                + metrics.histogram(REMOTE_STAGE) + "; " + summary();
+    }
+}
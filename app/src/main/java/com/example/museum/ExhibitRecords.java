@@ -0,0 +1,59 @@
+package com.example.museum;
+
+import android.nfc.NdefRecord;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * ExhibitRecords wraps the binary exhibit payload produced by ExhibitCodec in an NDEF
+ * record and recognises such records when they are read back from a tag. There are two
+ * encodings: the plain NFC Forum external type "com.example.museum:exhibit", and a MIME
+ * record ("application/vnd.museum.exhibit+deflate") holding the payload deflated by
+ * ExhibitCompressor. The writer picks whichever record is smaller for each exhibit.
+ */
+public final class ExhibitRecords {
+
+    public static final String EXTERNAL_DOMAIN = "com.example.museum";
+    public static final String EXTERNAL_TYPE = "exhibit";
+    public static final String COMPRESSED_MIME_TYPE = "application/vnd.museum.exhibit+deflate";
+
+    // External types are stored lower-case as "domain:type"
+    private static final byte[] EXHIBIT_TYPE = (EXTERNAL_DOMAIN + ":" + EXTERNAL_TYPE).getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] COMPRESSED_TYPE = COMPRESSED_MIME_TYPE.getBytes(StandardCharsets.US_ASCII);
+
+    private ExhibitRecords() {
+    }
+
+    // Create the smaller of the plain and the compressed exhibit record
+    public static NdefRecord createExhibitRecord(Exhibit exhibit) {
+        byte[] payload = ExhibitCodec.encode(exhibit);
+        NdefRecord plain = NdefRecord.createExternal(EXTERNAL_DOMAIN, EXTERNAL_TYPE, payload);
+        NdefRecord compressed = NdefRecord.createMime(COMPRESSED_MIME_TYPE, ExhibitCompressor.compress(payload));
+        return compressed.getByteArrayLength() < plain.getByteArrayLength() ? compressed : plain;
+    }
+
+    // Check whether a record holds an exhibit, in either encoding
+    public static boolean isExhibitRecord(NdefRecord record) {
+        return isPlainRecord(record) || isCompressedRecord(record);
+    }
+
+    // Decode the exhibit held in an exhibit record, inflating it first if it is compressed
+    public static Exhibit readExhibit(NdefRecord record) {
+        if (isCompressedRecord(record)) {
+            return ExhibitCodec.decode(ExhibitCompressor.decompress(record.getPayload()));
+        }
+        return ExhibitCodec.decode(record.getPayload());
+    }
+
+    private static boolean isPlainRecord(NdefRecord record) {
+        return record.getTnf() == NdefRecord.TNF_EXTERNAL_TYPE && Arrays.equals(record.getType(), EXHIBIT_TYPE);
+    }
+
+    private static boolean isCompressedRecord(NdefRecord record) {
+        return record.getTnf() == NdefRecord.TNF_MIME_MEDIA && Arrays.equals(record.getType(), COMPRESSED_TYPE);
+    }
+}
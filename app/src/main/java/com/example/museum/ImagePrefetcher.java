@@ -0,0 +1,180 @@
+package com.example.museum;
+
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * ImagePrefetcher warms Glide's caches with the images of exhibits near the visitor, so a
+ * tap shows the image at once instead of starting the download then. BLEList feeds it beacon
+ * distances; a PrefetchPlanner decides what to start and cancel, and the images are
+ * preloaded at low priority through ExhibitImageLoader at the size of each view that shows
+ * them: the exhibit panel first, then the QR scanner's smaller view, decoded from the
+ * original the first preload left in the disk cache. No new prefetches start on a metered
+ * network; whether the network is metered is tracked with a default network callback
+ * rather than asked on every update. Runs on the main thread; call close() when done.
+ */
+public class ImagePrefetcher {
+
+    private static final String TAG = "ImagePrefetcher";
+
+    private final Context context;
+    private final PrefetchPlanner planner;
+    private final ConnectivityManager connectivityManager;
+    private final int[][] sizes; // Width and height of each view exhibit images are shown in, largest first
+    private final Map<String, Target<Drawable>> targets = new HashMap<>();
+    private final Map<String, String> imageLinks = new HashMap<>(); // Exhibit ID to ImageLink, looked up once
+    private volatile boolean metered;
+
+    // Keeps the metered flag current; called on the connectivity thread
+    private final ConnectivityManager.NetworkCallback networkCallback = new ConnectivityManager.NetworkCallback() {
+        @Override
+        public void onCapabilitiesChanged(Network network, NetworkCapabilities capabilities) {
+            metered = !capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_NOT_METERED);
+        }
+
+        @Override
+        public void onLost(Network network) {
+            metered = true; // Nothing can be fetched without a network either
+        }
+    };
+
+    public ImagePrefetcher(Context context, FloorPlan floorPlan) {
+        this.context = context.getApplicationContext();
+        this.planner = new PrefetchPlanner(floorPlan.getExhibitsByBeacon());
+        this.connectivityManager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        this.sizes = new int[][]{
+                {context.getResources().getDimensionPixelSize(R.dimen.exhibit_image_width),
+                        context.getResources().getDimensionPixelSize(R.dimen.exhibit_image_height)},
+                {context.getResources().getDimensionPixelSize(R.dimen.qr_exhibit_image_width),
+                        context.getResources().getDimensionPixelSize(R.dimen.qr_exhibit_image_height)}};
+        if (connectivityManager != null) {
+            metered = connectivityManager.isActiveNetworkMetered();
+            connectivityManager.registerDefaultNetworkCallback(networkCallback);
+        }
+    }
+
+    // Record a beacon's filtered distance
+    public void onBeacon(String address, double distance, long now) {
+        planner.onBeacon(address, distance, now);
+    }
+
+    // Start and cancel prefetches for where the visitor is now
+    public void update(long now) {
+        if (metered) {
+            // Nothing is prefetched on a metered network; the visitor's data plan is not spent on guesses
+            for (String id : planner.cancelAll()) {
+                cancel(id);
+            }
+            return;
+        }
+        PrefetchPlanner.Plan plan = planner.plan(now);
+        for (String id : plan.getCancel()) {
+            cancel(id);
+        }
+        for (String id : plan.getStart()) {
+            start(id);
+        }
+    }
+
+    // Cancel every prefetch in flight
+    public void cancelAll() {
+        for (String id : planner.cancelAll()) {
+            cancel(id);
+        }
+    }
+
+    // Cancel every prefetch and stop tracking the network
+    public void close() {
+        cancelAll();
+        if (connectivityManager != null) {
+            connectivityManager.unregisterNetworkCallback(networkCallback);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return planner.toString();
+    }
+
+    private void start(final String id) {
+        String cached = imageLinks.get(id);
+        if (cached != null) {
+            preload(id, cached, 0);
+            return;
+        }
+        // Look the ImageLink up on the catalog thread; the prefetch may be cancelled meanwhile
+        ExhibitCatalog.getInstance(context).query(catalog -> {
+            Exhibit exhibit = catalog.get(id);
+            return exhibit != null ? exhibit.getImageLink() : null;
+        }, imageLink -> {
+            if (imageLink != null) {
+                imageLinks.put(id, imageLink); // Unknown IDs are asked again, as the catalog may have them by then
+            }
+            if (planner.isInFlight(id)) {
+                preload(id, imageLink, 0);
+            }
+        });
+    }
+
+    // Preload the image at sizes[size], then at the following sizes once it is ready
+    private void preload(final String id, final String imageLink, final int size) {
+        if (imageLink == null || imageLink.isEmpty()) {
+            planner.onFinished(id, true, SystemClock.elapsedRealtime()); // Nothing to fetch; asked again once it goes cold
+            return;
+        }
+        Target<Drawable> target = ExhibitImageLoader.preload(context, imageLink, sizes[size][0], sizes[size][1],
+                new RequestListener<Drawable>() {
+            @Override
+            public boolean onLoadFailed(GlideException e, Object model, Target<Drawable> target, boolean isFirstResource) {
+                finished(id, false);
+                return false;
+            }
+
+            @Override
+            public boolean onResourceReady(Drawable resource, Object model, Target<Drawable> target,
+                                           DataSource dataSource, boolean isFirstResource) {
+                if (size + 1 < sizes.length && planner.isInFlight(id)) {
+                    targets.remove(id);
+                    preload(id, imageLink, size + 1);
+                } else {
+                    finished(id, true);
+                }
+                return false;
+            }
+        });
+        // A memory-cache hit finishes inside preload(), possibly after starting the next size,
+        // so only a request still in flight with nothing newer tracked is kept for cancelling
+        if (planner.isInFlight(id) && !targets.containsKey(id)) {
+            targets.put(id, target);
+        }
+    }
+
+    private void finished(String id, boolean success) {
+        targets.remove(id);
+        planner.onFinished(id, success, SystemClock.elapsedRealtime());
+        Log.d(TAG, "Prefetched " + id + (success ? "" : " (failed)") + "; " + planner);
+    }
+
+    private void cancel(String id) {
+        Target<Drawable> target = targets.remove(id);
+        if (target != null) {
+            ExhibitImageLoader.cancelPreload(context, target);
+        }
+    }
+}
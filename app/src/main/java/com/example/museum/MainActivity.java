@@ -5,6 +5,7 @@ import android.content.Intent;
 import android.os.Bundle;
 import android.view.View;
 import android.widget.Button;
+import android.widget.TextView;
 
 /**
  * Author: Dharmik Parthiv Chhatbar
@@ -12,7 +13,8 @@ import android.widget.Button;
  *
  * MainActivity serves as the entry point to the application.
  * It provides buttons to navigate to different functionalities of the app,
- * including NFC, BLE, and QR code scanning.
+ * including NFC, BLE, and QR code scanning. Long-pressing the welcome text opens the hidden
+ * latency diagnostics screen.
  */
 public class MainActivity extends AppCompatActivity {
 
@@ -56,5 +58,15 @@ public class MainActivity extends AppCompatActivity {
                 startActivity(intent); // Start the QRScanner activity
             }
         });
+
+        // Long-press the welcome text to open the diagnostics screen
+        TextView welcomeText = findViewById(R.id.welcomeText);
+        welcomeText.setOnLongClickListener(new View.OnLongClickListener() {
+            @Override
+            public boolean onLongClick(View v) {
+                startActivity(new Intent(MainActivity.this, DiagnosticsActivity.class));
+                return true;
+            }
+        });
     }
 }
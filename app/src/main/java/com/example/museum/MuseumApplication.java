@@ -0,0 +1,41 @@
+package com.example.museum;
+
+import android.app.Application;
+import android.text.TextUtils;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * MuseumApplication is the application class. It opens the exhibit catalog and maps the
+ * offline content pack in the background, starts the pack update when a content server is configured,
+ * and forwards memory pressure callbacks to the app-wide caches so they can give memory
+ * back to the system.
+ */
+public class MuseumApplication extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        // Open and seed the catalog now, off the main thread, rather than inside the first tap
+        ExhibitCatalog.getInstance(this).open();
+        // Likewise map the installed content pack, which the first displayed exhibit reads its thumbnail from
+        ContentPackStore.getInstance(this).open();
+        String contentPackUrl = getString(R.string.content_pack_url);
+        if (!TextUtils.isEmpty(contentPackUrl)) {
+            ContentPackStore.getInstance(this).update(contentPackUrl, null);
+        }
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        ExhibitCache.getInstance(this).onTrimMemory(level);
+    }
+
+    @Override
+    public void onLowMemory() {
+        super.onLowMemory();
+        ExhibitCache.getInstance(this).onTrimMemory(TRIM_MEMORY_COMPLETE);
+    }
+}
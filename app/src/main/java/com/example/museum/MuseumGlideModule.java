@@ -0,0 +1,86 @@
+package com.example.museum;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.util.Log;
+
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.load.engine.cache.MemorySizeCalculator;
+import com.bumptech.glide.module.AppGlideModule;
+import com.bumptech.glide.request.RequestOptions;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * MuseumGlideModule configures Glide for exhibit photography. The memory cache and bitmap
+ * pool are sized in screens of pixels (fewer on low-RAM devices such as the loaner phones),
+ * decoded images are kept in a bounded disk cache so a revisited exhibit does not download
+ * or decode the original again, and low-RAM devices decode to RGB_565 by default, which
+ * halves the size of every opaque bitmap (images with transparency stay ARGB_8888).
+ */
+@GlideModule
+public final class MuseumGlideModule extends AppGlideModule {
+
+    private static final String DISK_CACHE_NAME = "exhibit_images";
+    private static final long DISK_CACHE_BYTES = 100L * 1024 * 1024;
+    private static final long LOW_RAM_DISK_CACHE_BYTES = 40L * 1024 * 1024;
+
+    // Screens worth of pixels kept in the memory cache and the bitmap pool
+    private static final float MEMORY_CACHE_SCREENS = 2;
+    private static final float BITMAP_POOL_SCREENS = 2;
+    private static final float LOW_RAM_MEMORY_CACHE_SCREENS = 1;
+    private static final float LOW_RAM_BITMAP_POOL_SCREENS = 1;
+
+    private static volatile LruResourceCache memoryCache;
+    private static volatile LruBitmapPool bitmapPool;
+
+    @Override
+    public void applyOptions(Context context, GlideBuilder builder) {
+        boolean lowRam = isLowRamDevice(context);
+        MemorySizeCalculator calculator = new MemorySizeCalculator.Builder(context)
+                .setMemoryCacheScreens(lowRam ? LOW_RAM_MEMORY_CACHE_SCREENS : MEMORY_CACHE_SCREENS)
+                .setBitmapPoolScreens(lowRam ? LOW_RAM_BITMAP_POOL_SCREENS : BITMAP_POOL_SCREENS)
+                .build();
+        memoryCache = new LruResourceCache(calculator.getMemoryCacheSize());
+        bitmapPool = new LruBitmapPool(calculator.getBitmapPoolSize());
+        builder.setMemoryCache(memoryCache);
+        builder.setBitmapPool(bitmapPool);
+        builder.setDiskCache(new InternalCacheDiskCacheFactory(context, DISK_CACHE_NAME,
+                lowRam ? LOW_RAM_DISK_CACHE_BYTES : DISK_CACHE_BYTES));
+        builder.setDefaultRequestOptions(new RequestOptions()
+                .format(lowRam ? DecodeFormat.PREFER_RGB_565 : DecodeFormat.PREFER_ARGB_8888));
+        builder.setLogLevel(Log.WARN);
+    }
+
+    // All components are registered here, so skip scanning the manifest for old-style modules
+    @Override
+    public boolean isManifestParsingEnabled() {
+        return false;
+    }
+
+    // Whether the device reports itself as low on RAM
+    public static boolean isLowRamDevice(Context context) {
+        ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        return activityManager.isLowRamDevice();
+    }
+
+    // Bytes of decoded images held by the memory cache and the bitmap pool, or 0 before Glide starts
+    public static long getBytesHeld() {
+        LruResourceCache cache = memoryCache;
+        LruBitmapPool pool = bitmapPool;
+        return (cache != null ? cache.getCurrentSize() : 0) + (pool != null ? pool.getCurrentSize() : 0);
+    }
+
+    // Byte budget of the memory cache and the bitmap pool, or 0 before Glide starts
+    public static long getMaxBytes() {
+        LruResourceCache cache = memoryCache;
+        LruBitmapPool pool = bitmapPool;
+        return (cache != null ? cache.getMaxSize() : 0) + (pool != null ? pool.getMaxSize() : 0);
+    }
+}
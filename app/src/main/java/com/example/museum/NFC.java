@@ -10,8 +10,8 @@ import android.nfc.NdefMessage;
 import android.nfc.NdefRecord;
 import android.nfc.NfcAdapter;
 import android.nfc.Tag;
-import android.nfc.tech.Ndef;
 import android.os.Parcelable;
+import android.os.SystemClock;
 import android.provider.Settings;
 import android.widget.Toast;
 
@@ -20,8 +20,6 @@ import androidx.appcompat.app.AlertDialog;
 
 import org.json.JSONObject;
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
-import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 
 /**
@@ -37,6 +35,11 @@ public class NFC {
     public static final String Error_Detected = "No NFC Tag Detected";
     public static final String Write_Success = "Tag Activated";
     public static final String Write_Error = "Error Activating Tag";
+    public static final String Write_Skipped = "Tag already up to date";
+
+    // Timed stages of reading a tag on the text screen
+    private static final String READ_STAGE = "NFC text screen: read tag";
+    private static final String TEXT_DECODE_STAGE = "NFC text screen: text decode";
 
     // NFC-related variables
     private NfcAdapter nfcAdapter; // Instance of the NFC adapter
@@ -131,33 +134,21 @@ public class NFC {
 
     // Write data to an NFC tag
     public void writeNFC(String text) {
-        try {
-            if (myTag == null) {
-                Toast.makeText(context, Error_Detected, Toast.LENGTH_SHORT).show();
-            } else {
-                // Write the content to the NFC tag
-                write(text, myTag);
-                Toast.makeText(context, Write_Success, Toast.LENGTH_SHORT).show();
-            }
-        } catch (IOException | FormatException e) {
-            Toast.makeText(context, Write_Error, Toast.LENGTH_SHORT).show();
-            e.printStackTrace();
+        if (myTag == null) {
+            Toast.makeText(context, Error_Detected, Toast.LENGTH_SHORT).show();
+        } else {
+            // Write the content to the NFC tag
+            write(text, myTag);
         }
     }
 
     // Write JSON data to an NFC tag
     public void writeJsonToNFC(JSONObject jsonObject) {
-        try {
-            if (myTag == null) {
-                Toast.makeText(context, Error_Detected, Toast.LENGTH_SHORT).show();
-            } else {
-                String jsonString = jsonObject.toString();
-                write(jsonString, myTag);
-                Toast.makeText(context, Write_Success, Toast.LENGTH_SHORT).show();
-            }
-        } catch (IOException | FormatException e) {
-            Toast.makeText(context, Write_Error, Toast.LENGTH_SHORT).show();
-            e.printStackTrace();
+        if (myTag == null) {
+            Toast.makeText(context, Error_Detected, Toast.LENGTH_SHORT).show();
+        } else {
+            String jsonString = jsonObject.toString();
+            write(jsonString, myTag);
         }
     }
 
@@ -168,40 +159,63 @@ public class NFC {
                 || NfcAdapter.ACTION_TECH_DISCOVERED.equals(action)
                 || NfcAdapter.ACTION_NDEF_DISCOVERED.equals(action)) {
             myTag = intent.getParcelableExtra(NfcAdapter.EXTRA_TAG);
-            Parcelable[] rawMsgs = intent.getParcelableArrayExtra(NfcAdapter.EXTRA_NDEF_MESSAGES);
-            NdefMessage[] msgs = null;
-            if (rawMsgs != null) {
-                msgs = new NdefMessage[rawMsgs.length];
-                for (int i = 0; i < rawMsgs.length; i++) {
-                    msgs[i] = (NdefMessage) rawMsgs[i];
+            // Repeat events from a tag held against the phone show nothing new
+            TagEventGate gate = TagEventGate.getInstance();
+            byte[] uid = myTag != null ? myTag.getId() : null;
+            if (!gate.tryAcquire(uid, SystemClock.elapsedRealtime())) {
+                return;
+            }
+            // Released however the read ends, so a failed parse does not hold the tag until MAX_IN_FLIGHT_MS
+            try (TraceSpan ignored = TraceSpan.begin(READ_STAGE)) {
+                Parcelable[] rawMsgs = intent.getParcelableArrayExtra(NfcAdapter.EXTRA_NDEF_MESSAGES);
+                NdefMessage[] msgs = null;
+                if (rawMsgs != null) {
+                    msgs = new NdefMessage[rawMsgs.length];
+                    for (int i = 0; i < rawMsgs.length; i++) {
+                        msgs[i] = (NdefMessage) rawMsgs[i];
+                    }
                 }
+                buildTagViews(msgs);
+            } finally {
+                gate.release(uid);
             }
-            buildTagViews(msgs);
         }
     }
 
-    // Write NDEF message to an NFC tag
-    private void write(String text, Tag tag) throws IOException, FormatException {
+    // Write NDEF message to an NFC tag on the tag I/O thread and report the result on the UI
+    private void write(String text, final Tag tag) {
         NdefRecord[] records = {createRecord(text)};
-        NdefMessage message = new NdefMessage(records);
-        Ndef ndef = Ndef.get(tag);
-        ndef.connect();
-        ndef.writeNdefMessage(message);
-        ndef.close();
+        final NdefMessage message = new NdefMessage(records);
+        final TagIoExecutor tagIo = TagIoExecutor.getInstance();
+        tagIo.submit(new TagIoExecutor.TagTask<Boolean>() {
+            @Override
+            public Boolean run() throws IOException, FormatException {
+                return tagIo.writeNdefMessageIfChanged(tag, message);
+            }
+        }, TagIoExecutor.WRITE_TIMEOUT_MS, new TagIoExecutor.Callback<Boolean>() {
+            @Override
+            public void onSuccess(Boolean written) {
+                if (!written) {
+                    Toast.makeText(context, Write_Skipped + "\n" + tagIo.describeWriteCounts(), Toast.LENGTH_SHORT).show();
+                    return;
+                }
+                // The tag's content changed, so anything cached for its UID is stale and its next tap must be read
+                ExhibitCache.getInstance(context).invalidateTag(tag.getId());
+                TagEventGate.getInstance().forget(tag.getId());
+                Toast.makeText(context, Write_Success + "\n" + tagIo.describeWriteCounts(), Toast.LENGTH_SHORT).show();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Toast.makeText(context, Write_Error + ": " + e.getMessage() + "\n" + tagIo.describeWriteCounts(), Toast.LENGTH_SHORT).show();
+                e.printStackTrace();
+            }
+        });
     }
 
 // Create an NDEF record for the given text
-    private NdefRecord createRecord(String text) throws UnsupportedEncodingException {
-        String lang = "en";
-        byte[] textBytes = text.getBytes();
-        byte[] langBytes = lang.getBytes(StandardCharsets.US_ASCII);
-        int langLength = langBytes.length;
-        int textLength = textBytes.length;
-        byte[] payload = new byte[1 + langLength + textLength];
-        payload[0] = (byte) langLength;
-        System.arraycopy(langBytes, 0, payload, 1, langLength);
-        System.arraycopy(textBytes, 0, payload, 1 + langLength, textLength);
-        return new NdefRecord(NdefRecord.TNF_WELL_KNOWN, NdefRecord.RTD_TEXT, new byte[0], payload);
+    private NdefRecord createRecord(String text) {
+        return new NdefRecord(NdefRecord.TNF_WELL_KNOWN, NdefRecord.RTD_TEXT, new byte[0], NdefText.encode(text));
     }
 
     // Process and display the NFC tag content
@@ -211,11 +225,10 @@ public class NFC {
             for (NdefRecord record : records) {
                 if (record.getTnf() == NdefRecord.TNF_WELL_KNOWN && Arrays.equals(record.getType(), NdefRecord.RTD_TEXT)) {
                     try {
-                        byte[] payload = record.getPayload();
-                        // Get the text encoding (1st byte) and language code (next few bytes)
-                        String textEncoding = ((payload[0] & 128) == 0) ? "UTF-8" : "UTF-16";
-                        int languageCodeLength = payload[0] & 51;
-                        String text = new String(payload, languageCodeLength + 1, payload.length - languageCodeLength - 1, textEncoding);
+                        String text;
+                        try (TraceSpan ignored = TraceSpan.begin(TEXT_DECODE_STAGE)) {
+                            text = NdefText.decode(record.getPayload());
+                        }
 
                         // Update the nfc_contents TextView with the NFC content
                         ((NFCTextActivity) context).runOnUiThread(new Runnable() {
@@ -224,7 +237,7 @@ public class NFC {
                                 ((NFCTextActivity) context).nfc_contents.setText(text);
                             }
                         });
-                    } catch (UnsupportedEncodingException e) {
+                    } catch (IllegalArgumentException e) {
                         e.printStackTrace();
                     }
                 }
@@ -232,38 +245,31 @@ public class NFC {
         }
     }
 
-    // Read JSON data from an NFC tag
-    public String readJsonFromTag(Tag tag) {
-        try {
-            Ndef ndef = Ndef.get(tag);
-            if (ndef != null) {
-                ndef.connect();
-                NdefMessage ndefMessage = ndef.getNdefMessage();
+    // Read JSON data from an NFC tag on the tag I/O thread; the result is delivered to the callback on the UI thread
+    public void readJsonFromTag(final Tag tag, TagIoExecutor.Callback<String> callback) {
+        final TagIoExecutor tagIo = TagIoExecutor.getInstance();
+        tagIo.submit(new TagIoExecutor.TagTask<String>() {
+            @Override
+            public String run() throws IOException, FormatException {
+                // The connection is always closed by readNdefMessage, even when a record is found
+                NdefMessage ndefMessage = tagIo.readNdefMessage(tag);
                 if (ndefMessage != null) {
                     NdefRecord[] records = ndefMessage.getRecords();
                     if (records.length > 0) {
-                        NdefRecord ndefRecord = records[0];
-                        return parseTextRecord(ndefRecord);
+                        return parseTextRecord(records[0]);
                     }
                 }
-                ndef.close();
+                return null;
             }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return null;
+        }, TagIoExecutor.READ_TIMEOUT_MS, callback);
     }
 
     // Parse text record from NFC tag
     private String parseTextRecord(NdefRecord record) {
         if (record != null && record.getTnf() == NdefRecord.TNF_WELL_KNOWN) {
             try {
-                byte[] payload = record.getPayload();
-                // Get the text encoding (1st byte) and language code (next few bytes)
-                String textEncoding = ((payload[0] & 128) == 0) ? "UTF-8" : "UTF-16";
-                int languageCodeLength = payload[0] & 51;
-                return new String(payload, languageCodeLength + 1, payload.length - languageCodeLength - 1, textEncoding);
-            } catch (UnsupportedEncodingException e) {
+                return NdefText.decode(record.getPayload());
+            } catch (IllegalArgumentException e) {
                 e.printStackTrace();
             }
         }
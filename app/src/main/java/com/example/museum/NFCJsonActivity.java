@@ -10,26 +10,22 @@ import android.nfc.NdefMessage;
 import android.nfc.NdefRecord;
 import android.nfc.NfcAdapter;
 import android.nfc.Tag;
-import android.nfc.tech.Ndef;
-import android.nfc.tech.NdefFormatable;
 import android.os.Bundle;
 import android.view.View;
 import android.widget.Button;
+import android.widget.CheckBox;
 import android.widget.EditText;
 import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
-import org.json.JSONException;
-import org.json.JSONObject;
 
 /**
  * Author: Dharmik Parthiv Chhatbar
  * Year: Spring 2024
  *
- * NFCJsonActivity is responsible for writing JSON data to NFC tags.
+ * NFCJsonActivity is responsible for writing exhibit data to NFC tags.
  * It allows users to input data into text fields, which is then
- * converted into a JSON object and written to an NFC tag upon detection.
+ * encoded as a compact binary exhibit record and written to an NFC tag upon detection.
  * The activity handles NFC tag discovery, writing operations, and provides
  * feedback to the user via Toast messages.
  */
@@ -42,6 +38,7 @@ public class NFCJsonActivity extends AppCompatActivity {
     private Tag myTag;
 
     private EditText editID, editTitle, editBody, editURL, editImageLink, editVideoLink;
+    private CheckBox idOnlyCheckBox;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -55,6 +52,7 @@ public class NFCJsonActivity extends AppCompatActivity {
         editURL = findViewById(R.id.editURL);
         editImageLink = findViewById(R.id.editImageLink);
         editVideoLink = findViewById(R.id.editVideoLink);
+        idOnlyCheckBox = findViewById(R.id.idOnlyCheckBox);
 
         // Get the default NFC adapter for this device
         nfcAdapter = NfcAdapter.getDefaultAdapter(this);
@@ -95,7 +93,7 @@ public class NFCJsonActivity extends AppCompatActivity {
         alertDialog.show();
     }
 
-    // Write JSON data to the detected NFC tag
+    // Write the exhibit entered in the text fields to the detected NFC tag
     private void writeJsonToTag(Tag tag) {
         if (tag == null) {
             Toast.makeText(this, "NFC tag is null", Toast.LENGTH_SHORT).show();
@@ -108,74 +106,68 @@ public class NFCJsonActivity extends AppCompatActivity {
             String imageLink = editImageLink.getText().toString();
             String videoLink = editVideoLink.getText().toString();
 
-            // Create a JSON object with the input data
-            JSONObject jsonObject = new JSONObject();
-            try {
-                jsonObject.put("ID", id);
-                jsonObject.put("Title", title);
-                jsonObject.put("Body", body);
-                jsonObject.put("URL", url);
-                jsonObject.put("ImageLink", imageLink);
-                jsonObject.put("VideoLink", videoLink);
-
-                // Convert the JSON object to a string and create an NDEF record
-                String jsonString = jsonObject.toString();
-                NdefRecord[] records = {createRecord(jsonString)};
-                NdefMessage message = new NdefMessage(records);
-
-                // Write the NDEF message to the NFC tag
-                Ndef ndef = Ndef.get(tag);
-                if (ndef != null) {
-                    try {
-                        ndef.connect();
-                        ndef.writeNdefMessage(message);
-                        Toast.makeText(this, "JSON written to NFC tag", Toast.LENGTH_SHORT).show();
-                    } catch (IOException | FormatException e) {
-                        e.printStackTrace();
-                        Toast.makeText(this, "Error writing JSON to NFC tag", Toast.LENGTH_SHORT).show();
-                    } finally {
-                        ndef.close();
-                    }
-                } else {
-                    // Check if the tag is NdefFormatable and format it if possible
-                    NdefFormatable ndefFormatable = NdefFormatable.get(tag);
-                    if (ndefFormatable != null) {
-                        try {
-                            ndefFormatable.connect();
-                            ndefFormatable.format(message);
-                            Toast.makeText(this, "JSON written to NFC tag", Toast.LENGTH_SHORT).show();
-                        } catch (IOException | FormatException e) {
-                            e.printStackTrace();
-                            Toast.makeText(this, "Error formatting NFC tag", Toast.LENGTH_SHORT).show();
-                        } finally {
-                            ndefFormatable.close();
-                        }
-                    } else {
-                        Toast.makeText(this, "NFC tag is not writable", Toast.LENGTH_SHORT).show();
+            // Keep the full content in the on-device catalog so ID-only tags can be resolved; if it
+            // changed, whatever is cached for the ID (ID-only tags, plaques, QR codes) is stale
+            Exhibit exhibit = new Exhibit(id, title, body, url, imageLink, videoLink);
+            if (!exhibit.isIdOnly()) {
+                ExhibitCatalog.getInstance(this).putAsync(exhibit, changed -> {
+                    if (changed) {
+                        ExhibitCache.getInstance(NFCJsonActivity.this).invalidateExhibit(id);
                     }
+                });
+            }
+            if (idOnlyCheckBox.isChecked()) {
+                if (id.isEmpty()) {
+                    Toast.makeText(this, "An ID is required to write an ID-only tag", Toast.LENGTH_SHORT).show();
+                    return;
                 }
-            } catch (JSONException e) {
-                e.printStackTrace();
-                Toast.makeText(this, "Error creating JSON", Toast.LENGTH_SHORT).show();
-            } catch (IOException e) {
-                e.printStackTrace();
-                throw new RuntimeException(e);
+                exhibit = new Exhibit(id, null, null, null, null, null);
             }
+
+            // Encode the exhibit as a compact binary record, deflated when that makes it smaller
+            NdefRecord[] records = {ExhibitRecords.createExhibitRecord(exhibit)};
+            NdefMessage message = new NdefMessage(records);
+
+            // Check the tag's capacity before connecting to it
+            if (!TagIoExecutor.fitsOnTag(tag, message)) {
+                Toast.makeText(this, "Exhibit needs " + message.getByteArrayLength() + " bytes but this tag holds "
+                        + TagIoExecutor.capacityOf(tag) + "; shorten the text or write ID only", Toast.LENGTH_LONG).show();
+                return;
+            }
+
+            // Write the NDEF message to the NFC tag off the UI thread
+            writeMessageToTag(tag, message);
         }
     }
 
-    // Create an NDEF record from a text string
-    private NdefRecord createRecord(String text) throws UnsupportedEncodingException {
-        String lang = "en";
-        byte[] textBytes = text.getBytes();
-        byte[] langBytes = lang.getBytes("US-ASCII");
-        int langLength = langBytes.length;
-        int textLength = textBytes.length;
-        byte[] payload = new byte[1 + langLength + textLength];
-        payload[0] = (byte) langLength;
-        System.arraycopy(langBytes, 0, payload, 1, langLength);
-        System.arraycopy(textBytes, 0, payload, 1 + langLength, textLength);
-        return new NdefRecord(NdefRecord.TNF_WELL_KNOWN, NdefRecord.RTD_TEXT, new byte[0], payload);
+    // Write (or format) the tag on the tag I/O thread, unless it already holds this message,
+    // and report the result with a Toast
+    private void writeMessageToTag(final Tag tag, final NdefMessage message) {
+        final TagIoExecutor tagIo = TagIoExecutor.getInstance();
+        tagIo.submit(new TagIoExecutor.TagTask<Boolean>() {
+            @Override
+            public Boolean run() throws IOException, FormatException {
+                return tagIo.writeNdefMessageIfChanged(tag, message);
+            }
+        }, TagIoExecutor.WRITE_TIMEOUT_MS, new TagIoExecutor.Callback<Boolean>() {
+            @Override
+            public void onSuccess(Boolean written) {
+                if (!written) {
+                    Toast.makeText(NFCJsonActivity.this, "Tag already holds this exhibit, write skipped\n" + tagIo.describeWriteCounts(), Toast.LENGTH_SHORT).show();
+                    return;
+                }
+                // The tag's content changed, so anything cached for its UID is stale and its next tap must be read
+                ExhibitCache.getInstance(NFCJsonActivity.this).invalidateTag(tag.getId());
+                TagEventGate.getInstance().forget(tag.getId());
+                Toast.makeText(NFCJsonActivity.this, "Exhibit written to NFC tag\n" + tagIo.describeWriteCounts(), Toast.LENGTH_SHORT).show();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                e.printStackTrace();
+                Toast.makeText(NFCJsonActivity.this, "Error writing exhibit to NFC tag: " + e.getMessage() + "\n" + tagIo.describeWriteCounts(), Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
     @Override
@@ -53,5 +53,16 @@ public class NFCTypeSelectionActivity extends AppCompatActivity {
                 startActivity(intent);
             }
         });
+
+        // Set up Batch Provisioning button click listener
+        Button provisioningButton = findViewById(R.id.NFCProvisioning);
+        provisioningButton.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                // Create an Intent to start the ProvisioningActivity
+                Intent intent = new Intent(NFCTypeSelectionActivity.this, ProvisioningActivity.class);
+                startActivity(intent);
+            }
+        });
     }
 }
@@ -0,0 +1,436 @@
+package com.example.museum;
+
+import android.app.PendingIntent;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.Uri;
+import android.nfc.FormatException;
+import android.nfc.NdefMessage;
+import android.nfc.NdefRecord;
+import android.nfc.NfcAdapter;
+import android.nfc.Tag;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.View;
+import android.widget.Button;
+import android.widget.CheckBox;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * ProvisioningActivity writes a whole manifest of exhibits to NFC tags, one tag per tap.
+ * The user loads a CSV or JSON manifest; each tag presented afterwards receives the next
+ * pending exhibit, is read back to verify the write, and the queue moves on by itself.
+ * Failed tags are retried with the same exhibit on the next tap. Throughput, failures and
+ * retries are shown as the run progresses, and the manifest and progress are kept in app
+ * storage so an interrupted run continues where it stopped. Reading and parsing manifests,
+ * catalog updates and the fsynced file writes run in order on a background thread; the
+ * queue itself is only touched on the main thread.
+ */
+public class ProvisioningActivity extends AppCompatActivity {
+
+    private static final int REQUEST_MANIFEST = 1;
+
+    // Files in app storage that let a run resume after the app is killed
+    private static final String MANIFEST_FILE = "provisioning_manifest";
+    private static final String PROGRESS_FILE = "provisioning_progress.properties";
+
+    private NfcAdapter nfcAdapter;
+    private PendingIntent pendingIntent;
+    private IntentFilter[] writingTagFilters;
+
+    private TextView currentText, statsText;
+    private CheckBox idOnlyCheckBox;
+
+    private ProvisioningQueue queue;
+    private boolean writing; // A tag write is in flight; further taps are ignored
+    private byte[] lastWrittenUid; // Tag that just received an exhibit, so leaving it on the reader does not write it twice
+
+    // Manifest and progress file work, run in submission order off the main thread
+    private final ExecutorService storageExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.provisioning_activity);
+
+        currentText = findViewById(R.id.currentExhibitText);
+        statsText = findViewById(R.id.provisioningStatsText);
+        idOnlyCheckBox = findViewById(R.id.provisioningIdOnlyCheckBox);
+
+        nfcAdapter = NfcAdapter.getDefaultAdapter(this);
+        if (nfcAdapter == null) {
+            Toast.makeText(this, "NFC is not available on this device", Toast.LENGTH_SHORT).show();
+        }
+
+        // Same foreground dispatch set-up as NFCJsonActivity
+        pendingIntent = PendingIntent.getActivity(this, 0, new Intent(this, getClass()).addFlags(Intent.FLAG_ACTIVITY_SINGLE_TOP), PendingIntent.FLAG_MUTABLE);
+        IntentFilter tagDetected = new IntentFilter(NfcAdapter.ACTION_TAG_DISCOVERED);
+        tagDetected.addCategory(Intent.CATEGORY_DEFAULT);
+        writingTagFilters = new IntentFilter[]{tagDetected};
+
+        Button loadButton = findViewById(R.id.loadManifestButton);
+        loadButton.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                Intent intent = new Intent(Intent.ACTION_OPEN_DOCUMENT);
+                intent.addCategory(Intent.CATEGORY_OPENABLE);
+                intent.setType("*/*");
+                intent.putExtra(Intent.EXTRA_MIME_TYPES, new String[]{"text/csv", "text/comma-separated-values", "text/plain", "application/json"});
+                startActivityForResult(intent, REQUEST_MANIFEST);
+            }
+        });
+
+        Button restartButton = findViewById(R.id.restartProvisioningButton);
+        restartButton.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                restartRun();
+            }
+        });
+
+        // Continue an interrupted run, if there is one
+        resumeRun();
+        showProgress();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        // Progress writes already queued still finish
+        storageExecutor.shutdown();
+    }
+
+    @Override
+    protected void onActivityResult(int requestCode, int resultCode, Intent data) {
+        super.onActivityResult(requestCode, resultCode, data);
+        if (requestCode == REQUEST_MANIFEST && resultCode == RESULT_OK && data != null && data.getData() != null) {
+            loadManifest(data.getData());
+        }
+    }
+
+    // Read a manifest chosen by the user, keep a copy in app storage and start a run with it
+    private void loadManifest(final Uri uri) {
+        storageExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try (InputStream in = getContentResolver().openInputStream(uri)) {
+                    if (in == null) {
+                        throw new IOException("Cannot open " + uri);
+                    }
+                    byte[] content = readFully(in);
+                    List<Exhibit> exhibits = ProvisioningManifest.parse(new String(content, StandardCharsets.UTF_8));
+                    writeFileAtomically(MANIFEST_FILE, content);
+                    new File(getFilesDir(), PROGRESS_FILE).delete();
+
+                    // Keep full content in the catalog so ID-only tags can be resolved on this device;
+                    // exhibits resolved from the old content must not be served from the cache
+                    if (ExhibitCatalog.getInstance(ProvisioningActivity.this).putAll(exhibits) > 0) {
+                        ExhibitCache.getInstance(ProvisioningActivity.this).evictAll();
+                    }
+
+                    final ProvisioningQueue loaded = new ProvisioningQueue(exhibits, ProvisioningManifest.fingerprint(content));
+                    writeProgress(loaded);
+                    mainHandler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (isDestroyed()) {
+                                return;
+                            }
+                            queue = loaded;
+                            lastWrittenUid = null;
+                            Toast.makeText(ProvisioningActivity.this, "Loaded " + loaded.getTotal() + " exhibits", Toast.LENGTH_SHORT).show();
+                            showProgress();
+                        }
+                    });
+                } catch (final IOException e) {
+                    e.printStackTrace();
+                    mainHandler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (!isDestroyed()) {
+                                Toast.makeText(ProvisioningActivity.this, "Could not load manifest: " + e.getMessage(), Toast.LENGTH_LONG).show();
+                            }
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    // Rebuild the queue from the stored manifest and progress files in the background
+    private void resumeRun() {
+        storageExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final ProvisioningQueue restored = readStoredRun();
+                if (restored == null) {
+                    return;
+                }
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (isDestroyed()) {
+                            return;
+                        }
+                        queue = restored;
+                        lastWrittenUid = null;
+                        if (restored.getPosition() > 0 && !restored.isDone()) {
+                            Toast.makeText(ProvisioningActivity.this, "Resuming at exhibit " + (restored.getPosition() + 1)
+                                    + " of " + restored.getTotal(), Toast.LENGTH_SHORT).show();
+                        }
+                        showProgress();
+                    }
+                });
+            }
+        });
+    }
+
+    // Queue for the stored manifest at its stored progress, or null if there is no stored run.
+    // Runs on the storage thread.
+    private ProvisioningQueue readStoredRun() {
+        File manifestFile = new File(getFilesDir(), MANIFEST_FILE);
+        if (!manifestFile.exists()) {
+            return null;
+        }
+        ProvisioningQueue stored;
+        try (InputStream in = new FileInputStream(manifestFile)) {
+            byte[] content = readFully(in);
+            stored = new ProvisioningQueue(ProvisioningManifest.parse(new String(content, StandardCharsets.UTF_8)),
+                    ProvisioningManifest.fingerprint(content));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+
+        File progressFile = new File(getFilesDir(), PROGRESS_FILE);
+        if (progressFile.exists()) {
+            try (InputStream in = new FileInputStream(progressFile)) {
+                stored.restore(in);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return stored;
+    }
+
+    // Start the loaded manifest again from the first exhibit
+    private void restartRun() {
+        if (queue == null || writing) {
+            return;
+        }
+        storageExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                new File(getFilesDir(), PROGRESS_FILE).delete();
+            }
+        });
+        resumeRun();
+    }
+
+    @Override
+    protected void onNewIntent(Intent intent) {
+        super.onNewIntent(intent);
+        setIntent(intent);
+        if (NfcAdapter.ACTION_TAG_DISCOVERED.equals(intent.getAction())) {
+            Tag tag = intent.getParcelableExtra(NfcAdapter.EXTRA_TAG);
+            // Repeat intents from a tag still on the reader (or one being written) are dropped
+            if (tag != null && TagEventGate.getInstance().tryAcquire(tag.getId(), SystemClock.elapsedRealtime())) {
+                if (!provisionTag(tag)) {
+                    TagEventGate.getInstance().release(tag.getId());
+                }
+            }
+        }
+    }
+
+    // Write the next pending exhibit to a freshly presented tag; returns true if a write was started,
+    // in which case the tag is released from the TagEventGate when the write finishes
+    private boolean provisionTag(final Tag tag) {
+        if (queue == null) {
+            Toast.makeText(this, "Load a manifest first", Toast.LENGTH_SHORT).show();
+            return false;
+        }
+        if (queue.isDone()) {
+            Toast.makeText(this, "All exhibits have been provisioned", Toast.LENGTH_SHORT).show();
+            return false;
+        }
+        if (writing) {
+            return false;
+        }
+        if (lastWrittenUid != null && Arrays.equals(lastWrittenUid, tag.getId())) {
+            Toast.makeText(this, "This tag was just written; present the next tag", Toast.LENGTH_SHORT).show();
+            return false;
+        }
+
+        Exhibit exhibit = queue.current();
+        if (idOnlyCheckBox.isChecked()) {
+            exhibit = new Exhibit(exhibit.getId(), null, null, null, null, null);
+        }
+        final NdefMessage message = new NdefMessage(new NdefRecord[]{ExhibitRecords.createExhibitRecord(exhibit)});
+
+        // A tag that is too small is not the exhibit's fault; ask for a larger tag without counting an attempt
+        if (!TagIoExecutor.fitsOnTag(tag, message)) {
+            Toast.makeText(this, exhibit.getId() + " needs " + message.getByteArrayLength() + " bytes but this tag holds "
+                    + TagIoExecutor.capacityOf(tag) + "; present a larger tag", Toast.LENGTH_LONG).show();
+            return false;
+        }
+
+        writing = true;
+        final TagIoExecutor tagIo = TagIoExecutor.getInstance();
+        tagIo.submit(new TagIoExecutor.TagTask<Boolean>() {
+            @Override
+            public Boolean run() throws IOException, FormatException {
+                return tagIo.writeAndVerifyNdefMessage(tag, message);
+            }
+        }, TagIoExecutor.WRITE_TIMEOUT_MS + TagIoExecutor.READ_TIMEOUT_MS, new TagIoExecutor.Callback<Boolean>() {
+            @Override
+            public void onSuccess(Boolean written) {
+                writing = false;
+                TagEventGate.getInstance().release(tag.getId());
+                lastWrittenUid = tag.getId();
+                if (written) {
+                    // The tag's content changed, so anything cached for its UID is stale
+                    ExhibitCache.getInstance(ProvisioningActivity.this).invalidateTag(tag.getId());
+                    queue.onWritten(SystemClock.elapsedRealtime());
+                } else {
+                    // The tag already held this exhibit, as read when it was discovered
+                    queue.onSkipped(SystemClock.elapsedRealtime());
+                }
+                saveProgress();
+                showProgress();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                writing = false;
+                TagEventGate.getInstance().release(tag.getId());
+                e.printStackTrace();
+                String id = queue.current().getId();
+                if (queue.onFailed(SystemClock.elapsedRealtime())) {
+                    Toast.makeText(ProvisioningActivity.this, "Skipping " + id + " after " + ProvisioningQueue.MAX_ATTEMPTS + " failed attempts", Toast.LENGTH_LONG).show();
+                } else {
+                    Toast.makeText(ProvisioningActivity.this, "Write failed, present a tag again: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                }
+                saveProgress();
+                showProgress();
+            }
+        });
+    }
+
+    // Show the exhibit waiting for a tag and the run statistics
+    private void showProgress() {
+        if (queue == null) {
+            currentText.setText("Load a CSV or JSON manifest to start");
+            statsText.setText("");
+            return;
+        }
+        Exhibit next = queue.current();
+        if (next == null) {
+            currentText.setText("Done: " + (queue.getWritten() + queue.getSkipped()) + " of " + queue.getTotal() + " tags provisioned");
+        } else {
+            currentText.setText("Present a tag for " + next.getId() + (next.getTitle().isEmpty() ? "" : " - " + next.getTitle())
+                    + "\n(" + (queue.getPosition() + 1) + " of " + queue.getTotal() + ")");
+        }
+        StringBuilder stats = new StringBuilder()
+                .append("Written: ").append(queue.getWritten())
+                .append("   Skipped: ").append(queue.getSkipped())
+                .append("   Failed: ").append(queue.getFailed())
+                .append("   Retries: ").append(queue.getRetries())
+                .append(String.format("\nThroughput: %.1f tags/min", queue.getTagsPerMinute()))
+                .append('\n').append(TagEventGate.getInstance());
+        if (queue.getFailed() > 0) {
+            stats.append("\nSkipped: ").append(queue.getFailedIds());
+        }
+        statsText.setText(stats);
+    }
+
+    // Persist progress after every tag so a crash loses at most the tag in flight. The queue is
+    // serialized here on the main thread; the fsynced write happens on the storage thread.
+    private void saveProgress() {
+        final byte[] progress;
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            queue.save(out);
+            progress = out.toByteArray();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        storageExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    writeFileAtomically(PROGRESS_FILE, progress);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        });
+    }
+
+    // Write a queue's progress file; runs on the storage thread
+    private void writeProgress(ProvisioningQueue progressQueue) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        progressQueue.save(out);
+        writeFileAtomically(PROGRESS_FILE, out.toByteArray());
+    }
+
+    // Write to a temporary file and rename it over the target, so a crash never leaves a partial file
+    private void writeFileAtomically(String name, byte[] content) throws IOException {
+        File target = new File(getFilesDir(), name);
+        File temp = new File(getFilesDir(), name + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            out.write(content);
+            out.getFD().sync();
+        }
+        if (!temp.renameTo(target)) {
+            throw new IOException("Cannot replace " + target);
+        }
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        if (nfcAdapter != null) {
+            nfcAdapter.enableForegroundDispatch(this, pendingIntent, writingTagFilters, null);
+        }
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        if (nfcAdapter != null) {
+            nfcAdapter.disableForegroundDispatch(this);
+        }
+    }
+}
@@ -1,39 +1,69 @@
 package com.example.museum;
 
+import android.Manifest;
 import android.content.Intent;
+import android.content.pm.PackageManager;
 import android.net.Uri;
 import android.os.Bundle;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.Choreographer;
 import android.view.View;
 import android.widget.Button;
 import android.widget.ImageView;
 import android.widget.TextView;
 import android.widget.Toast;
-import androidx.annotation.Nullable;
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
-import com.bumptech.glide.Glide;
-import com.google.zxing.integration.android.IntentIntegrator;
-import com.google.zxing.integration.android.IntentResult;
-
-import org.json.JSONException;
-import org.json.JSONObject;
+import androidx.core.app.ActivityCompat;
+import androidx.core.content.ContextCompat;
+import com.journeyapps.barcodescanner.BarcodeView;
+import com.journeyapps.barcodescanner.CameraPreview;
+import com.journeyapps.barcodescanner.DecoratedBarcodeView;
+import com.journeyapps.barcodescanner.SourceData;
+import com.journeyapps.barcodescanner.camera.CameraInstance;
+import com.journeyapps.barcodescanner.camera.PreviewCallback;
 
 /**
  * Author: Dharmik Parthiv Chhatbar
  * Year: Spring 2024
  *
  * QRScanner allows the user to scan QR codes using the device's camera.
- * It displays the scanned text in a TextView and provides a button to initiate
- * the scanning process again.
+ * The camera preview is embedded at the top of the screen and decodes continuously, so the
+ * camera stays open between scans and pointing at another plaque updates the exhibit panel
+ * in place; the button pauses and resumes scanning. The same code is only handled once
+ * until a different one is seen. Preview frames are pulled from the camera one at a time
+ * and decoded by a QrDecoderPool (QR_CODE only, centred region of interest, several
+ * threads, frames dropped while every thread is busy) rather than by the view's own
+ * single-threaded all-format decoder. Each stage from the decode of a frame to the exhibit's
+ * image on screen is timed into LatencyMetrics, and the main-thread stages into system traces.
  */
 public class QRScanner extends AppCompatActivity {
 
-    private TextView scannedText; // TextView to display the scanned text
+    private static final String TAG = "QRScanner";
+    private static final int REQUEST_CAMERA = 1;
+
+    // Timed stages; a scan starts when the decoder starts on the frame that holds the code
+    private static final String FRAME_DECODE = "QR: frame decode (code found)";
+    private static final String HANDLE_CODE = "QR: handle code";
+    private static final String JSON_PARSE = "QR: JSON parse";
+    private static final String CATALOG_RESOLVE = "QR: catalog resolve";
+    private static final String BIND_VIEWS = "QR: bind views";
+    private static final String SCAN_TO_RENDER = "QR: scan to render";
+    private static final String SCAN_TO_IMAGE = "QR: scan to image";
+
+    private DecoratedBarcodeView barcodeView; // Embedded camera preview that decodes continuously
+    private boolean scanningPaused;
+    private String lastScannedText; // Last code handled, so a code held in view is handled once
+    private QrDecoderPool decoderPool;
+    private volatile boolean framesWanted; // Keep requesting preview frames while true
     private ImageView imageView;
     private TextView titleTextView;
     private TextView bodyTextView;
     private TextView urlTextView;
     private TextView videoLinkTextView;
     private Button scanButton; // Button to initiate the scanning process
+    private Exhibit displayedExhibit; // Exhibit currently bound to the views
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -47,70 +77,257 @@ public class QRScanner extends AppCompatActivity {
         urlTextView = findViewById(R.id.urlTextView);
         videoLinkTextView = findViewById(R.id.videoLinkTextView);
         scanButton = findViewById(R.id.scanButton);
+        barcodeView = findViewById(R.id.barcodeView);
+        barcodeView.setStatusText("Point the camera at an exhibit QR code");
+
+        // The viewfinder frame marks the region the decoders look at
+        final BarcodeView preview = barcodeView.getBarcodeView();
+        preview.setMarginFraction((1 - QrFrameDecoder.DEFAULT_ROI_FRACTION) / 2);
+
+        // Decode preview frames on the pool until paused; results are handled on the main thread
+        decoderPool = new QrDecoderPool(QrDecoderPool.defaultThreads(), QrFrameDecoder.DEFAULT_ROI_FRACTION,
+                new QrDecoderPool.Listener() {
+                    @Override
+                    public void onDecoded(final String text, final long decodeNanos) {
+                        final long scanNanos = SystemClock.elapsedRealtimeNanos() - decodeNanos;
+                        runOnUiThread(new Runnable() {
+                            @Override
+                            public void run() {
+                                if (!scanningPaused && !text.equals(lastScannedText)) {
+                                    lastScannedText = text;
+                                    // Decoder threads are plain Java, so the decode is timed there rather than
+                                    // traced; it is only recorded for codes that are handled, not for repeats
+                                    TraceSpan.record(FRAME_DECODE, decodeNanos);
+                                    try (TraceSpan ignored = TraceSpan.begin(HANDLE_CODE)) {
+                                        handleScannedText(text, scanNanos);
+                                    }
+                                }
+                            }
+                        });
+                    }
+                });
+        preview.addStateListener(new CameraPreview.StateListener() {
+            @Override
+            public void previewSized() {
+            }
+
+            @Override
+            public void previewStarted() {
+                framesWanted = true;
+                requestFrame();
+            }
 
-        // Start QR code scanner
-        startQRScanner();
+            @Override
+            public void previewStopped() {
+                framesWanted = false;
+            }
+
+            @Override
+            public void cameraError(Exception error) {
+                framesWanted = false;
+                error.printStackTrace();
+                Toast.makeText(QRScanner.this, "Camera error: " + error.getMessage(), Toast.LENGTH_SHORT).show();
+            }
+
+            @Override
+            public void cameraClosed() {
+                framesWanted = false;
+            }
+        });
 
-        // Set OnClickListener for scan button
+        // Set OnClickListener for scan button: pause or resume the camera
         scanButton.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
-                startQRScanner(); // Call method to start QR code scanner again
+                scanningPaused = !scanningPaused;
+                scanButton.setText(scanningPaused ? "Resume Scanning" : "Pause Scanning");
+                if (scanningPaused) {
+                    framesWanted = false;
+                    barcodeView.pause();
+                } else {
+                    lastScannedText = null; // Let the code in view be handled again
+                    resumeScanning();
+                }
             }
         });
+
+        if (ContextCompat.checkSelfPermission(this, Manifest.permission.CAMERA) != PackageManager.PERMISSION_GRANTED) {
+            ActivityCompat.requestPermissions(this, new String[]{Manifest.permission.CAMERA}, REQUEST_CAMERA);
+        }
     }
 
-    // Method to start QR code scanner
-    private void startQRScanner() {
-        IntentIntegrator integrator = new IntentIntegrator(this); // Create IntentIntegrator instance
-        integrator.setOrientationLocked(false); // Allow orientation changes during scanning
-        integrator.setPrompt("Scan a QR code"); // Set prompt message for the scanner
-        integrator.initiateScan(); // Start QR code scanning process
+    @Override
+    protected void onResume() {
+        super.onResume();
+        if (!scanningPaused) {
+            resumeScanning();
+        }
     }
 
-    // Handle the result of QR code scanning
     @Override
-    protected void onActivityResult(int requestCode, int resultCode, @Nullable Intent data) {
-        super.onActivityResult(requestCode, resultCode, data);
-
-        // Parse the result from the QR code scanner
-        IntentResult result = IntentIntegrator.parseActivityResult(requestCode, resultCode, data);
-        if (result != null) {
-            if (result.getContents() == null) {
-                Toast.makeText(this, "Scan cancelled", Toast.LENGTH_SHORT).show(); // Show toast message if scan is cancelled
+    protected void onPause() {
+        super.onPause();
+        // Release the camera while in the background
+        framesWanted = false;
+        barcodeView.pause();
+        Log.d(TAG, decoderPool.toString());
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        decoderPool.shutdown();
+    }
+
+    // Ask the camera for its next preview frame; the frame is handed to the decoder pool, which
+    // drops it if every decoder is still busy, and the next frame is requested straight away
+    private void requestFrame() {
+        CameraInstance camera = barcodeView.getBarcodeView().getCameraInstance();
+        if (!framesWanted || camera == null) {
+            return;
+        }
+        camera.requestPreview(new PreviewCallback() {
+            @Override
+            public void onPreview(SourceData sourceData) {
+                decoderPool.offer(sourceData.getData(), sourceData.getDataWidth(), sourceData.getDataHeight());
+                requestFrame();
+            }
+
+            @Override
+            public void onPreviewError(Exception e) {
+                // Not retried, so a broken camera cannot spin; scanning restarts with the next resume
+                Log.w(TAG, "Preview frame error", e);
+            }
+        });
+    }
+
+    @Override
+    public void onRequestPermissionsResult(int requestCode, @NonNull String[] permissions, @NonNull int[] grantResults) {
+        super.onRequestPermissionsResult(requestCode, permissions, grantResults);
+        if (requestCode == REQUEST_CAMERA) {
+            if (grantResults.length > 0 && grantResults[0] == PackageManager.PERMISSION_GRANTED) {
+                resumeScanning();
             } else {
-                try {
-                    JSONObject jsonObject = new JSONObject(result.getContents());
-                    String imageLink = jsonObject.getString("ImageLink");
-                    String title = jsonObject.getString("Title");
-                    String body = jsonObject.getString("Body");
-                    String url = jsonObject.getString("URL");
-                    String videoLink = jsonObject.getString("VideoLink");
-
-                    // Load image using Glide
-                    Glide.with(this).load(imageLink).into(imageView);
-
-                    // Set text for TextViews
-                    titleTextView.setText(title);
-                    bodyTextView.setText(body);
-                    urlTextView.setText(url);
-                    urlTextView.setOnClickListener(v -> {
-                        Intent browserIntent = new Intent(Intent.ACTION_VIEW, Uri.parse(url));
-                        startActivity(browserIntent);
-                    });
-                    videoLinkTextView.setText(videoLink);
-                    videoLinkTextView.setOnClickListener(v -> {
-                        Intent browserIntent = new Intent(Intent.ACTION_VIEW, Uri.parse(videoLink));
-                        startActivity(browserIntent);
-                    });
-
-                } catch (JSONException e) {
-                    e.printStackTrace();
-                    Toast.makeText(this, "Invalid QR Code format", Toast.LENGTH_SHORT).show();
-                }
+                Toast.makeText(this, "Camera permission is needed to scan QR codes", Toast.LENGTH_SHORT).show();
+            }
+        }
+    }
+
+    // Open the camera (it stays open until the activity pauses) if we are allowed to
+    private void resumeScanning() {
+        if (ContextCompat.checkSelfPermission(this, Manifest.permission.CAMERA) == PackageManager.PERMISSION_GRANTED) {
+            barcodeView.resume();
+        }
+    }
+
+    // Handle the text of a newly scanned QR code; scanNanos is when decoding of its frame started
+    private void handleScannedText(final String contents, final long scanNanos) {
+        // Compact plaque codes name the exhibit and its content version; anything else is inline JSON
+        ShortQrPayload shortPayload = ShortQrPayload.parse(contents);
+        if (shortPayload != null) {
+            handleShortPayload(contents, shortPayload, scanNanos);
+            return;
+        }
+
+        // Codes scanned before are answered from the cache
+        ExhibitCache cache = ExhibitCache.getInstance(this);
+        Exhibit exhibit = cache.getByPayload(contents);
+        if (exhibit != null) {
+            displayExhibit(exhibit, scanNanos);
+            return;
+        }
+
+        // Pull the exhibit fields straight out of the scanned JSON
+        ExhibitJsonReader.Result exhibitResult;
+        try (TraceSpan ignored = TraceSpan.begin(JSON_PARSE)) {
+            exhibitResult = ExhibitJsonReader.read(contents);
+        }
+        if (!exhibitResult.isComplete() && !exhibitResult.isIdOnly()) {
+            Log.w(TAG, "Invalid QR Code: " + (exhibitResult.getError() != null ? exhibitResult.getError() : "missing " + exhibitResult.getMissingKeys()));
+            Toast.makeText(this, "Invalid QR Code format", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        Exhibit payload = exhibitResult.getExhibit();
+        if (!payload.isIdOnly()) {
+            cache.putByPayload(contents, payload);
+            displayExhibit(payload, scanNanos);
+            return;
+        }
+
+        // ID-only codes are resolved through the on-device catalog, off the main thread
+        final String id = payload.getId();
+        ExhibitCatalog.getInstance(this).query(catalog -> {
+            try (TraceSpan ignored = TraceSpan.begin(CATALOG_RESOLVE)) {
+                return catalog.getEntry(id);
             }
-        } else {
-            super.onActivityResult(requestCode, resultCode, data);
+        }, entry -> showResolved(contents, id, entry, -1, scanNanos));
+    }
+
+    // Resolve a short "MUS:ID/version" code through the catalog, off the main thread
+    private void handleShortPayload(final String contents, final ShortQrPayload payload, final long scanNanos) {
+        Exhibit exhibit = ExhibitCache.getInstance(this).getByPayload(contents);
+        if (exhibit != null) {
+            displayExhibit(exhibit, scanNanos);
+            return;
+        }
+        ExhibitCatalog.getInstance(this).query(catalog -> {
+            try (TraceSpan ignored = TraceSpan.begin(CATALOG_RESOLVE)) {
+                return catalog.getEntry(payload.getId());
+            }
+        }, entry -> showResolved(contents, payload.getId(), entry, payload.getVersion(), scanNanos));
+    }
+
+    // Show what the catalog found for a scanned code; printedVersion is the content version a
+    // short code was printed for, or -1. Results for a code no longer in view are dropped.
+    private void showResolved(String contents, String id, CatalogEntry entry, int printedVersion, long scanNanos) {
+        if (isDestroyed() || !contents.equals(lastScannedText)) {
+            return;
+        }
+        if (entry == null) {
+            Toast.makeText(this, "Unknown exhibit " + id, Toast.LENGTH_SHORT).show();
+            return;
+        }
+        // The plaque was printed for content this device does not have yet; show what we have
+        if (entry.isOlderThan(printedVersion)) {
+            Toast.makeText(this, "Newer content exists for this exhibit; update the exhibit catalog", Toast.LENGTH_SHORT).show();
+        }
+        ExhibitCache.getInstance(this).putByPayload(contents, entry.getExhibit());
+        displayExhibit(entry.getExhibit(), scanNanos);
+    }
+
+    // Bind an exhibit to the views and time its scan to the frame that draws it
+    private void displayExhibit(Exhibit exhibit, final long scanNanos) {
+        // Skip view binding and image loading when the same exhibit is already on screen
+        if (exhibit.equals(displayedExhibit)) {
+            return;
+        }
+        displayedExhibit = exhibit;
+        try (TraceSpan ignored = TraceSpan.begin(BIND_VIEWS)) {
+            bindExhibit(exhibit, scanNanos);
         }
+        Choreographer.getInstance().postFrameCallback(frameTimeNanos ->
+                TraceSpan.record(SCAN_TO_RENDER, SystemClock.elapsedRealtimeNanos() - scanNanos));
+    }
+
+    private void bindExhibit(Exhibit exhibit, long scanNanos) {
+        final String url = exhibit.getUrl();
+        final String videoLink = exhibit.getVideoLink();
+
+        // Load the image sized to the view, thumbnail first
+        ExhibitImageLoader.load(this, imageView, exhibit, SCAN_TO_IMAGE, scanNanos);
+
+        // Set text for TextViews
+        titleTextView.setText(exhibit.getTitle());
+        bodyTextView.setText(exhibit.getBody());
+        urlTextView.setText(url);
+        urlTextView.setOnClickListener(v -> {
+            Intent browserIntent = new Intent(Intent.ACTION_VIEW, Uri.parse(url));
+            startActivity(browserIntent);
+        });
+        videoLinkTextView.setText(videoLink);
+        videoLinkTextView.setOnClickListener(v -> {
+            Intent browserIntent = new Intent(Intent.ACTION_VIEW, Uri.parse(videoLink));
+            startActivity(browserIntent);
+        });
     }
 }
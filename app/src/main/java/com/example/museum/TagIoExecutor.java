@@ -0,0 +1,378 @@
+package com.example.museum;
+
+import android.nfc.FormatException;
+import android.nfc.NdefMessage;
+import android.nfc.Tag;
+import android.nfc.tech.MifareUltralight;
+import android.nfc.tech.Ndef;
+import android.nfc.tech.NdefFormatable;
+import android.nfc.tech.NfcA;
+import android.nfc.tech.TagTechnology;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * TagIoExecutor runs all blocking NFC tag I/O (connect, read, write, format) on a single
+ * dedicated background thread so the UI never waits on a slow tag. Each operation has its
+ * own timeout, results are delivered back on the main thread through a Callback, and every
+ * connection opened through this class is closed when the operation finishes or times out.
+ * Writes are skipped when the tag already holds the exact message, which saves the write
+ * time and the tag's limited write cycles; written, skipped and failed writes are counted.
+ * Type 2 tags found in reader mode, where the platform's NDEF check is skipped, are read
+ * with raw NfcA READ commands (see Type2NdefParser); every other tag is read through Ndef.
+ */
+public class TagIoExecutor {
+
+    // Default timeouts for tag operations, in milliseconds
+    public static final long READ_TIMEOUT_MS = 1500;
+    public static final long WRITE_TIMEOUT_MS = 3000;
+
+    private static TagIoExecutor instance;
+
+    private final ExecutorService executor; // Single thread that owns the NFC controller
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private Operation running; // Task running on the I/O thread; only touched on that thread
+
+    // Last message written to each tag object, which its discovery-time cached message no longer reflects
+    private final Map<Tag, NdefMessage> writtenMessages = Collections.synchronizedMap(new WeakHashMap<Tag, NdefMessage>());
+
+    private final AtomicInteger writtenCount = new AtomicInteger();
+    private final AtomicInteger skippedCount = new AtomicInteger();
+    private final AtomicInteger failedCount = new AtomicInteger();
+
+    // Callback used to deliver the result of a tag operation on the main thread
+    public interface Callback<T> {
+        void onSuccess(T result);
+
+        void onError(Exception e);
+    }
+
+    // A unit of tag I/O that runs on the tag I/O thread
+    public interface TagTask<T> {
+        T run() throws IOException, FormatException;
+    }
+
+    // One submitted task: whether its outcome has been delivered and the connection it holds open
+    private static final class Operation {
+        final AtomicBoolean finished = new AtomicBoolean(false);
+        volatile Future<?> future;
+        volatile TagTechnology tech;
+    }
+
+    private TagIoExecutor() {
+        executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "nfc-tag-io");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    // Get the shared executor; there is only one NFC controller so there is only one I/O thread
+    public static synchronized TagIoExecutor getInstance() {
+        if (instance == null) {
+            instance = new TagIoExecutor();
+        }
+        return instance;
+    }
+
+    // Run a task on the tag I/O thread and deliver its result (or error) on the main thread. The
+    // timeout counts from when the task starts, not from when it was queued behind another one.
+    public <T> Future<T> submit(final TagTask<T> task, final long timeoutMs, final Callback<T> callback) {
+        final Operation operation = new Operation();
+
+        // Watchdog: closing this task's own technology unblocks any pending transceive on the I/O thread
+        final Runnable watchdog = new Runnable() {
+            @Override
+            public void run() {
+                if (deliver(operation.finished, callback, null, new TimeoutException("Tag operation timed out"))) {
+                    Future<?> future = operation.future;
+                    if (future != null) {
+                        future.cancel(true);
+                    }
+                    closeQuietly(operation.tech);
+                }
+            }
+        };
+
+        Future<T> future = executor.submit(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                running = operation;
+                mainHandler.postDelayed(watchdog, timeoutMs);
+                try {
+                    final T result = task.run();
+                    deliver(operation.finished, callback, result, null);
+                    return result;
+                } catch (final Exception e) {
+                    deliver(operation.finished, callback, null, e);
+                    throw e;
+                } finally {
+                    mainHandler.removeCallbacks(watchdog);
+                    running = null;
+                }
+            }
+        });
+        operation.future = future;
+        return future;
+    }
+
+    // Post the outcome to the main thread exactly once, whichever of completion or timeout comes
+    // first; returns false if it had already been delivered
+    private <T> boolean deliver(AtomicBoolean finished, final Callback<T> callback, final T result, final Exception error) {
+        if (!finished.compareAndSet(false, true)) {
+            return false;
+        }
+        if (callback == null) {
+            return true;
+        }
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (error == null) {
+                    callback.onSuccess(result);
+                } else {
+                    callback.onError(error);
+                }
+            }
+        });
+        return true;
+    }
+
+    // Read the current NDEF message from a tag; must be called from inside a TagTask
+    public NdefMessage readNdefMessage(Tag tag) throws IOException, FormatException {
+        Ndef ndef = Ndef.get(tag);
+        if (ndef == null) {
+            throw new IOException("NDEF is not supported by this Tag.");
+        }
+        try {
+            connect(ndef);
+            return ndef.getNdefMessage();
+        } finally {
+            release(ndef);
+        }
+    }
+
+    // Read the NDEF message from an NFC Forum Type 2 tag with NfcA READ commands, four pages at a
+    // time, stopping at the last page holding the message. Returns null if the tag is empty.
+    // Throws IOException if the tag is not an NDEF formatted Type 2 tag. Must be called from inside a TagTask.
+    public NdefMessage readType2NdefMessage(Tag tag) throws IOException, FormatException {
+        NfcA nfcA = NfcA.get(tag);
+        if (nfcA == null) {
+            throw new IOException("Not an NfcA tag");
+        }
+        try {
+            connect(nfcA);
+            // Page 3 is the capability container; the same READ returns the first 12 data area bytes
+            byte[] block = readPages(nfcA, Type2NdefParser.CC_PAGE);
+            int size = Type2NdefParser.dataAreaSize(block, 0);
+            if (size < 0) {
+                throw new IOException("Tag is not an NDEF formatted Type 2 tag");
+            }
+            byte[] data = new byte[size];
+            int available = Math.min(size, block.length - Type2NdefParser.PAGE_SIZE);
+            System.arraycopy(block, Type2NdefParser.PAGE_SIZE, data, 0, available);
+
+            Type2NdefParser.Location location = Type2NdefParser.locate(data, available);
+            while (location == null || available < location.getEnd()) {
+                if (available >= size) {
+                    throw new FormatException("NDEF message runs past the end of the tag");
+                }
+                block = readPages(nfcA, Type2NdefParser.DATA_START_PAGE + available / Type2NdefParser.PAGE_SIZE);
+                int n = Math.min(size - available, block.length);
+                System.arraycopy(block, 0, data, available, n);
+                available += n;
+                if (location == null) {
+                    location = Type2NdefParser.locate(data, available);
+                }
+            }
+            if (location.getLength() == 0) {
+                return null;
+            }
+            return new NdefMessage(Type2NdefParser.extract(data, location));
+        } catch (IllegalArgumentException e) {
+            throw new FormatException(e.getMessage());
+        } finally {
+            release(nfcA);
+        }
+    }
+
+    // Whether the tag is an NFC Forum Type 2 tag (MIFARE Ultralight, NTAG), which answers NfcA READ.
+    // Type 4 (IsoDep) tags and MIFARE Classic are NfcA too, but with a non-zero SAK.
+    public static boolean isType2(Tag tag) {
+        if (MifareUltralight.get(tag) != null) {
+            return true;
+        }
+        NfcA nfcA = NfcA.get(tag);
+        return nfcA != null && nfcA.getSak() == 0x00;
+    }
+
+    // Send a READ (0x30) for four pages starting at the given page
+    private static byte[] readPages(NfcA nfcA, int page) throws IOException {
+        byte[] response = nfcA.transceive(new byte[]{(byte) 0x30, (byte) page});
+        if (response == null || response.length != Type2NdefParser.READ_SIZE) {
+            throw new IOException("READ of page " + page + " was not acknowledged");
+        }
+        return response;
+    }
+
+    // Whether the tag already holds exactly this message, judged without any tag I/O from the
+    // message last written through this executor or else the message read when the tag was discovered
+    public boolean holdsMessage(Tag tag, NdefMessage message) {
+        NdefMessage current = writtenMessages.get(tag);
+        if (current == null) {
+            Ndef ndef = Ndef.get(tag);
+            current = ndef != null ? ndef.getCachedNdefMessage() : null;
+        }
+        return message.equals(current);
+    }
+
+    // Write an NDEF message unless the tag already holds it; returns false if the write was skipped.
+    // Must be called from inside a TagTask.
+    public boolean writeNdefMessageIfChanged(Tag tag, NdefMessage message) throws IOException, FormatException {
+        if (holdsMessage(tag, message)) {
+            skippedCount.incrementAndGet();
+            return false;
+        }
+        try {
+            writeNdefMessage(tag, message);
+        } catch (IOException | FormatException e) {
+            failedCount.incrementAndGet();
+            throw e;
+        }
+        writtenCount.incrementAndGet();
+        return true;
+    }
+
+    // Bytes available for an NDEF message on the tag, or -1 if unknown (not NDEF formatted yet); no tag I/O
+    public static int capacityOf(Tag tag) {
+        Ndef ndef = Ndef.get(tag);
+        return ndef != null ? ndef.getMaxSize() : -1;
+    }
+
+    // Whether the message fits on the tag, as far as its capacity is known without connecting
+    public static boolean fitsOnTag(Tag tag, NdefMessage message) {
+        int capacity = capacityOf(tag);
+        return capacity < 0 || message.getByteArrayLength() <= capacity;
+    }
+
+    // Write an NDEF message to a tag, formatting it first if it is not NDEF yet; must be called from inside a TagTask
+    public void writeNdefMessage(Tag tag, NdefMessage message) throws IOException, FormatException {
+        // Refuse an oversized message before connecting rather than after a failed write
+        if (!fitsOnTag(tag, message)) {
+            throw new IOException("Message needs " + message.getByteArrayLength() + " bytes but the tag holds "
+                    + capacityOf(tag));
+        }
+        Ndef ndef = Ndef.get(tag);
+        if (ndef != null) {
+            try {
+                connect(ndef);
+                if (!ndef.isWritable()) {
+                    throw new IOException("NFC tag is not writable");
+                }
+                ndef.writeNdefMessage(message);
+                writtenMessages.put(tag, message);
+            } finally {
+                release(ndef);
+            }
+            return;
+        }
+
+        NdefFormatable ndefFormatable = NdefFormatable.get(tag);
+        if (ndefFormatable == null) {
+            throw new IOException("NFC tag is not writable");
+        }
+        try {
+            connect(ndefFormatable);
+            ndefFormatable.format(message);
+            writtenMessages.put(tag, message);
+        } finally {
+            release(ndefFormatable);
+        }
+    }
+
+    // Write an NDEF message, then read the tag back and fail unless it holds exactly that message.
+    // Returns false if the tag already held the message and nothing was written. Must be called
+    // from inside a TagTask.
+    public boolean writeAndVerifyNdefMessage(Tag tag, NdefMessage message) throws IOException, FormatException {
+        if (holdsMessage(tag, message)) {
+            skippedCount.incrementAndGet();
+            return false;
+        }
+        try {
+            writeNdefMessage(tag, message);
+            NdefMessage written = readNdefMessage(tag);
+            if (written == null || !Arrays.equals(written.toByteArray(), message.toByteArray())) {
+                writtenMessages.remove(tag);
+                throw new IOException("Verification failed: tag content does not match what was written");
+            }
+        } catch (IOException | FormatException e) {
+            failedCount.incrementAndGet();
+            throw e;
+        }
+        writtenCount.incrementAndGet();
+        return true;
+    }
+
+    public int getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    public int getSkippedCount() {
+        return skippedCount.get();
+    }
+
+    public int getFailedCount() {
+        return failedCount.get();
+    }
+
+    // Summary of the write counters for display
+    public String describeWriteCounts() {
+        return "Written: " + getWrittenCount() + ", skipped: " + getSkippedCount() + ", failed: " + getFailedCount();
+    }
+
+    // Connect and record the connection against the running task, so only its own watchdog closes it
+    private void connect(TagTechnology tech) throws IOException {
+        if (running != null) {
+            running.tech = tech;
+        }
+        tech.connect();
+    }
+
+    private void release(TagTechnology tech) {
+        if (running != null) {
+            running.tech = null;
+        }
+        closeQuietly(tech);
+    }
+
+    private static void closeQuietly(TagTechnology tech) {
+        if (tech == null) {
+            return;
+        }
+        try {
+            tech.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.museum;
+
+import android.os.SystemClock;
+
+import androidx.tracing.Trace;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * TraceSpan times one stage of the tap and scan flows twice over: as a section in system
+ * traces (Perfetto, Android Studio's profiler), and in process as a sample in the stage's
+ * LatencyHistogram, which the diagnostics screen shows without a trace being captured.
+ * Stages that start and end on the same thread use begin(), usually in try-with-resources;
+ * stages that end on another thread or in a later frame, like tap-to-render, use
+ * beginAsync() and are ended by whoever finishes them, or discarded if nothing is shown.
+ */
+public final class TraceSpan implements AutoCloseable {
+
+    private static final AtomicInteger nextCookie = new AtomicInteger();
+
+    private final String name;
+    private final int cookie; // 0 for a synchronous section
+    private final long startNanos;
+    private final AtomicBoolean ended = new AtomicBoolean();
+
+    private TraceSpan(String name, int cookie) {
+        this.name = name;
+        this.cookie = cookie;
+        this.startNanos = SystemClock.elapsedRealtimeNanos();
+    }
+
+    // Start a stage that ends on this thread
+    public static TraceSpan begin(String name) {
+        Trace.beginSection(name);
+        return new TraceSpan(name, 0);
+    }
+
+    // Start a stage that may end on another thread
+    public static TraceSpan beginAsync(String name) {
+        int cookie = nextCookie.incrementAndGet();
+        if (cookie == 0) {
+            cookie = nextCookie.incrementAndGet(); // Zero marks synchronous sections
+        }
+        Trace.beginAsyncSection(name, cookie);
+        return new TraceSpan(name, cookie);
+    }
+
+    // Record a duration measured elsewhere, e.g. on a thread that cannot trace
+    public static void record(String name, long nanos) {
+        LatencyMetrics.getInstance().record(name, nanos);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    // End the stage and record its duration; returns the duration, or -1 if it had already ended
+    public long end() {
+        if (!endSection()) {
+            return -1;
+        }
+        long nanos = SystemClock.elapsedRealtimeNanos() - startNanos;
+        record(name, nanos);
+        return nanos;
+    }
+
+    // End the stage without recording it, when the flow it timed did not complete
+    public void discard() {
+        endSection();
+    }
+
+    @Override
+    public void close() {
+        end();
+    }
+
+    private boolean endSection() {
+        if (!ended.compareAndSet(false, true)) {
+            return false;
+        }
+        if (cookie == 0) {
+            Trace.endSection();
+        } else {
+            Trace.endAsyncSection(name, cookie);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,31 @@
+plugins {
+    id("java-library")
+    id("me.champeau.jmh")
+}
+
+// Plain-Java exhibit codecs, parsers and beacon calculators shared with the app, so they can be
+// unit tested and benchmarked on the JVM without an Android device or emulator
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+dependencies {
+    api("com.google.zxing:core:3.4.1")
+    // org.json ships with Android; the JVM needs its own copy to compile, test and benchmark
+    compileOnly("org.json:json:20231013")
+    testImplementation("junit:junit:4.13.2")
+    testImplementation("org.json:json:20231013")
+    jmh("org.json:json:20231013")
+}
+
+// ./gradlew :core:jmh  (results in core/build/results/jmh/results.txt)
+jmh {
+    jmhVersion.set("1.37")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    profilers.add("gc")
+    // QrDecodeBenchmark replays the synthetic camera frames from the unit tests (QrTestFrames)
+    includeTests.set(true)
+}
@@ -0,0 +1,58 @@
+package com.example.museum;
+
+/**
+ * A typical exhibit, shared by the benchmarks so their numbers are comparable.
+ */
+final class BenchmarkData {
+
+    // Exhibit texts of typical lengths, from a short label to a long gallery essay
+    static final String LABEL = "Bronze figure of a seated scribe, cast in the lost-wax process. "
+            + "Gift of the Harlow family, 1962.";
+
+    static final String PLACARD = "This portrait was painted in the artist's studio on the harbour "
+            + "during the winter of 1887. The sitter, a fisherman's daughter, posed over several weeks while "
+            + "the artist experimented with a palette limited to earth pigments and lead white. Look closely "
+            + "at the hands: the artist scraped back the paint with the handle of the brush to let the ground "
+            + "show through, a technique he returned to in his later harbour scenes. The frame is original.";
+
+    static final String ESSAY = "The gallery you are standing in was built in 1911 as the museum's "
+            + "first purpose-built exhibition room. Its skylights were designed to give an even north light "
+            + "across the long wall, and the paintings hung here today were chosen because they were painted "
+            + "under similar light. Start at the left with the three coastal studies. Each was painted in a "
+            + "single sitting, outdoors, on a prepared panel small enough to fit in the artist's paint box. "
+            + "The artist wrote in a letter to his sister that he worked quickly to catch the light before the "
+            + "tide turned, and the loose brushwork in the water shows that speed. Move along to the large "
+            + "canvas in the centre of the wall. Unlike the studies, this painting took more than two years to "
+            + "complete. X-ray images made during its conservation in 1998 show that the artist moved the "
+            + "horizon line twice and painted out a second boat that once sat beside the harbour wall. The "
+            + "painting was first shown at the city's spring exhibition, where critics praised the handling of "
+            + "the sky but found the figures in the foreground too rough. The museum acquired it in 1923. "
+            + "Finally, the small drawings in the case to your right are preparatory sketches for the central "
+            + "canvas. They are shown together here for the first time since they left the artist's studio. "
+            + "Notice how the position of the boats changes from sheet to sheet as the composition develops.";
+
+    private BenchmarkData() {
+    }
+
+    // An exhibit with the given body, as written to a tag
+    static Exhibit exhibit(String id, String title, String body) {
+        return new Exhibit(id, title, body, "https://museum.example/exhibits/" + id.toLowerCase(),
+                "https://museum.example/img/" + id.toLowerCase() + ".jpg", "");
+    }
+
+    static Exhibit exhibit() {
+        return new Exhibit("A12", "The Starry Night",
+                "Painted in June 1889, it depicts the view from the east-facing window of his asylum room at "
+                        + "Saint-Remy-de-Provence, just before sunrise, with the addition of an imaginary village.",
+                "https://museum.example/exhibits/a12", "https://museum.example/img/a12.jpg",
+                "https://museum.example/video/a12.mp4");
+    }
+
+    // The exhibit as the JSON text written to legacy tags
+    static String json() {
+        Exhibit exhibit = exhibit();
+        return "{\"ID\":\"" + exhibit.getId() + "\",\"Title\":\"" + exhibit.getTitle() + "\",\"Body\":\"" + exhibit.getBody()
+                + "\",\"URL\":\"" + exhibit.getUrl() + "\",\"ImageLink\":\"" + exhibit.getImageLink()
+                + "\",\"VideoLink\":\"" + exhibit.getVideoLink() + "\"}";
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.museum;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost per beacon sample of the distance path in BLEList.onBeaconFound(): the profile table
+ * lookup in DistanceModel against the Math.pow formula it replaced, and the RSSI filter plus
+ * lookup together. Samples cycle through recorded-looking RSSI values across many beacons.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DistanceBenchmark {
+
+    private static final int SAMPLES = 1024;
+    private static final int BEACONS = 64;
+
+    private final int[] rssi = new int[SAMPLES];
+    private final int[] slots = new int[SAMPLES];
+    private DistanceModel distanceModel;
+    private RssiFilter rssiFilter;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        for (int i = 0; i < SAMPLES; i++) {
+            rssi[i] = -50 - random.nextInt(45);
+            slots[i] = random.nextInt(BEACONS);
+        }
+        distanceModel = new DistanceModel(BEACONS);
+        for (int slot = 0; slot < BEACONS; slot += 2) {
+            distanceModel.assign(slot, distanceModel.profile(-70 + slot % 6, 2.0 + (slot % 4) * 0.2));
+        }
+        rssiFilter = new RssiFilter(BEACONS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public double profileTable() {
+        double sum = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            sum += distanceModel.distance(slots[i], rssi[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public double mathPow() {
+        double sum = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            DistanceModel.Profile profile = distanceModel.profileOf(slots[i]);
+            sum += Math.pow(10, (profile.getMeasuredPower() - rssi[i]) / (10 * profile.getPathLossExponent()));
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public double filterAndDistance() {
+        double sum = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            int slot = slots[i];
+            sum += distanceModel.distance(slot, rssiFilter.update(slot, rssi[i]));
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.museum;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning a tag's text record into an Exhibit, as DisplayNfcDataActivity.parseNfcData()
+ * does, against the JSONObject parse it replaced. Run with the gc profiler (the default for
+ * :core:jmh) to compare allocation rates (gc.alloc.rate.norm is bytes per operation). The
+ * "WithUnknownFields" variants add a nested object the app does not read, which the streaming
+ * reader skips but JSONObject builds in full.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ExhibitParseBenchmark {
+
+    private String json;
+    private String jsonWithUnknownFields;
+    private byte[] textPayload;
+
+    @Setup
+    public void setUp() {
+        json = BenchmarkData.json();
+        jsonWithUnknownFields = json.substring(0, json.length() - 1) + ",\"Curator\":{\"name\":\"J. Doe\",\"room\":7}}";
+        textPayload = NdefText.encode(json);
+    }
+
+    @Benchmark
+    public Exhibit streamingReader() {
+        return ExhibitJsonReader.read(json).getExhibit();
+    }
+
+    @Benchmark
+    public Exhibit jsonObject() throws JSONException {
+        return fromJsonObject(json);
+    }
+
+    @Benchmark
+    public Exhibit streamingReaderWithUnknownFields() {
+        return ExhibitJsonReader.read(jsonWithUnknownFields).getExhibit();
+    }
+
+    @Benchmark
+    public Exhibit jsonObjectWithUnknownFields() throws JSONException {
+        return fromJsonObject(jsonWithUnknownFields);
+    }
+
+    @Benchmark
+    public Exhibit textRecordToExhibit() {
+        return ExhibitJsonReader.read(NdefText.decode(textPayload)).getExhibit();
+    }
+
+    // The previous parsing path: a full JSONObject tree, then one lookup per field
+    private static Exhibit fromJsonObject(String json) throws JSONException {
+        JSONObject object = new JSONObject(json);
+        return new Exhibit(object.optString("ID"), object.getString("Title"), object.getString("Body"),
+                object.getString("URL"), object.getString("ImageLink"), object.getString("VideoLink"));
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.museum;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode throughput of the NDEF payloads written to and read from exhibit tags:
+ * the legacy JSON text record (NdefText) and the binary exhibit record (ExhibitCodec, plain
+ * and deflated by ExhibitCompressor). The plain and deflated records are also decoded for
+ * exhibit texts from a short label to a long gallery essay, to show what compression costs
+ * at read time as texts grow.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class NdefRecordBenchmark {
+
+    private Exhibit exhibit;
+    private String json;
+    private byte[] textPayload;
+    private byte[] exhibitPayload;
+    private byte[] compressedPayload;
+
+    // Plain and deflated exhibit records for one text length
+    @State(Scope.Benchmark)
+    public static class Texts {
+        @Param({"label", "placard", "essay"})
+        public String length;
+
+        byte[] plain;
+        byte[] compressed;
+
+        @Setup
+        public void setUp() {
+            String body;
+            if ("label".equals(length)) {
+                body = BenchmarkData.LABEL;
+            } else if ("placard".equals(length)) {
+                body = BenchmarkData.PLACARD;
+            } else {
+                body = BenchmarkData.ESSAY;
+            }
+            plain = ExhibitCodec.encode(BenchmarkData.exhibit("G01", "The North Light Gallery", body));
+            compressed = ExhibitCompressor.compress(plain);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        exhibit = BenchmarkData.exhibit();
+        json = BenchmarkData.json();
+        textPayload = NdefText.encode(json);
+        exhibitPayload = ExhibitCodec.encode(exhibit);
+        compressedPayload = ExhibitCompressor.compress(exhibitPayload);
+    }
+
+    @Benchmark
+    public byte[] encodeTextRecord() {
+        return NdefText.encode(json);
+    }
+
+    @Benchmark
+    public String decodeTextRecord() {
+        return NdefText.decode(textPayload);
+    }
+
+    @Benchmark
+    public byte[] encodeExhibitRecord() {
+        return ExhibitCodec.encode(exhibit);
+    }
+
+    @Benchmark
+    public Exhibit decodeExhibitRecord() {
+        return ExhibitCodec.decode(exhibitPayload);
+    }
+
+    @Benchmark
+    public Exhibit decodeCompressedExhibitRecord() {
+        return ExhibitCodec.decode(ExhibitCompressor.decompress(compressedPayload));
+    }
+
+    @Benchmark
+    public Exhibit decodeExhibitRecordByLength(Texts texts) {
+        return ExhibitCodec.decode(texts.plain);
+    }
+
+    @Benchmark
+    public Exhibit decodeCompressedExhibitRecordByLength(Texts texts) {
+        return ExhibitCodec.decode(ExhibitCompressor.decompress(texts.compressed));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.museum;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decode time per camera preview frame of the stock-style decoder (every format, full frame)
+ * against the exhibit decoder in QRScanner (QR_CODE only, centred region of interest). Frames
+ * cycle through the synthetic scan session from the unit tests, most of them without a code
+ * or with a small one, as between scans; set the system property "qr.frames" (through the
+ * jmh jvmArgs) to a directory of NV21 frames captured on a device to replay those instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QrDecodeBenchmark {
+
+    private List<QrTestFrames.Frame> frames;
+    private QrFrameDecoder stock;
+    private QrFrameDecoder exhibit;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        String dir = System.getProperty("qr.frames");
+        frames = dir != null ? QrTestFrames.load(new File(dir)) : QrTestFrames.session();
+        stock = QrFrameDecoder.forAllFormats();
+        exhibit = QrFrameDecoder.forExhibitCodes(QrFrameDecoder.DEFAULT_ROI_FRACTION);
+    }
+
+    @Benchmark
+    public String stockDecoder() {
+        QrTestFrames.Frame frame = nextFrame();
+        return stock.decode(frame.data, frame.width, frame.height);
+    }
+
+    @Benchmark
+    public String exhibitDecoder() {
+        QrTestFrames.Frame frame = nextFrame();
+        return exhibit.decode(frame.data, frame.width, frame.height);
+    }
+
+    private QrTestFrames.Frame nextFrame() {
+        QrTestFrames.Frame frame = frames.get(next);
+        next = (next + 1) % frames.size();
+        return frame;
+    }
+}
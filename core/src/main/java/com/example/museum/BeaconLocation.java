@@ -0,0 +1,33 @@
+package com.example.museum;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * BeaconLocation is one entry of the beacon floor plan: a beacon's Bluetooth address and
+ * where it is mounted, in meters on the floor-plan coordinate system.
+ */
+public final class BeaconLocation {
+
+    private final String address;
+    private final double x;
+    private final double y;
+
+    public BeaconLocation(String address, double x, double y) {
+        this.address = address;
+        this.x = x;
+        this.y = y;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.museum;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * BeaconRegistry holds the beacon floor plan: where every BlueCharm beacon is mounted.
+ * Beacons are looked up by Bluetooth address, and a SpatialGrid answers "which beacons are
+ * near this point" queries so positioning only considers the local neighbourhood.
+ */
+public final class BeaconRegistry {
+
+    // Grid cell size in meters; about the spacing of beacons in a gallery
+    private static final double CELL_SIZE_M = 10;
+
+    private final Map<String, BeaconLocation> byAddress = new HashMap<>();
+    private final SpatialGrid grid;
+
+    public BeaconRegistry(Collection<BeaconLocation> beacons) {
+        for (BeaconLocation beacon : beacons) {
+            byAddress.put(normalize(beacon.getAddress()), beacon);
+        }
+        grid = new SpatialGrid(byAddress.values(), CELL_SIZE_M);
+    }
+
+    // Location of the beacon with this address, or null if it is not on the floor plan
+    public BeaconLocation get(String address) {
+        return byAddress.get(normalize(address));
+    }
+
+    // Add every registered beacon within radius meters of (x, y) to out
+    public void findWithin(double x, double y, double radius, List<BeaconLocation> out) {
+        grid.findWithin(x, y, radius, out);
+    }
+
+    public Collection<BeaconLocation> all() {
+        return Collections.unmodifiableCollection(byAddress.values());
+    }
+
+    public int size() {
+        return byAddress.size();
+    }
+
+    // Bluetooth addresses are reported upper-case; accept either case in the floor plan
+    static String normalize(String address) {
+        return address.toUpperCase(Locale.US);
+    }
+}
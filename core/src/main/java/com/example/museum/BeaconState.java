@@ -0,0 +1,54 @@
+package com.example.museum;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * BeaconState is an immutable snapshot of what is currently known about one BlueCharm
+ * beacon: its address (the key), name, filtered RSSI, estimated distance and when it was
+ * last heard. BLEList keeps the latest snapshot per address and hands lists of them to
+ * BeaconAdapter, which diffs consecutive lists to update only the rows that changed.
+ */
+public final class BeaconState {
+
+    private final String address;
+    private final String name;
+    private final int rssi;
+    private final double distance;
+    private final long lastSeenMillis;
+
+    public BeaconState(String address, String name, int rssi, double distance, long lastSeenMillis) {
+        this.address = address;
+        this.name = name;
+        this.rssi = rssi;
+        this.distance = distance;
+        this.lastSeenMillis = lastSeenMillis;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getRssi() {
+        return rssi;
+    }
+
+    public double getDistance() {
+        return distance;
+    }
+
+    public long getLastSeenMillis() {
+        return lastSeenMillis;
+    }
+
+    // True if this state would be displayed the same as the other one (distance is shown to 2 decimals)
+    public boolean looksSameAs(BeaconState other) {
+        return rssi == other.rssi
+                && Math.round(distance * 100) == Math.round(other.distance * 100)
+                && (name == null ? other.name == null : name.equals(other.name));
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.museum;
+
+import java.util.Arrays;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * BeaconTable tracks the beacons BLEList has heard, keyed by MAC address packed into a long.
+ * Each beacon owns a slot that stays the same until it is removed, so the slot can index
+ * other per-beacon arrays such as the RssiFilter. Lookups go through an open-addressing hash
+ * table with linear probing over primitive arrays, and the latest RSSI, distance and
+ * last-seen time live in parallel arrays indexed by slot. Parsing an address, looking it up
+ * and recording a sample allocate nothing. Removed slots go on a free list for reuse. The
+ * table is not thread-safe; use it from one thread.
+ */
+public final class BeaconTable {
+
+    // Returned by parseMac() for malformed addresses and by slotOf() for unknown beacons
+    public static final long INVALID_MAC = -1L;
+    public static final int NO_SLOT = -1;
+
+    private static final long EMPTY = -1L;
+
+    // Value of each ASCII hex digit, -1 for every other ASCII character
+    private static final byte[] HEX_VALUES = new byte[128];
+
+    static {
+        Arrays.fill(HEX_VALUES, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            HEX_VALUES['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            HEX_VALUES['A' + i] = (byte) (10 + i);
+            HEX_VALUES['a' + i] = (byte) (10 + i);
+        }
+    }
+
+    private final int capacity;
+    private final int mask;
+    private final long[] keys;      // hash table of packed addresses, EMPTY when unused
+    private final int[] keySlots;   // slot owned by the key at the same hash position
+
+    private final long[] macs;      // packed address per slot, EMPTY when the slot is free
+    private final String[] addresses;
+    private final String[] names;
+    private final int[] rssi;
+    private final double[] distance;
+    private final long[] lastSeen;
+
+    private final int[] freeSlots;  // stack of free slots
+    private int freeCount;
+    private int size;
+
+    public BeaconTable(int capacity) {
+        this.capacity = capacity;
+        // Keep the load factor at or below one half so probe sequences stay short
+        int tableSize = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) << 1;
+        this.mask = tableSize - 1;
+        this.keys = new long[tableSize];
+        this.keySlots = new int[tableSize];
+        Arrays.fill(keys, EMPTY);
+
+        this.macs = new long[capacity];
+        this.addresses = new String[capacity];
+        this.names = new String[capacity];
+        this.rssi = new int[capacity];
+        this.distance = new double[capacity];
+        this.lastSeen = new long[capacity];
+        Arrays.fill(macs, EMPTY);
+
+        this.freeSlots = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            freeSlots[i] = capacity - 1 - i; // Hand out low slots first
+        }
+        this.freeCount = capacity;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Slot of a beacon, or NO_SLOT if it is not in the table
+    public int slotOf(long mac) {
+        if (mac == EMPTY) {
+            return NO_SLOT;
+        }
+        for (int i = mix(mac) & mask; ; i = (i + 1) & mask) {
+            long key = keys[i];
+            if (key == mac) {
+                return keySlots[i];
+            }
+            if (key == EMPTY) {
+                return NO_SLOT;
+            }
+        }
+    }
+
+    // Slot of a beacon, adding it if it is new; NO_SLOT if the address is invalid or the table is full.
+    // The address and name strings are kept by reference for display.
+    public int acquire(long mac, String address, String name) {
+        if (mac == EMPTY) {
+            return NO_SLOT;
+        }
+        int i = mix(mac) & mask;
+        for (; ; i = (i + 1) & mask) {
+            long key = keys[i];
+            if (key == mac) {
+                return keySlots[i];
+            }
+            if (key == EMPTY) {
+                break;
+            }
+        }
+        if (freeCount == 0) {
+            return NO_SLOT;
+        }
+        int slot = freeSlots[--freeCount];
+        keys[i] = mac;
+        keySlots[i] = slot;
+        macs[slot] = mac;
+        addresses[slot] = address;
+        names[slot] = name;
+        rssi[slot] = 0;
+        distance[slot] = Double.NaN;
+        lastSeen[slot] = 0;
+        size++;
+        return slot;
+    }
+
+    // Record the latest filtered sample for a slot
+    public void update(int slot, int rssi, double distance, long nowMillis) {
+        this.rssi[slot] = rssi;
+        this.distance[slot] = distance;
+        this.lastSeen[slot] = nowMillis;
+    }
+
+    // Remove a beacon and free its slot; returns the freed slot or NO_SLOT if it was not present
+    public int remove(long mac) {
+        if (mac == EMPTY) {
+            return NO_SLOT;
+        }
+        int i = mix(mac) & mask;
+        while (keys[i] != mac) {
+            if (keys[i] == EMPTY) {
+                return NO_SLOT;
+            }
+            i = (i + 1) & mask;
+        }
+        int slot = keySlots[i];
+
+        // Backward-shift deletion keeps every remaining key reachable from its home position
+        int hole = i;
+        for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+            int home = mix(keys[j]) & mask;
+            // Move the key into the hole unless its home lies cyclically in (hole, j]
+            boolean stays = hole <= j ? (home > hole && home <= j) : (home > hole || home <= j);
+            if (!stays) {
+                keys[hole] = keys[j];
+                keySlots[hole] = keySlots[j];
+                hole = j;
+            }
+        }
+        keys[hole] = EMPTY;
+
+        macs[slot] = EMPTY;
+        addresses[slot] = null;
+        names[slot] = null;
+        freeSlots[freeCount++] = slot;
+        size--;
+        return slot;
+    }
+
+    // Whether a slot currently belongs to a beacon
+    public boolean isUsed(int slot) {
+        return macs[slot] != EMPTY;
+    }
+
+    public long getMac(int slot) {
+        return macs[slot];
+    }
+
+    public String getAddress(int slot) {
+        return addresses[slot];
+    }
+
+    public String getName(int slot) {
+        return names[slot];
+    }
+
+    public int getRssi(int slot) {
+        return rssi[slot];
+    }
+
+    public double getDistance(int slot) {
+        return distance[slot];
+    }
+
+    public long getLastSeen(int slot) {
+        return lastSeen[slot];
+    }
+
+    // Pack a colon-separated MAC address ("AA:BB:CC:DD:EE:FF") into the low 48 bits of a long.
+    // Runs for every advertisement, so each octet is decoded through HEX_VALUES with one
+    // validity check per address instead of a range test per character.
+    public static long parseMac(CharSequence address) {
+        if (address == null || address.length() != 17) {
+            return INVALID_MAC;
+        }
+        long mac = 0;
+        int invalid = 0;
+        for (int i = 0; i < 17; i += 3) {
+            char high = address.charAt(i);
+            char low = address.charAt(i + 1);
+            if ((high | low) >= HEX_VALUES.length || (i < 15 && address.charAt(i + 2) != ':')) {
+                return INVALID_MAC;
+            }
+            int highValue = HEX_VALUES[high];
+            int lowValue = HEX_VALUES[low];
+            invalid |= highValue | lowValue;
+            mac = (mac << 8) | (highValue << 4) | lowValue;
+        }
+        return invalid < 0 ? INVALID_MAC : mac;
+    }
+
+    // Spread the address bits so vendor prefixes shared by many beacons do not cluster
+    private static int mix(long mac) {
+        long h = mac * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.museum;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * CatalogEntry is one row of the exhibit catalog: an exhibit and the version of its
+ * content. It also holds the catalog's rules that do not depend on SQLite (how decoded
+ * payloads are resolved, when a short QR code is newer than the stored content) so they
+ * run in JVM tests against any Lookup.
+ */
+public final class CatalogEntry {
+
+    // Version of exhibits added without one
+    public static final int INITIAL_VERSION = 1;
+
+    // Finds the entry stored for an exhibit ID, or null if there is none
+    public interface Lookup {
+        CatalogEntry get(String id);
+    }
+
+    private final Exhibit exhibit;
+    private final int version;
+
+    public CatalogEntry(Exhibit exhibit, int version) {
+        this.exhibit = exhibit;
+        this.version = version;
+    }
+
+    public Exhibit getExhibit() {
+        return exhibit;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    // Whether a code printed for this content version expects newer content than the entry holds
+    public boolean isOlderThan(int printedVersion) {
+        return version < printedVersion;
+    }
+
+    // Version to store for incoming content that carries no version of its own: the first
+    // version for a new exhibit, the stored one if nothing changed, and one more if it did
+    public static int versionFor(CatalogEntry stored, Exhibit incoming) {
+        if (stored == null) {
+            return INITIAL_VERSION;
+        }
+        return stored.getExhibit().equals(incoming) ? stored.getVersion() : stored.getVersion() + 1;
+    }
+
+    // Resolve a decoded tag or QR payload: inline exhibits are returned as they are,
+    // ID-only payloads are looked up (null if the ID is unknown)
+    public static Exhibit resolve(Exhibit payload, Lookup lookup) {
+        if (payload == null || !payload.isIdOnly()) {
+            return payload;
+        }
+        CatalogEntry entry = lookup.get(payload.getId());
+        return entry != null ? entry.getExhibit() : null;
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.museum;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * ContentPack reads an offline exhibit content pack: one file holding every exhibit record
+ * (in the ExhibitCodec binary format) and a pre-sized thumbnail for each, so galleries with
+ * poor Wi-Fi still have text and pictures. The file is memory-mapped read-only; a lookup
+ * binary-searches the index and compares IDs in the mapped pages, and thumbnails are
+ * returned as slices of the mapping, so nothing is copied onto the heap until a record is
+ * decoded. Packs are written by ContentPackBuilder and updated with PackDelta.
+ *
+ * Layout (all integers big-endian):
+ *   header   32 bytes: magic "MUSPACK1", pack version, entry count, index offset,
+ *            data offset, file length, CRC32 of every byte after the header
+ *   index    ENTRY_SIZE bytes per exhibit, sorted by the UTF-8 bytes of the ID:
+ *            ID offset, ID length, content version, record offset, record length,
+ *            thumbnail offset, thumbnail length (0 if the exhibit has none)
+ *   data     IDs, records and thumbnails
+ */
+public final class ContentPack {
+
+    public static final byte[] MAGIC = "MUSPACK1".getBytes(StandardCharsets.US_ASCII);
+    public static final int HEADER_SIZE = 32;
+    public static final int ENTRY_SIZE = 28;
+
+    static final int OFFSET_PACK_VERSION = 8;
+    static final int OFFSET_ENTRY_COUNT = 12;
+    static final int OFFSET_INDEX = 16;
+    static final int OFFSET_DATA = 20;
+    static final int OFFSET_LENGTH = 24;
+    static final int OFFSET_CRC = 28;
+
+    private final ByteBuffer buffer;
+    private final int packVersion;
+    private final int entryCount;
+    private final int indexOffset;
+
+    private ContentPack(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE) {
+            throw new IOException("Content pack is too short");
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (buffer.get(i) != MAGIC[i]) {
+                throw new IOException("Not a content pack");
+            }
+        }
+        packVersion = buffer.getInt(OFFSET_PACK_VERSION);
+        entryCount = buffer.getInt(OFFSET_ENTRY_COUNT);
+        indexOffset = buffer.getInt(OFFSET_INDEX);
+        if (buffer.getInt(OFFSET_LENGTH) != buffer.capacity()) {
+            throw new IOException("Content pack is truncated");
+        }
+        if (entryCount < 0 || indexOffset < HEADER_SIZE
+                || (long) indexOffset + (long) entryCount * ENTRY_SIZE > buffer.capacity()) {
+            throw new IOException("Content pack index is damaged");
+        }
+        for (int i = 0; i < entryCount; i++) {
+            int entry = indexOffset + i * ENTRY_SIZE;
+            checkRange(buffer.getInt(entry), buffer.getInt(entry + 4));
+            checkRange(buffer.getInt(entry + 12), buffer.getInt(entry + 16));
+            checkRange(buffer.getInt(entry + 20), buffer.getInt(entry + 24));
+        }
+    }
+
+    // Map a pack file read-only; the mapping stays valid after the channel is closed
+    public static ContentPack open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            return new ContentPack(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    // Read a pack held in memory, e.g. one just built or downloaded
+    public static ContentPack wrap(byte[] bytes) throws IOException {
+        return new ContentPack(ByteBuffer.wrap(bytes).asReadOnlyBuffer());
+    }
+
+    public int getPackVersion() {
+        return packVersion;
+    }
+
+    public int size() {
+        return entryCount;
+    }
+
+    // Whether the stored checksum matches the content; reads the whole file, so call it once after a download
+    public boolean verify() {
+        return buffer.getInt(OFFSET_CRC) == checksum(buffer);
+    }
+
+    // CRC32 of everything after the header, as stored in the header
+    static int checksum(ByteBuffer pack) {
+        ByteBuffer body = pack.duplicate();
+        body.position(HEADER_SIZE);
+        CRC32 crc = new CRC32();
+        byte[] chunk = new byte[8192];
+        while (body.hasRemaining()) {
+            int n = Math.min(chunk.length, body.remaining());
+            body.get(chunk, 0, n);
+            crc.update(chunk, 0, n);
+        }
+        return (int) crc.getValue();
+    }
+
+    // Index position of an exhibit, or -1 if the pack does not hold it
+    public int indexOf(String id) {
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = entryCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareKey(mid, key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    // Look up and decode an exhibit, or return null if the pack does not hold it
+    public Exhibit get(String id) {
+        int index = indexOf(id);
+        return index < 0 ? null : exhibitAt(index);
+    }
+
+    // Decode the exhibit at an index position
+    public Exhibit exhibitAt(int index) {
+        int entry = entry(index);
+        return ExhibitCodec.decode(copy(buffer.getInt(entry + 12), buffer.getInt(entry + 16)));
+    }
+
+    // Exhibit ID at an index position
+    public String idAt(int index) {
+        int entry = entry(index);
+        return new String(copy(buffer.getInt(entry), buffer.getInt(entry + 4)), StandardCharsets.UTF_8);
+    }
+
+    // Content version of the exhibit at an index position
+    public int versionAt(int index) {
+        return buffer.getInt(entry(index) + 8);
+    }
+
+    // The exhibit's thumbnail as a read-only slice of the mapped file, or null if it has none
+    public ByteBuffer getThumbnail(String id) {
+        int index = indexOf(id);
+        if (index < 0) {
+            return null;
+        }
+        int entry = entry(index);
+        int length = buffer.getInt(entry + 24);
+        if (length == 0) {
+            return null;
+        }
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(buffer.getInt(entry + 20));
+        slice.limit(slice.position() + length);
+        return slice.slice().asReadOnlyBuffer();
+    }
+
+    // The exhibit's thumbnail bytes, for decoders that need an array, or null if it has none
+    public byte[] getThumbnailBytes(String id) {
+        ByteBuffer thumbnail = getThumbnail(id);
+        if (thumbnail == null) {
+            return null;
+        }
+        byte[] bytes = new byte[thumbnail.remaining()];
+        thumbnail.get(bytes);
+        return bytes;
+    }
+
+    // The whole pack, for building deltas against it
+    ByteBuffer buffer() {
+        return buffer.duplicate();
+    }
+
+    private int entry(int index) {
+        if (index < 0 || index >= entryCount) {
+            throw new IndexOutOfBoundsException("Entry " + index + " of " + entryCount);
+        }
+        return indexOffset + index * ENTRY_SIZE;
+    }
+
+    // Unsigned lexicographic comparison of an entry's ID with a key, in place
+    private int compareKey(int index, byte[] key) {
+        int entry = indexOffset + index * ENTRY_SIZE;
+        int offset = buffer.getInt(entry);
+        int length = buffer.getInt(entry + 4);
+        int n = Math.min(length, key.length);
+        for (int i = 0; i < n; i++) {
+            int cmp = (buffer.get(offset + i) & 0xFF) - (key[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return length - key.length;
+    }
+
+    private byte[] copy(int offset, int length) {
+        byte[] bytes = new byte[length];
+        ByteBuffer source = buffer.duplicate();
+        source.position(offset);
+        source.get(bytes);
+        return bytes;
+    }
+
+    private void checkRange(int offset, int length) throws IOException {
+        if (offset < 0 || length < 0 || (long) offset + length > buffer.capacity()) {
+            throw new IOException("Content pack entry points outside the file");
+        }
+    }
+}
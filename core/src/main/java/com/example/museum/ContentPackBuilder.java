@@ -0,0 +1,138 @@
+package com.example.museum;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * ContentPackBuilder writes exhibit content packs in the format read by ContentPack. It is
+ * run on a workstation through ContentPackTool (in :tools) when exhibit content changes.
+ * Thumbnails must already be sized for the exhibit panel; larger ones than MAX_THUMBNAIL_BYTES
+ * are refused. Given the previous pack, an unchanged exhibit keeps its content version (see
+ * contentVersion()) and others get the new pack version. Each exhibit's ID, record and thumbnail
+ * are stored together in ID order, so an edit to one exhibit only changes its own bytes
+ * and the index, which keeps deltas small.
+ */
+public final class ContentPackBuilder {
+
+    // Thumbnails are sized for the exhibit panel, so anything bigger is a mistake
+    public static final int MAX_THUMBNAIL_BYTES = 64 * 1024;
+
+    // Unsigned byte order of UTF-8 IDs, the order ContentPack searches in
+    private static final Comparator<Item> BY_KEY = new Comparator<Item>() {
+        @Override
+        public int compare(Item a, Item b) {
+            int n = Math.min(a.key.length, b.key.length);
+            for (int i = 0; i < n; i++) {
+                int cmp = (a.key[i] & 0xFF) - (b.key[i] & 0xFF);
+                if (cmp != 0) {
+                    return cmp;
+                }
+            }
+            return a.key.length - b.key.length;
+        }
+    };
+
+    private static final class Item {
+        final byte[] key;
+        final int contentVersion;
+        final byte[] record;
+        final byte[] thumbnail;
+
+        Item(byte[] key, int contentVersion, byte[] record, byte[] thumbnail) {
+            this.key = key;
+            this.contentVersion = contentVersion;
+            this.record = record;
+            this.thumbnail = thumbnail;
+        }
+    }
+
+    private final int packVersion;
+    private final List<Item> items = new ArrayList<>();
+
+    public ContentPackBuilder(int packVersion) {
+        this.packVersion = packVersion;
+    }
+
+    // Add an exhibit and its thumbnail (null if it has none)
+    public ContentPackBuilder add(Exhibit exhibit, int contentVersion, byte[] thumbnail) {
+        if (exhibit.getId().isEmpty()) {
+            throw new IllegalArgumentException("Exhibit has no ID");
+        }
+        if (thumbnail != null && thumbnail.length > MAX_THUMBNAIL_BYTES) {
+            throw new IllegalArgumentException("Thumbnail for " + exhibit.getId() + " is " + thumbnail.length
+                    + " bytes; resize it below " + MAX_THUMBNAIL_BYTES);
+        }
+        byte[] key = exhibit.getId().getBytes(StandardCharsets.UTF_8);
+        items.add(new Item(key, contentVersion, ExhibitCodec.encode(exhibit), thumbnail != null ? thumbnail : new byte[0]));
+        return this;
+    }
+
+    // Content version for an exhibit: kept from the previous pack if unchanged there, else the new pack version
+    public static int contentVersion(Exhibit exhibit, byte[] thumbnail, ContentPack previous, int packVersion) {
+        if (previous != null) {
+            int index = previous.indexOf(exhibit.getId());
+            if (index >= 0 && exhibit.equals(previous.exhibitAt(index))) {
+                byte[] oldThumbnail = previous.getThumbnailBytes(exhibit.getId());
+                boolean sameThumbnail = oldThumbnail == null ? thumbnail == null || thumbnail.length == 0
+                        : Arrays.equals(oldThumbnail, thumbnail);
+                if (sameThumbnail) {
+                    return previous.versionAt(index);
+                }
+            }
+        }
+        return packVersion;
+    }
+
+    // Lay out and return the pack file
+    public byte[] build() {
+        List<Item> sorted = new ArrayList<>(items);
+        Collections.sort(sorted, BY_KEY);
+        for (int i = 1; i < sorted.size(); i++) {
+            if (BY_KEY.compare(sorted.get(i - 1), sorted.get(i)) == 0) {
+                throw new IllegalArgumentException("Duplicate exhibit ID " + new String(sorted.get(i).key, StandardCharsets.UTF_8));
+            }
+        }
+
+        int indexOffset = ContentPack.HEADER_SIZE;
+        int dataOffset = indexOffset + sorted.size() * ContentPack.ENTRY_SIZE;
+        long length = dataOffset;
+        for (Item item : sorted) {
+            length += item.key.length + item.record.length + item.thumbnail.length;
+        }
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Content pack is too large");
+        }
+
+        ByteBuffer out = ByteBuffer.allocate((int) length);
+        out.put(ContentPack.MAGIC);
+        out.putInt(packVersion);
+        out.putInt(sorted.size());
+        out.putInt(indexOffset);
+        out.putInt(dataOffset);
+        out.putInt((int) length);
+        out.putInt(0); // Checksum, filled in below
+
+        int pos = dataOffset;
+        for (Item item : sorted) {
+            out.putInt(pos).putInt(item.key.length).putInt(item.contentVersion);
+            pos += item.key.length;
+            out.putInt(pos).putInt(item.record.length);
+            pos += item.record.length;
+            out.putInt(item.thumbnail.length == 0 ? 0 : pos).putInt(item.thumbnail.length);
+            pos += item.thumbnail.length;
+        }
+        for (Item item : sorted) {
+            out.put(item.key).put(item.record).put(item.thumbnail);
+        }
+        out.putInt(ContentPack.OFFSET_CRC, ContentPack.checksum(out));
+        return out.array();
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.museum;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * ContentPackUpdater brings the installed content pack up to the latest version published
+ * on the content server. The server offers three resources under its base URL:
+ *
+ *   GET version          the latest pack version, as decimal text
+ *   GET delta/&lt;from&gt;     a PackDelta from pack version &lt;from&gt; to the latest (404 if none)
+ *   GET pack             the latest full pack
+ *
+ * A delta is tried first when a pack is installed, and the full pack is downloaded if there
+ * is no delta or it fails. The new pack is written next to the installed one, verified
+ * against its checksum and version, and renamed over it, so a failed or interrupted update
+ * never leaves a broken pack behind. The update blocks; run it off the main thread.
+ */
+public final class ContentPackUpdater {
+
+    public static final int CONNECT_TIMEOUT_MS = 10000;
+    public static final int READ_TIMEOUT_MS = 30000;
+
+    private final String baseUrl;
+
+    // Outcome of an update
+    public static final class Result {
+        private final int fromVersion;
+        private final int toVersion;
+        private final boolean delta;
+        private final long bytesDownloaded;
+
+        Result(int fromVersion, int toVersion, boolean delta, long bytesDownloaded) {
+            this.fromVersion = fromVersion;
+            this.toVersion = toVersion;
+            this.delta = delta;
+            this.bytesDownloaded = bytesDownloaded;
+        }
+
+        // Installed pack version before the update, or -1 if there was none
+        public int getFromVersion() {
+            return fromVersion;
+        }
+
+        public int getToVersion() {
+            return toVersion;
+        }
+
+        public boolean isUpdated() {
+            return fromVersion != toVersion;
+        }
+
+        // Whether the update was applied as a delta rather than a full download
+        public boolean isDelta() {
+            return delta;
+        }
+
+        public long getBytesDownloaded() {
+            return bytesDownloaded;
+        }
+
+        @Override
+        public String toString() {
+            if (!isUpdated()) {
+                return "Content pack " + toVersion + " is up to date";
+            }
+            return "Content pack " + fromVersion + " -> " + toVersion + (delta ? " by delta, " : ", ")
+                    + bytesDownloaded + " bytes downloaded";
+        }
+    }
+
+    public ContentPackUpdater(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+    }
+
+    // Update the pack file to the latest version
+    public Result update(File packFile) throws IOException {
+        int current = installedVersion(packFile);
+        long downloaded = 0;
+        byte[] versionText = fetch("version");
+        downloaded += versionText.length;
+        int latest;
+        try {
+            latest = Integer.parseInt(new String(versionText, StandardCharsets.US_ASCII).trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Bad pack version from server", e);
+        }
+        if (latest == current) {
+            return new Result(current, latest, false, downloaded);
+        }
+
+        File temp = new File(packFile.getPath() + ".tmp");
+        if (current >= 0) {
+            try {
+                byte[] delta = fetch("delta/" + current);
+                downloaded += delta.length;
+                ContentPack base = ContentPack.open(packFile);
+                try (OutputStream out = new FileOutputStream(temp)) {
+                    PackDelta.apply(base.buffer(), ByteBuffer.wrap(delta), out);
+                }
+                install(temp, packFile, latest);
+                return new Result(current, latest, true, downloaded);
+            } catch (IOException e) {
+                // No delta for this version, or it did not apply; fall back to the full pack
+                temp.delete();
+            }
+        }
+
+        try (OutputStream out = new FileOutputStream(temp)) {
+            downloaded += fetch("pack", out);
+        }
+        install(temp, packFile, latest);
+        return new Result(current, latest, false, downloaded);
+    }
+
+    // Version of the installed pack, or -1 if there is none or it cannot be read
+    public static int installedVersion(File packFile) {
+        if (!packFile.isFile()) {
+            return -1;
+        }
+        try {
+            return ContentPack.open(packFile).getPackVersion();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    // Verify a downloaded pack and move it into place
+    private static void install(File temp, File packFile, int expectedVersion) throws IOException {
+        try {
+            ContentPack pack = ContentPack.open(temp);
+            if (!pack.verify()) {
+                throw new IOException("Downloaded content pack is damaged");
+            }
+            if (pack.getPackVersion() != expectedVersion) {
+                throw new IOException("Downloaded content pack is version " + pack.getPackVersion()
+                        + ", expected " + expectedVersion);
+            }
+            if (!temp.renameTo(packFile)) {
+                throw new IOException("Cannot replace " + packFile);
+            }
+        } catch (IOException e) {
+            temp.delete();
+            throw e;
+        }
+    }
+
+    private byte[] fetch(String path) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        fetch(path, out);
+        return out.toByteArray();
+    }
+
+    // Download a resource into a stream; returns the number of bytes read
+    private long fetch(String path, OutputStream out) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        try {
+            connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+            connection.setReadTimeout(READ_TIMEOUT_MS);
+            int status = connection.getResponseCode();
+            if (status == HttpURLConnection.HTTP_NOT_FOUND) {
+                throw new FileNotFoundException(baseUrl + path);
+            }
+            if (status != HttpURLConnection.HTTP_OK) {
+                throw new IOException("HTTP " + status + " for " + baseUrl + path);
+            }
+            long total = 0;
+            try (InputStream in = connection.getInputStream()) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                    total += read;
+                }
+            }
+            return total;
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
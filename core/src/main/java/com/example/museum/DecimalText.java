@@ -0,0 +1,39 @@
+package com.example.museum;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * DecimalText appends fixed-point numbers to a StringBuilder without boxing them or going
+ * through java.util.Formatter, for text that is rebuilt on every beacon update. Values are
+ * rounded half up to the requested number of decimals and always use '.' as the separator.
+ */
+public final class DecimalText {
+
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1000, 10000};
+
+    private DecimalText() {
+    }
+
+    // Append value with exactly decimals digits after the point (0 to 4)
+    public static StringBuilder appendFixed(StringBuilder out, double value, int decimals) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return out.append(value);
+        }
+        long scale = POWERS_OF_TEN[decimals];
+        long scaled = Math.round(Math.abs(value) * scale);
+        if (value < 0 && scaled != 0) {
+            out.append('-');
+        }
+        out.append(scaled / scale);
+        if (decimals > 0) {
+            out.append('.');
+            long fraction = scaled % scale;
+            for (long digit = scale / 10; digit > fraction && digit > 1; digit /= 10) {
+                out.append('0');
+            }
+            out.append(fraction);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.museum;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * DistanceModel turns filtered RSSI into an estimated distance with the log-distance path
+ * loss model, distance = 10 ^ ((measuredPower - rssi) / (10 * n)). Each beacon slot is
+ * assigned a Profile: a measured power at 1 m (from an on-device calibration, the power the
+ * beacon advertises, or a default) and a path loss exponent. A profile precomputes the
+ * distance for every integer RSSI from -127 to 0 dBm, so an estimate is a table lookup
+ * instead of a Math.pow call. Profiles with the same parameters share one table.
+ */
+public final class DistanceModel {
+
+    // Defaults used when a beacon is neither calibrated nor advertises its power
+    public static final int DEFAULT_MEASURED_POWER = -72;
+    public static final double DEFAULT_PATH_LOSS_EXPONENT = 2.4;
+
+    // Returned by the advertisement parsers when no power is present
+    public static final int UNKNOWN_POWER = Integer.MIN_VALUE;
+
+    // RSSI range covered by the tables, in dBm
+    public static final int MIN_RSSI = -127;
+    public static final int MAX_RSSI = 0;
+
+    // Signal lost between the transmitter and a receiver 1 m away, used for Eddystone and TX power level
+    private static final int LOSS_AT_ONE_METER_DB = 41;
+
+    // Offset of the measured power byte in iBeacon manufacturer data (after 02 15, UUID, major, minor)
+    private static final int IBEACON_POWER_OFFSET = 22;
+
+    private static final byte EDDYSTONE_UID = 0x00;
+    private static final byte EDDYSTONE_URL = 0x10;
+
+    // Distances for one measured power and path loss exponent, indexed by rssi - MIN_RSSI
+    public static final class Profile {
+        private final int measuredPower;
+        private final double pathLossExponent;
+        private final double[] table = new double[MAX_RSSI - MIN_RSSI + 1];
+
+        Profile(int measuredPower, double pathLossExponent) {
+            this.measuredPower = measuredPower;
+            this.pathLossExponent = pathLossExponent;
+            for (int i = 0; i < table.length; i++) {
+                table[i] = Math.pow(10, (measuredPower - (MIN_RSSI + i)) / (10 * pathLossExponent));
+            }
+        }
+
+        public int getMeasuredPower() {
+            return measuredPower;
+        }
+
+        public double getPathLossExponent() {
+            return pathLossExponent;
+        }
+
+        // Distance for a filtered RSSI, interpolated between the neighbouring table entries
+        public double distance(double rssi) {
+            if (Double.isNaN(rssi)) {
+                return Double.NaN;
+            }
+            if (rssi <= MIN_RSSI) {
+                return table[0];
+            }
+            if (rssi >= MAX_RSSI) {
+                return table[table.length - 1];
+            }
+            double position = rssi - MIN_RSSI;
+            int index = (int) position;
+            double fraction = position - index;
+            return table[index] + fraction * (table[index + 1] - table[index]);
+        }
+
+        @Override
+        public String toString() {
+            return measuredPower + " dBm @ 1 m, n=" + pathLossExponent;
+        }
+    }
+
+    private final Map<Long, Profile> profiles = new HashMap<>();
+    private final Profile defaultProfile;
+    private final Profile[] slotProfiles;
+
+    public DistanceModel(int capacity) {
+        this.defaultProfile = profile(DEFAULT_MEASURED_POWER, DEFAULT_PATH_LOSS_EXPONENT);
+        this.slotProfiles = new Profile[capacity];
+    }
+
+    public Profile getDefaultProfile() {
+        return defaultProfile;
+    }
+
+    // Shared profile for these parameters, building its table the first time it is asked for
+    public Profile profile(int measuredPower, double pathLossExponent) {
+        long key = ((long) measuredPower << 32) | (Math.round(pathLossExponent * 1000) & 0xFFFFFFFFL);
+        Profile profile = profiles.get(key);
+        if (profile == null) {
+            profile = new Profile(measuredPower, pathLossExponent);
+            profiles.put(key, profile);
+        }
+        return profile;
+    }
+
+    // Use a profile for a beacon slot; null resets the slot to the default profile
+    public void assign(int slot, Profile profile) {
+        slotProfiles[slot] = profile;
+    }
+
+    public Profile profileOf(int slot) {
+        Profile profile = slotProfiles[slot];
+        return profile != null ? profile : defaultProfile;
+    }
+
+    // Whether the slot has been given a profile other than the default
+    public boolean isAssigned(int slot) {
+        return slotProfiles[slot] != null;
+    }
+
+    // Distance in meters for a beacon slot's filtered RSSI
+    public double distance(int slot, double rssi) {
+        return profileOf(slot).distance(rssi);
+    }
+
+    // Measured power at 1 m from Apple manufacturer data (02 15 UUID major minor power), or UNKNOWN_POWER
+    public static int measuredPowerFromIBeacon(byte[] manufacturerData) {
+        if (manufacturerData == null || manufacturerData.length <= IBEACON_POWER_OFFSET
+                || manufacturerData[0] != 0x02 || manufacturerData[1] != 0x15) {
+            return UNKNOWN_POWER;
+        }
+        return manufacturerData[IBEACON_POWER_OFFSET];
+    }
+
+    // Measured power at 1 m from Eddystone UID or URL service data (power at 0 m minus 41 dB), or UNKNOWN_POWER
+    public static int measuredPowerFromEddystone(byte[] serviceData) {
+        if (serviceData == null || serviceData.length < 2
+                || (serviceData[0] != EDDYSTONE_UID && serviceData[0] != EDDYSTONE_URL)) {
+            return UNKNOWN_POWER;
+        }
+        return serviceData[1] - LOSS_AT_ONE_METER_DB;
+    }
+
+    // Measured power at 1 m from the advertised TX power level, or UNKNOWN_POWER
+    public static int measuredPowerFromTxPowerLevel(int txPowerLevel) {
+        if (txPowerLevel < -100 || txPowerLevel > 20) {
+            return UNKNOWN_POWER; // Absent (Integer.MIN_VALUE) or implausible
+        }
+        return txPowerLevel - LOSS_AT_ONE_METER_DB;
+    }
+}
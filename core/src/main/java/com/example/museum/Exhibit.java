@@ -0,0 +1,99 @@
+package com.example.museum;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * Exhibit is an immutable value object holding the fields that are written to NFC tags
+ * and QR codes for a single museum exhibit: ID, Title, Body, URL, ImageLink and VideoLink.
+ * Missing fields are stored as empty strings so callers never have to null-check.
+ */
+public final class Exhibit {
+
+    private final String id;
+    private final String title;
+    private final String body;
+    private final String url;
+    private final String imageLink;
+    private final String videoLink;
+
+    public Exhibit(String id, String title, String body, String url, String imageLink, String videoLink) {
+        this.id = orEmpty(id);
+        this.title = orEmpty(title);
+        this.body = orEmpty(body);
+        this.url = orEmpty(url);
+        this.imageLink = orEmpty(imageLink);
+        this.videoLink = orEmpty(videoLink);
+    }
+
+    private static String orEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getImageLink() {
+        return imageLink;
+    }
+
+    public String getVideoLink() {
+        return videoLink;
+    }
+
+    // True when only the ID is set, meaning the content has to be resolved through the ExhibitCatalog
+    public boolean isIdOnly() {
+        return !id.isEmpty()
+                && title.isEmpty()
+                && body.isEmpty()
+                && url.isEmpty()
+                && imageLink.isEmpty()
+                && videoLink.isEmpty();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Exhibit)) {
+            return false;
+        }
+        Exhibit other = (Exhibit) o;
+        return id.equals(other.id)
+                && title.equals(other.title)
+                && body.equals(other.body)
+                && url.equals(other.url)
+                && imageLink.equals(other.imageLink)
+                && videoLink.equals(other.videoLink);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = id.hashCode();
+        result = 31 * result + title.hashCode();
+        result = 31 * result + body.hashCode();
+        result = 31 * result + url.hashCode();
+        result = 31 * result + imageLink.hashCode();
+        result = 31 * result + videoLink.hashCode();
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "Exhibit{id='" + id + "', title='" + title + "'}";
+    }
+}
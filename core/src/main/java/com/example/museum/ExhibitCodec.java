@@ -0,0 +1,116 @@
+package com.example.museum;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * ExhibitCodec encodes an Exhibit into the compact binary payload stored in the
+ * "com.example.museum:exhibit" NDEF external record, and decodes it back.
+ *
+ * Layout (version 1):
+ *   byte 0      format version
+ *   byte 1      number of fields that follow
+ *   fields      for each field: unsigned LEB128 length, then that many UTF-8 bytes
+ *
+ * Fields are written in the order ID, Title, Body, URL, ImageLink, VideoLink. A decoder
+ * ignores any extra trailing fields so newer writers stay readable by older apps, but bytes
+ * after the last counted field mean the payload is corrupt and are rejected.
+ */
+public final class ExhibitCodec {
+
+    public static final int VERSION = 1;
+    public static final int FIELD_COUNT = 6;
+
+    private ExhibitCodec() {
+    }
+
+    // Encode an exhibit into its binary payload
+    public static byte[] encode(Exhibit exhibit) {
+        byte[][] fields = {
+                exhibit.getId().getBytes(StandardCharsets.UTF_8),
+                exhibit.getTitle().getBytes(StandardCharsets.UTF_8),
+                exhibit.getBody().getBytes(StandardCharsets.UTF_8),
+                exhibit.getUrl().getBytes(StandardCharsets.UTF_8),
+                exhibit.getImageLink().getBytes(StandardCharsets.UTF_8),
+                exhibit.getVideoLink().getBytes(StandardCharsets.UTF_8)
+        };
+
+        int size = 2;
+        for (byte[] field : fields) {
+            size += varIntSize(field.length) + field.length;
+        }
+
+        byte[] payload = new byte[size];
+        payload[0] = (byte) VERSION;
+        payload[1] = (byte) FIELD_COUNT;
+        int pos = 2;
+        for (byte[] field : fields) {
+            pos = writeVarInt(payload, pos, field.length);
+            System.arraycopy(field, 0, payload, pos, field.length);
+            pos += field.length;
+        }
+        return payload;
+    }
+
+    // Decode a binary payload back into an exhibit
+    public static Exhibit decode(byte[] payload) {
+        if (payload == null || payload.length < 2) {
+            throw new IllegalArgumentException("Exhibit payload is too short");
+        }
+        int version = payload[0] & 0xFF;
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported exhibit payload version " + version);
+        }
+        int count = payload[1] & 0xFF;
+
+        String[] values = new String[FIELD_COUNT];
+        int pos = 2;
+        for (int i = 0; i < count; i++) {
+            // Read the unsigned LEB128 length prefix
+            int length = 0;
+            int shift = 0;
+            while (true) {
+                if (pos >= payload.length || shift > 28) {
+                    throw new IllegalArgumentException("Truncated exhibit payload");
+                }
+                int b = payload[pos++] & 0xFF;
+                length |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    break;
+                }
+                shift += 7;
+            }
+            if (length < 0 || length > payload.length - pos) {
+                throw new IllegalArgumentException("Truncated exhibit payload");
+            }
+            if (i < FIELD_COUNT) {
+                values[i] = new String(payload, pos, length, StandardCharsets.UTF_8);
+            }
+            pos += length;
+        }
+        if (pos != payload.length) {
+            throw new IllegalArgumentException("Exhibit payload has " + (payload.length - pos) + " bytes after its fields");
+        }
+        return new Exhibit(values[0], values[1], values[2], values[3], values[4], values[5]);
+    }
+
+    static int varIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    static int writeVarInt(byte[] out, int pos, int value) {
+        while ((value & ~0x7F) != 0) {
+            out[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[pos++] = (byte) value;
+        return pos;
+    }
+}
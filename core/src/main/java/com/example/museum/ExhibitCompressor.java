@@ -0,0 +1,106 @@
+package com.example.museum;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * ExhibitCompressor deflates binary exhibit payloads (see ExhibitCodec) for the compressed
+ * MIME exhibit record, so exhibits with long Body text still fit on small tags. The
+ * compressed payload is the uncompressed length as an unsigned LEB128 integer followed by
+ * raw deflate data (no zlib header or checksum, which would only cost tag bytes; the
+ * exhibit codec rejects damaged payloads anyway). Decompression refuses to expand beyond
+ * MAX_DECOMPRESSED_BYTES so a malicious tag cannot exhaust memory, and rejects payloads whose
+ * deflate data does not end exactly at the declared length or is followed by other bytes.
+ */
+public final class ExhibitCompressor {
+
+    // Far more than any NFC tag can carry compressed, but bounded
+    public static final int MAX_DECOMPRESSED_BYTES = 64 * 1024;
+
+    private ExhibitCompressor() {
+    }
+
+    // Deflate a payload and prefix it with its uncompressed length
+    public static byte[] compress(byte[] plain) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        try {
+            deflater.setInput(plain);
+            deflater.finish();
+            int prefix = ExhibitCodec.varIntSize(plain.length);
+            // Deflate output can exceed its input slightly for incompressible data
+            byte[] out = new byte[prefix + plain.length + plain.length / 1000 + 64];
+            int pos = ExhibitCodec.writeVarInt(out, 0, plain.length);
+            while (!deflater.finished()) {
+                if (pos == out.length) {
+                    byte[] larger = new byte[out.length * 2];
+                    System.arraycopy(out, 0, larger, 0, pos);
+                    out = larger;
+                }
+                pos += deflater.deflate(out, pos, out.length - pos);
+            }
+            byte[] result = new byte[pos];
+            System.arraycopy(out, 0, result, 0, pos);
+            return result;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    // Inflate a payload produced by compress(); throws IllegalArgumentException if it is damaged
+    public static byte[] decompress(byte[] compressed) {
+        if (compressed == null) {
+            throw new IllegalArgumentException("Compressed exhibit payload is missing");
+        }
+
+        // Read the unsigned LEB128 uncompressed length
+        int length = 0;
+        int shift = 0;
+        int pos = 0;
+        while (true) {
+            if (pos >= compressed.length || shift > 28) {
+                throw new IllegalArgumentException("Truncated compressed exhibit payload");
+            }
+            int b = compressed[pos++] & 0xFF;
+            length |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+            shift += 7;
+        }
+        if (length < 0 || length > MAX_DECOMPRESSED_BYTES) {
+            throw new IllegalArgumentException("Compressed exhibit payload is too large: " + length + " bytes");
+        }
+
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed, pos, compressed.length - pos);
+            byte[] plain = new byte[length];
+            int written = 0;
+            while (written < length) {
+                int n = inflater.inflate(plain, written, length - written);
+                if (n == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("Truncated compressed exhibit payload");
+                }
+                written += n;
+            }
+
+            // The deflate stream must end exactly at the declared length, with nothing after it
+            if (!inflater.finished() && (inflater.inflate(new byte[1]) != 0 || !inflater.finished())) {
+                throw new IllegalArgumentException("Compressed exhibit payload does not end at its declared length");
+            }
+            if (inflater.getRemaining() != 0) {
+                throw new IllegalArgumentException("Compressed exhibit payload has " + inflater.getRemaining()
+                        + " bytes after its deflate data");
+            }
+            return plain;
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupt compressed exhibit payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
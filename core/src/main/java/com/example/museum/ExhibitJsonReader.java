@@ -0,0 +1,350 @@
+package com.example.museum;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * ExhibitJsonReader is a small streaming pull parser for the exhibit JSON written to NFC
+ * text records and QR codes. It walks the text once, copies out only the values of the
+ * known keys (ID, Title, Body, URL, ImageLink, VideoLink) and skips every other value
+ * without materializing it, so no intermediate JSONObject tree is built. Missing keys and
+ * malformed input are reported in the Result rather than thrown.
+ */
+public final class ExhibitJsonReader {
+
+    // Known keys, indexed by the field slot they fill
+    static final String[] KEYS = {"ID", "Title", "Body", "URL", "ImageLink", "VideoLink"};
+
+    private static final int ID = 0;
+    private static final int UNKNOWN = -1;
+
+    // Every key except ID must be present for an exhibit to be complete
+    private static final int REQUIRED_MASK = 0x3E;
+
+    private final String json;
+    private int pos;
+
+    private ExhibitJsonReader(String json) {
+        this.json = json;
+    }
+
+    // Outcome of reading one exhibit object
+    public static final class Result {
+        private final Exhibit exhibit;
+        private final int missingMask;
+        private final String error;
+
+        Result(Exhibit exhibit, int missingMask, String error) {
+            this.exhibit = exhibit;
+            this.missingMask = missingMask;
+            this.error = error;
+        }
+
+        // The decoded exhibit, or null when the input is not a valid JSON object
+        public Exhibit getExhibit() {
+            return exhibit;
+        }
+
+        // Description of the syntax error, or null when the input was well formed
+        public String getError() {
+            return error;
+        }
+
+        // True when the input was well formed and contained every required key
+        public boolean isComplete() {
+            return exhibit != null && (missingMask & REQUIRED_MASK) == 0;
+        }
+
+        // True when the input only names an exhibit by ID, to be resolved through the ExhibitCatalog
+        public boolean isIdOnly() {
+            return exhibit != null && exhibit.isIdOnly();
+        }
+
+        // True when the given key was not present in the input
+        public boolean isMissing(String key) {
+            for (int i = 0; i < KEYS.length; i++) {
+                if (KEYS[i].equals(key)) {
+                    return (missingMask & (1 << i)) != 0;
+                }
+            }
+            return false;
+        }
+
+        // Names of the known keys that were not present, in field order
+        public List<String> getMissingKeys() {
+            if (missingMask == 0) {
+                return Collections.emptyList();
+            }
+            List<String> missing = new ArrayList<>();
+            for (int i = 0; i < KEYS.length; i++) {
+                if ((missingMask & (1 << i)) != 0) {
+                    missing.add(KEYS[i]);
+                }
+            }
+            return missing;
+        }
+    }
+
+    // Read an exhibit from a JSON object string
+    public static Result read(String json) {
+        if (json == null) {
+            return new Result(null, (1 << KEYS.length) - 1, "No JSON data");
+        }
+        return new ExhibitJsonReader(json).readObject();
+    }
+
+    private Result readObject() {
+        String[] values = new String[KEYS.length];
+        try {
+            skipWhitespace();
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+            } else {
+                while (true) {
+                    skipWhitespace();
+                    int field = readKey();
+                    skipWhitespace();
+                    expect(':');
+                    skipWhitespace();
+                    if (field != UNKNOWN && peek() == '"') {
+                        values[field] = readString();
+                    } else if (field != UNKNOWN && peek() != '{' && peek() != '[') {
+                        // Scalars are accepted the same way JSONObject.getString() coerces them
+                        int start = pos;
+                        skipLiteral();
+                        String literal = json.substring(start, pos);
+                        values[field] = "null".equals(literal) ? null : literal;
+                    } else {
+                        skipValue();
+                    }
+                    skipWhitespace();
+                    char c = next();
+                    if (c == '}') {
+                        break;
+                    }
+                    if (c != ',') {
+                        throw syntaxError("Expected ',' or '}'");
+                    }
+                }
+            }
+            skipWhitespace();
+            if (pos != json.length()) {
+                throw syntaxError("Unexpected trailing data");
+            }
+        } catch (IllegalStateException e) {
+            return new Result(null, maskOf(values), e.getMessage());
+        }
+
+        Exhibit exhibit = new Exhibit(values[0], values[1], values[2], values[3], values[4], values[5]);
+        return new Result(exhibit, maskOf(values), null);
+    }
+
+    private static int maskOf(String[] values) {
+        int mask = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+
+    // Match the next key against the known keys in place, without creating a String for it
+    private int readKey() {
+        expect('"');
+        int start = pos;
+        boolean escaped = false;
+        while (true) {
+            char c = next();
+            if (c == '"') {
+                break;
+            }
+            if (c == '\\') {
+                escaped = true;
+                next();
+            }
+        }
+        int length = pos - 1 - start;
+        if (escaped) {
+            // Keys with escapes never match a known key literally; decode and compare
+            pos = start - 1;
+            return indexOfKey(readString());
+        }
+        for (int i = ID; i < KEYS.length; i++) {
+            String key = KEYS[i];
+            if (key.length() == length && json.regionMatches(start, key, 0, length)) {
+                return i;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    private static int indexOfKey(String key) {
+        for (int i = 0; i < KEYS.length; i++) {
+            if (KEYS[i].equals(key)) {
+                return i;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    // Read a string value; the common case without escapes is a single substring
+    private String readString() {
+        expect('"');
+        int start = pos;
+        while (true) {
+            char c = next();
+            if (c == '"') {
+                return json.substring(start, pos - 1);
+            }
+            if (c == '\\') {
+                pos--;
+                break;
+            }
+        }
+
+        StringBuilder sb = new StringBuilder(pos - start + 16);
+        sb.append(json, start, pos);
+        while (true) {
+            char c = next();
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            char e = next();
+            switch (e) {
+                case '"':
+                case '\\':
+                case '/':
+                    sb.append(e);
+                    break;
+                case 'b':
+                    sb.append('\b');
+                    break;
+                case 'f':
+                    sb.append('\f');
+                    break;
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'u':
+                    if (pos + 4 > json.length()) {
+                        throw syntaxError("Truncated unicode escape");
+                    }
+                    int code = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int digit = Character.digit(json.charAt(pos++), 16);
+                        if (digit < 0) {
+                            throw syntaxError("Invalid unicode escape");
+                        }
+                        code = (code << 4) | digit;
+                    }
+                    sb.append((char) code);
+                    break;
+                default:
+                    throw syntaxError("Invalid escape");
+            }
+        }
+    }
+
+    // Skip any JSON value without building it
+    private void skipValue() {
+        char c = peek();
+        if (c == '"') {
+            skipString();
+        } else if (c == '{' || c == '[') {
+            int depth = 0;
+            do {
+                c = peek();
+                if (c == '"') {
+                    skipString();
+                    continue;
+                }
+                pos++;
+                if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                }
+            } while (depth > 0);
+        } else {
+            skipLiteral();
+        }
+    }
+
+    private void skipString() {
+        expect('"');
+        while (true) {
+            char c = next();
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                next();
+            }
+        }
+    }
+
+    // Skip a number, true, false or null
+    private void skipLiteral() {
+        int start = pos;
+        while (pos < json.length()) {
+            char c = json.charAt(pos);
+            if (c == ',' || c == '}' || c == ']' || c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+                break;
+            }
+            pos++;
+        }
+        if (pos == start) {
+            throw syntaxError("Expected a value");
+        }
+    }
+
+    private void skipWhitespace() {
+        while (pos < json.length()) {
+            char c = json.charAt(pos);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                return;
+            }
+            pos++;
+        }
+    }
+
+    private char peek() {
+        if (pos >= json.length()) {
+            throw syntaxError("Unexpected end of input");
+        }
+        return json.charAt(pos);
+    }
+
+    private char next() {
+        char c = peek();
+        pos++;
+        return c;
+    }
+
+    private void expect(char expected) {
+        if (next() != expected) {
+            throw syntaxError("Expected '" + expected + "'");
+        }
+    }
+
+    private IllegalStateException syntaxError(String message) {
+        return new IllegalStateException(message + " at character " + pos);
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.museum;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * ExhibitLruCache is the plain-Java core of ExhibitCache: decoded exhibits keyed by tag UID,
+ * raw NDEF payload or QR text, held least-recently-used first and evicted once their
+ * approximate retained size passes a byte budget. All methods are synchronized, as the NFC
+ * I/O thread, the catalog thread and the main thread all use it.
+ *
+ * Tag entries remember what a tag held when this device last read it, not what it holds
+ * now: another device may have rewritten it since. They are only a hint shown while the
+ * tag is read again, and the result of that read replaces them (see DisplayNfcDataActivity).
+ */
+public final class ExhibitLruCache {
+
+    private final LinkedHashMap<Object, Exhibit> map = new LinkedHashMap<>(16, 0.75f, true);
+    private final int maxSize;
+    private int size;
+    private int hitCount;
+    private int missCount;
+    private int evictionCount;
+
+    // Key for raw NDEF bytes: a tag UID or a record payload. The hash is computed once.
+    private static final class BytesKey {
+        private final boolean uid;
+        private final byte[] bytes;
+        private final int hash;
+
+        BytesKey(boolean uid, byte[] bytes) {
+            this.uid = uid;
+            this.bytes = bytes;
+            this.hash = 31 * Arrays.hashCode(bytes) + (uid ? 1 : 0);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof BytesKey)) {
+                return false;
+            }
+            BytesKey other = (BytesKey) o;
+            return uid == other.uid && hash == other.hash && Arrays.equals(bytes, other.bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    public ExhibitLruCache(int maxSizeBytes) {
+        this.maxSize = maxSizeBytes;
+    }
+
+    // Look up the exhibit last read from the tag with this UID
+    public Exhibit getByTag(byte[] uid) {
+        return uid == null ? null : get(new BytesKey(true, uid));
+    }
+
+    public void putByTag(byte[] uid, Exhibit exhibit) {
+        if (uid != null && exhibit != null) {
+            put(new BytesKey(true, uid), exhibit);
+        }
+    }
+
+    // Forget what is cached for a tag, e.g. after it has been rewritten by this device
+    public synchronized void invalidateTag(byte[] uid) {
+        if (uid != null) {
+            Object key = new BytesKey(true, uid);
+            Exhibit removed = map.remove(key);
+            if (removed != null) {
+                size -= sizeOf(key, removed);
+            }
+        }
+    }
+
+    // Forget every entry holding the exhibit with this ID, e.g. after its catalog content has
+    // changed: ID-only tags, plaques and QR codes would otherwise keep resolving to the old content
+    public synchronized void invalidateExhibit(String id) {
+        if (id == null || id.isEmpty()) {
+            return;
+        }
+        Iterator<Map.Entry<Object, Exhibit>> entries = map.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Object, Exhibit> entry = entries.next();
+            if (id.equals(entry.getValue().getId())) {
+                size -= sizeOf(entry.getKey(), entry.getValue());
+                entries.remove();
+            }
+        }
+    }
+
+    // Look up the exhibit decoded from this raw NDEF record payload
+    public Exhibit getByPayload(byte[] payload) {
+        return payload == null ? null : get(new BytesKey(false, payload));
+    }
+
+    public void putByPayload(byte[] payload, Exhibit exhibit) {
+        if (payload != null && exhibit != null) {
+            put(new BytesKey(false, payload), exhibit);
+        }
+    }
+
+    // Look up the exhibit decoded from this scanned QR text
+    public Exhibit getByPayload(String contents) {
+        return contents == null ? null : get(contents);
+    }
+
+    public void putByPayload(String contents, Exhibit exhibit) {
+        if (contents != null && exhibit != null) {
+            put(contents, exhibit);
+        }
+    }
+
+    // Drop every entry
+    public void evictAll() {
+        trimToSize(-1);
+    }
+
+    // Evict least recently used entries until the cache holds at most maxSizeBytes
+    public synchronized void trimToSize(int maxSizeBytes) {
+        Iterator<Map.Entry<Object, Exhibit>> entries = map.entrySet().iterator();
+        while (size > maxSizeBytes && entries.hasNext()) {
+            Map.Entry<Object, Exhibit> eldest = entries.next();
+            size -= sizeOf(eldest.getKey(), eldest.getValue());
+            entries.remove();
+            evictionCount++;
+        }
+    }
+
+    public synchronized int hitCount() {
+        return hitCount;
+    }
+
+    public synchronized int missCount() {
+        return missCount;
+    }
+
+    public synchronized int evictionCount() {
+        return evictionCount;
+    }
+
+    // Bytes currently held against the budget
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized int maxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public String toString() {
+        return "ExhibitCache{hits=" + hitCount() + ", misses=" + missCount() + ", evictions=" + evictionCount()
+                + ", bytes=" + size() + "/" + maxSize() + "}";
+    }
+
+    private synchronized Exhibit get(Object key) {
+        Exhibit exhibit = map.get(key);
+        if (exhibit != null) {
+            hitCount++;
+        } else {
+            missCount++;
+        }
+        return exhibit;
+    }
+
+    private synchronized void put(Object key, Exhibit exhibit) {
+        Exhibit previous = map.put(key, exhibit);
+        if (previous != null) {
+            size -= sizeOf(key, previous);
+        }
+        size += sizeOf(key, exhibit);
+        trimToSize(maxSize);
+    }
+
+    // Approximate retained size of an entry, in bytes
+    private static int sizeOf(Object key, Exhibit exhibit) {
+        return keySize(key) + exhibitSize(exhibit);
+    }
+
+    // Approximate retained size of a key, in bytes
+    private static int keySize(Object key) {
+        if (key instanceof BytesKey) {
+            return 32 + ((BytesKey) key).bytes.length;
+        }
+        return 40 + 2 * ((String) key).length();
+    }
+
+    // Approximate retained size of an exhibit: six strings plus object headers, in bytes
+    private static int exhibitSize(Exhibit exhibit) {
+        int chars = exhibit.getId().length() + exhibit.getTitle().length() + exhibit.getBody().length()
+                + exhibit.getUrl().length() + exhibit.getImageLink().length() + exhibit.getVideoLink().length();
+        return 40 + 6 * 40 + 2 * chars;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.museum;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * FloorPlan is the parsed beacon floor plan used for indoor positioning. It is read from a
+ * simple CSV file where each line is either a beacon or a zone, in floor-plan meters:
+ *
+ *   beacon,&lt;address&gt;,&lt;x&gt;,&lt;y&gt;
+ *   zone,&lt;name&gt;,&lt;x1&gt;,&lt;y1&gt;,&lt;x2&gt;,&lt;y2&gt;,&lt;x3&gt;,&lt;y3&gt;[,...]
+ *   exhibit,&lt;address&gt;,&lt;exhibit ID&gt;[,...]
+ *
+ * An exhibit line lists the exhibits displayed next to a beacon, whose images are
+ * prefetched when the visitor comes near it.
+ * Blank lines and lines starting with '#' are ignored.
+ */
+public final class FloorPlan {
+
+    private final BeaconRegistry registry;
+    private final List<Zone> zones;
+    private final Map<String, List<String>> exhibitsByBeacon;
+
+    public FloorPlan(BeaconRegistry registry, List<Zone> zones) {
+        this(registry, zones, Collections.<String, List<String>>emptyMap());
+    }
+
+    public FloorPlan(BeaconRegistry registry, List<Zone> zones, Map<String, List<String>> exhibitsByBeacon) {
+        this.registry = registry;
+        this.zones = zones;
+        this.exhibitsByBeacon = new HashMap<>();
+        for (Map.Entry<String, List<String>> entry : exhibitsByBeacon.entrySet()) {
+            this.exhibitsByBeacon.put(BeaconRegistry.normalize(entry.getKey()), entry.getValue());
+        }
+    }
+
+    public BeaconRegistry getRegistry() {
+        return registry;
+    }
+
+    public List<Zone> getZones() {
+        return zones;
+    }
+
+    // IDs of the exhibits next to a beacon (empty if none are listed)
+    public List<String> getExhibits(String address) {
+        List<String> exhibits = exhibitsByBeacon.get(BeaconRegistry.normalize(address));
+        return exhibits != null ? Collections.unmodifiableList(exhibits) : Collections.<String>emptyList();
+    }
+
+    // Exhibit IDs of every beacon that has exhibits, keyed by upper-case address
+    public Map<String, List<String>> getExhibitsByBeacon() {
+        return Collections.unmodifiableMap(exhibitsByBeacon);
+    }
+
+    // Parse a floor plan; malformed lines are reported with their line number
+    public static FloorPlan parse(Reader source) throws IOException {
+        BufferedReader reader = new BufferedReader(source);
+        List<BeaconLocation> beacons = new ArrayList<>();
+        List<Zone> zones = new ArrayList<>();
+        Map<String, List<String>> exhibits = new HashMap<>();
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split("\\s*,\\s*");
+            try {
+                if ("beacon".equals(parts[0]) && parts.length == 4) {
+                    beacons.add(new BeaconLocation(parts[1], Double.parseDouble(parts[2]), Double.parseDouble(parts[3])));
+                } else if ("zone".equals(parts[0]) && parts.length >= 8 && parts.length % 2 == 0) {
+                    int corners = (parts.length - 2) / 2;
+                    double[] xs = new double[corners];
+                    double[] ys = new double[corners];
+                    for (int i = 0; i < corners; i++) {
+                        xs[i] = Double.parseDouble(parts[2 + 2 * i]);
+                        ys[i] = Double.parseDouble(parts[3 + 2 * i]);
+                    }
+                    zones.add(new Zone(parts[1], xs, ys));
+                } else if ("exhibit".equals(parts[0]) && parts.length >= 3) {
+                    String address = BeaconRegistry.normalize(parts[1]);
+                    List<String> ids = exhibits.get(address);
+                    if (ids == null) {
+                        ids = new ArrayList<>();
+                        exhibits.put(address, ids);
+                    }
+                    for (int i = 2; i < parts.length; i++) {
+                        ids.add(parts[i]);
+                    }
+                } else {
+                    throw new IllegalArgumentException("Unrecognised floor plan entry");
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Floor plan line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        return new FloorPlan(new BeaconRegistry(beacons), zones, exhibits);
+    }
+}
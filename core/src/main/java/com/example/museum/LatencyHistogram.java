@@ -0,0 +1,183 @@
+package com.example.museum;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * LatencyHistogram counts latencies in log-linear buckets, in the style of HdrHistogram:
+ * values are kept in units of UNIT_NANOS (about a microsecond), exactly up to SUB_BUCKETS
+ * units, and beyond that each power of two is split into SUB_BUCKETS / 2 equal buckets, so
+ * every recorded value is known to within 1/64 (1.6%) from 1 µs up to MAX_NANOS (about 68 s;
+ * larger values are counted as MAX_NANOS). Recording is lock-free and allocation-free: a
+ * bucket index computed with a few shifts and an atomic increment, so the NFC, QR and image
+ * threads can all record into the same histogram while the diagnostics screen reads it.
+ * Readers take a Snapshot, which is consistent per bucket but not across buckets.
+ */
+public final class LatencyHistogram {
+
+    // Values are counted in units of 2^UNIT_SHIFT ns (1.024 µs)
+    private static final int UNIT_SHIFT = 10;
+    public static final long UNIT_NANOS = 1L << UNIT_SHIFT;
+
+    private static final int SUB_BUCKET_BITS = 7;
+    public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+
+    // Largest value told apart from the ones below it
+    private static final int MAX_UNIT_BITS = 26;
+    public static final long MAX_NANOS = ((1L << MAX_UNIT_BITS) - 1) << UNIT_SHIFT;
+
+    static final int BUCKET_COUNT = indexOf((1L << MAX_UNIT_BITS) - 1) + 1;
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Record one latency in nanoseconds; negative values count as zero
+    public void record(long nanos) {
+        long value = Math.min(Math.max(nanos, 0), MAX_NANOS);
+        counts.incrementAndGet(indexOf(value >>> UNIT_SHIFT));
+        count.incrementAndGet();
+        total.addAndGet(value);
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    // Forget every sample, e.g. before a measurement session; samples recorded meanwhile may be lost
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        count.set(0);
+        total.set(0);
+        max.set(0);
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        long sum = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = counts.get(i);
+            sum += copy[i];
+        }
+        return new Snapshot(name, copy, sum, total.get(), max.get());
+    }
+
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+
+    // Bucket of a value in units: linear below SUB_BUCKETS, then HALF_SUB_BUCKETS per power of two
+    static int indexOf(long units) {
+        if (units < SUB_BUCKETS) {
+            return (int) units;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(units) - (SUB_BUCKET_BITS - 1);
+        return magnitude * HALF_SUB_BUCKETS + (int) (units >>> magnitude);
+    }
+
+    // Highest value in nanoseconds that falls in a bucket
+    static long highestNanosOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return ((long) index << UNIT_SHIFT) + UNIT_NANOS - 1;
+        }
+        int magnitude = index / HALF_SUB_BUCKETS - 1;
+        long subBucket = index - magnitude * HALF_SUB_BUCKETS;
+        return (((subBucket + 1) << magnitude) << UNIT_SHIFT) - 1;
+    }
+
+    // A copy of the counts at one moment, for percentiles and export
+    public static final class Snapshot {
+        private final String name;
+        private final long[] counts;
+        private final long count;
+        private final long total;
+        private final long max;
+
+        Snapshot(String name, long[] counts, long count, long total, long max) {
+            this.name = name;
+            this.counts = counts;
+            this.count = count;
+            this.total = total;
+            this.max = max;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMaxNanos() {
+            return max;
+        }
+
+        public double getMeanNanos() {
+            return count == 0 ? 0 : (double) total / count;
+        }
+
+        // Nearest-rank percentile (0-100) in nanoseconds, as the top of its bucket capped at the
+        // maximum; -1 if there are no samples
+        public long percentileNanos(double percentile) {
+            if (count == 0) {
+                return -1;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestNanosOf(i), max);
+                }
+            }
+            return max;
+        }
+
+        // Append the non-empty buckets as "upper bound ms, count" CSV lines
+        public void appendBuckets(Appendable out) throws IOException {
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 0) {
+                    out.append(String.format(Locale.US, "%s,%.3f,%d\n", csvName(), highestNanosOf(i) / 1e6, counts[i]));
+                }
+            }
+        }
+
+        String csvName() {
+            return name.indexOf(',') < 0 && name.indexOf('"') < 0 ? name : '"' + name.replace("\"", "\"\"") + '"';
+        }
+
+        @Override
+        public String toString() {
+            if (count == 0) {
+                return name + ": no samples";
+            }
+            return String.format(Locale.US, "%s: n=%d mean=%.1f p50=%.1f p90=%.1f p99=%.1f max=%.1f ms",
+                    name, count, getMeanNanos() / 1e6, percentileNanos(50) / 1e6, percentileNanos(90) / 1e6,
+                    percentileNanos(99) / 1e6, max / 1e6);
+        }
+    }
+}
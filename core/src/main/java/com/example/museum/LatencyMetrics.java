@@ -0,0 +1,97 @@
+package com.example.museum;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * LatencyMetrics is the app-wide set of LatencyHistograms, one per named stage of the tap
+ * and scan flows ("NFC dispatch: tap to render", "QR: JSON parse", ...). Stages are created
+ * on first use and never removed, so recording is a map lookup plus a lock-free histogram
+ * update from any thread. The diagnostics screen shows the summary and exports the CSV.
+ */
+public final class LatencyMetrics {
+
+    private static final LatencyMetrics INSTANCE = new LatencyMetrics();
+
+    private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    // Separate instances are for tests; the app uses getInstance()
+    LatencyMetrics() {
+    }
+
+    // Get the shared metrics for the application
+    public static LatencyMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    // The histogram of a stage, created the first time the stage is named
+    public LatencyHistogram histogram(String stage) {
+        LatencyHistogram histogram = histograms.get(stage);
+        if (histogram == null) {
+            LatencyHistogram created = new LatencyHistogram(stage);
+            histogram = histograms.putIfAbsent(stage, created);
+            if (histogram == null) {
+                histogram = created;
+            }
+        }
+        return histogram;
+    }
+
+    public void record(String stage, long nanos) {
+        histogram(stage).record(nanos);
+    }
+
+    // Snapshots of every stage, sorted by name so the stages of one flow are listed together
+    public List<LatencyHistogram.Snapshot> snapshots() {
+        List<String> names = new ArrayList<>(histograms.keySet());
+        Collections.sort(names);
+        List<LatencyHistogram.Snapshot> snapshots = new ArrayList<>(names.size());
+        for (String name : names) {
+            snapshots.add(histograms.get(name).snapshot());
+        }
+        return snapshots;
+    }
+
+    public void reset() {
+        for (LatencyHistogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+    }
+
+    // One line per stage, for the diagnostics screen and the log
+    public String summary() {
+        StringBuilder out = new StringBuilder();
+        for (LatencyHistogram.Snapshot snapshot : snapshots()) {
+            out.append(snapshot).append('\n');
+        }
+        return out.toString();
+    }
+
+    // Export as CSV: a summary table in milliseconds, then every stage's non-empty buckets
+    public void writeCsv(Appendable out) throws IOException {
+        List<LatencyHistogram.Snapshot> snapshots = snapshots();
+        out.append("stage,count,mean_ms,p50_ms,p90_ms,p99_ms,max_ms\n");
+        for (LatencyHistogram.Snapshot snapshot : snapshots) {
+            out.append(snapshot.csvName()).append(',').append(Long.toString(snapshot.getCount()));
+            if (snapshot.getCount() == 0) {
+                out.append(",,,,,\n");
+                continue;
+            }
+            out.append(String.format(Locale.US, ",%.3f,%.3f,%.3f,%.3f,%.3f\n", snapshot.getMeanNanos() / 1e6,
+                    snapshot.percentileNanos(50) / 1e6, snapshot.percentileNanos(90) / 1e6,
+                    snapshot.percentileNanos(99) / 1e6, snapshot.getMaxNanos() / 1e6));
+        }
+        out.append("\nstage,bucket_upper_ms,count\n");
+        for (LatencyHistogram.Snapshot snapshot : snapshots) {
+            snapshot.appendBuckets(out);
+        }
+    }
+}
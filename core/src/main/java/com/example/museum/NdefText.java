@@ -0,0 +1,66 @@
+package com.example.museum;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * NdefText encodes and decodes the payload of an NFC Forum Text record (RTD "T"): a status
+ * byte (bit 7 set for UTF-16 text, bits 0-5 the length of the language code), the ASCII
+ * language code, then the text. It works on payload bytes only, so the NFC activities wrap
+ * the result in an android.nfc.NdefRecord and the same code runs in JVM tests and benchmarks.
+ */
+public final class NdefText {
+
+    public static final String DEFAULT_LANGUAGE = "en";
+
+    private static final int UTF16_FLAG = 0x80;
+    private static final int LANGUAGE_LENGTH_MASK = 0x3F;
+
+    private NdefText() {
+    }
+
+    // Text record payload for UTF-8 text in the default language
+    public static byte[] encode(String text) {
+        return encode(text, DEFAULT_LANGUAGE);
+    }
+
+    // Text record payload for UTF-8 text in the given language
+    public static byte[] encode(String text, String languageCode) {
+        byte[] languageBytes = languageCode.getBytes(StandardCharsets.US_ASCII);
+        if (languageBytes.length > LANGUAGE_LENGTH_MASK) {
+            throw new IllegalArgumentException("Language code is too long: " + languageCode);
+        }
+        byte[] textBytes = text.getBytes(StandardCharsets.UTF_8);
+        byte[] payload = new byte[1 + languageBytes.length + textBytes.length];
+        payload[0] = (byte) languageBytes.length;
+        System.arraycopy(languageBytes, 0, payload, 1, languageBytes.length);
+        System.arraycopy(textBytes, 0, payload, 1 + languageBytes.length, textBytes.length);
+        return payload;
+    }
+
+    // Text of a text record payload; throws IllegalArgumentException if the payload is malformed
+    public static String decode(byte[] payload) {
+        int textStart = 1 + languageLength(payload);
+        Charset charset = (payload[0] & UTF16_FLAG) == 0 ? StandardCharsets.UTF_8 : StandardCharsets.UTF_16;
+        return new String(payload, textStart, payload.length - textStart, charset);
+    }
+
+    // Language code of a text record payload
+    public static String languageCode(byte[] payload) {
+        return new String(payload, 1, languageLength(payload), StandardCharsets.US_ASCII);
+    }
+
+    private static int languageLength(byte[] payload) {
+        if (payload == null || payload.length == 0) {
+            throw new IllegalArgumentException("Empty text record");
+        }
+        int length = payload[0] & LANGUAGE_LENGTH_MASK;
+        if (1 + length > payload.length) {
+            throw new IllegalArgumentException("Text record language code runs past the payload");
+        }
+        return length;
+    }
+}
@@ -0,0 +1,290 @@
+package com.example.museum;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * PackDelta is a binary delta between two versions of a content pack, so a device that
+ * already has the previous pack only downloads the bytes that changed. A delta is a list
+ * of COPY operations (a range of the old pack) and ADD operations (literal new bytes).
+ * It is created by matching BLOCK_SIZE byte blocks of the old pack against every offset
+ * of the new one with a rolling hash, extending each match as far as it goes. Applying a
+ * delta checks the old pack's CRC32 first and the result's CRC32 last, so a delta is never
+ * applied to the wrong base and a damaged result is never installed.
+ *
+ * Layout (integers big-endian): magic "MUSDELT1", base pack version, target pack version,
+ * base length, base CRC32, target length, target CRC32, then operations until the end:
+ * 'C' offset length, or 'A' length followed by the bytes.
+ */
+public final class PackDelta {
+
+    public static final byte[] MAGIC = "MUSDELT1".getBytes(StandardCharsets.US_ASCII);
+    public static final int HEADER_SIZE = 32;
+
+    // Matched block size: small enough to find moved records, large enough to keep the block table small
+    static final int BLOCK_SIZE = 32;
+
+    private static final byte OP_COPY = 'C';
+    private static final byte OP_ADD = 'A';
+
+    // Rolling hash multiplier, and its BLOCK_SIZE-th power for removing the outgoing byte
+    private static final int PRIME = 16777619;
+    private static final int PRIME_POW;
+
+    static {
+        int pow = 1;
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            pow *= PRIME;
+        }
+        PRIME_POW = pow;
+    }
+
+    private PackDelta() {
+    }
+
+    // Target pack version a delta produces
+    public static int targetVersion(ByteBuffer delta) {
+        return delta.getInt(MAGIC.length + 4);
+    }
+
+    // Base pack version a delta applies to
+    public static int baseVersion(ByteBuffer delta) {
+        return delta.getInt(MAGIC.length);
+    }
+
+    // Create the delta that turns base into target
+    public static byte[] create(ByteBuffer base, ByteBuffer target, int baseVersion, int targetVersion) {
+        byte[] old = toArray(base);
+        byte[] now = toArray(target);
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(now.length / 8 + HEADER_SIZE);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.write(MAGIC);
+            out.writeInt(baseVersion);
+            out.writeInt(targetVersion);
+            out.writeInt(old.length);
+            out.writeInt(crc(old, 0, old.length));
+            out.writeInt(now.length);
+            out.writeInt(crc(now, 0, now.length));
+
+            BlockTable blocks = new BlockTable(old);
+            int literalStart = 0;
+            int pos = 0;
+            int hash = now.length >= BLOCK_SIZE ? hash(now, 0) : 0;
+            while (pos + BLOCK_SIZE <= now.length) {
+                int match = blocks.find(hash, now, pos);
+                if (match >= 0) {
+                    // Extend the match backwards into the pending literal and forwards as far as it goes
+                    int start = pos;
+                    int oldStart = match;
+                    while (start > literalStart && oldStart > 0 && now[start - 1] == old[oldStart - 1]) {
+                        start--;
+                        oldStart--;
+                    }
+                    int end = pos + BLOCK_SIZE;
+                    int oldEnd = match + BLOCK_SIZE;
+                    while (end < now.length && oldEnd < old.length && now[end] == old[oldEnd]) {
+                        end++;
+                        oldEnd++;
+                    }
+                    writeAdd(out, now, literalStart, start);
+                    out.writeByte(OP_COPY);
+                    out.writeInt(oldStart);
+                    out.writeInt(end - start);
+                    pos = end;
+                    literalStart = end;
+                    if (pos + BLOCK_SIZE <= now.length) {
+                        hash = hash(now, pos);
+                    }
+                    continue;
+                }
+                if (pos + BLOCK_SIZE < now.length) {
+                    hash = hash * PRIME + (now[pos + BLOCK_SIZE] & 0xFF) - PRIME_POW * (now[pos] & 0xFF);
+                }
+                pos++;
+            }
+            writeAdd(out, now, literalStart, now.length);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // Not thrown by in-memory streams
+        }
+    }
+
+    // Apply a delta to the base pack and write the target pack; throws IOException if the delta
+    // does not belong to this base or the result does not match the checksum it promises
+    public static void apply(ByteBuffer base, ByteBuffer delta, OutputStream target) throws IOException {
+        ByteBuffer in = delta.duplicate();
+        if (in.remaining() < HEADER_SIZE) {
+            throw new IOException("Delta is too short");
+        }
+        for (byte b : MAGIC) {
+            if (in.get() != b) {
+                throw new IOException("Not a content pack delta");
+            }
+        }
+        in.getInt(); // Base version
+        in.getInt(); // Target version
+        int baseLength = in.getInt();
+        int baseCrc = in.getInt();
+        int targetLength = in.getInt();
+        int targetCrc = in.getInt();
+
+        ByteBuffer old = base.duplicate();
+        old.clear();
+        if (old.capacity() != baseLength || crc(old) != baseCrc) {
+            throw new IOException("Delta does not apply to this content pack");
+        }
+
+        CRC32 crc = new CRC32();
+        byte[] chunk = new byte[8192];
+        long written = 0;
+        while (in.hasRemaining()) {
+            byte op = in.get();
+            if (in.remaining() < (op == OP_COPY ? 8 : 4)) {
+                throw new IOException("Delta is truncated");
+            }
+            if (op == OP_COPY) {
+                int offset = in.getInt();
+                int length = in.getInt();
+                if (offset < 0 || length < 0 || (long) offset + length > baseLength) {
+                    throw new IOException("Delta copies outside the base pack");
+                }
+                ByteBuffer source = base.duplicate();
+                source.clear();
+                source.position(offset);
+                source.limit(offset + length);
+                while (source.hasRemaining()) {
+                    int n = Math.min(chunk.length, source.remaining());
+                    source.get(chunk, 0, n);
+                    crc.update(chunk, 0, n);
+                    target.write(chunk, 0, n);
+                }
+                written += length;
+            } else if (op == OP_ADD) {
+                int length = in.getInt();
+                if (length < 0 || length > in.remaining()) {
+                    throw new IOException("Delta is truncated");
+                }
+                while (length > 0) {
+                    int n = Math.min(chunk.length, length);
+                    in.get(chunk, 0, n);
+                    crc.update(chunk, 0, n);
+                    target.write(chunk, 0, n);
+                    length -= n;
+                    written += n;
+                }
+            } else {
+                throw new IOException("Unknown delta operation " + op);
+            }
+        }
+        if (written != targetLength || (int) crc.getValue() != targetCrc) {
+            throw new IOException("Delta result does not match its checksum");
+        }
+    }
+
+    private static void writeAdd(DataOutputStream out, byte[] data, int from, int to) throws IOException {
+        if (to > from) {
+            out.writeByte(OP_ADD);
+            out.writeInt(to - from);
+            out.write(data, from, to - from);
+        }
+    }
+
+    // Polynomial hash of the block starting at pos, the same value the rolling update produces
+    private static int hash(byte[] data, int pos) {
+        int h = 0;
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            h = h * PRIME + (data[pos + i] & 0xFF);
+        }
+        return h;
+    }
+
+    // Hashes of the base pack's aligned blocks in an open-addressing table (first block wins)
+    private static final class BlockTable {
+        private final byte[] old;
+        private final int[] hashes;
+        private final int[] offsets;
+        private final int mask;
+
+        BlockTable(byte[] old) {
+            this.old = old;
+            int blocks = old.length / BLOCK_SIZE;
+            int capacity = Integer.highestOneBit(Math.max(2, blocks * 2 - 1)) << 1;
+            hashes = new int[capacity];
+            offsets = new int[capacity];
+            Arrays.fill(offsets, -1);
+            mask = capacity - 1;
+            for (int b = 0; b < blocks; b++) {
+                int h = hash(old, b * BLOCK_SIZE);
+                int slot = mix(h) & mask;
+                while (offsets[slot] >= 0 && hashes[slot] != h) {
+                    slot = (slot + 1) & mask;
+                }
+                if (offsets[slot] < 0) {
+                    hashes[slot] = h;
+                    offsets[slot] = b * BLOCK_SIZE;
+                }
+            }
+        }
+
+        // Offset of a base block equal to the target block at pos, or -1
+        int find(int h, byte[] now, int pos) {
+            int slot = mix(h) & mask;
+            while (offsets[slot] >= 0) {
+                if (hashes[slot] == h) {
+                    int offset = offsets[slot];
+                    for (int i = 0; i < BLOCK_SIZE; i++) {
+                        if (old[offset + i] != now[pos + i]) {
+                            return -1; // Hash collision
+                        }
+                    }
+                    return offset;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private static int mix(int h) {
+            h ^= h >>> 16;
+            h *= 0x85EBCA6B;
+            return h ^ (h >>> 13);
+        }
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        ByteBuffer source = buffer.duplicate();
+        source.clear();
+        byte[] bytes = new byte[source.remaining()];
+        source.get(bytes);
+        return bytes;
+    }
+
+    private static int crc(byte[] data, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(data, offset, length);
+        return (int) crc.getValue();
+    }
+
+    private static int crc(ByteBuffer buffer) {
+        ByteBuffer source = buffer.duplicate();
+        CRC32 crc = new CRC32();
+        byte[] chunk = new byte[8192];
+        while (source.hasRemaining()) {
+            int n = Math.min(chunk.length, source.remaining());
+            source.get(chunk, 0, n);
+            crc.update(chunk, 0, n);
+        }
+        return (int) crc.getValue();
+    }
+}
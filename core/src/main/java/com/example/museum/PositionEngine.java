@@ -0,0 +1,162 @@
+package com.example.museum;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * PositionEngine estimates where the visitor is from the live stream of beacon distances.
+ * The closest recently heard beacon anchors a spatial query on the BeaconRegistry, so only
+ * beacons in its neighbourhood are considered even in halls with hundreds of beacons. The
+ * nearest few of those with fresh measurements are combined by weighted least-squares
+ * trilateration, and a ZoneClassifier maps the result to a room or zone.
+ */
+public final class PositionEngine {
+
+    // Measurements older than this are ignored
+    public static final long MAX_AGE_MS = 4000;
+
+    // Only beacons this close to the anchor beacon are considered
+    public static final double SEARCH_RADIUS_M = 20;
+
+    // Upper bound on beacons used in one solve
+    public static final int MAX_BEACONS_USED = 6;
+
+    // Consecutive estimates in a new zone before the zone changes
+    private static final int ZONE_CONFIRMATIONS = 3;
+
+    // An estimate of the visitor's position
+    public static final class Position {
+        private final double x;
+        private final double y;
+        private final double error;
+        private final int beaconsUsed;
+        private final Zone zone;
+
+        Position(double x, double y, double error, int beaconsUsed, Zone zone) {
+            this.x = x;
+            this.y = y;
+            this.error = error;
+            this.beaconsUsed = beaconsUsed;
+            this.zone = zone;
+        }
+
+        public double getX() {
+            return x;
+        }
+
+        public double getY() {
+            return y;
+        }
+
+        // Weighted RMS range residual in meters; a rough accuracy indicator
+        public double getError() {
+            return error;
+        }
+
+        public int getBeaconsUsed() {
+            return beaconsUsed;
+        }
+
+        // Confirmed zone, or null when the visitor is outside every zone
+        public Zone getZone() {
+            return zone;
+        }
+    }
+
+    // Latest distance to one beacon; reused per beacon so updates do not allocate
+    private static final class Measurement {
+        double distance;
+        long timeMillis;
+    }
+
+    private final BeaconRegistry registry;
+    private final ZoneClassifier zoneClassifier;
+    private final Map<String, Measurement> measurements = new HashMap<>();
+
+    // Scratch buffers reused between estimates
+    private final List<BeaconLocation> nearby = new ArrayList<>();
+    private final double[] xs = new double[MAX_BEACONS_USED];
+    private final double[] ys = new double[MAX_BEACONS_USED];
+    private final double[] ds = new double[MAX_BEACONS_USED];
+    private final double[] solution = new double[3];
+
+    public PositionEngine(FloorPlan floorPlan) {
+        this.registry = floorPlan.getRegistry();
+        this.zoneClassifier = new ZoneClassifier(floorPlan.getZones(), ZONE_CONFIRMATIONS);
+    }
+
+    // Record the latest distance to a beacon; beacons not on the floor plan are ignored
+    public void update(String address, double distance, long nowMillis) {
+        BeaconLocation location = registry.get(address);
+        if (location == null || Double.isNaN(distance) || Double.isInfinite(distance)) {
+            return;
+        }
+        Measurement measurement = measurements.get(location.getAddress());
+        if (measurement == null) {
+            measurement = new Measurement();
+            measurements.put(location.getAddress(), measurement);
+        }
+        measurement.distance = distance;
+        measurement.timeMillis = nowMillis;
+    }
+
+    // Estimate the current position, or null if no registered beacon has been heard recently
+    public Position estimate(long nowMillis) {
+        // The closest fresh beacon anchors the neighbourhood search
+        BeaconLocation anchor = null;
+        double anchorDistance = Double.MAX_VALUE;
+        for (Map.Entry<String, Measurement> entry : measurements.entrySet()) {
+            Measurement measurement = entry.getValue();
+            if (nowMillis - measurement.timeMillis <= MAX_AGE_MS && measurement.distance < anchorDistance) {
+                anchorDistance = measurement.distance;
+                anchor = registry.get(entry.getKey());
+            }
+        }
+        if (anchor == null) {
+            return null;
+        }
+
+        nearby.clear();
+        registry.findWithin(anchor.getX(), anchor.getY(), SEARCH_RADIUS_M, nearby);
+
+        // Keep the MAX_BEACONS_USED closest fresh beacons, ordered by insertion sort
+        int n = 0;
+        for (int i = 0; i < nearby.size(); i++) {
+            Measurement measurement = measurements.get(nearby.get(i).getAddress());
+            if (measurement == null || nowMillis - measurement.timeMillis > MAX_AGE_MS) {
+                continue;
+            }
+            double d = measurement.distance;
+            if (n == MAX_BEACONS_USED && d >= ds[n - 1]) {
+                continue;
+            }
+            int j = n == MAX_BEACONS_USED ? n - 1 : n++;
+            while (j > 0 && ds[j - 1] > d) {
+                xs[j] = xs[j - 1];
+                ys[j] = ys[j - 1];
+                ds[j] = ds[j - 1];
+                j--;
+            }
+            xs[j] = nearby.get(i).getX();
+            ys[j] = nearby.get(i).getY();
+            ds[j] = d;
+        }
+
+        if (!Trilateration.solve(xs, ys, ds, n, solution)) {
+            return null;
+        }
+        Zone zone = zoneClassifier.classify(solution[0], solution[1]);
+        return new Position(solution[0], solution[1], solution[2], n, zone);
+    }
+
+    // Forget all measurements, e.g. when scanning restarts after a pause
+    public void clear() {
+        measurements.clear();
+        zoneClassifier.reset();
+    }
+}
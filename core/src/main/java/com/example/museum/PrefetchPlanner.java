@@ -0,0 +1,249 @@
+package com.example.museum;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * PrefetchPlanner decides which exhibits' images to fetch ahead of a tap, from the beacons
+ * the visitor is near. Each exhibit takes the distance of the nearest fresh beacon it is
+ * listed under in the floor plan. An exhibit becomes a candidate once it is within the enter
+ * radius, nearest first, and its prefetch is cancelled if the visitor walks out past the
+ * larger leave radius (the gap stops a visitor standing on the edge from starting and
+ * cancelling the same download over and over) or its beacons go quiet. The bandwidth budget
+ * is a limit on prefetches in flight plus a limit on prefetches started per window. The
+ * planner does no I/O; ImagePrefetcher carries out its decisions.
+ */
+public final class PrefetchPlanner {
+
+    public static final double DEFAULT_ENTER_RADIUS_M = 6;
+    public static final double DEFAULT_LEAVE_RADIUS_M = 9;
+    public static final int DEFAULT_MAX_IN_FLIGHT = 2;
+    public static final int DEFAULT_MAX_PER_WINDOW = 12;
+    public static final long DEFAULT_WINDOW_MS = 60000;
+
+    // Beacons not heard for this long no longer place the visitor near their exhibits
+    public static final long STALE_BEACON_MS = 10000;
+
+    // A warmed image is not prefetched again for this long; Glide's caches keep it meanwhile
+    public static final long WARM_MS = 10 * 60000;
+
+    private final Map<String, List<String>> exhibitsByBeacon;
+    private final double enterRadius;
+    private final double leaveRadius;
+    private final int maxInFlight;
+    private final int maxPerWindow;
+    private final long windowMs;
+
+    private final Map<String, Sighting> beacons = new HashMap<>();
+    private final Set<String> inFlight = new HashSet<>();
+    private final Map<String, Long> warmedAt = new HashMap<>();
+    private final List<Long> startTimes = new ArrayList<>();
+
+    private int started;
+    private int completed;
+    private int failed;
+    private int cancelled;
+    private int deferred;
+
+    private static final class Sighting {
+        double distance;
+        long seenAt;
+    }
+
+    // What to do now: prefetches to start, nearest first, and prefetches to cancel
+    public static final class Plan {
+        private final List<String> start = new ArrayList<>();
+        private final List<String> cancel = new ArrayList<>();
+
+        public List<String> getStart() {
+            return start;
+        }
+
+        public List<String> getCancel() {
+            return cancel;
+        }
+
+        public boolean isEmpty() {
+            return start.isEmpty() && cancel.isEmpty();
+        }
+    }
+
+    public PrefetchPlanner(Map<String, List<String>> exhibitsByBeacon) {
+        this(exhibitsByBeacon, DEFAULT_ENTER_RADIUS_M, DEFAULT_LEAVE_RADIUS_M, DEFAULT_MAX_IN_FLIGHT,
+                DEFAULT_MAX_PER_WINDOW, DEFAULT_WINDOW_MS);
+    }
+
+    public PrefetchPlanner(Map<String, List<String>> exhibitsByBeacon, double enterRadius, double leaveRadius,
+                           int maxInFlight, int maxPerWindow, long windowMs) {
+        if (leaveRadius < enterRadius) {
+            throw new IllegalArgumentException("Leave radius must not be smaller than the enter radius");
+        }
+        this.exhibitsByBeacon = new HashMap<>();
+        for (Map.Entry<String, List<String>> entry : exhibitsByBeacon.entrySet()) {
+            this.exhibitsByBeacon.put(BeaconRegistry.normalize(entry.getKey()), new ArrayList<>(entry.getValue()));
+        }
+        this.enterRadius = enterRadius;
+        this.leaveRadius = leaveRadius;
+        this.maxInFlight = maxInFlight;
+        this.maxPerWindow = maxPerWindow;
+        this.windowMs = windowMs;
+    }
+
+    // Record a beacon's filtered distance; beacons without exhibits are ignored
+    public void onBeacon(String address, double distance, long now) {
+        String key = BeaconRegistry.normalize(address);
+        if (!exhibitsByBeacon.containsKey(key)) {
+            return;
+        }
+        Sighting sighting = beacons.get(key);
+        if (sighting == null) {
+            sighting = new Sighting();
+            beacons.put(key, sighting);
+        }
+        sighting.distance = distance;
+        sighting.seenAt = now;
+    }
+
+    // Decide what to start and cancel; started prefetches count as in flight until onFinished()
+    public Plan plan(long now) {
+        final Map<String, Double> distances = exhibitDistances(now);
+        Plan plan = new Plan();
+
+        for (String id : inFlight) {
+            Double distance = distances.get(id);
+            if (distance == null || distance > leaveRadius) {
+                plan.cancel.add(id);
+            }
+        }
+        for (String id : plan.cancel) {
+            inFlight.remove(id);
+            cancelled++;
+        }
+
+        List<String> candidates = new ArrayList<>();
+        for (Map.Entry<String, Double> entry : distances.entrySet()) {
+            String id = entry.getKey();
+            if (entry.getValue() <= enterRadius && !inFlight.contains(id) && !isWarm(id, now)) {
+                candidates.add(id);
+            }
+        }
+        Collections.sort(candidates, new Comparator<String>() {
+            @Override
+            public int compare(String a, String b) {
+                int cmp = Double.compare(distances.get(a), distances.get(b));
+                return cmp != 0 ? cmp : a.compareTo(b);
+            }
+        });
+
+        while (!startTimes.isEmpty() && now - startTimes.get(0) >= windowMs) {
+            startTimes.remove(0);
+        }
+        for (String id : candidates) {
+            if (inFlight.size() >= maxInFlight || startTimes.size() >= maxPerWindow) {
+                deferred += candidates.size() - plan.start.size();
+                break;
+            }
+            plan.start.add(id);
+            inFlight.add(id);
+            startTimes.add(now);
+            started++;
+        }
+        return plan;
+    }
+
+    // A prefetch finished; a successful one is not repeated for WARM_MS
+    public void onFinished(String id, boolean success, long now) {
+        if (!inFlight.remove(id)) {
+            return; // Already cancelled
+        }
+        if (success) {
+            completed++;
+            warmedAt.put(id, now);
+        } else {
+            failed++;
+        }
+    }
+
+    // Everything in flight, which the caller cancels, e.g. when the screen goes away
+    public List<String> cancelAll() {
+        List<String> ids = new ArrayList<>(inFlight);
+        cancelled += ids.size();
+        inFlight.clear();
+        return ids;
+    }
+
+    public boolean isInFlight(String id) {
+        return inFlight.contains(id);
+    }
+
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    public int getStarted() {
+        return started;
+    }
+
+    public int getCompleted() {
+        return completed;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public int getCancelled() {
+        return cancelled;
+    }
+
+    // Candidates held back by the budget, counted once per plan()
+    public int getDeferred() {
+        return deferred;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "PrefetchPlanner{started=%d, completed=%d, failed=%d, cancelled=%d, deferred=%d, inFlight=%d}",
+                started, completed, failed, cancelled, deferred, inFlight.size());
+    }
+
+    // Nearest fresh beacon distance of every exhibit near the visitor
+    private Map<String, Double> exhibitDistances(long now) {
+        Map<String, Double> distances = new HashMap<>();
+        for (Map.Entry<String, Sighting> entry : beacons.entrySet()) {
+            Sighting sighting = entry.getValue();
+            if (now - sighting.seenAt > STALE_BEACON_MS) {
+                continue;
+            }
+            for (String id : exhibitsByBeacon.get(entry.getKey())) {
+                Double current = distances.get(id);
+                if (current == null || sighting.distance < current) {
+                    distances.put(id, sighting.distance);
+                }
+            }
+        }
+        return distances;
+    }
+
+    private boolean isWarm(String id, long now) {
+        Long at = warmedAt.get(id);
+        if (at == null) {
+            return false;
+        }
+        if (now - at >= WARM_MS) {
+            warmedAt.remove(id);
+            return false;
+        }
+        return true;
+    }
+}
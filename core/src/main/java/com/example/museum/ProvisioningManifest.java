@@ -0,0 +1,162 @@
+package com.example.museum;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * ProvisioningManifest reads the list of exhibits to write in a batch provisioning run.
+ * A manifest is either a JSON array of exhibit objects (the same keys as a tag's JSON:
+ * ID, Title, Body, URL, ImageLink, VideoLink) or a CSV file whose header row names those
+ * columns in any order. CSV fields may be quoted, with "" for a literal quote and line
+ * breaks allowed inside quotes. Every exhibit must have an ID.
+ */
+public final class ProvisioningManifest {
+
+    private ProvisioningManifest() {
+    }
+
+    // Parse a JSON or CSV manifest; the format is chosen by the first non-blank character
+    public static List<Exhibit> parse(String content) throws IOException {
+        if (content.startsWith("\uFEFF")) {
+            content = content.substring(1); // Byte order mark written by spreadsheet exports
+        }
+        String trimmed = content.trim();
+        if (trimmed.startsWith("[")) {
+            return parseJson(trimmed);
+        }
+        return parseCsv(content);
+    }
+
+    // Stable fingerprint of the manifest bytes, used to match saved progress to its manifest
+    public static String fingerprint(byte[] content) {
+        CRC32 crc = new CRC32();
+        crc.update(content, 0, content.length);
+        return Long.toHexString(crc.getValue()) + "-" + content.length;
+    }
+
+    private static List<Exhibit> parseJson(String content) throws IOException {
+        List<Exhibit> exhibits = new ArrayList<>();
+        try {
+            JSONArray array = new JSONArray(content);
+            for (int i = 0; i < array.length(); i++) {
+                JSONObject item = array.getJSONObject(i);
+                Exhibit exhibit = new Exhibit(item.optString("ID"), item.optString("Title"), item.optString("Body"),
+                        item.optString("URL"), item.optString("ImageLink"), item.optString("VideoLink"));
+                if (exhibit.getId().isEmpty()) {
+                    throw new IOException("Manifest entry " + (i + 1) + ": missing ID");
+                }
+                exhibits.add(exhibit);
+            }
+        } catch (JSONException e) {
+            throw new IOException("Invalid JSON manifest: " + e.getMessage(), e);
+        }
+        return exhibits;
+    }
+
+    private static List<Exhibit> parseCsv(String content) throws IOException {
+        CsvReader reader = new CsvReader(content);
+        List<String> header = reader.readRow();
+        if (header == null) {
+            return new ArrayList<>();
+        }
+
+        // Map each known key to its column, ignoring columns the manifest adds for its own use
+        String[] keys = ExhibitJsonReader.KEYS;
+        int[] columns = new int[keys.length];
+        for (int k = 0; k < keys.length; k++) {
+            columns[k] = -1;
+            for (int c = 0; c < header.size(); c++) {
+                if (keys[k].equalsIgnoreCase(header.get(c).trim())) {
+                    columns[k] = c;
+                }
+            }
+        }
+        if (columns[0] < 0) {
+            throw new IOException("Manifest header has no ID column");
+        }
+
+        List<Exhibit> exhibits = new ArrayList<>();
+        List<String> row;
+        while ((row = reader.readRow()) != null) {
+            if (row.size() == 1 && row.get(0).trim().isEmpty()) {
+                continue; // Blank line
+            }
+            String[] values = new String[keys.length];
+            for (int k = 0; k < keys.length; k++) {
+                values[k] = columns[k] >= 0 && columns[k] < row.size() ? row.get(columns[k]) : null;
+            }
+            Exhibit exhibit = new Exhibit(values[0] != null ? values[0].trim() : null,
+                    values[1], values[2], values[3], values[4], values[5]);
+            if (exhibit.getId().isEmpty()) {
+                throw new IOException("Manifest line " + reader.rowStartLine + ": missing ID");
+            }
+            exhibits.add(exhibit);
+        }
+        return exhibits;
+    }
+
+    // Minimal RFC 4180 reader: comma separated, double-quoted fields, CRLF or LF line ends
+    private static final class CsvReader {
+        private final String text;
+        private int pos;
+        private int line = 1;
+        int rowStartLine;
+
+        CsvReader(String text) {
+            this.text = text;
+        }
+
+        // The next row's fields, or null at the end of the input
+        List<String> readRow() throws IOException {
+            if (pos >= text.length()) {
+                return null;
+            }
+            rowStartLine = line;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (pos < text.length()) {
+                char c = text.charAt(pos++);
+                if (quoted) {
+                    if (c == '"') {
+                        if (pos < text.length() && text.charAt(pos) == '"') {
+                            field.append('"');
+                            pos++;
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append(c);
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    line++;
+                    break;
+                } else if (c != '\r') {
+                    field.append(c);
+                }
+            }
+            if (quoted) {
+                throw new IOException("Manifest line " + rowStartLine + ": unterminated quoted field");
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.museum;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * ProvisioningQueue tracks a batch provisioning run through a manifest of exhibits. The
+ * exhibit at the head of the queue is written to the next tag presented. A verified write
+ * moves the queue forward, as does a tag that already holds the exhibit (a skipped write).
+ * A failed write is retried on the next tag up to MAX_ATTEMPTS times before the exhibit is
+ * recorded as failed and skipped. The queue counts written and skipped tags, failures and
+ * retries, and measures throughput over active time only, so breaks between tags do not
+ * drag the rate down. Progress can be saved and restored so a run survives the app being
+ * killed; saved progress only applies to the same manifest.
+ */
+public final class ProvisioningQueue {
+
+    // Attempts per exhibit before it is skipped
+    public static final int MAX_ATTEMPTS = 3;
+
+    // Gaps between tags longer than this are treated as a break and left out of the throughput
+    public static final long IDLE_GAP_MS = 60000;
+
+    private static final String KEY_MANIFEST = "manifest";
+    private static final String KEY_POSITION = "position";
+    private static final String KEY_ATTEMPTS = "attempts";
+    private static final String KEY_WRITTEN = "written";
+    private static final String KEY_SKIPPED = "skipped";
+    private static final String KEY_RETRIES = "retries";
+    private static final String KEY_ACTIVE_MILLIS = "activeMillis";
+    private static final String KEY_FAILED_IDS = "failedIds";
+
+    private final List<Exhibit> exhibits;
+    private final String manifestId;
+
+    private int position;
+    private int attempts; // Failed attempts on the exhibit at position
+    private int written;
+    private int skipped;
+    private int retries;
+    private long activeMillis;
+    private long lastEventMillis = -1;
+    private final List<String> failedIds = new ArrayList<>();
+
+    public ProvisioningQueue(List<Exhibit> exhibits, String manifestId) {
+        this.exhibits = exhibits;
+        this.manifestId = manifestId;
+    }
+
+    // The exhibit to write to the next tag, or null when the run is finished
+    public Exhibit current() {
+        return isDone() ? null : exhibits.get(position);
+    }
+
+    public boolean isDone() {
+        return position >= exhibits.size();
+    }
+
+    // Record a verified write of the current exhibit and move to the next one
+    public void onWritten(long nowMillis) {
+        if (isDone()) {
+            return;
+        }
+        track(nowMillis);
+        written++;
+        advance();
+    }
+
+    // Record that the tag already held the current exhibit, so no write was needed, and move on
+    public void onSkipped(long nowMillis) {
+        if (isDone()) {
+            return;
+        }
+        track(nowMillis);
+        skipped++;
+        advance();
+    }
+
+    // Record a failed write or verification; returns true if the exhibit was given up on and skipped
+    public boolean onFailed(long nowMillis) {
+        if (isDone()) {
+            return false;
+        }
+        track(nowMillis);
+        attempts++;
+        if (attempts < MAX_ATTEMPTS) {
+            retries++;
+            return false;
+        }
+        failedIds.add(exhibits.get(position).getId());
+        advance();
+        return true;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public int getTotal() {
+        return exhibits.size();
+    }
+
+    public int getWritten() {
+        return written;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public int getFailed() {
+        return failedIds.size();
+    }
+
+    public int getRetries() {
+        return retries;
+    }
+
+    // Failed attempts so far on the current exhibit
+    public int getAttempts() {
+        return attempts;
+    }
+
+    // IDs of the exhibits that were skipped after MAX_ATTEMPTS failures
+    public List<String> getFailedIds() {
+        return Collections.unmodifiableList(failedIds);
+    }
+
+    // Tags provisioned (verified or already up to date) per minute of active provisioning time
+    public double getTagsPerMinute() {
+        return activeMillis == 0 ? 0 : (written + skipped) * 60000.0 / activeMillis;
+    }
+
+    // Save progress as a properties file
+    public void save(OutputStream out) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(KEY_MANIFEST, manifestId);
+        properties.setProperty(KEY_POSITION, Integer.toString(position));
+        properties.setProperty(KEY_ATTEMPTS, Integer.toString(attempts));
+        properties.setProperty(KEY_WRITTEN, Integer.toString(written));
+        properties.setProperty(KEY_SKIPPED, Integer.toString(skipped));
+        properties.setProperty(KEY_RETRIES, Integer.toString(retries));
+        properties.setProperty(KEY_ACTIVE_MILLIS, Long.toString(activeMillis));
+        StringBuilder ids = new StringBuilder();
+        for (String id : failedIds) {
+            if (ids.length() > 0) {
+                ids.append('\n');
+            }
+            ids.append(id);
+        }
+        properties.setProperty(KEY_FAILED_IDS, ids.toString());
+        properties.store(out, "Batch provisioning progress");
+    }
+
+    // Restore saved progress into a queue for the manifest; returns false (leaving the queue
+    // at the start) if the progress belongs to a different manifest or cannot be used
+    public boolean restore(InputStream in) throws IOException {
+        Properties properties = new Properties();
+        properties.load(in);
+        if (!manifestId.equals(properties.getProperty(KEY_MANIFEST))) {
+            return false;
+        }
+        try {
+            int savedPosition = Integer.parseInt(properties.getProperty(KEY_POSITION, "0"));
+            if (savedPosition < 0 || savedPosition > exhibits.size()) {
+                return false;
+            }
+            position = savedPosition;
+            attempts = Integer.parseInt(properties.getProperty(KEY_ATTEMPTS, "0"));
+            written = Integer.parseInt(properties.getProperty(KEY_WRITTEN, "0"));
+            skipped = Integer.parseInt(properties.getProperty(KEY_SKIPPED, "0"));
+            retries = Integer.parseInt(properties.getProperty(KEY_RETRIES, "0"));
+            activeMillis = Long.parseLong(properties.getProperty(KEY_ACTIVE_MILLIS, "0"));
+        } catch (NumberFormatException e) {
+            position = 0;
+            attempts = 0;
+            written = 0;
+            skipped = 0;
+            retries = 0;
+            activeMillis = 0;
+            return false;
+        }
+        failedIds.clear();
+        String ids = properties.getProperty(KEY_FAILED_IDS, "");
+        if (!ids.isEmpty()) {
+            Collections.addAll(failedIds, ids.split("\n"));
+        }
+        lastEventMillis = -1; // The clock may have restarted since the progress was saved
+        return true;
+    }
+
+    private void advance() {
+        position++;
+        attempts = 0;
+    }
+
+    // Add the time since the previous tag to the active time, unless it was a break
+    private void track(long nowMillis) {
+        if (lastEventMillis >= 0 && nowMillis - lastEventMillis < IDLE_GAP_MS) {
+            activeMillis += nowMillis - lastEventMillis;
+        }
+        lastEventMillis = nowMillis;
+    }
+}
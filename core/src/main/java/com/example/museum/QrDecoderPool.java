@@ -0,0 +1,147 @@
+package com.example.museum;
+
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * QrDecoderPool decodes camera preview frames on a few background threads, each with its
+ * own QrFrameDecoder. A frame offered while every thread is still decoding is dropped
+ * rather than queued, so decoding always works on the newest frame the camera delivered
+ * and latency never builds up behind a backlog. Results from frames older than the last
+ * result delivered are discarded, since threads can finish out of order. Offered, dropped
+ * and decoded frames and the average decode time are counted.
+ */
+public final class QrDecoderPool {
+
+    // Receives decoded text on a pool thread
+    public interface Listener {
+        void onDecoded(String text, long decodeNanos);
+    }
+
+    private final int threads;
+    private final ExecutorService executor;
+    private final ThreadLocal<QrFrameDecoder> decoders;
+    private final Listener listener;
+
+    private final AtomicInteger busy = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong lastDelivered = new AtomicLong();
+    private final AtomicLong offered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong decoded = new AtomicLong();
+    private final AtomicLong decodeAttempts = new AtomicLong();
+    private final AtomicLong decodeNanos = new AtomicLong();
+
+    public QrDecoderPool(int threads, final double roiFraction, Listener listener) {
+        this.threads = threads;
+        this.listener = listener;
+        this.decoders = new ThreadLocal<QrFrameDecoder>() {
+            @Override
+            protected QrFrameDecoder initialValue() {
+                return QrFrameDecoder.forExhibitCodes(roiFraction);
+            }
+        };
+        this.executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "qr-decoder-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    // Threads for a device: one per core, leaving a core for the UI and camera, at most three
+    public static int defaultThreads() {
+        return Math.max(1, Math.min(3, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    // Decode a frame if a thread is free; returns false if the frame was dropped
+    public boolean offer(final byte[] frame, final int width, final int height) {
+        offered.incrementAndGet();
+        if (busy.incrementAndGet() > threads) {
+            busy.decrementAndGet();
+            dropped.incrementAndGet();
+            return false;
+        }
+        final long seq = sequence.incrementAndGet();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    long start = System.nanoTime();
+                    String text = decoders.get().decode(frame, width, height);
+                    long nanos = System.nanoTime() - start;
+                    decodeAttempts.incrementAndGet();
+                    decodeNanos.addAndGet(nanos);
+                    if (text != null && claim(seq)) {
+                        decoded.incrementAndGet();
+                        listener.onDecoded(text, nanos);
+                    }
+                } finally {
+                    busy.decrementAndGet();
+                }
+            }
+        });
+        return true;
+    }
+
+    // Whether any thread is free for another frame
+    public boolean isIdle() {
+        return busy.get() < threads;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public long getOffered() {
+        return offered.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getDecoded() {
+        return decoded.get();
+    }
+
+    // Average time to decode one frame, with or without a code in it
+    public double getAverageDecodeMillis() {
+        long attempts = decodeAttempts.get();
+        return attempts == 0 ? 0 : decodeNanos.get() / 1e6 / attempts;
+    }
+
+    // Deliver only results newer than the last one delivered
+    private boolean claim(long seq) {
+        while (true) {
+            long last = lastDelivered.get();
+            if (seq <= last) {
+                return false;
+            }
+            if (lastDelivered.compareAndSet(last, seq)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "QR decoding on %d threads: %d frames, %d dropped, %d decoded, %.1f ms/frame",
+                threads, getOffered(), getDropped(), getDecoded(), getAverageDecodeMillis());
+    }
+}
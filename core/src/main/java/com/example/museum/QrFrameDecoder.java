@@ -0,0 +1,83 @@
+package com.example.museum;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.PlanarYUVLuminanceSource;
+import com.google.zxing.Reader;
+import com.google.zxing.ReaderException;
+import com.google.zxing.Result;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * QrFrameDecoder decodes exhibit QR codes from raw camera preview frames (NV21 / YUV420,
+ * whose first width*height bytes are the luminance plane). Exhibit codes are always
+ * QR_CODE on a wall plaque that the visitor centres in the viewfinder, so the decoder
+ * only looks at a centred region of interest and only runs the QR reader, instead of
+ * trying every format on the full frame. QR finder patterns work in any orientation, so
+ * portrait frames need no rotation. A decoder is not thread-safe; QrDecoderPool gives each
+ * of its threads its own instance.
+ */
+public final class QrFrameDecoder {
+
+    // Side of the centred square region of interest as a fraction of the frame's shorter side
+    public static final double DEFAULT_ROI_FRACTION = 0.7;
+
+    private final Reader reader;
+    private final Map<DecodeHintType, Object> hints;
+    private final double roiFraction;
+
+    private QrFrameDecoder(Reader reader, Map<DecodeHintType, Object> hints, double roiFraction) {
+        this.reader = reader;
+        this.hints = hints;
+        this.roiFraction = roiFraction;
+    }
+
+    // Decoder for exhibit codes: QR_CODE only, centred region of interest
+    public static QrFrameDecoder forExhibitCodes(double roiFraction) {
+        Map<DecodeHintType, Object> hints = new EnumMap<>(DecodeHintType.class);
+        hints.put(DecodeHintType.POSSIBLE_FORMATS, Collections.singletonList(BarcodeFormat.QR_CODE));
+        hints.put(DecodeHintType.CHARACTER_SET, "UTF-8");
+        return new QrFrameDecoder(new QRCodeReader(), hints, roiFraction);
+    }
+
+    // Decoder that behaves like the stock scanner: every format on the full frame (for comparison)
+    public static QrFrameDecoder forAllFormats() {
+        MultiFormatReader reader = new MultiFormatReader();
+        return new QrFrameDecoder(reader, null, 1.0);
+    }
+
+    // Region of interest for a frame as {left, top, width, height}
+    public static int[] centredRoi(int frameWidth, int frameHeight, double fraction) {
+        if (fraction >= 1.0) {
+            return new int[]{0, 0, frameWidth, frameHeight};
+        }
+        int side = (int) (Math.min(frameWidth, frameHeight) * fraction);
+        return new int[]{(frameWidth - side) / 2, (frameHeight - side) / 2, side, side};
+    }
+
+    // Decode the code in a preview frame; returns its text, or null if there is none in the region
+    public String decode(byte[] frame, int frameWidth, int frameHeight) {
+        int[] roi = centredRoi(frameWidth, frameHeight, roiFraction);
+        LuminanceSource source = new PlanarYUVLuminanceSource(frame, frameWidth, frameHeight,
+                roi[0], roi[1], roi[2], roi[3], false);
+        try {
+            Result result = reader.decode(new BinaryBitmap(new HybridBinarizer(source)), hints);
+            return result.getText();
+        } catch (ReaderException e) {
+            return null; // No code in this frame, the normal case between scans
+        } finally {
+            reader.reset();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.museum;
+
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.Encoder;
+import com.google.zxing.qrcode.encoder.QRCode;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * QrPlaqueGenerator plans the QR codes for exhibit plaques. For each exhibit in a manifest
+ * (the CSV or JSON format read by ProvisioningManifest) it picks the short "MUS:ID/version"
+ * payload when the ID allows it, or the inline exhibit JSON otherwise, and reports the
+ * minimum QR version (size) of the chosen payload next to the version the inline JSON
+ * would need. The report is a CSV (ID, payload, encoding mode, QR version, inline JSON QR
+ * version); a QR version of -1 means the payload does not fit in any QR code. The command
+ * line front end is QrPlaqueTool in the :tools module, so nothing here reads files or
+ * writes to the console from inside the app.
+ */
+public final class QrPlaqueGenerator {
+
+    // Medium error correction (15%) survives glare and scuffs on a plaque
+    public static final ErrorCorrectionLevel ERROR_CORRECTION = ErrorCorrectionLevel.M;
+
+    // Content version when none is given, the same as a new catalog entry's
+    public static final int DEFAULT_CONTENT_VERSION = 1;
+
+    private QrPlaqueGenerator() {
+    }
+
+    // The code chosen for one exhibit's plaque
+    public static final class Plaque {
+        private final String id;
+        private final String payload;
+        private final String mode;
+        private final int qrVersion;
+        private final int inlineQrVersion;
+
+        Plaque(String id, String payload, String mode, int qrVersion, int inlineQrVersion) {
+            this.id = id;
+            this.payload = payload;
+            this.mode = mode;
+            this.qrVersion = qrVersion;
+            this.inlineQrVersion = inlineQrVersion;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        // Text to encode in the plaque's QR code
+        public String getPayload() {
+            return payload;
+        }
+
+        // QR encoding mode zxing picks for the payload (ALPHANUMERIC for short payloads)
+        public String getMode() {
+            return mode;
+        }
+
+        // Minimum QR version (1-40) of the payload, or -1 if it does not fit
+        public int getQrVersion() {
+            return qrVersion;
+        }
+
+        // Minimum QR version the inline exhibit JSON would need, or -1 if it does not fit
+        public int getInlineQrVersion() {
+            return inlineQrVersion;
+        }
+
+        public boolean isShort() {
+            return payload.startsWith(ShortQrPayload.PREFIX);
+        }
+    }
+
+    // Plan the plaque code for an exhibit at the given content version
+    public static Plaque plan(Exhibit exhibit, int contentVersion) {
+        String inline = inlineJson(exhibit);
+        QRCode inlineCode = encode(inline);
+        int inlineVersion = versionOf(inlineCode);
+        if (!ShortQrPayload.isValidId(exhibit.getId())) {
+            return new Plaque(exhibit.getId(), inline, modeOf(inlineCode), inlineVersion, inlineVersion);
+        }
+        String payload = new ShortQrPayload(exhibit.getId(), contentVersion).toString();
+        QRCode code = encode(payload);
+        return new Plaque(exhibit.getId(), payload, modeOf(code), versionOf(code), inlineVersion);
+    }
+
+    // Plan every exhibit of a manifest
+    public static List<Plaque> planAll(List<Exhibit> exhibits, int contentVersion) {
+        List<Plaque> plaques = new ArrayList<>();
+        for (Exhibit exhibit : exhibits) {
+            plaques.add(plan(exhibit, contentVersion));
+        }
+        return plaques;
+    }
+
+    // The exhibit as the inline JSON that QRScanner also accepts
+    public static String inlineJson(Exhibit exhibit) {
+        try {
+            return new JSONObject()
+                    .put("ID", exhibit.getId())
+                    .put("Title", exhibit.getTitle())
+                    .put("Body", exhibit.getBody())
+                    .put("URL", exhibit.getUrl())
+                    .put("ImageLink", exhibit.getImageLink())
+                    .put("VideoLink", exhibit.getVideoLink())
+                    .toString();
+        } catch (JSONException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    // Minimum QR version for a payload, or -1 if it does not fit in any QR code
+    public static int minimumVersion(String payload) {
+        return versionOf(encode(payload));
+    }
+
+    // Write the report as CSV
+    public static void writeReport(List<Plaque> plaques, Appendable out) throws IOException {
+        out.append("ID,Payload,Mode,QR version,Inline JSON QR version\n");
+        for (Plaque plaque : plaques) {
+            out.append(csv(plaque.getId())).append(',')
+                    .append(csv(plaque.getPayload())).append(',')
+                    .append(plaque.getMode()).append(',')
+                    .append(Integer.toString(plaque.getQrVersion())).append(',')
+                    .append(Integer.toString(plaque.getInlineQrVersion())).append('\n');
+        }
+    }
+
+    // Encode at the plaque error correction level; null if the payload is too large for any version
+    private static QRCode encode(String payload) {
+        Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+        hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
+        try {
+            return Encoder.encode(payload, ERROR_CORRECTION, hints);
+        } catch (WriterException e) {
+            return null;
+        }
+    }
+
+    private static int versionOf(QRCode code) {
+        return code == null ? -1 : code.getVersion().getVersionNumber();
+    }
+
+    private static String modeOf(QRCode code) {
+        return code == null ? "-" : code.getMode().toString();
+    }
+
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
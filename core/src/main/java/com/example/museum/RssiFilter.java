@@ -0,0 +1,101 @@
+package com.example.museum;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * RssiFilter smooths the RSSI stream of many beacons at once. Each beacon owns a slot;
+ * for every slot the filter keeps a small ring buffer of recent raw samples and an
+ * exponential moving average. A new sample that is further than OUTLIER_DB from the
+ * median of the ring buffer is replaced by that median (a Hampel filter) before it is
+ * folded into the average, so single reflections or body-blocking dips do not move the
+ * estimate by meters. All state lives in primitive arrays indexed by slot, so update()
+ * allocates nothing. The filter is not thread-safe; feed it from one thread.
+ */
+public final class RssiFilter {
+
+    // Number of recent samples kept per beacon for the median
+    public static final int WINDOW = 5;
+
+    // Samples this far from the window median (in dB) are treated as outliers
+    public static final int OUTLIER_DB = 8;
+
+    // Weight of a new sample in the moving average
+    public static final double ALPHA = 0.25;
+
+    // Marker the Bluetooth stack uses for "no RSSI"
+    private static final int INVALID_RSSI = Short.MIN_VALUE;
+
+    private final int capacity;
+    private final int[] samples;   // capacity * WINDOW ring buffers of raw RSSI
+    private final int[] head;      // next write position in each ring
+    private final int[] count;     // number of samples in each ring (<= WINDOW)
+    private final double[] estimate;
+    private final int[] scratch = new int[WINDOW]; // reused for the median sort
+
+    public RssiFilter(int capacity) {
+        this.capacity = capacity;
+        this.samples = new int[capacity * WINDOW];
+        this.head = new int[capacity];
+        this.count = new int[capacity];
+        this.estimate = new double[capacity];
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    // Feed a raw RSSI sample for a beacon slot and return the filtered RSSI
+    public double update(int slot, int rssi) {
+        if (rssi == INVALID_RSSI) {
+            return estimate(slot);
+        }
+
+        int base = slot * WINDOW;
+        samples[base + head[slot]] = rssi;
+        head[slot] = (head[slot] + 1) % WINDOW;
+        if (count[slot] < WINDOW) {
+            count[slot]++;
+        }
+
+        if (count[slot] == 1) {
+            estimate[slot] = rssi;
+            return rssi;
+        }
+
+        int median = median(base, count[slot]);
+        int accepted = Math.abs(rssi - median) > OUTLIER_DB ? median : rssi;
+        estimate[slot] += ALPHA * (accepted - estimate[slot]);
+        return estimate[slot];
+    }
+
+    // Filtered RSSI for a slot, or NaN if it has not seen a sample yet
+    public double estimate(int slot) {
+        return count[slot] == 0 ? Double.NaN : estimate[slot];
+    }
+
+    public boolean hasEstimate(int slot) {
+        return count[slot] > 0;
+    }
+
+    // Forget a slot so it can be reused for another beacon
+    public void reset(int slot) {
+        head[slot] = 0;
+        count[slot] = 0;
+        estimate[slot] = 0;
+    }
+
+    // Median of the first n samples of a ring, using insertion sort on the scratch buffer
+    private int median(int base, int n) {
+        for (int i = 0; i < n; i++) {
+            int value = samples[base + i];
+            int j = i - 1;
+            while (j >= 0 && scratch[j] > value) {
+                scratch[j + 1] = scratch[j];
+                j--;
+            }
+            scratch[j + 1] = value;
+        }
+        return scratch[n / 2];
+    }
+}
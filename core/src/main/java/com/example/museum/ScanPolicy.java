@@ -0,0 +1,104 @@
+package com.example.museum;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * ScanPolicy decides how long the next beacon scan window runs, how long the radio then
+ * stays idle, and which scan profile to use. It looks at three signals: whether the visitor
+ * has moved recently, how many beacons appeared or disappeared during the last window
+ * (churn), and the battery level. A visitor standing still in front of an exhibit gets a
+ * short, balanced scan every ten seconds; a walking visitor or a changing beacon set gets
+ * long low-latency windows. Every cycle (scan plus idle) lasts at least MIN_CYCLE_MS,
+ * because Android throttles apps that start more than five scans in 30 seconds.
+ */
+public final class ScanPolicy {
+
+    // Android allows five scan starts per 30 seconds; stay clear of that limit
+    public static final long MIN_CYCLE_MS = 7000;
+
+    // A visitor counts as moving for this long after the last detected step or motion
+    public static final long MOTION_HOLD_MS = 10000;
+
+    // This many beacons entering or leaving the set in one window counts as high churn
+    public static final int HIGH_CHURN = 2;
+
+    // At or below this battery level (percent), idle time is doubled unless charging
+    public static final int LOW_BATTERY_PERCENT = 15;
+
+    private static final Window CHARGING = new Window(10000, 0, true, "charging");
+    private static final Window MOVING = new Window(5000, 2000, true, "moving");
+    private static final Window CHURN = new Window(4000, 3000, true, "beacons changing");
+    private static final Window STILL = new Window(2000, 8000, false, "still");
+
+    // One scan window followed by an idle gap
+    public static final class Window {
+        private final long scanMillis;
+        private final long idleMillis;
+        private final boolean lowLatency;
+        private final String reason;
+
+        Window(long scanMillis, long idleMillis, boolean lowLatency, String reason) {
+            this.scanMillis = scanMillis;
+            this.idleMillis = idleMillis;
+            this.lowLatency = lowLatency;
+            this.reason = reason;
+        }
+
+        public long getScanMillis() {
+            return scanMillis;
+        }
+
+        public long getIdleMillis() {
+            return idleMillis;
+        }
+
+        // True for the LOW_LATENCY scan profile, false for BALANCED
+        public boolean isLowLatency() {
+            return lowLatency;
+        }
+
+        // Short label of the condition that selected this window
+        public String getReason() {
+            return reason;
+        }
+
+        // Fraction of the cycle spent scanning, between 0 and 1
+        public double getDutyCycle() {
+            return (double) scanMillis / (scanMillis + idleMillis);
+        }
+
+        @Override
+        public String toString() {
+            return reason + " (scan " + scanMillis + " ms, idle " + idleMillis + " ms, "
+                    + Math.round(getDutyCycle() * 100) + "% duty)";
+        }
+    }
+
+    private ScanPolicy() {
+    }
+
+    // Choose the next window. lastMotionMillis is a timestamp on the same clock as nowMillis,
+    // or a negative value if no motion has been seen yet; batteryPercent is -1 when unknown.
+    public static Window next(long nowMillis, long lastMotionMillis, int churn, int batteryPercent, boolean charging) {
+        if (charging) {
+            return CHARGING;
+        }
+
+        boolean moving = lastMotionMillis >= 0 && nowMillis - lastMotionMillis < MOTION_HOLD_MS;
+        Window window;
+        if (moving) {
+            window = MOVING;
+        } else if (churn >= HIGH_CHURN) {
+            window = CHURN;
+        } else {
+            window = STILL;
+        }
+
+        if (batteryPercent >= 0 && batteryPercent <= LOW_BATTERY_PERCENT) {
+            return new Window(window.scanMillis, Math.max(2 * window.idleMillis, MIN_CYCLE_MS - window.scanMillis),
+                    false, window.reason + ", low battery");
+        }
+        return window;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.museum;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * ShortQrPayload is the compact plaque QR payload "MUS:&lt;ID&gt;/&lt;version&gt;", for example
+ * "MUS:P07/3": an exhibit ID resolved through the ExhibitCatalog plus the content version
+ * the plaque was printed for. Every character is in the QR alphanumeric set (0-9, A-Z,
+ * space and $%*+-./:), which QR encodes at 5.5 bits per character instead of 8, so the
+ * codes stay at low QR versions with large modules that decode quickly from a distance.
+ * Exhibit IDs therefore must be upper case letters, digits, '-' or '.'; exhibits with other
+ * IDs keep the inline JSON format. The version is optional when parsing.
+ */
+public final class ShortQrPayload {
+
+    public static final String PREFIX = "MUS:";
+
+    // Longest ID accepted, which keeps the payload within a version 2 code
+    public static final int MAX_ID_LENGTH = 20;
+
+    private final String id;
+    private final int version;
+
+    public ShortQrPayload(String id, int version) {
+        if (!isValidId(id)) {
+            throw new IllegalArgumentException("Exhibit ID cannot be used in a short QR payload: " + id);
+        }
+        if (version < 0) {
+            throw new IllegalArgumentException("Content version must not be negative: " + version);
+        }
+        this.id = id;
+        this.version = version;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    // Content version the plaque was printed for; 0 when the payload has none
+    public int getVersion() {
+        return version;
+    }
+
+    // Whether an exhibit ID fits the alphanumeric payload
+    public static boolean isValidId(String id) {
+        if (id == null || id.isEmpty() || id.length() > MAX_ID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (!((c >= '0' && c <= '9') || (c >= 'A' && c <= 'Z') || c == '-' || c == '.')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Parse scanned QR text; returns null if it is not a short payload (e.g. inline exhibit JSON)
+    public static ShortQrPayload parse(String text) {
+        if (text == null || !text.startsWith(PREFIX)) {
+            return null;
+        }
+        int slash = text.indexOf('/', PREFIX.length());
+        String id = text.substring(PREFIX.length(), slash < 0 ? text.length() : slash);
+        if (!isValidId(id)) {
+            return null;
+        }
+        int version = 0;
+        if (slash >= 0) {
+            String digits = text.substring(slash + 1);
+            if (digits.isEmpty() || digits.length() > 9) {
+                return null;
+            }
+            for (int i = 0; i < digits.length(); i++) {
+                char c = digits.charAt(i);
+                if (c < '0' || c > '9') {
+                    return null;
+                }
+                version = version * 10 + (c - '0');
+            }
+        }
+        return new ShortQrPayload(id, version);
+    }
+
+    // The text to encode in the plaque's QR code
+    @Override
+    public String toString() {
+        return PREFIX + id + "/" + version;
+    }
+}
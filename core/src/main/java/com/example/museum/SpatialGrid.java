@@ -0,0 +1,85 @@
+package com.example.museum;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * SpatialGrid is a uniform grid index over beacon locations. Each beacon is stored in the
+ * cell containing it, so a radius query only visits the cells overlapping the search circle
+ * instead of every beacon in the building. The grid is built once and is read-only.
+ */
+public final class SpatialGrid {
+
+    private final double minX;
+    private final double minY;
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    private final List<List<BeaconLocation>> cells;
+
+    public SpatialGrid(Collection<BeaconLocation> beacons, double cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive");
+        }
+        double loX = Double.MAX_VALUE, loY = Double.MAX_VALUE, hiX = -Double.MAX_VALUE, hiY = -Double.MAX_VALUE;
+        for (BeaconLocation beacon : beacons) {
+            loX = Math.min(loX, beacon.getX());
+            loY = Math.min(loY, beacon.getY());
+            hiX = Math.max(hiX, beacon.getX());
+            hiY = Math.max(hiY, beacon.getY());
+        }
+        if (beacons.isEmpty()) {
+            loX = loY = hiX = hiY = 0;
+        }
+        this.minX = loX;
+        this.minY = loY;
+        this.cellSize = cellSize;
+        this.columns = (int) Math.floor((hiX - loX) / cellSize) + 1;
+        this.rows = (int) Math.floor((hiY - loY) / cellSize) + 1;
+        this.cells = new ArrayList<>(columns * rows);
+        for (int i = 0; i < columns * rows; i++) {
+            cells.add(new ArrayList<BeaconLocation>(2));
+        }
+        for (BeaconLocation beacon : beacons) {
+            cells.get(cellIndex(column(beacon.getX()), row(beacon.getY()))).add(beacon);
+        }
+    }
+
+    // Add every beacon within radius meters of (x, y) to out
+    public void findWithin(double x, double y, double radius, List<BeaconLocation> out) {
+        int firstColumn = Math.max(0, column(x - radius));
+        int lastColumn = Math.min(columns - 1, column(x + radius));
+        int firstRow = Math.max(0, row(y - radius));
+        int lastRow = Math.min(rows - 1, row(y + radius));
+        double radiusSquared = radius * radius;
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = firstColumn; c <= lastColumn; c++) {
+                List<BeaconLocation> cell = cells.get(cellIndex(c, r));
+                for (int i = 0; i < cell.size(); i++) {
+                    BeaconLocation beacon = cell.get(i);
+                    double dx = beacon.getX() - x;
+                    double dy = beacon.getY() - y;
+                    if (dx * dx + dy * dy <= radiusSquared) {
+                        out.add(beacon);
+                    }
+                }
+            }
+        }
+    }
+
+    private int column(double x) {
+        return (int) Math.floor((x - minX) / cellSize);
+    }
+
+    private int row(double y) {
+        return (int) Math.floor((y - minY) / cellSize);
+    }
+
+    private int cellIndex(int column, int row) {
+        return row * columns + column;
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.museum;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * TagEventGate is shared by the NFC activities to drop repeated tag events. Android keeps
+ * delivering discovery intents (or reader mode callbacks) while a phone rests on a tag, and
+ * each one would otherwise re-read, re-parse and re-render the same exhibit. An event is let
+ * through only if no work for the same tag UID is still in flight and the UID has not been
+ * seen within the window; the window restarts with every event, so a tag held in place
+ * stays coalesced until it is taken away. Suppressed events are counted by reason.
+ */
+public final class TagEventGate {
+
+    public static final long DEFAULT_WINDOW_MS = 1500;
+
+    // Work that never released its tag (for example an activity destroyed mid-read) stops blocking after this
+    public static final long MAX_IN_FLIGHT_MS = 10000;
+
+    // Forget UIDs not seen for a while once this many are tracked
+    static final int PRUNE_THRESHOLD = 32;
+
+    private static TagEventGate instance;
+
+    // Per-UID state: when it was last seen, and when its in-flight work started (-1 if none)
+    private static final class Entry {
+        long lastSeenMillis;
+        long inFlightSinceMillis = -1;
+    }
+
+    private final Map<ByteBuffer, Entry> entries = new HashMap<>();
+    private long windowMillis;
+
+    private long accepted;
+    private long suppressedRepeats;
+    private long suppressedInFlight;
+
+    public TagEventGate(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    // Get the gate shared by all NFC activities
+    public static synchronized TagEventGate getInstance() {
+        if (instance == null) {
+            instance = new TagEventGate(DEFAULT_WINDOW_MS);
+        }
+        return instance;
+    }
+
+    public synchronized void setWindowMillis(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    public synchronized long getWindowMillis() {
+        return windowMillis;
+    }
+
+    // Decide whether an event for this UID should be handled. On true the UID is in flight until
+    // release() is called; on false the event should be dropped.
+    public synchronized boolean tryAcquire(byte[] uid, long nowMillis) {
+        if (uid == null) {
+            accepted++;
+            return true; // Nothing to deduplicate by
+        }
+        if (entries.size() >= PRUNE_THRESHOLD) {
+            prune(nowMillis);
+        }
+        ByteBuffer key = ByteBuffer.wrap(uid.clone());
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry();
+            entries.put(key, entry);
+        } else {
+            long lastSeen = entry.lastSeenMillis;
+            entry.lastSeenMillis = nowMillis;
+            if (entry.inFlightSinceMillis >= 0 && nowMillis - entry.inFlightSinceMillis < MAX_IN_FLIGHT_MS) {
+                suppressedInFlight++;
+                return false;
+            }
+            if (nowMillis - lastSeen < windowMillis) {
+                suppressedRepeats++;
+                return false;
+            }
+        }
+        entry.lastSeenMillis = nowMillis;
+        entry.inFlightSinceMillis = nowMillis;
+        accepted++;
+        return true;
+    }
+
+    // Mark the work for this UID as finished; repeats are still coalesced until the window passes
+    public synchronized void release(byte[] uid) {
+        if (uid == null) {
+            return;
+        }
+        Entry entry = entries.get(ByteBuffer.wrap(uid));
+        if (entry != null) {
+            entry.inFlightSinceMillis = -1;
+        }
+    }
+
+    // Forget a UID so its next event is handled at once, e.g. after the tag has been rewritten
+    public synchronized void forget(byte[] uid) {
+        if (uid != null) {
+            entries.remove(ByteBuffer.wrap(uid));
+        }
+    }
+
+    public synchronized long getAccepted() {
+        return accepted;
+    }
+
+    // Events dropped because the same tag was seen within the window
+    public synchronized long getSuppressedRepeats() {
+        return suppressedRepeats;
+    }
+
+    // Events dropped because work for the same tag was still running
+    public synchronized long getSuppressedInFlight() {
+        return suppressedInFlight;
+    }
+
+    public synchronized long getSuppressed() {
+        return suppressedRepeats + suppressedInFlight;
+    }
+
+    // Number of UIDs currently tracked, for tests
+    synchronized int size() {
+        return entries.size();
+    }
+
+    // Drop UIDs outside the window that are idle, or whose work never released them
+    private void prune(long nowMillis) {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            boolean idle = entry.inFlightSinceMillis < 0 || nowMillis - entry.inFlightSinceMillis >= MAX_IN_FLIGHT_MS;
+            if (idle && nowMillis - entry.lastSeenMillis >= windowMillis) {
+                it.remove();
+            }
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(Locale.US, "Tag events: %d handled, %d repeats and %d in-flight suppressed",
+                accepted, suppressedRepeats, suppressedInFlight);
+    }
+}
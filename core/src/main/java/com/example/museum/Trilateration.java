@@ -0,0 +1,96 @@
+package com.example.museum;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * Trilateration estimates a 2D position from distances to beacons at known locations by
+ * weighted least squares. Each beacon contributes the residual (|p - b| - d) weighted by
+ * 1 / d^2, since RSSI ranging error grows with distance. The solution is found with
+ * Gauss-Newton iterations starting from the weighted centroid of the beacons.
+ */
+public final class Trilateration {
+
+    private static final int MAX_ITERATIONS = 20;
+    private static final double CONVERGED_M = 1e-4;
+    private static final double MIN_DISTANCE_M = 0.5;
+
+    private Trilateration() {
+    }
+
+    /**
+     * Solve for the position given n beacons at (xs[i], ys[i]) with measured distances ds[i].
+     * Writes x, y and the weighted RMS range residual into out[0..2]. With fewer than three
+     * beacons the weighted centroid is returned, since the position is not determined.
+     *
+     * @return false if there are no beacons
+     */
+    public static boolean solve(double[] xs, double[] ys, double[] ds, int n, double[] out) {
+        if (n <= 0) {
+            return false;
+        }
+
+        // Start from the weighted centroid, which also serves as the answer for n < 3
+        double sumW = 0, px = 0, py = 0;
+        for (int i = 0; i < n; i++) {
+            double w = weight(ds[i]);
+            px += w * xs[i];
+            py += w * ys[i];
+            sumW += w;
+        }
+        px /= sumW;
+        py /= sumW;
+
+        if (n >= 3) {
+            for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+                // Normal equations (J^T W J) delta = -J^T W r for the 2x2 case
+                double a11 = 0, a12 = 0, a22 = 0, b1 = 0, b2 = 0;
+                for (int i = 0; i < n; i++) {
+                    double dx = px - xs[i];
+                    double dy = py - ys[i];
+                    double range = Math.sqrt(dx * dx + dy * dy);
+                    if (range < 1e-9) {
+                        continue; // Gradient undefined on top of a beacon
+                    }
+                    double jx = dx / range;
+                    double jy = dy / range;
+                    double r = range - ds[i];
+                    double w = weight(ds[i]);
+                    a11 += w * jx * jx;
+                    a12 += w * jx * jy;
+                    a22 += w * jy * jy;
+                    b1 -= w * jx * r;
+                    b2 -= w * jy * r;
+                }
+                double det = a11 * a22 - a12 * a12;
+                if (Math.abs(det) < 1e-12) {
+                    break; // Beacons are collinear; keep the best estimate so far
+                }
+                double stepX = (a22 * b1 - a12 * b2) / det;
+                double stepY = (a11 * b2 - a12 * b1) / det;
+                px += stepX;
+                py += stepY;
+                if (stepX * stepX + stepY * stepY < CONVERGED_M * CONVERGED_M) {
+                    break;
+                }
+            }
+        }
+
+        double sumSquares = 0;
+        for (int i = 0; i < n; i++) {
+            double dx = px - xs[i];
+            double dy = py - ys[i];
+            double r = Math.sqrt(dx * dx + dy * dy) - ds[i];
+            sumSquares += weight(ds[i]) * r * r;
+        }
+        out[0] = px;
+        out[1] = py;
+        out[2] = Math.sqrt(sumSquares / sumW);
+        return true;
+    }
+
+    private static double weight(double distance) {
+        double d = Math.max(distance, MIN_DISTANCE_M);
+        return 1.0 / (d * d);
+    }
+}
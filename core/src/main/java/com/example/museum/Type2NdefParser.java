@@ -0,0 +1,111 @@
+package com.example.museum;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * Type2NdefParser finds the NDEF message in the memory of an NFC Forum Type 2 tag (NTAG,
+ * MIFARE Ultralight), so the reader mode path can read it with raw NfcA READ commands
+ * instead of waiting for the platform's NDEF check. Page 3 holds the capability container
+ * (magic 0xE1, version, data area size / 8, access); the data area starts at page 4 and
+ * holds TLV blocks: NULL (0x00), Lock Control (0x01), Memory Control (0x02), NDEF Message
+ * (0x03), proprietary (0xFD) and Terminator (0xFE). Lengths are one byte, or 0xFF followed
+ * by a two byte big-endian length. The parser works on a partial read of the data area and
+ * reports when more bytes are needed, so the reader stops after the last page it needs.
+ */
+public final class Type2NdefParser {
+
+    public static final int PAGE_SIZE = 4;
+    public static final int CC_PAGE = 3;
+    public static final int DATA_START_PAGE = 4;
+
+    // Bytes returned by one READ command: four pages
+    public static final int READ_SIZE = 16;
+
+    private static final int CC_MAGIC = 0xE1;
+
+    private static final int TLV_NULL = 0x00;
+    private static final int TLV_NDEF = 0x03;
+    private static final int TLV_TERMINATOR = 0xFE;
+
+    private Type2NdefParser() {
+    }
+
+    // Where the NDEF message sits in the data area
+    public static final class Location {
+        private final int offset;
+        private final int length;
+
+        Location(int offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+
+        // Offset of the message from the start of the data area
+        public int getOffset() {
+            return offset;
+        }
+
+        // Message length in bytes; 0 for an empty (freshly formatted) tag
+        public int getLength() {
+            return length;
+        }
+
+        // Data area bytes that must be read to hold the whole message
+        public int getEnd() {
+            return offset + length;
+        }
+    }
+
+    // Size of the data area in bytes from the capability container, or -1 if the tag is not NDEF formatted
+    public static int dataAreaSize(byte[] cc, int offset) {
+        if (cc == null || cc.length < offset + PAGE_SIZE || (cc[offset] & 0xFF) != CC_MAGIC) {
+            return -1;
+        }
+        return (cc[offset + 2] & 0xFF) * 8;
+    }
+
+    // Find the NDEF TLV in the first available bytes of the data area. Returns null if those bytes
+    // end before the NDEF TLV header does, so more must be read. Throws IllegalArgumentException
+    // if the tag holds no NDEF message or the TLV structure is damaged.
+    public static Location locate(byte[] data, int available) {
+        int pos = 0;
+        while (pos < available) {
+            int type = data[pos] & 0xFF;
+            if (type == TLV_NULL) {
+                pos++;
+                continue;
+            }
+            if (type == TLV_TERMINATOR) {
+                throw new IllegalArgumentException("Tag holds no NDEF message");
+            }
+
+            // Read the one or three byte length field
+            if (pos + 1 >= available) {
+                return null;
+            }
+            int length = data[pos + 1] & 0xFF;
+            int header = 2;
+            if (length == 0xFF) {
+                if (pos + 3 >= available) {
+                    return null;
+                }
+                length = ((data[pos + 2] & 0xFF) << 8) | (data[pos + 3] & 0xFF);
+                header = 4;
+            }
+            if (type == TLV_NDEF) {
+                return new Location(pos + header, length);
+            }
+            // Lock Control, Memory Control and proprietary TLVs are skipped
+            pos += header + length;
+        }
+        return null;
+    }
+
+    // Copy the NDEF message out of the data area once at least location.getEnd() bytes are available
+    public static byte[] extract(byte[] data, Location location) {
+        byte[] message = new byte[location.getLength()];
+        System.arraycopy(data, location.getOffset(), message, 0, message.length);
+        return message;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.museum;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * Zone is a named room or area of the floor plan, described by a simple polygon in
+ * floor-plan meters.
+ */
+public final class Zone {
+
+    private final String name;
+    private final double[] xs;
+    private final double[] ys;
+
+    public Zone(String name, double[] xs, double[] ys) {
+        if (xs.length != ys.length || xs.length < 3) {
+            throw new IllegalArgumentException("A zone needs at least three corners");
+        }
+        this.name = name;
+        this.xs = xs.clone();
+        this.ys = ys.clone();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Even-odd ray casting point-in-polygon test
+    public boolean contains(double x, double y) {
+        boolean inside = false;
+        for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+            if ((ys[i] > y) != (ys[j] > y)
+                    && x < (xs[j] - xs[i]) * (y - ys[i]) / (ys[j] - ys[i]) + xs[i]) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.museum;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * ZoneClassifier turns position estimates into the room or zone the visitor is in.
+ * Position estimates jitter near walls, so the reported zone only changes after the
+ * same new zone has been seen for a number of consecutive estimates (hysteresis).
+ */
+public final class ZoneClassifier {
+
+    private final List<Zone> zones;
+    private final int confirmations;
+
+    private Zone current;
+    private Zone candidate;
+    private int candidateCount;
+
+    public ZoneClassifier(List<Zone> zones, int confirmations) {
+        this.zones = new ArrayList<>(zones);
+        this.confirmations = Math.max(1, confirmations);
+    }
+
+    // Zone containing the point, without hysteresis; null if outside every zone
+    public Zone zoneAt(double x, double y) {
+        for (int i = 0; i < zones.size(); i++) {
+            Zone zone = zones.get(i);
+            if (zone.contains(x, y)) {
+                return zone;
+            }
+        }
+        return null;
+    }
+
+    // Feed a position estimate and return the confirmed zone (null until one is confirmed)
+    public Zone classify(double x, double y) {
+        Zone zone = zoneAt(x, y);
+        if (zone == current) {
+            candidate = null;
+            candidateCount = 0;
+            return current;
+        }
+        if (zone == candidate) {
+            candidateCount++;
+        } else {
+            candidate = zone;
+            candidateCount = 1;
+        }
+        if (current == null || candidateCount >= confirmations) {
+            current = zone;
+            candidate = null;
+            candidateCount = 0;
+        }
+        return current;
+    }
+
+    public Zone current() {
+        return current;
+    }
+
+    public void reset() {
+        current = null;
+        candidate = null;
+        candidateCount = 0;
+    }
+}
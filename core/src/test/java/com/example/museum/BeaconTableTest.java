@@ -0,0 +1,97 @@
+package com.example.museum;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for BeaconTable address packing and slot bookkeeping, checked against a HashMap.
+ */
+public class BeaconTableTest {
+
+    @Test
+    public void parsesMacAddresses() {
+        assertEquals(0xAABBCCDDEEFFL, BeaconTable.parseMac("AA:BB:CC:DD:EE:FF"));
+        assertEquals(0xAABBCCDDEEFFL, BeaconTable.parseMac("aa:bb:cc:dd:ee:ff"));
+        assertEquals(0L, BeaconTable.parseMac("00:00:00:00:00:00"));
+        assertEquals(0xFFFFFFFFFFFFL, BeaconTable.parseMac(new StringBuilder("FF:FF:FF:FF:FF:FF")));
+    }
+
+    @Test
+    public void rejectsMalformedAddresses() {
+        assertEquals(BeaconTable.INVALID_MAC, BeaconTable.parseMac(null));
+        assertEquals(BeaconTable.INVALID_MAC, BeaconTable.parseMac(""));
+        assertEquals(BeaconTable.INVALID_MAC, BeaconTable.parseMac("AA:BB:CC:DD:EE"));
+        assertEquals(BeaconTable.INVALID_MAC, BeaconTable.parseMac("AA-BB-CC-DD-EE-FF"));
+        assertEquals(BeaconTable.INVALID_MAC, BeaconTable.parseMac("AA:BB:CC:DD:EE:FG"));
+        assertEquals(BeaconTable.INVALID_MAC, BeaconTable.parseMac("AA:BB:CC:DD:EE:F\u0130"));
+        assertEquals(BeaconTable.INVALID_MAC, BeaconTable.parseMac("AA:BB:CC:DD:EEFF:"));
+        assertEquals(BeaconTable.INVALID_MAC, BeaconTable.parseMac("AA:BB:CC:DD:EE:-1"));
+        assertEquals(BeaconTable.NO_SLOT, new BeaconTable(4).acquire(BeaconTable.INVALID_MAC, "", "BlueCharm"));
+    }
+
+    @Test
+    public void slotsAreStableAndReused() {
+        BeaconTable table = new BeaconTable(2);
+        int a = table.acquire(1, "A", "BlueCharm_A");
+        int b = table.acquire(2, "B", "BlueCharm_B");
+        assertNotEquals(a, b);
+        assertEquals(a, table.acquire(1, "A", "BlueCharm_A"));
+        assertEquals(BeaconTable.NO_SLOT, table.acquire(3, "C", "BlueCharm_C"));
+
+        table.update(b, -60, 1.5, 1000);
+        assertEquals(-60, table.getRssi(b));
+        assertEquals(1.5, table.getDistance(b), 0.0);
+        assertEquals(1000, table.getLastSeen(b));
+
+        assertEquals(a, table.remove(1));
+        assertFalse(table.isUsed(a));
+        assertEquals(BeaconTable.NO_SLOT, table.slotOf(1));
+        assertEquals(a, table.acquire(3, "C", "BlueCharm_C"));
+        assertEquals("C", table.getAddress(a));
+        assertEquals(b, table.slotOf(2));
+    }
+
+    @Test
+    public void matchesHashMapUnderRandomChurn() {
+        Random random = new Random(11);
+        BeaconTable table = new BeaconTable(64);
+        Map<Long, Integer> expected = new HashMap<>();
+        Set<Integer> usedSlots = new HashSet<>();
+
+        for (int step = 0; step < 200000; step++) {
+            // A small key space with a shared vendor prefix forces collisions and deletions in probe runs
+            long mac = 0xC0FFEE000000L | random.nextInt(96);
+            if (random.nextInt(3) == 0) {
+                Integer slot = expected.remove(mac);
+                assertEquals(slot == null ? BeaconTable.NO_SLOT : slot, table.remove(mac));
+                if (slot != null) {
+                    usedSlots.remove(slot);
+                }
+            } else {
+                int slot = table.acquire(mac, null, null);
+                Integer known = expected.get(mac);
+                if (known != null) {
+                    assertEquals((int) known, slot);
+                } else if (expected.size() == table.capacity()) {
+                    assertEquals(BeaconTable.NO_SLOT, slot);
+                } else {
+                    assertTrue(usedSlots.add(slot));
+                    expected.put(mac, slot);
+                }
+            }
+            assertEquals(expected.size(), table.size());
+        }
+        for (int i = 0; i < 96; i++) {
+            long mac = 0xC0FFEE000000L | i;
+            Integer slot = expected.get(mac);
+            assertEquals(slot == null ? BeaconTable.NO_SLOT : slot, table.slotOf(mac));
+        }
+    }
+}
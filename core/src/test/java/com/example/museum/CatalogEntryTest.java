@@ -0,0 +1,95 @@
+package com.example.museum;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for resolving decoded payloads through the exhibit catalog and its content versions.
+ */
+public class CatalogEntryTest {
+
+    private static final Exhibit STARRY_NIGHT = new Exhibit("P12", "Starry Night", "Oil on canvas.",
+            "https://museum.example/p12", "https://museum.example/p12.jpg", "");
+
+    private final Map<String, CatalogEntry> rows = new HashMap<>();
+    private int lookups;
+
+    private final CatalogEntry.Lookup lookup = new CatalogEntry.Lookup() {
+        @Override
+        public CatalogEntry get(String id) {
+            lookups++;
+            return rows.get(id);
+        }
+    };
+
+    @Before
+    public void setUp() {
+        rows.put("P12", new CatalogEntry(STARRY_NIGHT, 3));
+    }
+
+    @Test
+    public void idOnlyPayloadResolvesToCatalogContent() {
+        Exhibit resolved = CatalogEntry.resolve(new Exhibit("P12", null, null, null, null, null), lookup);
+        assertEquals(STARRY_NIGHT, resolved);
+        assertEquals(1, lookups);
+    }
+
+    @Test
+    public void inlinePayloadIsReturnedWithoutLookup() {
+        Exhibit inline = new Exhibit("P12", "Edited title", "", "", "", "");
+        assertSame(inline, CatalogEntry.resolve(inline, lookup));
+        assertEquals(0, lookups);
+    }
+
+    @Test
+    public void unknownIdResolvesToNull() {
+        assertNull(CatalogEntry.resolve(new Exhibit("X99", null, null, null, null, null), lookup));
+    }
+
+    @Test
+    public void nullPayloadResolvesToNull() {
+        assertNull(CatalogEntry.resolve(null, lookup));
+        assertEquals(0, lookups);
+    }
+
+    @Test
+    public void payloadWithoutIdIsNotLookedUp() {
+        Exhibit empty = new Exhibit(null, null, null, null, null, null);
+        assertSame(empty, CatalogEntry.resolve(empty, lookup));
+        assertEquals(0, lookups);
+    }
+
+    @Test
+    public void newExhibitStartsAtTheInitialVersion() {
+        assertEquals(CatalogEntry.INITIAL_VERSION, CatalogEntry.versionFor(null, STARRY_NIGHT));
+    }
+
+    @Test
+    public void unchangedContentKeepsItsVersion() {
+        Exhibit reloaded = new Exhibit("P12", "Starry Night", "Oil on canvas.",
+                "https://museum.example/p12", "https://museum.example/p12.jpg", "");
+        assertEquals(3, CatalogEntry.versionFor(rows.get("P12"), reloaded));
+    }
+
+    @Test
+    public void changedContentBumpsTheVersion() {
+        Exhibit edited = new Exhibit("P12", "Starry Night", "Oil on canvas, June 1889.",
+                "https://museum.example/p12", "https://museum.example/p12.jpg", "");
+        assertEquals(4, CatalogEntry.versionFor(rows.get("P12"), edited));
+        // A plaque printed for the new content is then no newer than the catalog
+        assertFalse(new CatalogEntry(edited, CatalogEntry.versionFor(rows.get("P12"), edited)).isOlderThan(4));
+    }
+
+    @Test
+    public void printedVersionNewerThanStoredIsDetected() {
+        CatalogEntry entry = rows.get("P12");
+        assertTrue(entry.isOlderThan(4));
+        assertFalse(entry.isOlderThan(3));
+        assertFalse(entry.isOlderThan(CatalogEntry.INITIAL_VERSION));
+    }
+}
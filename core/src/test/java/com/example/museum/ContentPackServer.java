@@ -0,0 +1,94 @@
+package com.example.museum;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Local stand-in for the content pack server, serving "version", "delta/&lt;from&gt;" and
+ * "pack" from memory on a loopback port so ContentPackUpdater can be tested without a network.
+ */
+public class ContentPackServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final Map<Integer, byte[]> deltas = new HashMap<>();
+    private volatile int version;
+    private volatile byte[] pack;
+    private volatile boolean corruptPack;
+    private volatile int requests;
+
+    public ContentPackServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                requests++;
+                String path = exchange.getRequestURI().getPath();
+                byte[] body = null;
+                if (path.equals("/version")) {
+                    body = Integer.toString(version).getBytes(StandardCharsets.US_ASCII);
+                } else if (path.equals("/pack")) {
+                    body = pack;
+                    if (body != null && corruptPack) {
+                        body = body.clone();
+                        body[body.length - 1] ^= 1;
+                    }
+                } else if (path.startsWith("/delta/")) {
+                    synchronized (deltas) {
+                        body = deltas.get(Integer.parseInt(path.substring("/delta/".length())));
+                    }
+                }
+                if (body == null) {
+                    exchange.sendResponseHeaders(404, -1);
+                } else {
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                }
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    // Base URL to give ContentPackUpdater
+    public String url() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/";
+    }
+
+    // Publish a pack as the latest version
+    public void publish(byte[] pack) {
+        this.pack = pack;
+        this.version = ByteBuffer.wrap(pack).getInt(ContentPack.OFFSET_PACK_VERSION);
+    }
+
+    public void publishDelta(int fromVersion, byte[] delta) {
+        synchronized (deltas) {
+            deltas.put(fromVersion, delta);
+        }
+    }
+
+    // Flip a bit in the served full pack, so its checksum fails
+    public void setCorruptPack(boolean corruptPack) {
+        this.corruptPack = corruptPack;
+    }
+
+    public int getRequests() {
+        return requests;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.museum;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the content pack format and builder.
+ */
+public class ContentPackTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    static Exhibit exhibit(String id, String title) {
+        return new Exhibit(id, title, "Body of " + title, "https://museum.example/" + id,
+                "https://museum.example/img/" + id + ".jpg", "");
+    }
+
+    static byte[] thumbnail(String id, int size) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) (id.hashCode() * 31 + i * 7);
+        }
+        return bytes;
+    }
+
+    // A pack of n exhibits; every tenth one has no thumbnail
+    static byte[] pack(int packVersion, int n) {
+        ContentPackBuilder builder = new ContentPackBuilder(packVersion);
+        for (int i = 0; i < n; i++) {
+            String id = "P" + i;
+            builder.add(exhibit(id, "Exhibit " + i), packVersion, i % 10 == 0 ? null : thumbnail(id, 2000 + i));
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void looksUpEveryExhibitFromMappedFile() throws IOException {
+        File file = folder.newFile("content.pack");
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(pack(3, 200));
+        }
+        ContentPack pack = ContentPack.open(file);
+        assertEquals(3, pack.getPackVersion());
+        assertEquals(200, pack.size());
+        assertTrue(pack.verify());
+        for (int i = 0; i < 200; i++) {
+            String id = "P" + i;
+            assertEquals(exhibit(id, "Exhibit " + i), pack.get(id));
+            assertEquals(id, pack.idAt(pack.indexOf(id)));
+            if (i % 10 == 0) {
+                assertNull(pack.getThumbnail(id));
+            } else {
+                assertArrayEquals(thumbnail(id, 2000 + i), pack.getThumbnailBytes(id));
+            }
+        }
+        assertEquals(-1, pack.indexOf("P200"));
+        assertNull(pack.get(""));
+    }
+
+    @Test
+    public void thumbnailIsReadOnlySliceOfPack() throws IOException {
+        ContentPack pack = ContentPack.wrap(pack(1, 3));
+        ByteBuffer thumbnail = pack.getThumbnail("P1");
+        assertTrue(thumbnail.isReadOnly());
+        assertEquals(0, thumbnail.position());
+        assertEquals(2001, thumbnail.remaining());
+    }
+
+    @Test
+    public void idsAreOrderedByUtf8Bytes() throws IOException {
+        byte[] bytes = new ContentPackBuilder(1)
+                .add(exhibit("b", "B"), 1, null)
+                .add(exhibit("é", "E acute"), 1, null)
+                .add(exhibit("A", "A"), 1, null)
+                .add(exhibit("AA", "AA"), 1, null)
+                .build();
+        ContentPack pack = ContentPack.wrap(bytes);
+        assertEquals("A", pack.idAt(0));
+        assertEquals("AA", pack.idAt(1));
+        assertEquals("b", pack.idAt(2));
+        assertEquals("é", pack.idAt(3));
+        assertEquals("E acute", pack.get("é").getTitle());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicateIdsAreRejected() {
+        new ContentPackBuilder(1).add(exhibit("P1", "One"), 1, null).add(exhibit("P1", "Again"), 1, null).build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void oversizedThumbnailIsRejected() {
+        new ContentPackBuilder(1).add(exhibit("P1", "One"), 1, new byte[ContentPackBuilder.MAX_THUMBNAIL_BYTES + 1]);
+    }
+
+    @Test
+    public void damageIsDetected() throws IOException {
+        byte[] bytes = pack(1, 20);
+        bytes[bytes.length - 5] ^= 0x40;
+        assertFalse(ContentPack.wrap(bytes).verify());
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedPackIsRejected() throws IOException {
+        byte[] bytes = pack(1, 20);
+        byte[] truncated = new byte[bytes.length - 1];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        ContentPack.wrap(truncated);
+    }
+
+    @Test
+    public void unchangedExhibitsKeepTheirContentVersion() throws IOException {
+        ContentPack previous = ContentPack.wrap(pack(4, 5));
+        assertEquals(4, ContentPackBuilder.contentVersion(exhibit("P1", "Exhibit 1"), thumbnail("P1", 2001), previous, 5));
+        assertEquals(4, ContentPackBuilder.contentVersion(exhibit("P0", "Exhibit 0"), null, previous, 5));
+        assertEquals(5, ContentPackBuilder.contentVersion(exhibit("P1", "Renamed"), thumbnail("P1", 2001), previous, 5));
+        assertEquals(5, ContentPackBuilder.contentVersion(exhibit("P1", "Exhibit 1"), thumbnail("P1", 99), previous, 5));
+        assertEquals(5, ContentPackBuilder.contentVersion(exhibit("P9", "New"), null, previous, 5));
+        assertEquals(5, ContentPackBuilder.contentVersion(exhibit("P1", "Exhibit 1"), null, null, 5));
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.museum;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for downloading content pack updates, against a local ContentPackServer.
+ */
+public class ContentPackUpdaterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ContentPackServer server;
+    private File packFile;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new ContentPackServer();
+        packFile = new File(folder.getRoot(), "content.pack");
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    private void install(byte[] pack) throws IOException {
+        try (OutputStream out = new FileOutputStream(packFile)) {
+            out.write(pack);
+        }
+    }
+
+    @Test
+    public void firstUpdateDownloadsFullPack() throws IOException {
+        byte[] pack = ContentPackTest.pack(3, 100);
+        server.publish(pack);
+
+        ContentPackUpdater.Result result = new ContentPackUpdater(server.url()).update(packFile);
+        assertTrue(result.isUpdated());
+        assertFalse(result.isDelta());
+        assertEquals(-1, result.getFromVersion());
+        assertEquals(3, result.getToVersion());
+        assertEquals(3, ContentPack.open(packFile).getPackVersion());
+        assertEquals(100, ContentPack.open(packFile).size());
+    }
+
+    @Test
+    public void updateUsesDeltaWhenAvailable() throws IOException {
+        byte[] base = ContentPackTest.pack(1, 100);
+        byte[] target = ContentPackTest.pack(2, 101);
+        install(base);
+        server.publish(target);
+        server.publishDelta(1, PackDelta.create(ByteBuffer.wrap(base), ByteBuffer.wrap(target), 1, 2));
+
+        ContentPackUpdater.Result result = new ContentPackUpdater(server.url()).update(packFile);
+        assertTrue(result.isDelta());
+        assertEquals(1, result.getFromVersion());
+        assertEquals(2, result.getToVersion());
+        assertTrue(result.getBytesDownloaded() < target.length);
+        assertEquals(101, ContentPack.open(packFile).size());
+        assertTrue(ContentPack.open(packFile).verify());
+        assertFalse(new File(packFile.getPath() + ".tmp").exists());
+    }
+
+    @Test
+    public void fallsBackToFullPackWithoutDelta() throws IOException {
+        install(ContentPackTest.pack(1, 10));
+        server.publish(ContentPackTest.pack(5, 12));
+
+        ContentPackUpdater.Result result = new ContentPackUpdater(server.url()).update(packFile);
+        assertFalse(result.isDelta());
+        assertEquals(5, result.getToVersion());
+        assertEquals(12, ContentPack.open(packFile).size());
+    }
+
+    @Test
+    public void fallsBackToFullPackWhenDeltaIsForAnotherBase() throws IOException {
+        byte[] otherBase = ContentPackTest.pack(1, 11);
+        byte[] target = ContentPackTest.pack(2, 12);
+        install(ContentPackTest.pack(1, 10));
+        server.publish(target);
+        server.publishDelta(1, PackDelta.create(ByteBuffer.wrap(otherBase), ByteBuffer.wrap(target), 1, 2));
+
+        ContentPackUpdater.Result result = new ContentPackUpdater(server.url()).update(packFile);
+        assertFalse(result.isDelta());
+        assertEquals(12, ContentPack.open(packFile).size());
+    }
+
+    @Test
+    public void upToDatePackIsNotDownloaded() throws IOException {
+        install(ContentPackTest.pack(4, 10));
+        server.publish(ContentPackTest.pack(4, 10));
+
+        ContentPackUpdater.Result result = new ContentPackUpdater(server.url()).update(packFile);
+        assertFalse(result.isUpdated());
+        assertEquals(1, server.getRequests());
+    }
+
+    @Test
+    public void damagedDownloadKeepsInstalledPack() throws IOException {
+        install(ContentPackTest.pack(1, 10));
+        server.publish(ContentPackTest.pack(2, 12));
+        server.setCorruptPack(true);
+
+        try {
+            new ContentPackUpdater(server.url()).update(packFile);
+            fail("Damaged pack was installed");
+        } catch (IOException expected) {
+            // The installed pack is untouched
+        }
+        assertEquals(1, ContentPack.open(packFile).getPackVersion());
+        assertFalse(new File(packFile.getPath() + ".tmp").exists());
+    }
+}
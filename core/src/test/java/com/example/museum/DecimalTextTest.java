@@ -0,0 +1,41 @@
+package com.example.museum;
+
+import org.junit.Test;
+
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for allocation-light fixed-point formatting, checked against String.format.
+ */
+public class DecimalTextTest {
+
+    @Test
+    public void matchesStringFormat() {
+        double[] values = {0, 0.04, 0.05, 0.96, 1, 1.25, 2.999, 12.345, 100.001, -0.4, -3.14159, 1234.5};
+        for (double value : values) {
+            for (int decimals = 0; decimals <= 3; decimals++) {
+                String expected = String.format(Locale.US, "%." + decimals + "f", value);
+                if (expected.matches("-0(\\.0*)?")) {
+                    expected = expected.substring(1); // Negative zero is shown without a sign
+                }
+                assertEquals(value + " to " + decimals, expected,
+                        DecimalText.appendFixed(new StringBuilder(), value, decimals).toString());
+            }
+        }
+    }
+
+    @Test
+    public void appendsToExistingText() {
+        StringBuilder out = new StringBuilder("d=");
+        DecimalText.appendFixed(out, 3.5, 2).append(" m");
+        assertEquals("d=3.50 m", out.toString());
+    }
+
+    @Test
+    public void nonFiniteValuesAreWrittenAsIs() {
+        assertEquals("NaN", DecimalText.appendFixed(new StringBuilder(), Double.NaN, 1).toString());
+        assertEquals("Infinity", DecimalText.appendFixed(new StringBuilder(), Double.POSITIVE_INFINITY, 1).toString());
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.museum;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for DistanceModel lookup tables and advertised power parsing.
+ */
+public class DistanceModelTest {
+
+    @Test
+    public void tableMatchesPathLossFormula() {
+        DistanceModel.Profile profile = new DistanceModel(1).profile(-59, 2.0);
+        for (int rssi = DistanceModel.MIN_RSSI; rssi <= DistanceModel.MAX_RSSI; rssi++) {
+            double expected = Math.pow(10, (-59 - rssi) / 20.0);
+            assertEquals(expected, profile.distance(rssi), expected * 1e-12);
+        }
+        assertEquals(1.0, profile.distance(-59), 1e-12);
+    }
+
+    @Test
+    public void interpolatesFractionalRssi() {
+        DistanceModel.Profile profile = new DistanceModel(1).profile(-59, 2.0);
+        double between = profile.distance(-70.5);
+        assertTrue(between > profile.distance(-70) && between < profile.distance(-71));
+        assertEquals(Math.pow(10, (-59 + 70.5) / 20.0), between, 0.05);
+    }
+
+    @Test
+    public void clampsOutOfRangeRssi() {
+        DistanceModel.Profile profile = new DistanceModel(1).getDefaultProfile();
+        assertEquals(profile.distance(DistanceModel.MIN_RSSI), profile.distance(-200), 0.0);
+        assertEquals(profile.distance(DistanceModel.MAX_RSSI), profile.distance(12), 0.0);
+        assertTrue(Double.isNaN(profile.distance(Double.NaN)));
+    }
+
+    @Test
+    public void slotsFallBackToDefaultProfile() {
+        DistanceModel model = new DistanceModel(2);
+        assertFalse(model.isAssigned(0));
+        assertSame(model.getDefaultProfile(), model.profileOf(0));
+        assertEquals(1.0, model.distance(0, DistanceModel.DEFAULT_MEASURED_POWER), 1e-12);
+
+        model.assign(1, model.profile(-65, 2.4));
+        assertTrue(model.isAssigned(1));
+        assertEquals(1.0, model.distance(1, -65), 1e-12);
+        assertNotEquals(model.distance(0, -80), model.distance(1, -80), 1e-6);
+
+        model.assign(1, null);
+        assertSame(model.getDefaultProfile(), model.profileOf(1));
+    }
+
+    @Test
+    public void profilesWithSameParametersAreShared() {
+        DistanceModel model = new DistanceModel(1);
+        assertSame(model.profile(-65, 2.4), model.profile(-65, 2.4));
+        assertNotSame(model.profile(-65, 2.4), model.profile(-65, 2.5));
+        assertNotSame(model.profile(-65, 2.4), model.profile(-66, 2.4));
+    }
+
+    @Test
+    public void readsIBeaconMeasuredPower() {
+        byte[] data = new byte[23];
+        data[0] = 0x02;
+        data[1] = 0x15;
+        data[22] = (byte) -61;
+        assertEquals(-61, DistanceModel.measuredPowerFromIBeacon(data));
+        assertEquals(DistanceModel.UNKNOWN_POWER, DistanceModel.measuredPowerFromIBeacon(new byte[]{0x02, 0x15}));
+        assertEquals(DistanceModel.UNKNOWN_POWER, DistanceModel.measuredPowerFromIBeacon(null));
+        data[0] = 0x03;
+        assertEquals(DistanceModel.UNKNOWN_POWER, DistanceModel.measuredPowerFromIBeacon(data));
+    }
+
+    @Test
+    public void readsEddystoneAndTxPowerLevel() {
+        assertEquals(-20 - 41, DistanceModel.measuredPowerFromEddystone(new byte[]{0x00, (byte) -20, 0, 0}));
+        assertEquals(-18 - 41, DistanceModel.measuredPowerFromEddystone(new byte[]{0x10, (byte) -18, 0x03}));
+        assertEquals(DistanceModel.UNKNOWN_POWER, DistanceModel.measuredPowerFromEddystone(new byte[]{0x20, 0x00}));
+        assertEquals(-4 - 41, DistanceModel.measuredPowerFromTxPowerLevel(-4));
+        assertEquals(DistanceModel.UNKNOWN_POWER, DistanceModel.measuredPowerFromTxPowerLevel(Integer.MIN_VALUE));
+    }
+}
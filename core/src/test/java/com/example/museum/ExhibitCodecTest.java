@@ -0,0 +1,134 @@
+package com.example.museum;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the binary exhibit payload and its LEB128 length prefixes.
+ */
+public class ExhibitCodecTest {
+
+    private static final Exhibit COMPLETE = new Exhibit("P12", "Starry Night", "Oil on canvas, 1889.",
+            "https://museum.example/p12", "https://museum.example/p12.jpg", "https://video.example/p12");
+
+    @Test
+    public void completeExhibitRoundTrips() {
+        byte[] payload = ExhibitCodec.encode(COMPLETE);
+        assertEquals(ExhibitCodec.VERSION, payload[0]);
+        assertEquals(ExhibitCodec.FIELD_COUNT, payload[1]);
+        assertEquals(COMPLETE, ExhibitCodec.decode(payload));
+    }
+
+    @Test
+    public void idOnlyExhibitRoundTripsInEightBytes() {
+        Exhibit idOnly = new Exhibit("P12", null, null, null, null, null);
+        byte[] payload = ExhibitCodec.encode(idOnly);
+        // Version, count, one length and three ID bytes, five empty fields
+        assertEquals(2 + 1 + 3 + 5, payload.length);
+        Exhibit decoded = ExhibitCodec.decode(payload);
+        assertEquals(idOnly, decoded);
+        assertTrue(decoded.isIdOnly());
+    }
+
+    @Test
+    public void emptyAndNonAsciiStringsRoundTrip() {
+        Exhibit exhibit = new Exhibit("", "Café — 北斎", "", "", "🖼", "");
+        assertEquals(exhibit, ExhibitCodec.decode(ExhibitCodec.encode(exhibit)));
+    }
+
+    @Test
+    public void lengthsOfTwoAndThreeVarIntBytesRoundTrip() {
+        String twoBytes = repeat('a', 200);
+        String threeBytes = repeat('b', 20000);
+        Exhibit exhibit = new Exhibit("P1", twoBytes, threeBytes, "", "", "");
+        byte[] payload = ExhibitCodec.encode(exhibit);
+        assertEquals(2 + (1 + 2) + (2 + 200) + (3 + 20000) + 3, payload.length);
+        assertEquals(exhibit, ExhibitCodec.decode(payload));
+    }
+
+    @Test
+    public void varIntBoundaries() {
+        assertEquals(1, ExhibitCodec.varIntSize(127));
+        assertEquals(2, ExhibitCodec.varIntSize(128));
+        assertEquals(2, ExhibitCodec.varIntSize(16383));
+        assertEquals(3, ExhibitCodec.varIntSize(16384));
+
+        byte[] out = new byte[3];
+        assertEquals(2, ExhibitCodec.writeVarInt(out, 0, 128));
+        assertArrayEquals(new byte[]{(byte) 0x80, 0x01, 0}, out);
+        assertEquals(3, ExhibitCodec.writeVarInt(out, 0, 16384));
+        assertArrayEquals(new byte[]{(byte) 0x80, (byte) 0x80, 0x01}, out);
+    }
+
+    @Test
+    public void extraFieldsFromNewerWritersAreIgnored() {
+        byte[] payload = ExhibitCodec.encode(COMPLETE);
+        byte[] newer = Arrays.copyOf(payload, payload.length + 3);
+        newer[1] = ExhibitCodec.FIELD_COUNT + 1;
+        newer[payload.length] = 2;
+        newer[payload.length + 1] = 'x';
+        newer[payload.length + 2] = 'y';
+        assertEquals(COMPLETE, ExhibitCodec.decode(newer));
+    }
+
+    @Test
+    public void truncatedPayloadsAreRejected() {
+        byte[] payload = ExhibitCodec.encode(COMPLETE);
+        for (int length = 0; length < payload.length; length++) {
+            assertRejected(Arrays.copyOf(payload, length));
+        }
+        assertRejected(null);
+    }
+
+    @Test
+    public void truncatedVarIntIsRejected() {
+        // Continuation bit set on the last byte
+        assertRejected(new byte[]{ExhibitCodec.VERSION, 1, (byte) 0x80});
+    }
+
+    @Test
+    public void overLongVarIntIsRejected() {
+        // Six length bytes can only describe a length beyond any payload
+        assertRejected(new byte[]{ExhibitCodec.VERSION, 1, (byte) 0x80, (byte) 0x80, (byte) 0x80,
+                (byte) 0x80, (byte) 0x80, 0x00});
+        // A five byte length that overflows an int
+        assertRejected(new byte[]{ExhibitCodec.VERSION, 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+                (byte) 0xFF, 0x0F});
+    }
+
+    @Test
+    public void lengthPastTheEndIsRejected() {
+        assertRejected(new byte[]{ExhibitCodec.VERSION, 1, 5, 'a', 'b'});
+    }
+
+    @Test
+    public void bytesAfterTheFieldsAreRejected() {
+        byte[] payload = ExhibitCodec.encode(COMPLETE);
+        assertRejected(Arrays.copyOf(payload, payload.length + 1));
+    }
+
+    @Test
+    public void unknownVersionIsRejected() {
+        byte[] payload = ExhibitCodec.encode(COMPLETE);
+        payload[0] = ExhibitCodec.VERSION + 1;
+        assertRejected(payload);
+    }
+
+    private static void assertRejected(byte[] payload) {
+        try {
+            ExhibitCodec.decode(payload);
+            fail("Expected IllegalArgumentException for " + Arrays.toString(payload));
+        } catch (IllegalArgumentException expected) {
+            // Rejected as malformed
+        }
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
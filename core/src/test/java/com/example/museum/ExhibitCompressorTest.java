@@ -0,0 +1,168 @@
+package com.example.museum;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for ExhibitCompressor round trips, the tag space it saves on long exhibit texts,
+ * and its handling of damaged payloads.
+ */
+public class ExhibitCompressorTest {
+
+    // Byte sizes of the NDEF area of the larger common tags
+    private static final int NTAG215_BYTES = 496;
+    private static final int NTAG216_BYTES = 868;
+
+    // Record types written by ExhibitRecords for plain and compressed payloads
+    private static final String EXTERNAL_TYPE = "com.example.museum:exhibit";
+    private static final String COMPRESSED_MIME_TYPE = "application/vnd.museum.exhibit+deflate";
+
+    // NDEF record header: flags byte and type length byte; the payload length takes one byte in a
+    // short record (payloads up to 255 bytes) and four bytes otherwise
+    private static final int RECORD_FLAGS_AND_TYPE_LENGTH = 2;
+    private static final int SHORT_RECORD_MAX_PAYLOAD = 255;
+
+    // Message TLV on a Type 2 tag: tag byte, a one byte length (three bytes from 255 on), and the terminator TLV
+    private static final int TLV_TAG_AND_TERMINATOR = 2;
+    private static final int TLV_SHORT_MAX_LENGTH = 254;
+
+    private static final String PLACARD = "This portrait was painted in the artist's studio on the harbour "
+            + "during the winter of 1887. The sitter, a fisherman's daughter, posed over several weeks while "
+            + "the artist experimented with a palette limited to earth pigments and lead white. Look closely "
+            + "at the hands: the artist scraped back the paint with the handle of the brush to let the ground "
+            + "show through, a technique he returned to in his later harbour scenes. The frame is original.";
+
+    private static final String ESSAY = "The gallery you are standing in was built in 1911 as the museum's "
+            + "first purpose-built exhibition room. Its skylights were designed to give an even north light "
+            + "across the long wall, and the paintings hung here today were chosen because they were painted "
+            + "under similar light. Start at the left with the three coastal studies. Each was painted in a "
+            + "single sitting, outdoors, on a prepared panel small enough to fit in the artist's paint box. "
+            + "The artist wrote in a letter to his sister that he worked quickly to catch the light before the "
+            + "tide turned, and the loose brushwork in the water shows that speed. Move along to the large "
+            + "canvas in the centre of the wall. Unlike the studies, this painting took more than two years to "
+            + "complete. X-ray images made during its conservation in 1998 show that the artist moved the "
+            + "horizon line twice and painted out a second boat that once sat beside the harbour wall. The "
+            + "painting was first shown at the city's spring exhibition, where critics praised the handling of "
+            + "the sky but found the figures in the foreground too rough. The museum acquired it in 1923. "
+            + "Finally, the small drawings in the case to your right are preparatory sketches for the central "
+            + "canvas. They are shown together here for the first time since they left the artist's studio. "
+            + "Notice how the position of the boats changes from sheet to sheet as the composition develops.";
+
+    @Test
+    public void roundTripsExhibitPayloads() {
+        Exhibit exhibit = new Exhibit("A12", "The Starry Night", repeat("A swirling night sky over a quiet village. ", 20),
+                "https://museum.example/a12", "https://museum.example/img/a12.jpg", "");
+        byte[] plain = ExhibitCodec.encode(exhibit);
+        byte[] compressed = ExhibitCompressor.compress(plain);
+        assertTrue(compressed.length < plain.length);
+        assertEquals(exhibit, ExhibitCodec.decode(ExhibitCompressor.decompress(compressed)));
+    }
+
+    @Test
+    public void longTextsFitSmallerTagsWhenCompressed() {
+        // Long texts are what overflow tags, and that is where compression has to pay off
+        byte[] essay = ExhibitCodec.encode(exhibit("G01", "The North Light Gallery", ESSAY));
+        byte[] compressedEssay = ExhibitCompressor.compress(essay);
+        assertTrue(compressedEssay.length < essay.length * 0.7);
+        assertTrue(tagBytes(EXTERNAL_TYPE, essay.length) > NTAG216_BYTES);
+        assertTrue(tagBytes(COMPRESSED_MIME_TYPE, compressedEssay.length) <= NTAG216_BYTES);
+
+        byte[] placard = ExhibitCodec.encode(exhibit("P07", "Portrait of a Fisherman's Daughter", PLACARD));
+        byte[] compressedPlacard = ExhibitCompressor.compress(placard);
+        assertTrue(tagBytes(EXTERNAL_TYPE, placard.length) > NTAG215_BYTES);
+        assertTrue(tagBytes(COMPRESSED_MIME_TYPE, compressedPlacard.length) <= NTAG215_BYTES);
+    }
+
+    @Test
+    public void idOnlyPayloadDoesNotShrink() {
+        // Which is why the writer keeps the smaller of the two records
+        byte[] idOnly = ExhibitCodec.encode(new Exhibit("S01", null, null, null, null, null));
+        assertTrue(ExhibitCompressor.compress(idOnly).length >= idOnly.length);
+    }
+
+    @Test
+    public void roundTripsEmptyAndIncompressibleData() {
+        assertArrayEquals(new byte[0], ExhibitCompressor.decompress(ExhibitCompressor.compress(new byte[0])));
+
+        byte[] random = new byte[5000];
+        new Random(5).nextBytes(random);
+        assertArrayEquals(random, ExhibitCompressor.decompress(ExhibitCompressor.compress(random)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTruncatedPayload() {
+        byte[] compressed = ExhibitCompressor.compress(repeat("Water lilies ", 50).getBytes(StandardCharsets.UTF_8));
+        ExhibitCompressor.decompress(Arrays.copyOf(compressed, compressed.length / 2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsCorruptPayload() {
+        byte[] compressed = ExhibitCompressor.compress(repeat("Water lilies ", 50).getBytes(StandardCharsets.UTF_8));
+        for (int i = 2; i < compressed.length; i++) {
+            compressed[i] = (byte) 0xFF;
+        }
+        ExhibitCompressor.decompress(compressed);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void refusesOversizedDeclaredLength() {
+        // Declares 1 MB of output, which no exhibit needs
+        ExhibitCompressor.decompress(new byte[]{(byte) 0x80, (byte) 0x80, 0x40, 0x03, 0x00});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsBytesAfterDeflateData() {
+        byte[] compressed = ExhibitCompressor.compress(repeat("Water lilies ", 50).getBytes(StandardCharsets.UTF_8));
+        ExhibitCompressor.decompress(Arrays.copyOf(compressed, compressed.length + 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsDataLongerThanDeclaredLength() {
+        byte[] plain = repeat("Water lilies ", 50).getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = ExhibitCompressor.compress(plain);
+        // Same deflate data, but a length prefix one byte short of what it inflates to
+        int prefix = ExhibitCodec.varIntSize(plain.length);
+        byte[] shorter = new byte[compressed.length];
+        int pos = ExhibitCodec.writeVarInt(shorter, 0, plain.length - 1);
+        assertEquals(prefix, pos);
+        System.arraycopy(compressed, prefix, shorter, pos, compressed.length - prefix);
+        ExhibitCompressor.decompress(shorter);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTrailingBytesAfterEmptyPayload() {
+        byte[] compressed = ExhibitCompressor.compress(new byte[0]);
+        ExhibitCompressor.decompress(Arrays.copyOf(compressed, compressed.length + 2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMissingLengthPrefix() {
+        ExhibitCompressor.decompress(new byte[0]);
+    }
+
+    private static Exhibit exhibit(String id, String title, String body) {
+        return new Exhibit(id, title, body, "https://museum.example/exhibits/" + id.toLowerCase(),
+                "https://museum.example/img/" + id.toLowerCase() + ".jpg", "");
+    }
+
+    // Bytes a single-record message with this type and payload takes on a tag
+    private static int tagBytes(String type, int payloadLength) {
+        int payloadLengthBytes = payloadLength <= SHORT_RECORD_MAX_PAYLOAD ? 1 : 4;
+        int record = RECORD_FLAGS_AND_TYPE_LENGTH + payloadLengthBytes + type.length() + payloadLength;
+        int tlvLengthBytes = record <= TLV_SHORT_MAX_LENGTH ? 1 : 3;
+        return TLV_TAG_AND_TERMINATOR + tlvLengthBytes + record;
+    }
+
+    private static String repeat(String text, int times) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            sb.append(text);
+        }
+        return sb.toString();
+    }
+}
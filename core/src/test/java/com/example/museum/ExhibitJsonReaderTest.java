@@ -0,0 +1,77 @@
+package com.example.museum;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for ExhibitJsonReader, covering the exhibit JSON written by the NFC
+ * writer and encoded in QR codes, plus unknown fields, escapes and malformed input.
+ */
+public class ExhibitJsonReaderTest {
+
+    private static final String FULL = "{\"ID\":\"A12\",\"Title\":\"Sunflowers\",\"Body\":\"Oil on canvas\","
+            + "\"URL\":\"https://museum.example/a12\",\"ImageLink\":\"https://museum.example/a12.jpg\","
+            + "\"VideoLink\":\"https://museum.example/a12.mp4\"}";
+
+    @Test
+    public void readsAllKnownFields() {
+        ExhibitJsonReader.Result result = ExhibitJsonReader.read(FULL);
+        assertTrue(result.isComplete());
+        assertEquals(new Exhibit("A12", "Sunflowers", "Oil on canvas", "https://museum.example/a12",
+                "https://museum.example/a12.jpg", "https://museum.example/a12.mp4"), result.getExhibit());
+        assertEquals(Collections.emptyList(), result.getMissingKeys());
+    }
+
+    @Test
+    public void skipsUnknownFieldsOfEveryShape() {
+        String json = "{ \"Extra\": {\"a\": [1, 2, {\"b\": \"}\"}]}, \"Title\": \"T\", \"n\": -1.5e3,"
+                + " \"Body\": \"B\", \"flag\": true, \"URL\": \"U\", \"list\": [\"]\", null],"
+                + " \"ImageLink\": \"I\", \"VideoLink\": \"V\" }";
+        ExhibitJsonReader.Result result = ExhibitJsonReader.read(json);
+        assertTrue(result.isComplete());
+        assertEquals("T", result.getExhibit().getTitle());
+        assertEquals("V", result.getExhibit().getVideoLink());
+        assertTrue(result.isMissing("ID"));
+    }
+
+    @Test
+    public void decodesEscapes() {
+        String json = "{\"Title\":\"Caf\\u00e9 \\\"Nuit\\\"\",\"Body\":\"line1\\nline2\",\"URL\":\"https:\\/\\/x\","
+                + "\"ImageLink\":\"\",\"VideoLink\":\"\"}";
+        Exhibit exhibit = ExhibitJsonReader.read(json).getExhibit();
+        assertEquals("Café \"Nuit\"", exhibit.getTitle());
+        assertEquals("line1\nline2", exhibit.getBody());
+        assertEquals("https://x", exhibit.getUrl());
+    }
+
+    @Test
+    public void reportsMissingKeysWithoutThrowing() {
+        ExhibitJsonReader.Result result = ExhibitJsonReader.read("{\"ID\":\"A12\",\"Title\":\"T\"}");
+        assertFalse(result.isComplete());
+        assertNull(result.getError());
+        assertNotNull(result.getExhibit());
+        assertEquals(Arrays.asList("Body", "URL", "ImageLink", "VideoLink"), result.getMissingKeys());
+    }
+
+    @Test
+    public void reportsMalformedInputWithoutThrowing() {
+        String[] inputs = {null, "", "not json", "{\"Title\":\"T\"", "{\"Title\" \"T\"}", "{\"Title\":\"T\"} x", "[1]"};
+        for (String input : inputs) {
+            ExhibitJsonReader.Result result = ExhibitJsonReader.read(input);
+            assertFalse(input, result.isComplete());
+            assertNull(input, result.getExhibit());
+            assertNotNull(input, result.getError());
+        }
+    }
+
+    @Test
+    public void coercesScalarsLikeJsonObject() {
+        ExhibitJsonReader.Result result = ExhibitJsonReader.read("{\"ID\":42,\"Title\":null}");
+        assertEquals("42", result.getExhibit().getId());
+        assertTrue(result.isMissing("Title"));
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.museum;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the exhibit cache's tag and payload lookups and its byte-budgeted eviction.
+ */
+public class ExhibitLruCacheTest {
+
+    private static final Exhibit STARRY_NIGHT = new Exhibit("P12", "Starry Night", "Oil on canvas.",
+            "https://museum.example/p12", "https://museum.example/p12.jpg", "");
+    private static final Exhibit WATER_LILIES = new Exhibit("P13", "Water Lilies", "Oil on canvas.",
+            "https://museum.example/p13", "https://museum.example/p13.jpg", "");
+
+    private static final byte[] UID = {0x04, 0x1A, 0x2B, 0x3C, 0x4D, 0x5E, 0x6F};
+
+    @Test
+    public void tagLookupMatchesEqualUidBytes() {
+        ExhibitLruCache cache = new ExhibitLruCache(64 * 1024);
+        cache.putByTag(UID, STARRY_NIGHT);
+        assertSame(STARRY_NIGHT, cache.getByTag(UID.clone()));
+        assertNull(cache.getByTag(new byte[]{0x04, 0x1A}));
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    public void tagAndPayloadWithSameBytesAreSeparateEntries() {
+        ExhibitLruCache cache = new ExhibitLruCache(64 * 1024);
+        cache.putByTag(UID, STARRY_NIGHT);
+        cache.putByPayload(UID.clone(), WATER_LILIES);
+        assertSame(STARRY_NIGHT, cache.getByTag(UID));
+        assertSame(WATER_LILIES, cache.getByPayload(UID));
+    }
+
+    @Test
+    public void qrTextLookup() {
+        ExhibitLruCache cache = new ExhibitLruCache(64 * 1024);
+        cache.putByPayload("{\"ID\":\"P12\"}", STARRY_NIGHT);
+        assertSame(STARRY_NIGHT, cache.getByPayload(new String("{\"ID\":\"P12\"}")));
+        assertNull(cache.getByPayload("{\"ID\":\"P13\"}"));
+    }
+
+    @Test
+    public void nullKeysAndValuesAreIgnored() {
+        ExhibitLruCache cache = new ExhibitLruCache(64 * 1024);
+        cache.putByTag(null, STARRY_NIGHT);
+        cache.putByTag(UID, null);
+        cache.putByPayload((String) null, STARRY_NIGHT);
+        assertNull(cache.getByTag(null));
+        assertNull(cache.getByPayload((byte[]) null));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void rereadReplacesStaleTagEntry() {
+        ExhibitLruCache cache = new ExhibitLruCache(64 * 1024);
+        cache.putByTag(UID, STARRY_NIGHT);
+        int sizeWithOne = cache.size();
+        cache.putByTag(UID, WATER_LILIES);
+        assertSame(WATER_LILIES, cache.getByTag(UID));
+        assertEquals(sizeWithOne, cache.size());
+    }
+
+    @Test
+    public void invalidatedTagIsForgotten() {
+        ExhibitLruCache cache = new ExhibitLruCache(64 * 1024);
+        cache.putByTag(UID, STARRY_NIGHT);
+        cache.invalidateTag(UID.clone());
+        assertNull(cache.getByTag(UID));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.evictionCount());
+    }
+
+    @Test
+    public void invalidatedExhibitIsForgottenUnderEveryKey() {
+        ExhibitLruCache cache = new ExhibitLruCache(64 * 1024);
+        cache.putByTag(UID, STARRY_NIGHT);
+        cache.putByPayload(new byte[]{0x01, 'P', '1', '2'}, STARRY_NIGHT);
+        cache.putByPayload("MUS:P12/1", STARRY_NIGHT);
+        cache.putByPayload("MUS:P13/1", WATER_LILIES);
+        ExhibitLruCache other = new ExhibitLruCache(64 * 1024);
+        other.putByPayload("MUS:P13/1", WATER_LILIES);
+
+        cache.invalidateExhibit("P12");
+        assertNull(cache.getByTag(UID));
+        assertNull(cache.getByPayload(new byte[]{0x01, 'P', '1', '2'}));
+        assertNull(cache.getByPayload("MUS:P12/1"));
+        assertSame(WATER_LILIES, cache.getByPayload("MUS:P13/1"));
+        assertEquals(other.size(), cache.size());
+        assertEquals(0, cache.evictionCount());
+    }
+
+    @Test
+    public void leastRecentlyUsedEntryIsEvictedFirst() {
+        ExhibitLruCache probe = new ExhibitLruCache(Integer.MAX_VALUE);
+        probe.putByPayload("a", STARRY_NIGHT);
+        int entrySize = probe.size();
+
+        // Room for exactly two entries of this size
+        ExhibitLruCache cache = new ExhibitLruCache(2 * entrySize);
+        cache.putByPayload("a", STARRY_NIGHT);
+        cache.putByPayload("b", STARRY_NIGHT);
+        assertNotNull(cache.getByPayload("a"));
+        cache.putByPayload("c", STARRY_NIGHT);
+
+        assertNotNull(cache.getByPayload("a"));
+        assertNull(cache.getByPayload("b"));
+        assertNotNull(cache.getByPayload("c"));
+        assertEquals(1, cache.evictionCount());
+        assertEquals(2 * entrySize, cache.size());
+    }
+
+    @Test
+    public void entryLargerThanBudgetIsNotKept() {
+        ExhibitLruCache cache = new ExhibitLruCache(16);
+        cache.putByPayload("a", STARRY_NIGHT);
+        assertNull(cache.getByPayload("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void trimAndEvictAllReleaseBytes() {
+        ExhibitLruCache cache = new ExhibitLruCache(64 * 1024);
+        cache.putByPayload("a", STARRY_NIGHT);
+        cache.putByPayload("b", WATER_LILIES);
+        cache.putByTag(UID, STARRY_NIGHT);
+        int full = cache.size();
+
+        cache.trimToSize(full / 2);
+        assertTrue(cache.size() <= full / 2);
+        assertNull(cache.getByPayload("a"));
+        assertNotNull(cache.getByTag(UID));
+
+        cache.evictAll();
+        assertEquals(0, cache.size());
+        assertNull(cache.getByTag(UID));
+        assertEquals(64 * 1024, cache.maxSize());
+    }
+}
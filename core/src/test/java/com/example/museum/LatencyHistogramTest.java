@@ -0,0 +1,115 @@
+package com.example.museum;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the lock-free log-linear latency histogram.
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void emptyHistogramHasNoPercentiles() {
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram("empty").snapshot();
+        assertEquals(0, snapshot.getCount());
+        assertEquals(-1, snapshot.percentileNanos(50));
+        assertEquals("empty: no samples", snapshot.toString());
+    }
+
+    @Test
+    public void bucketsCoverEveryValueInOrder() {
+        long previousHighest = -1;
+        for (int index = 0; index < LatencyHistogram.BUCKET_COUNT; index++) {
+            long highest = LatencyHistogram.highestNanosOf(index);
+            assertTrue(highest > previousHighest);
+            long lowestUnits = (previousHighest + 1) / LatencyHistogram.UNIT_NANOS;
+            long highestUnits = highest / LatencyHistogram.UNIT_NANOS;
+            assertEquals(index, LatencyHistogram.indexOf(lowestUnits));
+            assertEquals(index, LatencyHistogram.indexOf(highestUnits));
+            previousHighest = highest;
+        }
+        assertEquals(LatencyHistogram.MAX_NANOS + LatencyHistogram.UNIT_NANOS - 1, previousHighest);
+    }
+
+    @Test
+    public void percentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram("uniform");
+        // 1 ms to 1000 ms in 1 ms steps
+        for (int ms = 1; ms <= 1000; ms++) {
+            histogram.record(ms * 1000000L);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(500.5e6, snapshot.getMeanNanos(), 1);
+        assertEquals(1000000000L, snapshot.getMaxNanos());
+        assertWithin(500e6, snapshot.percentileNanos(50));
+        assertWithin(900e6, snapshot.percentileNanos(90));
+        assertWithin(990e6, snapshot.percentileNanos(99));
+        assertEquals(1000000000L, snapshot.percentileNanos(100));
+    }
+
+    @Test
+    public void percentileNeverExceedsMaximum() {
+        LatencyHistogram histogram = new LatencyHistogram("single");
+        histogram.record(12345678);
+        assertEquals(12345678, histogram.snapshot().percentileNanos(50));
+    }
+
+    @Test
+    public void outOfRangeValuesAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram("clamped");
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(2, snapshot.getCount());
+        assertEquals(LatencyHistogram.UNIT_NANOS - 1, snapshot.percentileNanos(50));
+        assertEquals(LatencyHistogram.MAX_NANOS, snapshot.getMaxNanos());
+    }
+
+    @Test
+    public void resetForgetsSamples() {
+        LatencyHistogram histogram = new LatencyHistogram("reset");
+        histogram.record(5000000);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.snapshot().getMaxNanos());
+        assertEquals(-1, histogram.snapshot().percentileNanos(99));
+    }
+
+    @Test
+    public void concurrentRecordsAreAllCounted() throws InterruptedException {
+        final LatencyHistogram histogram = new LatencyHistogram("concurrent");
+        final int threads = 4;
+        final int perThread = 20000;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final long seed = t;
+            workers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < perThread; i++) {
+                        histogram.record(random.nextInt(50000000));
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(threads * perThread, snapshot.getCount());
+        assertEquals(threads * perThread, histogram.getCount());
+        assertTrue(snapshot.getMaxNanos() < 50000000);
+        assertWithin(25e6, snapshot.percentileNanos(50));
+    }
+
+    // Within the histogram's 1/64 relative precision
+    private static void assertWithin(double expectedNanos, long actualNanos) {
+        assertEquals(expectedNanos, actualNanos, expectedNanos / 64);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.museum;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the named latency histograms and their CSV export.
+ */
+public class LatencyMetricsTest {
+
+    @Test
+    public void stagesAreCreatedOnceAndListedByName() {
+        LatencyMetrics metrics = new LatencyMetrics();
+        metrics.record("QR: JSON parse", 2000000);
+        metrics.record("NFC: text decode", 1000000);
+        metrics.record("QR: JSON parse", 4000000);
+        assertSame(metrics.histogram("QR: JSON parse"), metrics.histogram("QR: JSON parse"));
+
+        List<LatencyHistogram.Snapshot> snapshots = metrics.snapshots();
+        assertEquals(2, snapshots.size());
+        assertEquals("NFC: text decode", snapshots.get(0).getName());
+        assertEquals("QR: JSON parse", snapshots.get(1).getName());
+        assertEquals(2, snapshots.get(1).getCount());
+    }
+
+    @Test
+    public void csvHasSummaryAndBuckets() throws IOException {
+        LatencyMetrics metrics = new LatencyMetrics();
+        metrics.record("tap, to render", 8000000);
+        metrics.histogram("unused");
+
+        StringBuilder csv = new StringBuilder();
+        metrics.writeCsv(csv);
+        String[] lines = csv.toString().split("\\r?\\n");
+
+        assertEquals("stage,count,mean_ms,p50_ms,p90_ms,p99_ms,max_ms", lines[0]);
+        assertEquals("\"tap, to render\",1,8.000,8.000,8.000,8.000,8.000", lines[1]);
+        assertEquals("unused,0,,,,,", lines[2]);
+        assertEquals("", lines[3]);
+        assertEquals("stage,bucket_upper_ms,count", lines[4]);
+        assertTrue(lines[5].startsWith("\"tap, to render\",8."));
+        assertTrue(lines[5].endsWith(",1"));
+        assertEquals(6, lines.length);
+    }
+
+    @Test
+    public void resetKeepsStages() {
+        LatencyMetrics metrics = new LatencyMetrics();
+        metrics.record("stage", 1000000);
+        metrics.reset();
+        assertEquals(1, metrics.snapshots().size());
+        assertEquals("stage: no samples\n", metrics.summary());
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.museum;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for NFC Forum Text record payloads.
+ */
+public class NdefTextTest {
+
+    @Test
+    public void roundTripsUtf8Text() {
+        String text = "{\"Title\":\"Café Terrace at Night — 月\"}";
+        byte[] payload = NdefText.encode(text);
+        assertEquals(2, payload[0]);
+        assertEquals("en", NdefText.languageCode(payload));
+        assertEquals(text, NdefText.decode(payload));
+    }
+
+    @Test
+    public void decodesLongLanguageCodes() {
+        // The old readers masked the length with 0x33 and cut "en-US" (5 = 0b101) to 1 byte
+        byte[] payload = NdefText.encode("Hello", "en-US");
+        assertEquals("en-US", NdefText.languageCode(payload));
+        assertEquals("Hello", NdefText.decode(payload));
+    }
+
+    @Test
+    public void decodesUtf16Text() {
+        byte[] text = "Gallery 7".getBytes(StandardCharsets.UTF_16);
+        byte[] payload = new byte[3 + text.length];
+        payload[0] = (byte) (0x80 | 2);
+        payload[1] = 'f';
+        payload[2] = 'r';
+        System.arraycopy(text, 0, payload, 3, text.length);
+        assertEquals("Gallery 7", NdefText.decode(payload));
+    }
+
+    @Test
+    public void emptyTextIsAllowed() {
+        assertEquals("", NdefText.decode(NdefText.encode("")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void languageCodePastPayloadIsRejected() {
+        NdefText.decode(new byte[]{5, 'e', 'n'});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyPayloadIsRejected() {
+        NdefText.decode(new byte[0]);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.museum;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for binary deltas between content pack versions.
+ */
+public class PackDeltaTest {
+
+    private static byte[] apply(byte[] base, byte[] delta) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PackDelta.apply(ByteBuffer.wrap(base), ByteBuffer.wrap(delta), out);
+        return out.toByteArray();
+    }
+
+    // Version 2 of the 200-exhibit pack: one exhibit edited, one thumbnail replaced, one exhibit added
+    private static byte[] editedPack() {
+        ContentPackBuilder builder = new ContentPackBuilder(2);
+        for (int i = 0; i < 200; i++) {
+            String id = "P" + i;
+            String title = i == 42 ? "Exhibit 42, restored" : "Exhibit " + i;
+            byte[] thumbnail = i % 10 == 0 ? null : ContentPackTest.thumbnail(id, i == 77 ? 2500 : 2000 + i);
+            builder.add(ContentPackTest.exhibit(id, title), i == 42 || i == 77 ? 2 : 1, thumbnail);
+        }
+        builder.add(ContentPackTest.exhibit("P200", "New arrival"), 2, ContentPackTest.thumbnail("P200", 3000));
+        return builder.build();
+    }
+
+    @Test
+    public void deltaRebuildsTargetAndIsSmall() throws IOException {
+        byte[] base = ContentPackTest.pack(1, 200);
+        byte[] target = editedPack();
+        byte[] delta = PackDelta.create(ByteBuffer.wrap(base), ByteBuffer.wrap(target), 1, 2);
+
+        assertArrayEquals(target, apply(base, delta));
+        assertEquals(1, PackDelta.baseVersion(ByteBuffer.wrap(delta)));
+        assertEquals(2, PackDelta.targetVersion(ByteBuffer.wrap(delta)));
+        // Mostly the new exhibit, the new thumbnail and the rewritten index
+        assertTrue("delta is " + delta.length + " of " + target.length + " bytes", delta.length < target.length / 10);
+
+        ContentPack pack = ContentPack.wrap(apply(base, delta));
+        assertTrue(pack.verify());
+        assertEquals("Exhibit 42, restored", pack.get("P42").getTitle());
+        assertEquals(2, pack.versionAt(pack.indexOf("P42")));
+        assertEquals("New arrival", pack.get("P200").getTitle());
+    }
+
+    @Test
+    public void deltaBetweenUnrelatedContent() throws IOException {
+        byte[] base = new byte[1000];
+        byte[] target = new byte[777];
+        for (int i = 0; i < target.length; i++) {
+            target[i] = (byte) (i * 13 + 5);
+        }
+        assertArrayEquals(target, apply(base, PackDelta.create(ByteBuffer.wrap(base), ByteBuffer.wrap(target), 1, 2)));
+        assertArrayEquals(new byte[0], apply(base, PackDelta.create(ByteBuffer.wrap(base), ByteBuffer.wrap(new byte[0]), 1, 2)));
+        assertArrayEquals(target, apply(new byte[0], PackDelta.create(ByteBuffer.wrap(new byte[0]), ByteBuffer.wrap(target), 1, 2)));
+    }
+
+    @Test(expected = IOException.class)
+    public void deltaIsRefusedForWrongBase() throws IOException {
+        byte[] base = ContentPackTest.pack(1, 50);
+        byte[] delta = PackDelta.create(ByteBuffer.wrap(base), ByteBuffer.wrap(ContentPackTest.pack(2, 51)), 1, 2);
+        base[base.length - 1] ^= 1;
+        apply(base, delta);
+    }
+
+    @Test(expected = IOException.class)
+    public void damagedDeltaIsRefused() throws IOException {
+        byte[] base = ContentPackTest.pack(1, 50);
+        byte[] delta = PackDelta.create(ByteBuffer.wrap(base), ByteBuffer.wrap(ContentPackTest.pack(2, 51)), 1, 2);
+        delta[delta.length - 1] ^= 1;
+        apply(base, delta);
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedDeltaIsRefused() throws IOException {
+        byte[] base = ContentPackTest.pack(1, 50);
+        byte[] delta = PackDelta.create(ByteBuffer.wrap(base), ByteBuffer.wrap(ContentPackTest.pack(2, 51)), 1, 2);
+        byte[] truncated = new byte[delta.length - 3];
+        System.arraycopy(delta, 0, truncated, 0, truncated.length);
+        apply(base, truncated);
+    }
+}
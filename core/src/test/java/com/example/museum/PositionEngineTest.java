@@ -0,0 +1,149 @@
+package com.example.museum;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for PositionEngine and ZoneClassifier over synthetic RSSI fields. A hall of
+ * beacons on a regular grid is simulated with the log-distance path loss model used by
+ * BLEList plus Gaussian shadowing noise, and the estimated positions and zones are
+ * checked against the true visitor positions.
+ */
+public class PositionEngineTest {
+
+    // Log-distance model parameters, matching BLEList
+    private static final double MEASURED_POWER = -72;
+    private static final double PATH_LOSS_EXPONENT = 2.4;
+
+    // A 100 m x 40 m hall with a beacon every 5 m (189 beacons), split into two galleries
+    private static final int COLUMNS = 21;
+    private static final int ROWS = 9;
+    private static final double SPACING = 5;
+
+    private FloorPlan floorPlan;
+
+    @Before
+    public void setUp() throws IOException {
+        StringBuilder csv = new StringBuilder("# synthetic hall\n");
+        for (int c = 0; c < COLUMNS; c++) {
+            for (int r = 0; r < ROWS; r++) {
+                csv.append(String.format(Locale.US, "beacon,%s,%.1f,%.1f%n", address(c, r), c * SPACING, r * SPACING));
+            }
+        }
+        csv.append("zone,West Gallery,0,0,50,0,50,40,0,40\n");
+        csv.append("zone,East Gallery,50,0,100,0,100,40,50,40\n");
+        floorPlan = FloorPlan.parse(new StringReader(csv.toString()));
+    }
+
+    @Test
+    public void parsesFloorPlan() {
+        assertEquals(COLUMNS * ROWS, floorPlan.getRegistry().size());
+        assertEquals(2, floorPlan.getZones().size());
+        assertNotNull(floorPlan.getRegistry().get(address(3, 4).toLowerCase(Locale.US)));
+    }
+
+    @Test
+    public void parsesExhibitsNextToBeacons() throws IOException {
+        FloorPlan plan = FloorPlan.parse(new StringReader(
+                "beacon,AA:BB:CC:00:00:01,0,0\nexhibit,aa:bb:cc:00:00:01,P1,P2\nexhibit,AA:BB:CC:00:00:01,P3\n"));
+        assertEquals(Arrays.asList("P1", "P2", "P3"), plan.getExhibits("AA:BB:CC:00:00:01"));
+        assertTrue(plan.getExhibits("AA:BB:CC:00:00:02").isEmpty());
+        assertTrue(floorPlan.getExhibitsByBeacon().isEmpty());
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsMalformedFloorPlan() throws IOException {
+        FloorPlan.parse(new StringReader("beacon,AA:BB,1\n"));
+    }
+
+    @Test
+    public void noiselessFieldGivesExactPosition() {
+        PositionEngine engine = new PositionEngine(floorPlan);
+        feedField(engine, 23.0, 17.0, 0, new Random(1), 1000);
+        PositionEngine.Position position = engine.estimate(1000);
+        assertNotNull(position);
+        assertEquals(23.0, position.getX(), 0.05);
+        assertEquals(17.0, position.getY(), 0.05);
+        assertEquals(PositionEngine.MAX_BEACONS_USED, position.getBeaconsUsed());
+    }
+
+    @Test
+    public void noisyFieldStaysWithinAFewMeters() {
+        Random random = new Random(42);
+        double totalError = 0;
+        int trials = 200;
+        for (int i = 0; i < trials; i++) {
+            PositionEngine engine = new PositionEngine(floorPlan);
+            double x = 5 + random.nextDouble() * 90;
+            double y = 5 + random.nextDouble() * 30;
+            feedField(engine, x, y, 3.0, random, 1000);
+            PositionEngine.Position position = engine.estimate(1000);
+            assertNotNull(position);
+            totalError += Math.hypot(position.getX() - x, position.getY() - y);
+        }
+        double meanError = totalError / trials;
+        assertTrue("mean error " + meanError + " m", meanError < 3.0);
+    }
+
+    @Test
+    public void ignoresStaleAndUnknownBeacons() {
+        PositionEngine engine = new PositionEngine(floorPlan);
+        engine.update("00:00:00:00:00:00", 1.0, 0);
+        assertNull(engine.estimate(0));
+
+        feedField(engine, 10, 10, 0, new Random(3), 0);
+        assertNotNull(engine.estimate(PositionEngine.MAX_AGE_MS));
+        assertNull(engine.estimate(PositionEngine.MAX_AGE_MS + 1));
+    }
+
+    @Test
+    public void zoneChangesOnlyAfterConfirmation() {
+        PositionEngine engine = new PositionEngine(floorPlan);
+        // Steps are longer than MAX_AGE_MS so beacons that fell out of range do not linger
+        long now = 0;
+        for (int i = 0; i < 3; i++) {
+            feedField(engine, 40, 20, 0, new Random(i), now);
+            assertEquals("West Gallery", engine.estimate(now).getZone().getName());
+            now += 2 * PositionEngine.MAX_AGE_MS;
+        }
+
+        // A single estimate across the boundary does not switch zones
+        feedField(engine, 60, 20, 0, new Random(9), now);
+        assertEquals("West Gallery", engine.estimate(now).getZone().getName());
+
+        now += 2 * PositionEngine.MAX_AGE_MS;
+        feedField(engine, 60, 20, 0, new Random(10), now);
+        assertEquals("West Gallery", engine.estimate(now).getZone().getName());
+
+        now += 2 * PositionEngine.MAX_AGE_MS;
+        feedField(engine, 60, 20, 0, new Random(11), now);
+        assertEquals("East Gallery", engine.estimate(now).getZone().getName());
+    }
+
+    // Simulate one scan: every beacon within radio range reports a noisy RSSI, converted back to meters
+    private static void feedField(PositionEngine engine, double x, double y, double noiseDb, Random random, long now) {
+        for (int c = 0; c < COLUMNS; c++) {
+            for (int r = 0; r < ROWS; r++) {
+                double d = Math.max(0.1, Math.hypot(c * SPACING - x, r * SPACING - y));
+                double rssi = MEASURED_POWER - 10 * PATH_LOSS_EXPONENT * Math.log10(d) + random.nextGaussian() * noiseDb;
+                if (rssi < -100) {
+                    continue; // Out of range
+                }
+                double estimated = Math.pow(10, (MEASURED_POWER - rssi) / (10 * PATH_LOSS_EXPONENT));
+                engine.update(address(c, r), estimated, now);
+            }
+        }
+    }
+
+    private static String address(int column, int row) {
+        return String.format(Locale.US, "C4:7F:51:00:%02X:%02X", column, row);
+    }
+}
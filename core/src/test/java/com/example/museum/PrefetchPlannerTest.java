@@ -0,0 +1,141 @@
+package com.example.museum;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for choosing which exhibit images to prefetch from nearby beacons.
+ */
+public class PrefetchPlannerTest {
+
+    private static final String ENTRANCE = "AA:BB:CC:00:00:01";
+    private static final String GALLERY = "AA:BB:CC:00:00:02";
+    private static final String HALL = "AA:BB:CC:00:00:03";
+
+    private Map<String, List<String>> exhibits;
+
+    @Before
+    public void setUp() {
+        exhibits = new HashMap<>();
+        exhibits.put(ENTRANCE, Arrays.asList("P1", "P2"));
+        exhibits.put(GALLERY, Arrays.asList("P2", "P3", "P4"));
+        exhibits.put(HALL, Collections.singletonList("P9"));
+    }
+
+    private PrefetchPlanner planner(int maxInFlight, int maxPerWindow) {
+        return new PrefetchPlanner(exhibits, 6, 9, maxInFlight, maxPerWindow, 60000);
+    }
+
+    @Test
+    public void startsNearestExhibitsFirstWithinInFlightLimit() {
+        PrefetchPlanner planner = planner(2, 10);
+        planner.onBeacon(ENTRANCE, 4.0, 0);
+        planner.onBeacon(GALLERY, 1.5, 0);
+        planner.onBeacon(HALL, 20.0, 0);
+
+        PrefetchPlanner.Plan plan = planner.plan(0);
+        // P2 is under both beacons and takes the nearer one's distance
+        assertEquals(Arrays.asList("P2", "P3"), plan.getStart());
+        assertTrue(plan.getCancel().isEmpty());
+        assertEquals(2, planner.getInFlight());
+
+        planner.onFinished("P2", true, 100);
+        assertEquals(Collections.singletonList("P4"), planner.plan(100).getStart());
+        planner.onFinished("P3", true, 200);
+        planner.onFinished("P4", false, 200);
+        // P4 failed and is retried; warmed P2 and P3 are not; P9 is too far away
+        assertEquals(Arrays.asList("P4", "P1"), planner.plan(200).getStart());
+    }
+
+    @Test
+    public void farAndUnknownBeaconsStartNothing() {
+        PrefetchPlanner planner = planner(2, 10);
+        planner.onBeacon(HALL, 6.5, 0);
+        planner.onBeacon("AA:BB:CC:00:00:99", 0.5, 0);
+        assertTrue(planner.plan(0).isEmpty());
+    }
+
+    @Test
+    public void cancelsOnlyPastTheLeaveRadius() {
+        PrefetchPlanner planner = planner(4, 10);
+        planner.onBeacon(HALL, 5.0, 0);
+        assertEquals(Collections.singletonList("P9"), planner.plan(0).getStart());
+
+        // Between the radii the prefetch carries on
+        planner.onBeacon(HALL, 8.0, 1000);
+        assertTrue(planner.plan(1000).isEmpty());
+
+        planner.onBeacon(HALL, 12.0, 2000);
+        PrefetchPlanner.Plan plan = planner.plan(2000);
+        assertEquals(Collections.singletonList("P9"), plan.getCancel());
+        assertFalse(planner.isInFlight("P9"));
+        assertEquals(1, planner.getCancelled());
+
+        // A late completion of a cancelled prefetch is ignored
+        planner.onFinished("P9", true, 2100);
+        assertEquals(0, planner.getCompleted());
+    }
+
+    @Test
+    public void cancelsWhenBeaconGoesQuiet() {
+        PrefetchPlanner planner = planner(4, 10);
+        planner.onBeacon(HALL, 2.0, 0);
+        planner.plan(0);
+        assertTrue(planner.plan(PrefetchPlanner.STALE_BEACON_MS).getCancel().isEmpty());
+        assertEquals(Collections.singletonList("P9"), planner.plan(PrefetchPlanner.STALE_BEACON_MS + 1).getCancel());
+    }
+
+    @Test
+    public void windowBudgetLimitsStarts() {
+        PrefetchPlanner planner = planner(10, 3);
+        planner.onBeacon(ENTRANCE, 1.0, 0);
+        planner.onBeacon(GALLERY, 2.0, 0);
+        assertEquals(3, planner.plan(0).getStart().size());
+        for (String id : Arrays.asList("P1", "P2", "P3", "P4")) {
+            planner.onFinished(id, true, 10);
+        }
+        assertTrue(planner.plan(30000).getStart().isEmpty());
+        assertTrue(planner.getDeferred() > 0);
+
+        planner.onBeacon(GALLERY, 2.0, 59000);
+        assertTrue(planner.plan(59999).getStart().isEmpty());
+        assertEquals(Collections.singletonList("P4"), planner.plan(60000).getStart());
+    }
+
+    @Test
+    public void warmedImagesAreFetchedAgainAfterWarmPeriod() {
+        PrefetchPlanner planner = planner(4, 100);
+        planner.onBeacon(HALL, 1.0, 0);
+        planner.plan(0);
+        planner.onFinished("P9", true, 0);
+
+        planner.onBeacon(HALL, 1.0, PrefetchPlanner.WARM_MS - 1);
+        assertTrue(planner.plan(PrefetchPlanner.WARM_MS - 1).isEmpty());
+        planner.onBeacon(HALL, 1.0, PrefetchPlanner.WARM_MS);
+        assertEquals(Collections.singletonList("P9"), planner.plan(PrefetchPlanner.WARM_MS).getStart());
+    }
+
+    @Test
+    public void cancelAllReturnsEverythingInFlight() {
+        PrefetchPlanner planner = planner(4, 10);
+        planner.onBeacon(GALLERY, 1.0, 0);
+        planner.plan(0);
+        List<String> cancelled = planner.cancelAll();
+        Collections.sort(cancelled);
+        assertEquals(Arrays.asList("P2", "P3", "P4"), cancelled);
+        assertEquals(0, planner.getInFlight());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void leaveRadiusMustNotBeSmaller() {
+        new PrefetchPlanner(exhibits, 6, 5, 2, 10, 60000);
+    }
+}
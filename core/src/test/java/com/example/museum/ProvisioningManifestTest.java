@@ -0,0 +1,81 @@
+package com.example.museum;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for reading CSV and JSON provisioning manifests.
+ */
+public class ProvisioningManifestTest {
+
+    @Test
+    public void readsCsvWithColumnsInAnyOrder() throws IOException {
+        String csv = "Title,ID,Room,URL\r\n"
+                + "The Starry Night,A12,7,https://museum.example/a12\r\n"
+                + "\"Water Lilies, 1906\",B03,2,\r\n";
+        List<Exhibit> exhibits = ProvisioningManifest.parse(csv);
+        assertEquals(2, exhibits.size());
+        assertEquals(new Exhibit("A12", "The Starry Night", null, "https://museum.example/a12", null, null), exhibits.get(0));
+        assertEquals("Water Lilies, 1906", exhibits.get(1).getTitle());
+        assertEquals("", exhibits.get(1).getUrl());
+    }
+
+    @Test
+    public void readsQuotedFieldsWithQuotesAndLineBreaks() throws IOException {
+        String csv = "ID,Body\n"
+                + "C1,\"He said \"\"hello\"\"\nand left\"\n"
+                + "\n"
+                + "C2,plain\n";
+        List<Exhibit> exhibits = ProvisioningManifest.parse("\uFEFF" + csv);
+        assertEquals(2, exhibits.size());
+        assertEquals("He said \"hello\"\nand left", exhibits.get(0).getBody());
+        assertEquals("plain", exhibits.get(1).getBody());
+    }
+
+    @Test
+    public void readsJsonArray() throws IOException {
+        String json = "  [{\"ID\":\"A12\",\"Title\":\"The Starry Night\",\"Extra\":1},{\"ID\":\"B03\"}]";
+        List<Exhibit> exhibits = ProvisioningManifest.parse(json);
+        assertEquals(2, exhibits.size());
+        assertEquals("The Starry Night", exhibits.get(0).getTitle());
+        assertTrue(exhibits.get(1).isIdOnly());
+    }
+
+    @Test
+    public void reportsMissingIdWithLineNumber() {
+        try {
+            ProvisioningManifest.parse("ID,Title\nA1,One\n\"\",\"Two\nlines\"\n,Three\n");
+            fail("Expected an IOException");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("line 3"));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsCsvWithoutIdColumn() throws IOException {
+        ProvisioningManifest.parse("Title,Body\nOne,Two\n");
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsUnterminatedQuote() throws IOException {
+        ProvisioningManifest.parse("ID,Title\nA1,\"One\n");
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsMalformedJson() throws IOException {
+        ProvisioningManifest.parse("[{\"ID\":\"A1\"");
+    }
+
+    @Test
+    public void fingerprintDependsOnContent() {
+        byte[] a = "ID\nA1\n".getBytes(StandardCharsets.UTF_8);
+        byte[] b = "ID\nA2\n".getBytes(StandardCharsets.UTF_8);
+        assertEquals(ProvisioningManifest.fingerprint(a), ProvisioningManifest.fingerprint(a.clone()));
+        assertNotEquals(ProvisioningManifest.fingerprint(a), ProvisioningManifest.fingerprint(b));
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.museum;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for ProvisioningQueue progress, retries, throughput and persistence.
+ */
+public class ProvisioningQueueTest {
+
+    private static List<Exhibit> exhibits(int count) {
+        List<Exhibit> exhibits = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            exhibits.add(new Exhibit("E" + i, "Exhibit " + i, null, null, null, null));
+        }
+        return exhibits;
+    }
+
+    @Test
+    public void verifiedWritesAdvanceTheQueue() {
+        ProvisioningQueue queue = new ProvisioningQueue(exhibits(2), "m");
+        assertEquals("E0", queue.current().getId());
+        queue.onWritten(0);
+        assertEquals("E1", queue.current().getId());
+        queue.onWritten(1000);
+        assertTrue(queue.isDone());
+        assertNull(queue.current());
+        assertEquals(2, queue.getWritten());
+    }
+
+    @Test
+    public void upToDateTagsAdvanceAsSkipped() {
+        ProvisioningQueue queue = new ProvisioningQueue(exhibits(3), "m");
+        queue.onWritten(0);
+        queue.onSkipped(3000);
+        queue.onSkipped(6000);
+        assertTrue(queue.isDone());
+        assertEquals(1, queue.getWritten());
+        assertEquals(2, queue.getSkipped());
+        assertEquals(0, queue.getFailed());
+        assertEquals(3 * 60000.0 / 6000, queue.getTagsPerMinute(), 1e-9);
+    }
+
+    @Test
+    public void failuresAreRetriedThenSkipped() {
+        ProvisioningQueue queue = new ProvisioningQueue(exhibits(2), "m");
+        for (int i = 1; i < ProvisioningQueue.MAX_ATTEMPTS; i++) {
+            assertFalse(queue.onFailed(i));
+            assertEquals("E0", queue.current().getId());
+        }
+        assertTrue(queue.onFailed(100));
+        assertEquals("E1", queue.current().getId());
+        assertEquals(ProvisioningQueue.MAX_ATTEMPTS - 1, queue.getRetries());
+        assertEquals(1, queue.getFailed());
+        assertEquals(Arrays.asList("E0"), queue.getFailedIds());
+        assertEquals(0, queue.getAttempts());
+    }
+
+    @Test
+    public void throughputIgnoresBreaks() {
+        ProvisioningQueue queue = new ProvisioningQueue(exhibits(4), "m");
+        queue.onWritten(0);
+        queue.onWritten(6000);
+        queue.onWritten(12000);
+        // A long break before the last tag is not counted as provisioning time
+        queue.onWritten(12000 + ProvisioningQueue.IDLE_GAP_MS + 1);
+        assertEquals(4 * 60000.0 / 12000, queue.getTagsPerMinute(), 1e-9);
+    }
+
+    @Test
+    public void progressSurvivesRestart() throws IOException {
+        ProvisioningQueue queue = new ProvisioningQueue(exhibits(5), "manifest-1");
+        queue.onWritten(0);
+        queue.onSkipped(5000);
+        for (int i = 0; i < ProvisioningQueue.MAX_ATTEMPTS; i++) {
+            queue.onFailed(6000 + i);
+        }
+        queue.onFailed(7000);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        queue.save(out);
+
+        ProvisioningQueue restored = new ProvisioningQueue(exhibits(5), "manifest-1");
+        assertTrue(restored.restore(new ByteArrayInputStream(out.toByteArray())));
+        assertEquals(queue.getPosition(), restored.getPosition());
+        assertEquals("E3", restored.current().getId());
+        assertEquals(1, restored.getAttempts());
+        assertEquals(1, restored.getWritten());
+        assertEquals(1, restored.getSkipped());
+        assertEquals(queue.getRetries(), restored.getRetries());
+        assertEquals(Arrays.asList("E2"), restored.getFailedIds());
+        assertEquals(queue.getTagsPerMinute(), restored.getTagsPerMinute(), 1e-9);
+    }
+
+    @Test
+    public void progressForAnotherManifestIsIgnored() throws IOException {
+        ProvisioningQueue queue = new ProvisioningQueue(exhibits(3), "manifest-1");
+        queue.onWritten(0);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        queue.save(out);
+
+        ProvisioningQueue other = new ProvisioningQueue(exhibits(3), "manifest-2");
+        assertFalse(other.restore(new ByteArrayInputStream(out.toByteArray())));
+        assertEquals(0, other.getPosition());
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.museum;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for decoding exhibit QR codes from preview frames with QrFrameDecoder and
+ * QrDecoderPool.
+ */
+public class QrFrameDecoderTest {
+
+    private static final String CODE = "{\"ID\":\"P07\"}";
+
+    @Test
+    public void centredRoiIsSquareInTheMiddle() {
+        assertArrayEquals(new int[]{152, 72, 336, 336}, QrFrameDecoder.centredRoi(640, 480, 0.7));
+        assertArrayEquals(new int[]{0, 0, 640, 480}, QrFrameDecoder.centredRoi(640, 480, 1.0));
+    }
+
+    @Test
+    public void decodesCentredCode() {
+        QrTestFrames.Frame frame = QrTestFrames.withCode(CODE, 5, 8, -6, 42);
+        QrFrameDecoder decoder = QrFrameDecoder.forExhibitCodes(QrFrameDecoder.DEFAULT_ROI_FRACTION);
+        assertEquals(CODE, decoder.decode(frame.data, frame.width, frame.height));
+    }
+
+    @Test
+    public void ignoresCodeOutsideRegionOfInterest() {
+        QrTestFrames.Frame frame = QrTestFrames.withCode(CODE, 5, 240, 0, 42);
+        assertNull(QrFrameDecoder.forExhibitCodes(QrFrameDecoder.DEFAULT_ROI_FRACTION)
+                .decode(frame.data, frame.width, frame.height));
+        assertEquals(CODE, QrFrameDecoder.forAllFormats().decode(frame.data, frame.width, frame.height));
+    }
+
+    @Test
+    public void frameWithoutCodeDecodesToNull() {
+        QrTestFrames.Frame frame = QrTestFrames.withoutCode(7);
+        assertNull(QrFrameDecoder.forExhibitCodes(QrFrameDecoder.DEFAULT_ROI_FRACTION)
+                .decode(frame.data, frame.width, frame.height));
+    }
+
+    @Test
+    public void poolDropsFramesWhileBusy() throws Exception {
+        final CountDownLatch decodedLatch = new CountDownLatch(1);
+        final AtomicReference<String> decoded = new AtomicReference<>();
+        QrDecoderPool pool = new QrDecoderPool(1, QrFrameDecoder.DEFAULT_ROI_FRACTION, new QrDecoderPool.Listener() {
+            @Override
+            public void onDecoded(String text, long decodeNanos) {
+                decoded.set(text);
+                decodedLatch.countDown();
+            }
+        });
+        try {
+            QrTestFrames.Frame frame = QrTestFrames.withCode(CODE, 5, 0, 0, 3);
+            assertTrue(pool.offer(frame.data, frame.width, frame.height));
+            // The only decoder is still busy with the first frame
+            assertFalse(pool.offer(frame.data, frame.width, frame.height));
+            assertTrue(decodedLatch.await(5, TimeUnit.SECONDS));
+            assertEquals(CODE, decoded.get());
+            assertEquals(1, pool.getDropped());
+            assertEquals(2, pool.getOffered());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.museum;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Replays a synthetic scan session through the stock-style decoder (every format, full
+ * frame), the exhibit decoder (QR_CODE only, centred region of interest) and a QrDecoderPool,
+ * checking which frames decode and the order results are delivered in. Decode times are
+ * compared in QrDecodeBenchmark.
+ */
+public class QrFrameReplayTest {
+
+    @Test
+    public void exhibitDecoderReadsTheSameFramesAsStock() {
+        QrFrameDecoder stock = QrFrameDecoder.forAllFormats();
+        QrFrameDecoder exhibit = QrFrameDecoder.forExhibitCodes(QrFrameDecoder.DEFAULT_ROI_FRACTION);
+
+        int codeFrames = 0;
+        int decoded = 0;
+        for (QrTestFrames.Frame frame : QrTestFrames.session()) {
+            String fromStock = stock.decode(frame.data, frame.width, frame.height);
+            String fromExhibit = exhibit.decode(frame.data, frame.width, frame.height);
+            assertEquals(fromStock, fromExhibit);
+            if (frame.text == null) {
+                assertNull(fromExhibit);
+            } else {
+                codeFrames++;
+                if (fromExhibit != null) {
+                    // Never a different code than the one in view
+                    assertEquals(frame.text, fromExhibit);
+                    decoded++;
+                }
+            }
+        }
+        // Only the noisiest small code of the session is missed
+        assertEquals(18, codeFrames);
+        assertEquals(17, decoded);
+    }
+
+    @Test
+    public void poolDeliversResultsInFrameOrder() throws Exception {
+        List<QrTestFrames.Frame> frames = QrTestFrames.session();
+        final List<String> delivered = Collections.synchronizedList(new ArrayList<String>());
+        QrDecoderPool pool = new QrDecoderPool(3, QrFrameDecoder.DEFAULT_ROI_FRACTION, new QrDecoderPool.Listener() {
+            @Override
+            public void onDecoded(String text, long decodeNanos) {
+                delivered.add(text);
+            }
+        });
+        List<String> codes = new ArrayList<>();
+        try {
+            for (QrTestFrames.Frame frame : frames) {
+                // Offer only when a thread is free, so no frame is dropped but several decode at once
+                awaitIdle(pool);
+                assertTrue(pool.offer(frame.data, frame.width, frame.height));
+                if (frame.text != null && !codes.contains(frame.text)) {
+                    codes.add(frame.text);
+                }
+            }
+            // The last frame shows the last code and nothing is newer, so its result is always delivered
+            String lastCode = codes.get(codes.size() - 1);
+            for (int i = 0; i < 500 && !delivered.contains(lastCode); i++) {
+                Thread.sleep(10);
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(0, pool.getDropped());
+        // Results from frames older than one already delivered are discarded, so the codes
+        // arrive in the order the visitor pointed the camera at them
+        List<String> inOrder = new ArrayList<>(delivered);
+        int last = 0;
+        for (String text : inOrder) {
+            int index = codes.indexOf(text);
+            assertTrue(index >= last);
+            last = index;
+        }
+        assertEquals(codes.size() - 1, last);
+    }
+
+    private static void awaitIdle(QrDecoderPool pool) throws InterruptedException {
+        for (int i = 0; i < 500 && !pool.isIdle(); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(pool.isIdle());
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.museum;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for choosing plaque QR payloads and their minimum QR versions in QrPlaqueGenerator.
+ */
+public class QrPlaqueGeneratorTest {
+
+    private static final Exhibit PORTRAIT = new Exhibit("P07", "Portrait of a Fisherman's Daughter",
+            "Painted in the artist's harbour studio during the winter of 1887.",
+            "https://museum.example.org/exhibits/p07", "https://museum.example.org/images/p07.jpg",
+            "https://video.example.org/watch?v=p07");
+
+    @Test
+    public void shortPayloadIsAlphanumericVersionOne() {
+        QrPlaqueGenerator.Plaque plaque = QrPlaqueGenerator.plan(PORTRAIT, 3);
+        assertTrue(plaque.isShort());
+        assertEquals("MUS:P07/3", plaque.getPayload());
+        assertEquals("ALPHANUMERIC", plaque.getMode());
+        assertEquals(1, plaque.getQrVersion());
+        assertTrue(plaque.getInlineQrVersion() >= 10);
+    }
+
+    @Test
+    public void longestShortPayloadStaysSmall() {
+        String id = "ROOM-12.CASE-004.A-1";
+        assertEquals(ShortQrPayload.MAX_ID_LENGTH, id.length());
+        assertTrue(QrPlaqueGenerator.minimumVersion(new ShortQrPayload(id, 999).toString()) <= 2);
+    }
+
+    @Test
+    public void unsuitableIdFallsBackToInlineJson() {
+        Exhibit exhibit = new Exhibit("p07", "Portrait", "Body", "", "", "");
+        QrPlaqueGenerator.Plaque plaque = QrPlaqueGenerator.plan(exhibit, 1);
+        assertFalse(plaque.isShort());
+        assertEquals("p07", ExhibitJsonReader.read(plaque.getPayload()).getExhibit().getId());
+        assertEquals(plaque.getInlineQrVersion(), plaque.getQrVersion());
+    }
+
+    @Test
+    public void payloadTooLargeForAnyCodeHasNoVersion() {
+        StringBuilder body = new StringBuilder();
+        while (body.length() < 4000) {
+            body.append("Notice how the position of the boats changes from sheet to sheet. ");
+        }
+        assertEquals(-1, QrPlaqueGenerator.minimumVersion(body.toString()));
+    }
+
+    @Test
+    public void reportListsEveryExhibit() throws Exception {
+        List<QrPlaqueGenerator.Plaque> plaques = QrPlaqueGenerator.planAll(Arrays.asList(PORTRAIT,
+                new Exhibit("a,b", "T", "B", "", "", "")), 1);
+        StringBuilder report = new StringBuilder();
+        QrPlaqueGenerator.writeReport(plaques, report);
+        String[] lines = report.toString().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("P07,MUS:P07/1,ALPHANUMERIC,1," + plaques.get(0).getInlineQrVersion(), lines[1]);
+        assertTrue(lines[2].startsWith("\"a,b\",\"{"));
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.museum;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Camera preview frames for the QR decoding tests: synthetic NV21 frames of a QR plaque
+ * in a cluttered, noisy scene, or frames captured on a device and stored as raw NV21 files
+ * named like "frame_640x480_01.nv21".
+ */
+final class QrTestFrames {
+
+    static final int WIDTH = 640;
+    static final int HEIGHT = 480;
+
+    private static final Pattern SIZE = Pattern.compile("(\\d+)x(\\d+)");
+
+    // One preview frame and the code it shows, if any
+    static final class Frame {
+        final byte[] data;
+        final int width;
+        final int height;
+        final String text;
+
+        Frame(byte[] data, int width, int height, String text) {
+            this.data = data;
+            this.width = width;
+            this.height = height;
+            this.text = text;
+        }
+    }
+
+    private QrTestFrames() {
+    }
+
+    // Frame with a QR code of the text; moduleSize stands for distance, the offset for aim
+    static Frame withCode(String text, int moduleSize, int offsetX, int offsetY, long seed) {
+        byte[] frame = background(WIDTH, HEIGHT, seed);
+        BitMatrix code = encode(text);
+        int quiet = 2 * moduleSize; // White plaque margin around the code
+        int side = code.getWidth() * moduleSize + 2 * quiet;
+        int left = (WIDTH - side) / 2 + offsetX;
+        int top = (HEIGHT - side) / 2 + offsetY;
+        for (int y = 0; y < side; y++) {
+            for (int x = 0; x < side; x++) {
+                int px = left + x;
+                int py = top + y;
+                if (px < 0 || py < 0 || px >= WIDTH || py >= HEIGHT) {
+                    continue;
+                }
+                int mx = (x - quiet) / moduleSize;
+                int my = (y - quiet) / moduleSize;
+                boolean dark = x >= quiet && y >= quiet && mx < code.getWidth() && my < code.getHeight() && code.get(mx, my);
+                frame[py * WIDTH + px] = (byte) (dark ? 40 : 215);
+            }
+        }
+        blurAndNoise(frame, WIDTH, HEIGHT, seed);
+        return new Frame(frame, WIDTH, HEIGHT, text);
+    }
+
+    // Frame with no code in it, as seen while the visitor moves between plaques
+    static Frame withoutCode(long seed) {
+        byte[] frame = background(WIDTH, HEIGHT, seed);
+        blurAndNoise(frame, WIDTH, HEIGHT, seed);
+        return new Frame(frame, WIDTH, HEIGHT, null);
+    }
+
+    // A replay set like a visitor's scan session: approach, hold, move on
+    static List<Frame> session() {
+        List<Frame> frames = new ArrayList<>();
+        String[] codes = {"{\"ID\":\"P07\"}", "{\"ID\":\"S01\"}", "{\"ID\":\"G01\"}"};
+        long seed = 1;
+        for (String code : codes) {
+            for (int i = 0; i < 3; i++) {
+                frames.add(withoutCode(seed++));
+            }
+            for (int moduleSize = 3; moduleSize <= 8; moduleSize++) {
+                frames.add(withCode(code, moduleSize, (int) (seed % 21) - 10, (int) (seed % 13) - 6, seed++));
+            }
+        }
+        return frames;
+    }
+
+    // Raw NV21 frames stored in a directory; the frame size is taken from each file name
+    static List<Frame> load(File dir) throws IOException {
+        List<Frame> frames = new ArrayList<>();
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return frames;
+        }
+        List<File> sorted = new ArrayList<>();
+        Collections.addAll(sorted, files);
+        Collections.sort(sorted);
+        for (File file : sorted) {
+            Matcher m = SIZE.matcher(file.getName());
+            if (file.getName().endsWith(".nv21") && m.find()) {
+                frames.add(new Frame(Files.readAllBytes(file.toPath()),
+                        Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)), null));
+            }
+        }
+        return frames;
+    }
+
+    private static BitMatrix encode(String text) {
+        Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+        hints.put(EncodeHintType.MARGIN, 0);
+        try {
+            return new QRCodeWriter().encode(text, BarcodeFormat.QR_CODE, 0, 0, hints);
+        } catch (WriterException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    // Gallery wall: a lighting gradient with dark frames and text-like specks, plus neutral chroma
+    private static byte[] background(int width, int height, long seed) {
+        Random random = new Random(seed);
+        byte[] frame = new byte[width * height * 3 / 2];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                frame[y * width + x] = (byte) (90 + 60 * x / width + 30 * y / height);
+            }
+        }
+        for (int i = 0; i < 12; i++) {
+            int w = 20 + random.nextInt(120);
+            int h = 20 + random.nextInt(120);
+            int left = random.nextInt(width - w);
+            int top = random.nextInt(height - h);
+            int shade = random.nextInt(256);
+            for (int y = top; y < top + h; y++) {
+                for (int x = left; x < left + w; x++) {
+                    if (y == top || y == top + h - 1 || x == left || x == left + w - 1 || random.nextInt(9) == 0) {
+                        frame[y * width + x] = (byte) shade;
+                    }
+                }
+            }
+        }
+        for (int i = width * height; i < frame.length; i++) {
+            frame[i] = (byte) 128;
+        }
+        return frame;
+    }
+
+    // Slight defocus (3x3 box blur) and sensor noise on the luminance plane
+    private static void blurAndNoise(byte[] frame, int width, int height, long seed) {
+        Random random = new Random(seed * 31 + 7);
+        byte[] source = new byte[width * height];
+        System.arraycopy(frame, 0, source, 0, source.length);
+        for (int y = 1; y < height - 1; y++) {
+            for (int x = 1; x < width - 1; x++) {
+                int sum = 0;
+                for (int dy = -1; dy <= 1; dy++) {
+                    for (int dx = -1; dx <= 1; dx++) {
+                        sum += source[(y + dy) * width + x + dx] & 0xFF;
+                    }
+                }
+                int value = sum / 9 + (int) (random.nextGaussian() * 8);
+                frame[y * width + x] = (byte) Math.max(0, Math.min(255, value));
+            }
+        }
+    }
+}
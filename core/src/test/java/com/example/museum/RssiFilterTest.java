@@ -0,0 +1,101 @@
+package com.example.museum;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for per-slot RSSI smoothing: convergence, outlier rejection and slot reuse.
+ */
+public class RssiFilterTest {
+
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    public void firstSampleIsTakenAsIs() {
+        RssiFilter filter = new RssiFilter(4);
+        assertFalse(filter.hasEstimate(0));
+        assertTrue(Double.isNaN(filter.estimate(0)));
+        assertEquals(-70, filter.update(0, -70), EPSILON);
+        assertTrue(filter.hasEstimate(0));
+    }
+
+    @Test
+    public void convergesToASteadySignal() {
+        RssiFilter filter = new RssiFilter(4);
+        filter.update(0, -66);
+        for (int i = 0; i < 40; i++) {
+            // Noise of +-2 dB around -60, inside the outlier band so every sample is accepted
+            filter.update(0, i % 2 == 0 ? -58 : -62);
+        }
+        assertEquals(-60, filter.estimate(0), 1.0);
+    }
+
+    @Test
+    public void singleOutlierIsReplacedByTheMedian() {
+        RssiFilter filter = new RssiFilter(4);
+        for (int i = 0; i < RssiFilter.WINDOW; i++) {
+            filter.update(0, -65);
+        }
+        // A body-blocking dip of 25 dB is treated as the window median, so nothing moves
+        assertEquals(-65, filter.update(0, -90), EPSILON);
+        assertEquals(-65, filter.update(0, -40), EPSILON);
+    }
+
+    @Test
+    public void sampleWithinTheBandIsAccepted() {
+        RssiFilter filter = new RssiFilter(4);
+        for (int i = 0; i < RssiFilter.WINDOW; i++) {
+            filter.update(0, -65);
+        }
+        double expected = -65 + RssiFilter.ALPHA * RssiFilter.OUTLIER_DB;
+        assertEquals(expected, filter.update(0, -65 + RssiFilter.OUTLIER_DB), EPSILON);
+    }
+
+    @Test
+    public void sustainedChangeIsFollowed() {
+        RssiFilter filter = new RssiFilter(4);
+        for (int i = 0; i < RssiFilter.WINDOW; i++) {
+            filter.update(0, -80);
+        }
+        // The visitor walks up to the beacon: once the window holds the new level it is no outlier
+        for (int i = 0; i < 30; i++) {
+            filter.update(0, -55);
+        }
+        assertEquals(-55, filter.estimate(0), 0.5);
+    }
+
+    @Test
+    public void invalidSampleLeavesTheEstimate() {
+        RssiFilter filter = new RssiFilter(4);
+        filter.update(0, -70);
+        assertEquals(-70, filter.update(0, Short.MIN_VALUE), EPSILON);
+        assertTrue(Double.isNaN(filter.update(1, Short.MIN_VALUE)));
+        assertFalse(filter.hasEstimate(1));
+    }
+
+    @Test
+    public void resetAfterAGapStartsFromTheNextSample() {
+        RssiFilter filter = new RssiFilter(4);
+        for (int i = 0; i < RssiFilter.WINDOW; i++) {
+            filter.update(0, -85);
+        }
+        // The beacon went stale and the slot is reset before reuse; old samples must not pull
+        // the new reading back or mark it as an outlier
+        filter.reset(0);
+        assertFalse(filter.hasEstimate(0));
+        assertEquals(-50, filter.update(0, -50), EPSILON);
+        assertEquals(-50, filter.update(0, -50), EPSILON);
+    }
+
+    @Test
+    public void slotsAreIndependent() {
+        RssiFilter filter = new RssiFilter(4);
+        filter.update(0, -60);
+        filter.update(3, -90);
+        filter.reset(3);
+        assertEquals(-60, filter.estimate(0), EPSILON);
+        assertFalse(filter.hasEstimate(3));
+        assertEquals(4, filter.capacity());
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.museum;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the scan window choices made by ScanPolicy.
+ */
+public class ScanPolicyTest {
+
+    private static final long NOW = 100000;
+
+    @Test
+    public void stillVisitorGetsLowDutyBalancedScan() {
+        ScanPolicy.Window window = ScanPolicy.next(NOW, -1, 0, 80, false);
+        assertFalse(window.isLowLatency());
+        assertTrue(window.getDutyCycle() <= 0.25);
+    }
+
+    @Test
+    public void recentMotionGetsLowLatencyScan() {
+        ScanPolicy.Window window = ScanPolicy.next(NOW, NOW - 1000, 0, 80, false);
+        assertTrue(window.isLowLatency());
+        assertTrue(window.getDutyCycle() > ScanPolicy.next(NOW, -1, 0, 80, false).getDutyCycle());
+    }
+
+    @Test
+    public void motionExpiresAfterHoldTime() {
+        ScanPolicy.Window window = ScanPolicy.next(NOW, NOW - ScanPolicy.MOTION_HOLD_MS, 0, 80, false);
+        assertFalse(window.isLowLatency());
+    }
+
+    @Test
+    public void beaconChurnRaisesDutyWhileStill() {
+        ScanPolicy.Window still = ScanPolicy.next(NOW, -1, 0, 80, false);
+        ScanPolicy.Window churn = ScanPolicy.next(NOW, -1, ScanPolicy.HIGH_CHURN, 80, false);
+        assertTrue(churn.getDutyCycle() > still.getDutyCycle());
+    }
+
+    @Test
+    public void lowBatteryLengthensIdle() {
+        ScanPolicy.Window normal = ScanPolicy.next(NOW, NOW, 0, 80, false);
+        ScanPolicy.Window low = ScanPolicy.next(NOW, NOW, 0, ScanPolicy.LOW_BATTERY_PERCENT, false);
+        assertTrue(low.getIdleMillis() > normal.getIdleMillis());
+        assertFalse(low.isLowLatency());
+    }
+
+    @Test
+    public void chargingScansContinuously() {
+        ScanPolicy.Window window = ScanPolicy.next(NOW, -1, 0, 5, true);
+        assertEquals(0, window.getIdleMillis());
+        assertEquals(1.0, window.getDutyCycle(), 0.0);
+    }
+
+    @Test
+    public void everyCycleRespectsScanStartThrottle() {
+        long[] motions = {-1, NOW};
+        int[] churns = {0, ScanPolicy.HIGH_CHURN};
+        int[] batteries = {-1, 5, 80};
+        for (long motion : motions) {
+            for (int churn : churns) {
+                for (int battery : batteries) {
+                    ScanPolicy.Window window = ScanPolicy.next(NOW, motion, churn, battery, false);
+                    assertTrue(window.toString(), window.getScanMillis() + window.getIdleMillis() >= ScanPolicy.MIN_CYCLE_MS);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.museum;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the short "MUS:ID/version" plaque QR payload.
+ */
+public class ShortQrPayloadTest {
+
+    @Test
+    public void roundTripsIdAndVersion() {
+        ShortQrPayload payload = ShortQrPayload.parse(new ShortQrPayload("P07", 3).toString());
+        assertEquals("P07", payload.getId());
+        assertEquals(3, payload.getVersion());
+        assertEquals("MUS:P07/3", payload.toString());
+    }
+
+    @Test
+    public void versionIsOptional() {
+        ShortQrPayload payload = ShortQrPayload.parse("MUS:GALLERY-2.A");
+        assertEquals("GALLERY-2.A", payload.getId());
+        assertEquals(0, payload.getVersion());
+    }
+
+    @Test
+    public void inlineJsonIsNotShortPayload() {
+        assertNull(ShortQrPayload.parse("{\"ID\":\"P07\"}"));
+        assertNull(ShortQrPayload.parse(null));
+    }
+
+    @Test
+    public void malformedShortPayloadsAreRejected() {
+        assertNull(ShortQrPayload.parse("MUS:"));
+        assertNull(ShortQrPayload.parse("MUS:p07/1"));
+        assertNull(ShortQrPayload.parse("MUS:P07/"));
+        assertNull(ShortQrPayload.parse("MUS:P07/1a"));
+        assertNull(ShortQrPayload.parse("MUS:P 07/1"));
+        assertNull(ShortQrPayload.parse("MUS:P07/12345678901"));
+    }
+
+    @Test
+    public void onlyAlphanumericModeIdsAreValid() {
+        assertTrue(ShortQrPayload.isValidId("P07"));
+        assertTrue(ShortQrPayload.isValidId("ROOM-3.CASE-12"));
+        assertFalse(ShortQrPayload.isValidId("p07"));
+        assertFalse(ShortQrPayload.isValidId("P07/2"));
+        assertFalse(ShortQrPayload.isValidId(""));
+        assertFalse(ShortQrPayload.isValidId("ABCDEFGHIJKLMNOPQRSTU"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidIdCannotBeEncoded() {
+        new ShortQrPayload("Portrait 7", 1);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.museum;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for SpatialGrid radius queries, checked against a brute-force scan.
+ */
+public class SpatialGridTest {
+
+    @Test
+    public void radiusQueryMatchesBruteForce() {
+        Random random = new Random(7);
+        List<BeaconLocation> beacons = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            beacons.add(new BeaconLocation("B" + i, random.nextDouble() * 120 - 20, random.nextDouble() * 60));
+        }
+        SpatialGrid grid = new SpatialGrid(beacons, 10);
+
+        for (int q = 0; q < 200; q++) {
+            double x = random.nextDouble() * 160 - 40;
+            double y = random.nextDouble() * 100 - 20;
+            double radius = random.nextDouble() * 30;
+
+            List<BeaconLocation> found = new ArrayList<>();
+            grid.findWithin(x, y, radius, found);
+
+            Set<String> expected = new HashSet<>();
+            for (BeaconLocation beacon : beacons) {
+                if (Math.hypot(beacon.getX() - x, beacon.getY() - y) <= radius) {
+                    expected.add(beacon.getAddress());
+                }
+            }
+            Set<String> actual = new HashSet<>();
+            for (BeaconLocation beacon : found) {
+                actual.add(beacon.getAddress());
+            }
+            assertEquals(expected, actual);
+            assertEquals(found.size(), actual.size());
+        }
+    }
+
+    @Test
+    public void emptyGridFindsNothing() {
+        List<BeaconLocation> found = new ArrayList<>();
+        new SpatialGrid(new ArrayList<BeaconLocation>(), 5).findWithin(0, 0, 100, found);
+        assertTrue(found.isEmpty());
+    }
+}
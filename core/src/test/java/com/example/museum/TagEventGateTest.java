@@ -0,0 +1,125 @@
+package com.example.museum;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for coalescing repeated tag events by UID in TagEventGate.
+ */
+public class TagEventGateTest {
+
+    private static final byte[] UID_A = {0x04, 0x12, 0x34, 0x56, 0x78, (byte) 0x9A, (byte) 0xBC};
+    private static final byte[] UID_B = {0x04, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06};
+
+    @Test
+    public void firstEventIsHandled() {
+        TagEventGate gate = new TagEventGate(1000);
+        assertTrue(gate.tryAcquire(UID_A, 0));
+        assertEquals(1, gate.getAccepted());
+        assertEquals(0, gate.getSuppressed());
+    }
+
+    @Test
+    public void eventWhileInFlightIsSuppressed() {
+        TagEventGate gate = new TagEventGate(1000);
+        assertTrue(gate.tryAcquire(UID_A, 0));
+        assertFalse(gate.tryAcquire(UID_A, 5000));
+        assertEquals(1, gate.getSuppressedInFlight());
+        assertEquals(0, gate.getSuppressedRepeats());
+    }
+
+    @Test
+    public void repeatWithinWindowIsSuppressed() {
+        TagEventGate gate = new TagEventGate(1000);
+        assertTrue(gate.tryAcquire(UID_A, 0));
+        gate.release(UID_A);
+        assertFalse(gate.tryAcquire(UID_A, 400));
+        assertEquals(1, gate.getSuppressedRepeats());
+    }
+
+    @Test
+    public void heldTagStaysCoalescedUntilRemoved() {
+        TagEventGate gate = new TagEventGate(1000);
+        assertTrue(gate.tryAcquire(UID_A, 0));
+        gate.release(UID_A);
+        // Repeats every 800 ms keep restarting the window
+        assertFalse(gate.tryAcquire(UID_A, 800));
+        assertFalse(gate.tryAcquire(UID_A, 1600));
+        assertFalse(gate.tryAcquire(UID_A, 2400));
+        // Taken away and presented again
+        assertTrue(gate.tryAcquire(UID_A, 3500));
+        assertEquals(3, gate.getSuppressedRepeats());
+    }
+
+    @Test
+    public void differentTagsDoNotInterfere() {
+        TagEventGate gate = new TagEventGate(1000);
+        assertTrue(gate.tryAcquire(UID_A, 0));
+        assertTrue(gate.tryAcquire(UID_B, 10));
+    }
+
+    @Test
+    public void forgottenTagIsHandledAtOnce() {
+        TagEventGate gate = new TagEventGate(1000);
+        assertTrue(gate.tryAcquire(UID_A, 0));
+        gate.release(UID_A);
+        gate.forget(UID_A);
+        assertTrue(gate.tryAcquire(UID_A, 10));
+    }
+
+    @Test
+    public void stuckWorkStopsBlockingEventually() {
+        TagEventGate gate = new TagEventGate(1000);
+        assertTrue(gate.tryAcquire(UID_A, 0));
+        assertTrue(gate.tryAcquire(UID_A, TagEventGate.MAX_IN_FLIGHT_MS + 2000));
+    }
+
+    @Test
+    public void uidIsCopied() {
+        TagEventGate gate = new TagEventGate(1000);
+        byte[] uid = UID_A.clone();
+        assertTrue(gate.tryAcquire(uid, 0));
+        uid[0] = 0x08;
+        assertFalse(gate.tryAcquire(UID_A, 10));
+    }
+
+    @Test
+    public void manyTagsArePruned() {
+        TagEventGate gate = new TagEventGate(1000);
+        for (int i = 0; i < 100; i++) {
+            byte[] uid = {0x04, (byte) i};
+            assertTrue(gate.tryAcquire(uid, i * 2000L));
+            gate.release(uid);
+            assertTrue("Tracked " + gate.size() + " UIDs", gate.size() <= TagEventGate.PRUNE_THRESHOLD);
+        }
+        assertEquals(100, gate.getAccepted());
+    }
+
+    @Test
+    public void recentTagsAreNotPruned() {
+        TagEventGate gate = new TagEventGate(1000);
+        for (int i = 0; i < 100; i++) {
+            byte[] uid = {0x04, (byte) i};
+            assertTrue(gate.tryAcquire(uid, i));
+            gate.release(uid);
+        }
+        // All seen within the window, so all are still coalescing repeats
+        assertEquals(100, gate.size());
+        assertFalse(gate.tryAcquire(new byte[]{0x04, 0}, 200));
+    }
+
+    @Test
+    public void unreleasedTagsArePrunedAfterTheInFlightLimit() {
+        TagEventGate gate = new TagEventGate(1000);
+        for (int i = 0; i < TagEventGate.PRUNE_THRESHOLD; i++) {
+            assertTrue(gate.tryAcquire(new byte[]{0x05, (byte) i}, 0));
+        }
+        // Still in flight: nothing can be dropped yet
+        assertTrue(gate.tryAcquire(UID_A, 2000));
+        assertEquals(TagEventGate.PRUNE_THRESHOLD + 1, gate.size());
+        // Abandoned work stops counting as in flight, and its entries go with the next prune
+        assertTrue(gate.tryAcquire(UID_B, TagEventGate.MAX_IN_FLIGHT_MS + 1000));
+        assertEquals(2, gate.size());
+    }
+}
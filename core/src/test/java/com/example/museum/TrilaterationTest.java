@@ -0,0 +1,43 @@
+package com.example.museum;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the weighted least-squares Trilateration solver.
+ */
+public class TrilaterationTest {
+
+    @Test
+    public void recoversExactPositionFromNoiselessRanges() {
+        double[] xs = {0, 10, 0, 10};
+        double[] ys = {0, 0, 10, 10};
+        double[] ds = new double[4];
+        double px = 3.0, py = 7.5;
+        for (int i = 0; i < 4; i++) {
+            ds[i] = Math.hypot(px - xs[i], py - ys[i]);
+        }
+        double[] out = new double[3];
+        assertTrue(Trilateration.solve(xs, ys, ds, 4, out));
+        assertEquals(px, out[0], 1e-3);
+        assertEquals(py, out[1], 1e-3);
+        assertEquals(0, out[2], 1e-3);
+    }
+
+    @Test
+    public void fallsBackToWeightedCentroidWithTwoBeacons() {
+        double[] xs = {0, 10};
+        double[] ys = {0, 0};
+        double[] ds = {1, 1};
+        double[] out = new double[3];
+        assertTrue(Trilateration.solve(xs, ys, ds, 2, out));
+        assertEquals(5, out[0], 1e-9);
+        assertEquals(0, out[1], 1e-9);
+    }
+
+    @Test
+    public void rejectsEmptyInput() {
+        assertFalse(Trilateration.solve(new double[0], new double[0], new double[0], 0, new double[3]));
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.museum;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for locating the NDEF message in Type 2 tag memory with Type2NdefParser.
+ */
+public class Type2NdefParserTest {
+
+    // Data area bytes from the given unsigned values
+    private static byte[] bytes(int... values) {
+        byte[] out = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            out[i] = (byte) values[i];
+        }
+        return out;
+    }
+
+    @Test
+    public void readsDataAreaSizeFromCapabilityContainer() {
+        // NTAG213: 144 byte data area
+        assertEquals(144, Type2NdefParser.dataAreaSize(bytes(0xE1, 0x10, 0x12, 0x00), 0));
+    }
+
+    @Test
+    public void rejectsUnformattedCapabilityContainer() {
+        assertEquals(-1, Type2NdefParser.dataAreaSize(bytes(0x00, 0x00, 0x00, 0x00), 0));
+        assertEquals(-1, Type2NdefParser.dataAreaSize(bytes(0xE1, 0x10), 0));
+    }
+
+    @Test
+    public void locatesShortNdefTlv() {
+        byte[] data = bytes(0x03, 0x03, 0xD0, 0x00, 0x00, 0xFE);
+        Type2NdefParser.Location location = Type2NdefParser.locate(data, data.length);
+        assertEquals(2, location.getOffset());
+        assertEquals(3, location.getLength());
+        assertArrayEquals(bytes(0xD0, 0x00, 0x00), Type2NdefParser.extract(data, location));
+    }
+
+    @Test
+    public void locatesLongNdefTlv() {
+        Type2NdefParser.Location location = Type2NdefParser.locate(bytes(0x03, 0xFF, 0x01, 0x2C), 4);
+        assertEquals(4, location.getOffset());
+        assertEquals(300, location.getLength());
+        assertEquals(304, location.getEnd());
+    }
+
+    @Test
+    public void skipsNullLockAndMemoryControlTlvs() {
+        byte[] data = bytes(0x00, 0x01, 0x03, 0xA0, 0x0C, 0x34, 0x02, 0x03, 0x00, 0x00, 0x00, 0x03, 0x00, 0xFE);
+        Type2NdefParser.Location location = Type2NdefParser.locate(data, data.length);
+        assertEquals(13, location.getOffset());
+        assertEquals(0, location.getLength());
+    }
+
+    @Test
+    public void asksForMoreBytesWhenHeaderIsCut() {
+        byte[] data = bytes(0x01, 0x03, 0xA0, 0x0C, 0x34, 0x03, 0xFF, 0x01, 0x00);
+        assertNull(Type2NdefParser.locate(data, 5));
+        assertNull(Type2NdefParser.locate(data, 6));
+        assertNull(Type2NdefParser.locate(data, 8));
+        assertEquals(256, Type2NdefParser.locate(data, 9).getLength());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void terminatorBeforeNdefMeansNoMessage() {
+        Type2NdefParser.locate(bytes(0x00, 0xFE, 0x03, 0x00), 4);
+    }
+}
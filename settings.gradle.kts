@@ -15,4 +15,6 @@ dependencyResolutionManagement {
 
 rootProject.name = "Museum"
 include(":app")
+include(":core")
+include(":tools")
  
\ No newline at end of file
@@ -0,0 +1,23 @@
+plugins {
+    id("application")
+}
+
+// Workstation tools run when plaques are printed or content packs are built; they use :core
+// but never ship in the app
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+dependencies {
+    implementation(project(":core"))
+    // :core only compiles against org.json, which Android provides; the JVM needs its own copy
+    implementation("org.json:json:20231013")
+}
+
+// ./gradlew :tools:run --args="exhibits.csv [contentVersion]"  (QrPlaqueTool)
+// ./gradlew :tools:run -Ptool=ContentPackTool --args="exhibits.csv thumbnails/ 5 content-5.pack"
+application {
+    mainClass.set(providers.gradleProperty("tool").map { "com.example.museum.$it" }
+            .orElse("com.example.museum.QrPlaqueTool"))
+}
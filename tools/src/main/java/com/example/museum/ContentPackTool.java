@@ -0,0 +1,93 @@
+package com.example.museum;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * ContentPackTool is the command line front end of ContentPackBuilder, run on a workstation
+ * when exhibit content changes:
+ *
+ *     ./gradlew :tools:run -Ptool=ContentPackTool --args="exhibits.csv thumbnails/ 5 content-5.pack [content-4.pack content-4-5.delta]"
+ *
+ * The manifest is the CSV or JSON format read by ProvisioningManifest. Thumbnails are taken
+ * from the directory as "&lt;ID&gt;.webp", ".jpg" or ".png". Given the previous pack, unchanged
+ * exhibits keep their content version and a PackDelta from the previous pack is written too.
+ */
+public final class ContentPackTool {
+
+    private static final String[] THUMBNAIL_EXTENSIONS = {".webp", ".jpg", ".png"};
+
+    private ContentPackTool() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 4 && args.length != 6) {
+            System.err.println("Usage: ContentPackTool <manifest> <thumbnailDir> <packVersion> <out.pack> [<previous.pack> <out.delta>]");
+            System.exit(2);
+        }
+        File thumbnailDir = new File(args[1]);
+        int packVersion = Integer.parseInt(args[2]);
+        ContentPack previous = args.length == 6 ? ContentPack.open(new File(args[4])) : null;
+
+        String manifest = new String(readFile(new File(args[0])), StandardCharsets.UTF_8);
+        ContentPackBuilder builder = new ContentPackBuilder(packVersion);
+        int changed = 0;
+        List<Exhibit> exhibits = ProvisioningManifest.parse(manifest);
+        for (Exhibit exhibit : exhibits) {
+            byte[] thumbnail = readThumbnail(thumbnailDir, exhibit.getId());
+            int version = ContentPackBuilder.contentVersion(exhibit, thumbnail, previous, packVersion);
+            if (version == packVersion) {
+                changed++;
+            }
+            builder.add(exhibit, version, thumbnail);
+        }
+        byte[] pack = builder.build();
+        writeFile(new File(args[3]), pack);
+        System.out.println("Wrote " + args[3] + ": " + exhibits.size() + " exhibits (" + changed + " changed), " + pack.length + " bytes");
+
+        if (previous != null) {
+            byte[] delta = PackDelta.create(previous.buffer(), ByteBuffer.wrap(pack), previous.getPackVersion(), packVersion);
+            writeFile(new File(args[5]), delta);
+            System.out.println("Wrote " + args[5] + ": " + delta.length + " bytes");
+        }
+    }
+
+    private static byte[] readThumbnail(File dir, String id) throws IOException {
+        for (String extension : THUMBNAIL_EXTENSIONS) {
+            File file = new File(dir, id + extension);
+            if (file.isFile()) {
+                return readFile(file);
+            }
+        }
+        return null;
+    }
+
+    private static byte[] readFile(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private static void writeFile(File file, byte[] content) throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(content);
+        }
+    }
+}
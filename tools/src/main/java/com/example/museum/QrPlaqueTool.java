@@ -0,0 +1,51 @@
+package com.example.museum;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Author: Dharmik Parthiv Chhatbar
+ * Year: Spring 2024
+ *
+ * QrPlaqueTool is the command line front end of QrPlaqueGenerator, run on a workstation when
+ * plaques are printed:
+ *
+ *     ./gradlew :tools:run --args="exhibits.csv [contentVersion]"
+ *
+ * It reads a CSV or JSON manifest (the formats ProvisioningManifest accepts), plans a plaque
+ * code for every exhibit and writes the CSV report to standard output.
+ */
+public final class QrPlaqueTool {
+
+    private QrPlaqueTool() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: QrPlaqueTool <manifest.csv|manifest.json> [contentVersion]");
+            System.exit(2);
+        }
+        int contentVersion = args.length > 1 ? Integer.parseInt(args[1]) : QrPlaqueGenerator.DEFAULT_CONTENT_VERSION;
+        String content;
+        try (InputStream in = new FileInputStream(args[0])) {
+            content = new String(readFully(in), StandardCharsets.UTF_8);
+        }
+        List<QrPlaqueGenerator.Plaque> plaques = QrPlaqueGenerator.planAll(ProvisioningManifest.parse(content), contentVersion);
+        QrPlaqueGenerator.writeReport(plaques, System.out);
+        System.out.flush();
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}